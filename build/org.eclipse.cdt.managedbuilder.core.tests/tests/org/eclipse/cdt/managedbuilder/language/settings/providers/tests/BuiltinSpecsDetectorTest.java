@@ -45,6 +45,7 @@ import org.eclipse.cdt.internal.core.XmlUtil;
 import org.eclipse.cdt.internal.core.envvar.EnvironmentVariableManager;
 import org.eclipse.cdt.internal.core.envvar.UserDefinedEnvironmentSupplier;
 import org.eclipse.cdt.internal.core.settings.model.CProjectDescriptionManager;
+import org.eclipse.cdt.managedbuilder.internal.language.settings.providers.BuiltinSpecsCache;
 import org.eclipse.cdt.managedbuilder.language.settings.providers.AbstractBuiltinSpecsDetector;
 import org.eclipse.cdt.utils.envvar.StorableEnvironment;
 import org.eclipse.core.resources.IProject;
@@ -217,6 +218,26 @@ public class BuiltinSpecsDetectorTest extends BaseTestCase {
 		}
 	}
 
+	/**
+	 * Mock built-in specs detector sharing its results in the workspace-wide cache.
+	 */
+	private class MockCachingBuiltinSpecsDetector extends MockConsoleBuiltinSpecsDetector {
+		private int runCount = 0;
+
+		@Override
+		protected int runProgramForLanguage(String languageId, String command, String[] envp, URI workingDirectoryURI, OutputStream consoleOut, OutputStream consoleErr, IProgressMonitor monitor) throws CoreException, IOException {
+			runCount++;
+			return super.runProgramForLanguage(languageId, command, envp, workingDirectoryURI, consoleOut, consoleErr, monitor);
+		}
+		@Override
+		protected boolean isSharedCacheEnabled() {
+			return true;
+		}
+		public int getRunCount() {
+			return runCount;
+		}
+	}
+
 	@Override
 	protected void setUp() throws Exception {
 		super.setUp();
@@ -935,6 +956,84 @@ public class BuiltinSpecsDetectorTest extends BaseTestCase {
 		provider.unregisterListener();
 	}
 
+	/**
+	 * Test that providers running the same compiler share the detected entries.
+	 */
+	public void testAbstractBuiltinSpecsDetector_SharedCache() throws Exception {
+		BuiltinSpecsCache.getDefault().clear();
+
+		// Create test "compiler"
+		IPath folder = ResourceHelper.createWorkspaceFolder(getName());
+		java.io.File compiler = new java.io.File(folder.append("compiler").toOSString());
+		compiler.createNewFile();
+		assertTrue(compiler.exists());
+		String command = '"' + compiler.getAbsolutePath() + '"' + " arg1";
+
+		// Run first provider
+		MockCachingBuiltinSpecsDetector provider1 = new MockCachingBuiltinSpecsDetector();
+		provider1.setLanguageScope(new ArrayList<String>() {{add(LANGUAGE_ID);}});
+		provider1.setCommand(command);
+		provider1.startup(null, null);
+		provider1.runForEachLanguage(null);
+		provider1.shutdown();
+		assertEquals(1, provider1.getRunCount());
+
+		// Second provider takes the entries from the cache
+		MockCachingBuiltinSpecsDetector provider2 = new MockCachingBuiltinSpecsDetector();
+		provider2.setLanguageScope(new ArrayList<String>() {{add(LANGUAGE_ID);}});
+		provider2.setCommand(command);
+		provider2.startup(null, null);
+		provider2.runForEachLanguage(null);
+		provider2.shutdown();
+		assertEquals(0, provider2.getRunCount());
+		ICLanguageSettingEntry expected = new CMacroEntry("MACRO", "VALUE", ICSettingEntry.BUILTIN | ICSettingEntry.READONLY);
+		List<ICLanguageSettingEntry> entries = provider2.getSettingEntries(null, null, LANGUAGE_ID);
+		assertEquals(1, entries.size());
+		assertEquals(expected, entries.get(0));
+
+		// "Upgrade" the "compiler", less than 1 sec might be truncated
+		compiler.setLastModified(compiler.lastModified() + 1000);
+		provider2.startup(null, null);
+		provider2.runForEachLanguage(null);
+		provider2.shutdown();
+		assertEquals(1, provider2.getRunCount());
+
+		BuiltinSpecsCache.getDefault().clear();
+	}
+
+	/**
+	 * Test that clearing a provider evicts its entries from the shared cache.
+	 */
+	public void testAbstractBuiltinSpecsDetector_SharedCacheClear() throws Exception {
+		BuiltinSpecsCache.getDefault().clear();
+
+		// Create test "compiler"
+		IPath folder = ResourceHelper.createWorkspaceFolder(getName());
+		java.io.File compiler = new java.io.File(folder.append("compiler").toOSString());
+		compiler.createNewFile();
+		assertTrue(compiler.exists());
+		String command = '"' + compiler.getAbsolutePath() + '"' + " arg1";
+
+		// Run provider filling the cache
+		MockCachingBuiltinSpecsDetector provider = new MockCachingBuiltinSpecsDetector();
+		provider.setLanguageScope(new ArrayList<String>() {{add(LANGUAGE_ID);}});
+		provider.setCommand(command);
+		provider.startup(null, null);
+		provider.runForEachLanguage(null);
+		provider.shutdown();
+		assertEquals(1, provider.getRunCount());
+
+		// Clearing the provider runs the compiler again
+		provider.clear();
+		provider.startup(null, null);
+		provider.runForEachLanguage(null);
+		provider.shutdown();
+		assertEquals(2, provider.getRunCount());
+		assertEquals(1, provider.getSettingEntries(null, null, LANGUAGE_ID).size());
+
+		BuiltinSpecsCache.getDefault().clear();
+	}
+
 	/**
 	 * Check that entries get grouped by kinds by stock built-in specs detector.
 	 */
@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.cdt.managedbuilder.internal.language.settings.providers;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.cdt.core.settings.model.ICLanguageSettingEntry;
+import org.eclipse.cdt.core.settings.model.ICSettingEntry;
+import org.eclipse.cdt.core.settings.model.util.CDataUtil;
+import org.eclipse.cdt.managedbuilder.core.ManagedBuilderCorePlugin;
+
+/**
+ * Workspace-wide cache of the built-in settings detected by running a compiler. The entries are
+ * keyed by a digest of everything the output of the compiler depends on (see
+ * {@link #computeKey(String...)}), such that providers of different projects and configurations
+ * running the same command share the results. Every entry also records its owner, which
+ * identifies the kind of detector that stored it, such that a detector can evict its results.
+ * The cache is persisted in the state location of the plug-in and therefore survives restarts.
+ */
+public class BuiltinSpecsCache {
+	private static final String CACHE_FILE_NAME = "builtin-specs-cache.txt"; //$NON-NLS-1$
+	private static final String ENCODING = "UTF-8"; //$NON-NLS-1$
+	private static final int MAX_KEYS = 64;
+	private static final int LOCK_COUNT = 32;
+
+	private static final BuiltinSpecsCache INSTANCE = new BuiltinSpecsCache();
+
+	private final LinkedHashMap<String, List<ICLanguageSettingEntry>> cache =
+			new LinkedHashMap<String, List<ICLanguageSettingEntry>>(16, 0.75f, true);
+	private final Map<String, String> owners = new HashMap<String, String>();
+	private final Object[] locks = new Object[LOCK_COUNT];
+	private boolean isLoaded = false;
+
+	private BuiltinSpecsCache() {
+		for (int i = 0; i < locks.length; i++) {
+			locks[i] = new Object();
+		}
+	}
+
+	public static BuiltinSpecsCache getDefault() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Computes a key from the given components, which are expected to describe the compiler,
+	 * its binary, the command line and the environment.
+	 */
+	public static String computeKey(String... components) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+			for (String component : components) {
+				digest.update(String.valueOf(component).getBytes(ENCODING));
+				digest.update((byte) 0);
+			}
+			StringBuilder buf = new StringBuilder();
+			for (byte b : digest.digest()) {
+				buf.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+			}
+			return buf.toString();
+		} catch (NoSuchAlgorithmException e) {
+			ManagedBuilderCorePlugin.log(e);
+		} catch (UnsupportedEncodingException e) {
+			ManagedBuilderCorePlugin.log(e);
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the object to synchronize on while detecting the settings for the given key.
+	 * Detections for the same key are performed one after the other, such that the compiler
+	 * runs only once; detections for different keys can mostly run in parallel. The locks are
+	 * taken from a fixed set, keys sharing a lock are detected one after the other as well.
+	 */
+	public Object getLock(String key) {
+		return locks[(key.hashCode() & Integer.MAX_VALUE) % locks.length];
+	}
+
+	/**
+	 * Returns the cached entries for the key, or {@code null}.
+	 */
+	public synchronized List<ICLanguageSettingEntry> get(String key) {
+		load();
+		return cache.get(key);
+	}
+
+	/**
+	 * Stores the entries for the key on behalf of the given owner and persists the cache.
+	 */
+	public synchronized void put(String key, String owner, List<ICLanguageSettingEntry> entries) {
+		load();
+		cache.put(key, Collections.unmodifiableList(new ArrayList<ICLanguageSettingEntry>(entries)));
+		owners.put(key, owner);
+		for (Iterator<String> it = cache.keySet().iterator(); cache.size() > MAX_KEYS && it.hasNext();) {
+			owners.remove(it.next());
+			it.remove();
+		}
+		save();
+	}
+
+	/**
+	 * Removes the entries stored on behalf of the given owner.
+	 */
+	public synchronized void remove(String owner) {
+		load();
+		boolean isChanged = false;
+		for (Iterator<String> it = cache.keySet().iterator(); it.hasNext();) {
+			String key = it.next();
+			if (owner.equals(owners.get(key))) {
+				owners.remove(key);
+				it.remove();
+				isChanged = true;
+			}
+		}
+		if (isChanged) {
+			save();
+		}
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public synchronized void clear() {
+		cache.clear();
+		owners.clear();
+		isLoaded = true;
+		save();
+	}
+
+	private File getCacheFile() {
+		return ManagedBuilderCorePlugin.getDefault().getStateLocation().append(CACHE_FILE_NAME).toFile();
+	}
+
+	private void load() {
+		if (isLoaded)
+			return;
+		isLoaded = true;
+		File file = getCacheFile();
+		if (!file.exists())
+			return;
+		BufferedReader reader = null;
+		try {
+			reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), ENCODING));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.split("\t", -1); //$NON-NLS-1$
+				if (fields.length != 6)
+					continue;
+				List<ICLanguageSettingEntry> entries = cache.get(fields[0]);
+				if (entries == null) {
+					entries = new ArrayList<ICLanguageSettingEntry>();
+					cache.put(fields[0], entries);
+					owners.put(fields[0], unescape(fields[5]));
+				}
+				int kind = Integer.parseInt(fields[1]);
+				int flags = Integer.parseInt(fields[2]);
+				entries.add((ICLanguageSettingEntry) CDataUtil.createEntry(kind, unescape(fields[3]), unescape(fields[4]), null, flags));
+			}
+			for (Entry<String, List<ICLanguageSettingEntry>> entry : cache.entrySet()) {
+				entry.setValue(Collections.unmodifiableList(entry.getValue()));
+			}
+		} catch (Exception e) {
+			// A corrupt cache is discarded, the settings are detected again.
+			cache.clear();
+			owners.clear();
+			ManagedBuilderCorePlugin.log(e);
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	private void save() {
+		File file = getCacheFile();
+		File tmpFile = new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+		BufferedWriter writer = null;
+		try {
+			writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmpFile), ENCODING));
+			for (Entry<String, List<ICLanguageSettingEntry>> entry : cache.entrySet()) {
+				for (ICLanguageSettingEntry settingEntry : entry.getValue()) {
+					writer.write(entry.getKey());
+					writer.write('\t');
+					writer.write(Integer.toString(settingEntry.getKind()));
+					writer.write('\t');
+					writer.write(Integer.toString(settingEntry.getFlags()));
+					writer.write('\t');
+					writer.write(escape(settingEntry.getName()));
+					writer.write('\t');
+					writer.write(escape(settingEntry.getValue()));
+					writer.write('\t');
+					writer.write(escape(owners.get(entry.getKey())));
+					writer.write('\n');
+				}
+			}
+			writer.close();
+			writer = null;
+			if (!tmpFile.renameTo(file)) {
+				file.delete();
+				if (!tmpFile.renameTo(file)) {
+					ManagedBuilderCorePlugin.log(new IOException("Cannot write " + file)); //$NON-NLS-1$
+				}
+			}
+		} catch (IOException e) {
+			ManagedBuilderCorePlugin.log(e);
+		} finally {
+			if (writer != null) {
+				try {
+					writer.close();
+				} catch (IOException e) {
+				}
+				tmpFile.delete();
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the entries do not depend on the project they were detected for, and can
+	 * therefore be shared.
+	 */
+	public static boolean isShareable(List<ICLanguageSettingEntry> entries) {
+		for (ICLanguageSettingEntry entry : entries) {
+			if ((entry.getFlags() & ICSettingEntry.VALUE_WORKSPACE_PATH) != 0)
+				return false;
+		}
+		return true;
+	}
+
+	private static String escape(String str) {
+		if (str == null)
+			return ""; //$NON-NLS-1$
+		StringBuilder buf = new StringBuilder(str.length());
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			switch (c) {
+			case '\\':
+				buf.append("\\\\"); //$NON-NLS-1$
+				break;
+			case '\t':
+				buf.append("\\t"); //$NON-NLS-1$
+				break;
+			case '\n':
+				buf.append("\\n"); //$NON-NLS-1$
+				break;
+			case '\r':
+				buf.append("\\r"); //$NON-NLS-1$
+				break;
+			default:
+				buf.append(c);
+				break;
+			}
+		}
+		return buf.toString();
+	}
+
+	private static String unescape(String str) {
+		StringBuilder buf = new StringBuilder(str.length());
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			if (c == '\\' && i + 1 < str.length()) {
+				c = str.charAt(++i);
+				switch (c) {
+				case 't':
+					c = '\t';
+					break;
+				case 'n':
+					c = '\n';
+					break;
+				case 'r':
+					c = '\r';
+					break;
+				}
+			}
+			buf.append(c);
+		}
+		return buf.toString();
+	}
+}
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
 
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.CommandLauncher;
@@ -51,6 +52,7 @@ import org.eclipse.cdt.internal.core.XmlUtil;
 import org.eclipse.cdt.internal.core.envvar.EnvironmentVariableManager;
 import org.eclipse.cdt.managedbuilder.core.ManagedBuilderCorePlugin;
 import org.eclipse.cdt.managedbuilder.internal.core.ManagedMakeMessages;
+import org.eclipse.cdt.managedbuilder.internal.language.settings.providers.BuiltinSpecsCache;
 import org.eclipse.cdt.utils.CommandLineUtil;
 import org.eclipse.cdt.utils.PathUtil;
 import org.eclipse.cdt.utils.envvar.IEnvironmentChangeEvent;
@@ -424,24 +426,11 @@ public abstract class AbstractBuiltinSpecsDetector extends AbstractLanguageSetti
 					envHashNew = 31*envHashNew + command.hashCode();
 				}
 
-				String[] cmdArray = CommandLineUtil.argumentsToArray(command);
-				if (cmdArray != null && cmdArray.length > 0) {
-					IPath location = new Path(cmdArray[0]);
-					if (!location.isAbsolute()) {
-						location = PathUtil.findProgramLocation(cmdArray[0], envPathValue);
-					}
-					if (location != null) {
-						java.io.File file = new java.io.File(location.toString());
-						try {
-							// handles symbolic links as java.io.File.getCanonicalPath() resolves symlinks on UNIX
-							file = file.getCanonicalFile();
-						} catch (IOException e) {
-							ManagedBuilderCorePlugin.log(e);
-						}
-						long lastModified = file.lastModified();
-						envHashNew = 31*envHashNew + location.hashCode();
-						envHashNew = 31*envHashNew + lastModified;
-					}
+				IPath location = findCompilerLocation(command, envPathValue);
+				if (location != null) {
+					long lastModified = getCanonicalFile(location).lastModified();
+					envHashNew = 31*envHashNew + location.hashCode();
+					envHashNew = 31*envHashNew + lastModified;
 				}
 			} catch (CoreException e) {
 				ManagedBuilderCorePlugin.log(e);
@@ -450,6 +439,73 @@ public abstract class AbstractBuiltinSpecsDetector extends AbstractLanguageSetti
 		return envHashNew;
 	}
 
+	/**
+	 * Find location of the compiler program which is the first argument of the command.
+	 */
+	private static IPath findCompilerLocation(String command, String envPathValue) {
+		String[] cmdArray = CommandLineUtil.argumentsToArray(command);
+		if (cmdArray != null && cmdArray.length > 0) {
+			IPath location = new Path(cmdArray[0]);
+			if (!location.isAbsolute()) {
+				location = PathUtil.findProgramLocation(cmdArray[0], envPathValue);
+			}
+			return location;
+		}
+		return null;
+	}
+
+	private static java.io.File getCanonicalFile(IPath location) {
+		java.io.File file = new java.io.File(location.toString());
+		try {
+			// handles symbolic links as java.io.File.getCanonicalPath() resolves symlinks on UNIX
+			file = file.getCanonicalFile();
+		} catch (IOException e) {
+			ManagedBuilderCorePlugin.log(e);
+		}
+		return file;
+	}
+
+	/**
+	 * Calculate the key of the shared cache for the current language, see {@link #isSharedCacheEnabled()}.
+	 * The key covers everything the output of the command depends on: the provider, the command,
+	 * the compiler binary and the environment.
+	 *
+	 * @return the key or {@code null} if the results cannot be shared.
+	 */
+	private String calculateSharedCacheKey() {
+		if (currentCommandResolved == null || environmentMap == null) {
+			return null;
+		}
+		IPath location = findCompilerLocation(currentCommandResolved, environmentMap.get(ENV_PATH));
+		if (location == null) {
+			return null;
+		}
+		java.io.File compiler = getCanonicalFile(location);
+		if (!compiler.isFile()) {
+			return null;
+		}
+
+		List<String> components = new ArrayList<String>();
+		components.add(getSharedCacheOwner());
+		components.add(currentLanguageId);
+		components.add(currentCommandResolved);
+		components.add(Boolean.toString(isResolvingPaths()));
+		components.add(compiler.getPath());
+		components.add(Long.toString(compiler.lastModified()));
+		components.add(Long.toString(compiler.length()));
+		for (Entry<String, String> var : new TreeMap<String, String>(environmentMap).entrySet()) {
+			components.add(var.getKey() + '=' + var.getValue());
+		}
+		return BuiltinSpecsCache.computeKey(components.toArray(new String[components.size()]));
+	}
+
+	/**
+	 * Identifies the entries stored in the shared cache by providers of this kind.
+	 */
+	private String getSharedCacheOwner() {
+		return getClass().getName() + '#' + getId();
+	}
+
 	/**
 	 * This method does 2 related things:
 	 * <br>
@@ -472,6 +528,19 @@ public abstract class AbstractBuiltinSpecsDetector extends AbstractLanguageSetti
 		return true;
 	}
 
+	/**
+	 * Whether the results of the detection can be shared with other providers, projects and sessions
+	 * running the same command in the same environment. When enabled the command is run only if
+	 * the workspace-wide cache has no results for the compiler binary, command and environment.
+	 * Providers whose results depend on anything else, e.g. on the project, must not enable the cache.
+	 *
+	 * @return {@code false} by default, subclasses may override.
+	 * @since 8.3
+	 */
+	protected boolean isSharedCacheEnabled() {
+		return false;
+	}
+
 	/**
 	 * Execute provider's command which is expected to print built-in compiler options (specs) to build output.
 	 * The parser will parse output and generate language settings for corresponding resources.
@@ -559,7 +628,25 @@ public abstract class AbstractBuiltinSpecsDetector extends AbstractLanguageSetti
 					List<ICLanguageSettingEntry> oldEntries = getSettingEntries(currentCfgDescription, null, languageId);
 					try {
 						startupForLanguage(languageId);
-						runForLanguage(new SubProgressMonitor(monitor, TICKS_RUN_FOR_ONE_LANGUAGE));
+						String cacheKey = isSharedCacheEnabled() ? calculateSharedCacheKey() : null;
+						if (cacheKey != null) {
+							BuiltinSpecsCache cache = BuiltinSpecsCache.getDefault();
+							// identical detections run one at a time so the compiler is run only once
+							synchronized (cache.getLock(cacheKey)) {
+								List<ICLanguageSettingEntry> cachedEntries = cache.get(cacheKey);
+								if (cachedEntries != null) {
+									detectedSettingEntries.addAll(cachedEntries);
+									monitor.worked(TICKS_RUN_FOR_ONE_LANGUAGE);
+								} else {
+									runForLanguage(new SubProgressMonitor(monitor, TICKS_RUN_FOR_ONE_LANGUAGE));
+									if (!detectedSettingEntries.isEmpty() && BuiltinSpecsCache.isShareable(detectedSettingEntries)) {
+										cache.put(cacheKey, getSharedCacheOwner(), detectedSettingEntries);
+									}
+								}
+							}
+						} else {
+							runForLanguage(new SubProgressMonitor(monitor, TICKS_RUN_FOR_ONE_LANGUAGE));
+						}
 					} catch (Exception e) {
 						IStatus s = new Status(IStatus.ERROR, ManagedBuilderCorePlugin.PLUGIN_ID, IStatus.ERROR, "Error running Builtin Specs Detector", e); //$NON-NLS-1$
 						ManagedBuilderCorePlugin.log(s);
@@ -931,6 +1018,8 @@ public abstract class AbstractBuiltinSpecsDetector extends AbstractLanguageSetti
 	public void clear() {
 		super.clear();
 		isExecuted = false;
+		// let the next run execute the compiler rather than taking the shared results
+		BuiltinSpecsCache.getDefault().remove(getSharedCacheOwner());
 	}
 
 	@Override
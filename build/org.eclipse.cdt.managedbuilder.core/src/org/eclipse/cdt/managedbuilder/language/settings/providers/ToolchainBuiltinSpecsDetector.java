@@ -204,4 +204,14 @@ public abstract class ToolchainBuiltinSpecsDetector extends AbstractBuiltinSpecs
 
 		return vars;
 	}
+
+	/**
+	 * The results depend only on the tool-chain command, its options and the environment,
+	 * so they are shared between projects using the same compiler.
+	 * @since 8.3
+	 */
+	@Override
+	protected boolean isSharedCacheEnabled() {
+		return true;
+	}
 }
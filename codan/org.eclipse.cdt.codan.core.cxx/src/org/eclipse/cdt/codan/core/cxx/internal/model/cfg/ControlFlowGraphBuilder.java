@@ -531,15 +531,23 @@ public class ControlFlowGraphBuilder {
 
 	private boolean isConstant(IDecisionNode node, long testvalue) {
 		if (node instanceof ICfgData) {
-			IASTNode ast = (IASTNode) ((ICfgData) node).getData();
-			if (ast instanceof IASTExpression) {
-				IValue dvalue = Value.create((IASTExpression) ast, 5);
-				Long numericalValue = dvalue.numericalValue();
-				if (numericalValue == null)
-					return false;
-				return numericalValue == testvalue;
-			}
+			Long numericalValue = getConstantValue((IASTNode) ((ICfgData) node).getData());
+			if (numericalValue == null)
+				return false;
+			return numericalValue == testvalue;
 		}
 		return false;
 	}
+
+	/**
+	 * Returns the value of the condition of a decision node, if it is a constant expression. The
+	 * value may depend on macros, the branches of the decision node depend on it.
+	 */
+	static Long getConstantValue(IASTNode condition) {
+		if (condition instanceof IASTExpression) {
+			IValue dvalue = Value.create((IASTExpression) condition, 5);
+			return dvalue.numericalValue();
+		}
+		return null;
+	}
 }
@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.codan.core.cxx.internal.model.cfg;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.cdt.codan.core.model.cfg.IBasicBlock;
+import org.eclipse.cdt.codan.core.model.cfg.ICfgData;
+import org.eclipse.cdt.codan.core.model.cfg.IConnectorNode;
+import org.eclipse.cdt.codan.core.model.cfg.IExitNode;
+import org.eclipse.cdt.codan.core.model.cfg.IStartNode;
+import org.eclipse.cdt.codan.internal.core.cfg.AbstractBasicBlock;
+import org.eclipse.cdt.codan.internal.core.cfg.BranchNode;
+import org.eclipse.cdt.codan.internal.core.cfg.ConnectorNode;
+import org.eclipse.cdt.codan.internal.core.cfg.DecisionNode;
+import org.eclipse.cdt.codan.internal.core.cfg.ExitNode;
+import org.eclipse.cdt.codan.internal.core.cfg.JumpNode;
+import org.eclipse.cdt.core.dom.ast.ASTGenericVisitor;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTNode;
+import org.eclipse.core.resources.IFile;
+
+/**
+ * Keeps the control flow graphs of the functions of recently checked files across checker runs.
+ * The graphs are stored as templates that do not reference the AST they were built from, the data
+ * of a node is replaced by the position of the AST node within the function definition. When a
+ * function with the same source is checked again, the template is copied and bound to the new AST,
+ * such that only the graphs of functions that were edited need to be rebuilt.
+ */
+public class ControlFlowGraphCache {
+	private static final int MAX_FILES = 8;
+	private static final ControlFlowGraphCache INSTANCE = new ControlFlowGraphCache();
+
+	/**
+	 * A control flow graph detached from its AST.
+	 */
+	public static final class Template {
+		private final CxxControlFlowGraph graph;
+		private final int astNodeCount;
+		/** The values of the conditions of the decision nodes, keyed by the position of the condition. */
+		private final Map<Integer, Long> conditionValues;
+
+		private Template(CxxControlFlowGraph graph, int astNodeCount, Map<Integer, Long> conditionValues) {
+			this.graph = graph;
+			this.astNodeCount = astNodeCount;
+			this.conditionValues = conditionValues;
+		}
+
+		/**
+		 * Creates a control flow graph for the given function definition, which must have the same
+		 * source as the one the template was created for. Returns <code>null</code> if the AST of
+		 * the function does not match the template, e.g. because a macro was changed. Conditions
+		 * that are constant expressions are evaluated again, since macros used in them may have
+		 * changed the branches that are dead.
+		 */
+		public CxxControlFlowGraph instantiate(IASTFunctionDefinition func) {
+			final List<IASTNode> astNodes = collectNodes(func);
+			if (astNodes.size() != astNodeCount)
+				return null;
+			for (IBasicBlock node : graph.getNodeList()) {
+				Object data = ((ICfgData) node).getData();
+				if (data != null) {
+					NodeReference ref = (NodeReference) data;
+					if (astNodes.get(ref.index).getClass() != ref.type)
+						return null;
+				}
+			}
+			for (Map.Entry<Integer, Long> entry : conditionValues.entrySet()) {
+				Long value = ControlFlowGraphBuilder.getConstantValue(astNodes.get(entry.getKey()));
+				Long oldValue = entry.getValue();
+				if (value == null ? oldValue != null : !value.equals(oldValue))
+					return null;
+			}
+			return copy(graph, new DataMapper() {
+				@Override
+				Object map(Object data) {
+					return data == null ? null : astNodes.get(((NodeReference) data).index);
+				}
+			});
+		}
+	}
+
+	private static final class NodeReference {
+		final int index;
+		final Class<?> type;
+
+		NodeReference(int index, Class<?> type) {
+			this.index = index;
+			this.type = type;
+		}
+	}
+
+	private static abstract class DataMapper {
+		abstract Object map(Object data);
+	}
+
+	/** Templates of the functions of a file, keyed by the source of the function definition. */
+	private final LinkedHashMap<IFile, Map<String, Template>> files =
+			new LinkedHashMap<IFile, Map<String, Template>>(16, 0.75f, true);
+
+	public static ControlFlowGraphCache getDefault() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns the templates stored for the given file, keyed by the source of the function
+	 * definitions.
+	 */
+	public synchronized Map<String, Template> getTemplates(IFile file) {
+		Map<String, Template> templates = files.get(file);
+		if (templates == null)
+			return Collections.emptyMap();
+		return templates;
+	}
+
+	/**
+	 * Replaces the templates stored for the given file.
+	 */
+	public synchronized void putTemplates(IFile file, Map<String, Template> templates) {
+		if (templates.isEmpty()) {
+			files.remove(file);
+			return;
+		}
+		files.put(file, Collections.unmodifiableMap(templates));
+		for (Iterator<IFile> it = files.keySet().iterator(); files.size() > MAX_FILES && it.hasNext();) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	public synchronized void clear() {
+		files.clear();
+	}
+
+	/**
+	 * Creates a template for a graph built for the given function definition and computes
+	 * the analyses of the graph, see {@link CxxControlFlowGraph#computeAnalyses()}. Returns
+	 * <code>null</code> if the graph cannot be detached from the AST.
+	 */
+	public static Template createTemplate(CxxControlFlowGraph graph, IASTFunctionDefinition func) {
+		graph.computeAnalyses();
+		List<IASTNode> astNodes = collectNodes(func);
+		final Map<Object, NodeReference> refs = new IdentityHashMap<Object, NodeReference>(astNodes.size());
+		for (int i = 0; i < astNodes.size(); i++) {
+			IASTNode astNode = astNodes.get(i);
+			refs.put(astNode, new NodeReference(i, astNode.getClass()));
+		}
+		Map<Integer, Long> conditionValues = new HashMap<Integer, Long>();
+		for (IBasicBlock node : graph.getNodeList()) {
+			Object data = ((ICfgData) node).getData();
+			if (data != null && !refs.containsKey(data))
+				return null;
+			if (node instanceof DecisionNode && data != null) {
+				conditionValues.put(refs.get(data).index,
+						ControlFlowGraphBuilder.getConstantValue((IASTNode) data));
+			}
+		}
+		CxxControlFlowGraph copy = copy(graph, new DataMapper() {
+			@Override
+			Object map(Object data) {
+				return data == null ? null : refs.get(data);
+			}
+		});
+		return copy == null ? null : new Template(copy, astNodes.size(), conditionValues);
+	}
+
+	private static List<IASTNode> collectNodes(IASTFunctionDefinition func) {
+		final List<IASTNode> result = new ArrayList<IASTNode>();
+		func.accept(new ASTGenericVisitor(true) {
+			@Override
+			protected int genericVisit(IASTNode node) {
+				result.add(node);
+				return PROCESS_CONTINUE;
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Copies the graph, mapping the data of each node. Returns <code>null</code> if the graph
+	 * contains nodes that cannot be copied.
+	 */
+	private static CxxControlFlowGraph copy(CxxControlFlowGraph graph, DataMapper mapper) {
+		List<IBasicBlock> nodes = graph.getNodeList();
+		Map<IBasicBlock, IBasicBlock> copies = new IdentityHashMap<IBasicBlock, IBasicBlock>(nodes.size());
+		CxxNodeFactory factory = new CxxNodeFactory();
+		for (IBasicBlock node : nodes) {
+			IBasicBlock copy = createNode(factory, node);
+			if (copy == null)
+				return null;
+			((ICfgData) copy).setData(mapper.map(((ICfgData) node).getData()));
+			copies.put(node, copy);
+		}
+		for (IBasicBlock node : nodes) {
+			AbstractBasicBlock copy = (AbstractBasicBlock) copies.get(node);
+			if (node instanceof JumpNode) {
+				((JumpNode) copy).setBackward(((JumpNode) node).isBackwardArc());
+			}
+			for (IBasicBlock outgoing : node.getOutgoingNodes()) {
+				if (outgoing != null) {
+					if (!copies.containsKey(outgoing))
+						return null;
+					copy.addOutgoing(copies.get(outgoing));
+				}
+			}
+			for (IBasicBlock incoming : node.getIncomingNodes()) {
+				if (incoming != null) {
+					if (!copies.containsKey(incoming))
+						return null;
+					copy.addIncoming(copies.get(incoming));
+				}
+			}
+			if (node instanceof DecisionNode) {
+				((DecisionNode) copy).setMergeNode((IConnectorNode) copies.get(((DecisionNode) node).getMergeNode()));
+			} else if (node instanceof ExitNode) {
+				((ExitNode) copy).setStartNode((IStartNode) copies.get(((ExitNode) node).getStartNode()));
+			}
+		}
+
+		List<IExitNode> exits = new ArrayList<IExitNode>(graph.getExitNodeSize());
+		for (Iterator<IExitNode> it = graph.getExitNodeIterator(); it.hasNext();) {
+			exits.add((IExitNode) copies.get(it.next()));
+		}
+		List<IBasicBlock> dead = new ArrayList<IBasicBlock>(graph.getUnconnectedNodeSize());
+		for (Iterator<IBasicBlock> it = graph.getUnconnectedNodeIterator(); it.hasNext();) {
+			dead.add(copies.get(it.next()));
+		}
+		CxxControlFlowGraph result = new CxxControlFlowGraph((IStartNode) copies.get(graph.getStartNode()), exits);
+		result.setUnconnectedNodes(dead);
+		result.copyAnalysesFrom(graph);
+		return result;
+	}
+
+	private static IBasicBlock createNode(CxxNodeFactory factory, IBasicBlock node) {
+		Class<?> type = node.getClass();
+		if (type == CxxStartNode.class)
+			return new CxxStartNode();
+		if (type == CxxPlainNode.class)
+			return factory.createPlainNode();
+		if (type == CxxDecisionNode.class)
+			return factory.createDecisionNode();
+		if (type == CxxExitNode.class)
+			return factory.createExitNode();
+		if (type == BranchNode.class)
+			return factory.createBranchNode(((BranchNode) node).getLabel());
+		if (type == ConnectorNode.class)
+			return factory.createConnectorNode();
+		if (type == JumpNode.class)
+			return factory.createJumpNode();
+		return null;
+	}
+}
@@ -14,6 +14,7 @@ package org.eclipse.cdt.codan.core.cxx.model;
 import org.eclipse.cdt.codan.core.cxx.Activator;
 import org.eclipse.cdt.codan.core.model.AbstractCheckerWithProblemPreferences;
 import org.eclipse.cdt.codan.core.model.ICheckerInvocationContext;
+import org.eclipse.cdt.codan.core.model.IModelPreparingChecker;
 import org.eclipse.cdt.codan.core.model.IProblem;
 import org.eclipse.cdt.codan.core.model.IProblemLocation;
 import org.eclipse.cdt.codan.core.model.IProblemLocationFactory;
@@ -41,7 +42,7 @@ import org.eclipse.core.runtime.OperationCanceledException;
  * Clients may extend this class.
  */
 public abstract class AbstractIndexAstChecker extends AbstractCheckerWithProblemPreferences
-		implements ICAstChecker, IRunnableInEditorChecker {
+		implements ICAstChecker, IRunnableInEditorChecker, IModelPreparingChecker {
 	private CxxModelsCache modelCache;
 
 	@Override
@@ -55,19 +56,45 @@ public abstract class AbstractIndexAstChecker extends AbstractCheckerWithProblem
 		return false;
 	}
 
-	private void processFile(IFile file) throws OperationCanceledException {
-		ICheckerInvocationContext context = getContext();
+	/**
+	 * Builds the AST shared by the checkers, without holding the lock of this checker.
+	 */
+	@Override
+	public void prepareModels(IResource resource, ICheckerInvocationContext context)
+			throws OperationCanceledException {
+		if (!(resource instanceof IFile) || !shouldProduceProblems(resource))
+			return;
+		CxxModelsCache cache = getModelCache((IFile) resource, context);
+		if (cache == null)
+			return;
+		try {
+			if (cache.getIndex().isFullyInitialized()) {
+				cache.getAST();
+			}
+		} catch (CoreException e) {
+			Activator.log(e);
+		}
+	}
+
+	private static CxxModelsCache getModelCache(IFile file, ICheckerInvocationContext context) {
 		synchronized (context) {
-			modelCache = context.get(CxxModelsCache.class);
-			if (modelCache == null) {
+			CxxModelsCache cache = context.get(CxxModelsCache.class);
+			if (cache == null) {
 				ICElement celement = CoreModel.getDefault().create(file);
 				if (!(celement instanceof ITranslationUnit)) {
-					return;
+					return null;
 				}
-				modelCache = new CxxModelsCache((ITranslationUnit) celement);
-				context.add(modelCache);
+				cache = new CxxModelsCache((ITranslationUnit) celement);
+				context.add(cache);
 			}
+			return cache;
 		}
+	}
+
+	private void processFile(IFile file) throws OperationCanceledException {
+		modelCache = getModelCache(file, getContext());
+		if (modelCache == null)
+			return;
 
 		try {
 			// Run the checker only if the index is fully initialized. Otherwise it may produce
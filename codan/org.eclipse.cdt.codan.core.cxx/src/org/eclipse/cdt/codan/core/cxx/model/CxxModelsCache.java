@@ -11,9 +11,12 @@
  *******************************************************************************/
 package org.eclipse.cdt.codan.core.cxx.model;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.WeakHashMap;
 
 import org.eclipse.cdt.codan.core.cxx.internal.model.CodanCommentMap;
+import org.eclipse.cdt.codan.core.cxx.internal.model.cfg.ControlFlowGraphCache;
 import org.eclipse.cdt.codan.core.cxx.internal.model.cfg.CxxControlFlowGraph;
 import org.eclipse.cdt.codan.core.model.ICodanDisposable;
 import org.eclipse.cdt.codan.core.model.cfg.IControlFlowGraph;
@@ -44,6 +47,10 @@ public class CxxModelsCache implements ICodanDisposable {
 	private IASTTranslationUnit ast;
 	private IIndex index;
 	private final WeakHashMap<IASTFunctionDefinition, IControlFlowGraph> cfgmap;
+	// Control flow graphs of the previous run on the file, and the ones used during this run.
+	private Map<String, ControlFlowGraphCache.Template> cfgTemplates;
+	private final Map<String, ControlFlowGraphCache.Template> usedCfgTemplates =
+			new HashMap<String, ControlFlowGraphCache.Template>();
 	private ICodanCommentMap commentMap;
 	private boolean disposed;
 
@@ -62,7 +69,7 @@ public class CxxModelsCache implements ICodanDisposable {
 		return getAST(tu);
 	}
 
-	public IASTTranslationUnit getAST(ITranslationUnit tu)
+	public synchronized IASTTranslationUnit getAST(ITranslationUnit tu)
 			throws OperationCanceledException, CoreException {
 		if (!this.tu.equals(tu)) {
 			throw new IllegalArgumentException();
@@ -86,7 +93,7 @@ public class CxxModelsCache implements ICodanDisposable {
 		IControlFlowGraph cfg = cfgmap.get(func);
 		if (cfg != null)
 			return cfg;
-		cfg = CxxControlFlowGraph.build(func);
+		cfg = buildControlFlowGraph(func);
 		// TODO(Alena Laskavaia): Change to LRU.
 		if (cfgmap.size() > 20) { // if too many function better drop the cache
 			cfgmap.clear();
@@ -95,6 +102,27 @@ public class CxxModelsCache implements ICodanDisposable {
 		return cfg;
 	}
 
+	/**
+	 * Builds the graph for the function, or copies it from the previous run on the file
+	 * if the function has not been changed since.
+	 */
+	private IControlFlowGraph buildControlFlowGraph(IASTFunctionDefinition func) {
+		if (file == null)
+			return CxxControlFlowGraph.build(func);
+		if (cfgTemplates == null)
+			cfgTemplates = ControlFlowGraphCache.getDefault().getTemplates(file);
+		String key = func.getRawSignature();
+		ControlFlowGraphCache.Template template = cfgTemplates.get(key);
+		CxxControlFlowGraph cfg = template != null ? template.instantiate(func) : null;
+		if (cfg == null) {
+			cfg = CxxControlFlowGraph.build(func);
+			template = ControlFlowGraphCache.createTemplate(cfg, func);
+		}
+		if (template != null)
+			usedCfgTemplates.put(key, template);
+		return cfg;
+	}
+
 	public synchronized ICodanCommentMap getCommentedNodeMap() {
 		return getCommentedNodeMap(tu);
 	}
@@ -140,6 +168,10 @@ public class CxxModelsCache implements ICodanDisposable {
 	public void dispose() {
         Assert.isTrue(!disposed, "CxxASTCache.dispose() called more than once."); //$NON-NLS-1$
 		disposed = true;
+		if (cfgTemplates != null) {
+			// Graphs of functions that were changed or removed are dropped.
+			ControlFlowGraphCache.getDefault().putTemplates(file, usedCfgTemplates);
+		}
 		if (index != null) {
 			index.releaseReadLock();
 		}
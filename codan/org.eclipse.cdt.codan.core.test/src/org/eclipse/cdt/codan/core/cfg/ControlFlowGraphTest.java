@@ -14,9 +14,12 @@ import java.util.Collection;
 import java.util.Iterator;
 
 import org.eclipse.cdt.codan.core.cxx.internal.model.cfg.ControlFlowGraphBuilder;
+import org.eclipse.cdt.codan.core.cxx.internal.model.cfg.ControlFlowGraphCache;
+import org.eclipse.cdt.codan.core.cxx.internal.model.cfg.CxxControlFlowGraph;
 import org.eclipse.cdt.codan.core.model.IChecker;
 import org.eclipse.cdt.codan.core.model.cfg.IBasicBlock;
 import org.eclipse.cdt.codan.core.model.cfg.IBranchNode;
+import org.eclipse.cdt.codan.core.model.cfg.ICfgData;
 import org.eclipse.cdt.codan.core.model.cfg.IConnectorNode;
 import org.eclipse.cdt.codan.core.model.cfg.IDecisionNode;
 import org.eclipse.cdt.codan.core.model.cfg.IExitNode;
@@ -29,6 +32,7 @@ import org.eclipse.cdt.codan.internal.core.cfg.AbstractBasicBlock;
 import org.eclipse.cdt.codan.internal.core.cfg.ControlFlowGraph;
 import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
 import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTNode;
 import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
 import org.eclipse.cdt.core.dom.ast.c.CASTVisitor;
 import org.eclipse.cdt.core.parser.ParserLanguage;
@@ -38,6 +42,7 @@ import org.eclipse.cdt.core.parser.ParserLanguage;
  */
 public class ControlFlowGraphTest extends CodanFastCxxAstTestCase {
 	ControlFlowGraph graph;
+	IASTFunctionDefinition func;
 
 	/**
 	 * @param ast
@@ -51,7 +56,8 @@ public class ControlFlowGraphTest extends CodanFastCxxAstTestCase {
 			@Override
 			public int visit(IASTDeclaration decl) {
 				if (decl instanceof IASTFunctionDefinition) {
-					graph = new ControlFlowGraphBuilder().build((IASTFunctionDefinition) decl);
+					func = (IASTFunctionDefinition) decl;
+					graph = new ControlFlowGraphBuilder().build(func);
 					return PROCESS_ABORT;
 				}
 				return PROCESS_CONTINUE;
@@ -508,4 +514,98 @@ public class ControlFlowGraphTest extends CodanFastCxxAstTestCase {
 		assertSame(conn, jumpEnd(bThen));
 		assertEquals("", data(((IConnectorNode) m2).getOutgoing())); // increment
 	}
+
+	//	 main() {
+	//	   int a=10;
+	//	   if (a--) {
+	//	      return;
+	//	      a++;
+	//	   }
+	//	   a++;
+	//	 }
+	public void test_dominators() {
+		buildCfg(getAboveComment(), false);
+		IStartNode startNode = graph.getStartNode();
+		IPlainNode decl = (IPlainNode) startNode.getOutgoing();
+		IDecisionNode des = (IDecisionNode) decl.getOutgoing();
+		IExitNode bThen = (IExitNode) branchEnd(des, IBranchNode.THEN);
+		IBasicBlock dead = graph.getUnconnectedNodeIterator().next();
+		IBasicBlock merge = des.getMergeNode();
+		assertTrue(graph.isReachable(bThen));
+		assertFalse(graph.isDead(bThen));
+		assertTrue(graph.isDead(dead));
+		assertFalse(graph.isReachable(dead));
+		assertSame(decl, graph.getImmediateDominator(des));
+		assertSame(startNode, graph.getImmediateDominator(decl));
+		assertNull(graph.getImmediateDominator(startNode));
+		assertNull(graph.getImmediateDominator(dead));
+		assertTrue(graph.dominates(des, merge));
+		assertTrue(graph.dominates(des, des));
+		assertFalse(graph.dominates(bThen, merge));
+		assertFalse(graph.dominates(startNode, dead));
+	}
+
+	//	 main() {
+	//	   int a=10;
+	//	   while (a--) {
+	//	      if (a == 5)
+	//	         break;
+	//	      a=a-2;
+	//	   }
+	//	   return a;
+	//	 }
+	public void test_template() {
+		String code = getAboveComment();
+		buildCfg(code, false);
+		ControlFlowGraphCache.Template template =
+				ControlFlowGraphCache.createTemplate((CxxControlFlowGraph) graph, func);
+		assertNotNull(template);
+		ControlFlowGraph original = graph;
+
+		buildCfg(code, false);
+		ControlFlowGraph copy = template.instantiate(func);
+		assertNotNull(copy);
+		assertEquals(original.getNodeList().size(), copy.getNodeList().size());
+		assertEquals(original.getExitNodeSize(), copy.getExitNodeSize());
+		assertEquals(original.getUnconnectedNodeSize(), copy.getUnconnectedNodeSize());
+		for (int i = 0; i < original.getNodeList().size(); i++) {
+			IBasicBlock o = original.getNodeList().get(i);
+			IBasicBlock c = copy.getNodeList().get(i);
+			assertSame(o.getClass(), c.getClass());
+			assertEquals(data(o), data(c));
+			assertEquals(o.getOutgoingSize(), c.getOutgoingSize());
+			assertEquals(original.isReachable(o), copy.isReachable(c));
+			Object astNode = ((ICfgData) c).getData();
+			if (astNode != null) {
+				assertSame(tu, ((IASTNode) astNode).getTranslationUnit());
+			}
+		}
+		graph = copy;
+		checkCfg(false);
+	}
+
+	//	 main() {
+	//	   int a=10;
+	//	   if (FLAG) {
+	//	      a++;
+	//	   } else {
+	//	      a--;
+	//	   }
+	//	   return a;
+	//	 }
+	public void test_templateWithChangedMacro() {
+		String code = getAboveComment();
+		buildCfg("#define FLAG 1\n" + code, false); //$NON-NLS-1$
+		assertTrue(graph.getUnconnectedNodeSize() > 0);
+		ControlFlowGraphCache.Template template =
+				ControlFlowGraphCache.createTemplate((CxxControlFlowGraph) graph, func);
+		assertNotNull(template);
+
+		// The source of the function is the same, the dead branch is different.
+		buildCfg("#define FLAG 0\n" + code, false); //$NON-NLS-1$
+		assertNull(template.instantiate(func));
+
+		buildCfg("#define FLAG 1\n" + code, false); //$NON-NLS-1$
+		assertNotNull(template.instantiate(func));
+	}
 }
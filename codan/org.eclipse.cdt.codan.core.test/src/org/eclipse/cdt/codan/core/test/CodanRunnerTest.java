@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.codan.core.test;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.cdt.codan.core.model.CheckerLaunchMode;
+import org.eclipse.cdt.codan.core.model.IProblemReporter;
+import org.eclipse.cdt.codan.internal.checkers.StatementHasNoEffectChecker;
+import org.eclipse.cdt.codan.internal.core.CodanRunner;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+/**
+ * Tests for running the checkers on the files of a project concurrently.
+ */
+public class CodanRunnerTest extends CheckerTestCase {
+	private static final String CODE = "main() {\n int a;\n +a;\n}\n"; //$NON-NLS-1$
+
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		enableProblems(StatementHasNoEffectChecker.ER_ID);
+	}
+
+	private IFile createFile(IProject project, String path) throws CoreException {
+		IFile file = project.getFile(path);
+		file.create(new ByteArrayInputStream(CODE.getBytes()), true, null);
+		return file;
+	}
+
+	private IFile[] createFiles() throws Exception {
+		IProject project = cproject.getProject();
+		IFolder folder = project.getFolder("sub"); //$NON-NLS-1$
+		folder.create(true, true, null);
+		project.getFolder("sub/inner").create(true, true, null); //$NON-NLS-1$
+		IFile[] files = {
+				createFile(project, "a.c"), //$NON-NLS-1$
+				createFile(project, "b.c"), //$NON-NLS-1$
+				createFile(project, "sub/c.c"), //$NON-NLS-1$
+				createFile(project, "sub/d.c"), //$NON-NLS-1$
+				createFile(project, "sub/inner/e.c"), //$NON-NLS-1$
+		};
+		indexFiles();
+		return files;
+	}
+
+	private Map<IResource, Integer> runAndCountMarkers(int threadCount) throws CoreException {
+		IProject project = cproject.getProject();
+		project.deleteMarkers(IProblemReporter.GENERIC_CODE_ANALYSIS_MARKER_TYPE, true, IResource.DEPTH_INFINITE);
+		CodanRunner.processResource(project, CheckerLaunchMode.RUN_ON_FULL_BUILD, threadCount,
+				new NullProgressMonitor());
+		Map<IResource, Integer> counts = new HashMap<IResource, Integer>();
+		for (IMarker marker : project.findMarkers(IProblemReporter.GENERIC_CODE_ANALYSIS_MARKER_TYPE, true,
+				IResource.DEPTH_INFINITE)) {
+			Integer count = counts.get(marker.getResource());
+			counts.put(marker.getResource(), count == null ? 1 : count + 1);
+		}
+		return counts;
+	}
+
+	public void testParallelAnalysisOfFolders() throws Exception {
+		IFile[] files = createFiles();
+		Map<IResource, Integer> parallel = runAndCountMarkers(4);
+		for (IFile file : files) {
+			assertEquals(file.getFullPath().toString(), Integer.valueOf(1), parallel.get(file));
+		}
+		assertEquals(runAndCountMarkers(1), parallel);
+	}
+
+	public void testCanceledParallelAnalysis() throws Exception {
+		createFiles();
+		IProject project = cproject.getProject();
+		project.deleteMarkers(IProblemReporter.GENERIC_CODE_ANALYSIS_MARKER_TYPE, true, IResource.DEPTH_INFINITE);
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		monitor.setCanceled(true);
+		CodanRunner.processResource(project, CheckerLaunchMode.RUN_ON_FULL_BUILD, 4, monitor);
+		assertEquals(0, project.findMarkers(IProblemReporter.GENERIC_CODE_ANALYSIS_MARKER_TYPE, true,
+				IResource.DEPTH_INFINITE).length);
+	}
+}
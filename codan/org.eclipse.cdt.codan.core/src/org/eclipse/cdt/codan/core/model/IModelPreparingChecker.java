@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.codan.core.model;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+/**
+ * An <code>{@link IChecker}</code> that can build the models it works on, e.g. an AST, before
+ * it is invoked. The models are stored in the invocation context, where they are shared by all
+ * checkers processing the resource.
+ * <p>
+ * <strong>EXPERIMENTAL</strong>. This class or interface has been added as part
+ * of a work in progress. There is no guarantee that this API will work or that
+ * it will remain the same.
+ *
+ * @since 3.3
+ */
+public interface IModelPreparingChecker extends IChecker {
+	/**
+	 * Builds the models needed to process the given resource. The method is called without
+	 * holding the lock of the checker, such that the models for different resources can be built
+	 * concurrently. Must not modify the state of the checker.
+	 * @param resource the resource to be checked.
+	 * @param context the context the checker is going to be invoked with.
+	 */
+	public void prepareModels(IResource resource, ICheckerInvocationContext context)
+			throws OperationCanceledException;
+}
@@ -15,7 +15,8 @@ import java.util.Iterator;
 import java.util.Map;
 
 /**
- * Class to collect time states for checkers runs
+ * Class to collect time states for checkers runs. The durations can be reported
+ * from multiple threads, when files are analyzed concurrently.
  */
 public class CheckersTimeStats {
 	public static final String ALL = "ALL"; //$NON-NLS-1$
@@ -39,11 +40,15 @@ public class CheckersTimeStats {
 		}
 
 		public void stop() {
-			count++;
-			duration += System.currentTimeMillis() - current;
+			add(System.currentTimeMillis() - current);
 			current = 0;
 		}
 
+		public void add(long time) {
+			count++;
+			duration += time;
+		}
+
 		/*
 		 * (non-Javadoc)
 		 *
@@ -86,7 +91,7 @@ public class CheckersTimeStats {
 	 * @param id
 	 * @param counter
 	 */
-	public void checkerStart(String id, String counter) {
+	public synchronized void checkerStart(String id, String counter) {
 		TimeRecord record = getTimeRecord(id + ":" + counter); //$NON-NLS-1$
 		record.start();
 	}
@@ -95,7 +100,7 @@ public class CheckersTimeStats {
 	 * @param id
 	 * @param counter
 	 */
-	public void checkerStop(String id, String counter) {
+	public synchronized void checkerStop(String id, String counter) {
 		getTimeRecord(id + ":" + counter).stop(); //$NON-NLS-1$
 	}
 
@@ -106,6 +111,29 @@ public class CheckersTimeStats {
 		checkerStop(id, ELAPSED);
 	}
 
+	/**
+	 * Adds the duration of a run of the checker with the given id. Unlike
+	 * {@link #checkerStart(String)} and {@link #checkerStop(String)} this
+	 * can be used for runs of a checker on different threads.
+	 *
+	 * @param id - checker id
+	 * @param duration - the duration in milliseconds
+	 */
+	public void checkerTime(String id, long duration) {
+		checkerTime(id, ELAPSED, duration);
+	}
+
+	/**
+	 * Adds the duration of a run of the checker with the given id and counter.
+	 *
+	 * @param id
+	 * @param counter
+	 * @param duration - the duration in milliseconds
+	 */
+	public synchronized void checkerTime(String id, String counter, long duration) {
+		getTimeRecord(id + ":" + counter).add(duration); //$NON-NLS-1$
+	}
+
 	/**
 	 *
 	 */
@@ -117,7 +145,7 @@ public class CheckersTimeStats {
 	/**
 	 *
 	 */
-	public void printStats() {
+	public synchronized void printStats() {
 		System.out.println("---"); //$NON-NLS-1$
 		for (Iterator<String> iterator = records.keySet().iterator(); iterator.hasNext();) {
 			String id = iterator.next();
@@ -129,7 +157,7 @@ public class CheckersTimeStats {
 	/**
 	 *
 	 */
-	public void reset() {
+	public synchronized void reset() {
 		records.clear();
 	}
 }
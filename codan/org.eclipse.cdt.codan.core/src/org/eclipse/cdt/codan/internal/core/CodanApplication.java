@@ -15,6 +15,7 @@ import java.util.Collection;
 
 import org.eclipse.cdt.codan.core.CodanRuntime;
 import org.eclipse.cdt.codan.core.model.AbstractProblemReporter;
+import org.eclipse.cdt.codan.core.model.CheckerLaunchMode;
 import org.eclipse.cdt.codan.core.model.ICodanProblemMarker;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -35,6 +36,7 @@ public class CodanApplication implements IApplication {
 	private Collection<String> projects = new ArrayList<String>();
 	private boolean verbose;
 	private boolean all;
+	private int threadCount = CodanRunner.getDefaultThreadCount();
 
 	@Override
 	public Object start(IApplicationContext context) throws Exception {
@@ -44,7 +46,6 @@ public class CodanApplication implements IApplication {
 			return EXIT_OK;
 		}
 		extractArguments(args);
-		CodanBuilder codanBuilder = new CodanBuilder();
 		CodanRuntime runtime = CodanRuntime.getInstance();
 		runtime.setProblemReporter(new AbstractProblemReporter() {
 			@Override
@@ -57,7 +58,8 @@ public class CodanApplication implements IApplication {
 		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
 		if (all) {
 			log(Messages.CodanApplication_LogRunWorkspace);
-			codanBuilder.processResource(root, new NullProgressMonitor());
+			CodanRunner.processResource(root, CheckerLaunchMode.RUN_ON_FULL_BUILD, threadCount,
+					new NullProgressMonitor());
 		} else {
 			for (String project : projects) {
 				log(Messages.CodanApplication_LogRunProject + project);
@@ -67,9 +69,12 @@ public class CodanApplication implements IApplication {
 							NLS.bind(Messages.CodanApplication_Error_ProjectDoesNotExists, project));
 					continue;
 				}
-				codanBuilder.processResource(wProject, new NullProgressMonitor());
+				CodanRunner.processResource(wProject, CheckerLaunchMode.RUN_ON_FULL_BUILD, threadCount,
+						new NullProgressMonitor());
 			}
 		}
+		if (verbose)
+			CheckersTimeStats.getInstance().printStats();
 		return EXIT_OK;
 	}
 
@@ -91,6 +96,12 @@ public class CodanApplication implements IApplication {
 				verbose = true;
 			} else if (string.equals("-all")) { //$NON-NLS-1$
 				all = true;
+			} else if (string.equals("-threads") && i + 1 < args.length) { //$NON-NLS-1$
+				try {
+					threadCount = Math.max(1, Integer.parseInt(args[++i]));
+				} catch (NumberFormatException e) {
+					System.err.println(NLS.bind(Messages.CodanApplication_Error_InvalidThreadCount, args[i]));
+				}
 			} else {
 				projects.add(string);
 			}
@@ -105,6 +116,7 @@ public class CodanApplication implements IApplication {
 		System.out.println(Messages.CodanApplication_Options);
 		System.out.println(Messages.CodanApplication_all_option);
 		System.out.println(Messages.CodanApplication_verbose_option);
+		System.out.println(Messages.CodanApplication_threads_option);
 	}
 
 	@Override
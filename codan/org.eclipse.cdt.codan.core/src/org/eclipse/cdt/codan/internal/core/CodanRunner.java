@@ -11,15 +11,31 @@
  *******************************************************************************/
 package org.eclipse.cdt.codan.internal.core;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.eclipse.cdt.codan.core.CodanCorePlugin;
 import org.eclipse.cdt.codan.core.model.CheckerLaunchMode;
 import org.eclipse.cdt.codan.core.model.IChecker;
 import org.eclipse.cdt.codan.core.model.ICheckerInvocationContext;
+import org.eclipse.cdt.codan.core.model.IModelPreparingChecker;
 import org.eclipse.cdt.codan.core.model.IRunnableInEditorChecker;
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.osgi.util.NLS;
@@ -28,6 +44,12 @@ import org.eclipse.osgi.util.NLS;
  * Collection of methods for running checkers.
  */
 public class CodanRunner {
+	/**
+	 * System property for the number of threads analyzing the files of a container concurrently
+	 * in a full build or when running on demand. The default is 1.
+	 */
+	public static final String THREAD_COUNT_PROPERTY = "org.eclipse.cdt.codan.core.analysisThreads"; //$NON-NLS-1$
+
 	/** Do not instantiate. All methods are static */
 	private CodanRunner() {}
 
@@ -51,7 +73,34 @@ public class CodanRunner {
 	 */
 	public static void processResource(IResource resource, CheckerLaunchMode checkerLaunchMode,
 			IProgressMonitor monitor) {
-		processResource(resource, null, checkerLaunchMode, monitor);
+		processResource(resource, checkerLaunchMode, getDefaultThreadCount(), monitor);
+	}
+
+	/**
+	 * Runs all checkers on a given resource. When running on a container for a full build or
+	 * on demand, the files can be analyzed concurrently.
+	 *
+	 * @param resource - the resource to run the checkers on, either IFile or IContainer
+	 * @param checkerLaunchMode - the checker launch mode.
+	 * @param threadCount - the number of threads analyzing files concurrently
+	 * @param monitor - the progress monitor
+	 */
+	public static void processResource(IResource resource, CheckerLaunchMode checkerLaunchMode,
+			int threadCount, IProgressMonitor monitor) {
+		if (threadCount > 1 && resource instanceof IContainer &&
+				(checkerLaunchMode == CheckerLaunchMode.RUN_ON_FULL_BUILD || checkerLaunchMode == CheckerLaunchMode.RUN_ON_DEMAND)) {
+			processContainerInParallel((IContainer) resource, checkerLaunchMode, threadCount, monitor);
+		} else {
+			processResource(resource, null, checkerLaunchMode, monitor);
+		}
+	}
+
+	/**
+	 * Returns the number of threads for analyzing the files of a container, as specified by
+	 * the system property <code>org.eclipse.cdt.codan.core.analysisThreads</code>.
+	 */
+	public static int getDefaultThreadCount() {
+		return Math.max(1, Integer.getInteger(THREAD_COUNT_PROPERTY, 1));
 	}
 
 	private static void processResource(IResource resource, Object model,
@@ -72,52 +121,173 @@ public class CodanRunner {
 		monitor.beginTask(NLS.bind(Messages.CodanRunner_Code_analysis_on, resource.getFullPath().toString()),
 				checkers * (1 + numChildren * childWeight));
 		try {
-			CheckersTimeStats.getInstance().checkerStart(CheckersTimeStats.ALL);
-			ICheckerInvocationContext context = new CheckerInvocationContext(resource);
-			try {
+			if (!runCheckers(resource, model, checkerLaunchMode, monitor))
+				return;
+
+			if (children != null &&
+					(checkerLaunchMode == CheckerLaunchMode.RUN_ON_FULL_BUILD || checkerLaunchMode == CheckerLaunchMode.RUN_ON_DEMAND)) {
+				for (IResource child : children) {
+					if (monitor.isCanceled())
+						return;
+					processResource(child, null, checkerLaunchMode, new SubProgressMonitor(monitor, childWeight));
+				}
+			}
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Runs the enabled checkers on the given resource, reports one unit of work per checker.
+	 *
+	 * @return <code>false</code> if the operation has been canceled.
+	 */
+	private static boolean runCheckers(IResource resource, Object model,
+			CheckerLaunchMode checkerLaunchMode, IProgressMonitor monitor) {
+		CheckersRegistry chegistry = CheckersRegistry.getInstance();
+		CheckersTimeStats stats = CheckersTimeStats.getInstance();
+		long allStart = System.currentTimeMillis();
+		ICheckerInvocationContext context = new CheckerInvocationContext(resource);
+		try {
+			if (checkerLaunchMode != CheckerLaunchMode.RUN_AS_YOU_TYPE) {
+				// Build the models shared by the checkers without holding the locks of the checkers,
+				// the models of different files can then be built concurrently.
 				for (IChecker checker : chegistry) {
 					try {
 						if (monitor.isCanceled())
-							return;
-						if (chegistry.isCheckerEnabled(checker, resource, checkerLaunchMode)) {
-							synchronized (checker) {
-								try {
-									checker.before(resource);
-									CheckersTimeStats.getInstance().checkerStart(checker.getClass().getName());
-									if (checkerLaunchMode == CheckerLaunchMode.RUN_AS_YOU_TYPE) {
-										((IRunnableInEditorChecker) checker).processModel(model, context);
-									} else {
-										checker.processResource(resource, context);
-									}
-								} finally {
-									CheckersTimeStats.getInstance().checkerStop(checker.getClass().getName());
-									checker.after(resource);
-								}
-							}
+							return false;
+						if (checker instanceof IModelPreparingChecker &&
+								chegistry.isCheckerEnabled(checker, resource, checkerLaunchMode)) {
+							((IModelPreparingChecker) checker).prepareModels(resource, context);
 						}
-						monitor.worked(1);
 					} catch (OperationCanceledException e) {
-						return;
+						return false;
 					} catch (Throwable e) {
 						CodanCorePlugin.log(e);
 					}
 				}
-			} finally {
-				context.dispose();
-				CheckersTimeStats.getInstance().checkerStop(CheckersTimeStats.ALL);
-				//CheckersTimeStats.getInstance().printStats();
 			}
-
-			if (children != null &&
-					(checkerLaunchMode == CheckerLaunchMode.RUN_ON_FULL_BUILD || checkerLaunchMode == CheckerLaunchMode.RUN_ON_DEMAND)) {
-				for (IResource child : children) {
+			for (IChecker checker : chegistry) {
+				try {
 					if (monitor.isCanceled())
+						return false;
+					if (chegistry.isCheckerEnabled(checker, resource, checkerLaunchMode)) {
+						synchronized (checker) {
+							long start = System.currentTimeMillis();
+							try {
+								checker.before(resource);
+								if (checkerLaunchMode == CheckerLaunchMode.RUN_AS_YOU_TYPE) {
+									((IRunnableInEditorChecker) checker).processModel(model, context);
+								} else {
+									checker.processResource(resource, context);
+								}
+							} finally {
+								stats.checkerTime(checker.getClass().getName(), System.currentTimeMillis() - start);
+								checker.after(resource);
+							}
+						}
+					}
+					monitor.worked(1);
+				} catch (OperationCanceledException e) {
+					return false;
+				} catch (Throwable e) {
+					CodanCorePlugin.log(e);
+				}
+			}
+		} finally {
+			context.dispose();
+			stats.checkerTime(CheckersTimeStats.ALL, System.currentTimeMillis() - allStart);
+			//CheckersTimeStats.getInstance().printStats();
+		}
+		return true;
+	}
+
+	/**
+	 * Runs the checkers on the given container and on its members using a pool of threads.
+	 * The resources are analyzed in no particular order, each resource by a single thread.
+	 */
+	private static void processContainerInParallel(IContainer container,
+			final CheckerLaunchMode checkerLaunchMode, int threadCount, final IProgressMonitor monitor) {
+		List<IResource> resources = new ArrayList<IResource>();
+		collectResources(container, resources);
+		monitor.beginTask(NLS.bind(Messages.CodanRunner_Code_analysis_on, container.getFullPath().toString()),
+				resources.size());
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Code Analysis " + count.incrementAndGet()); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		// Progress is reported by this thread, the workers only check for cancellation.
+		final IProgressMonitor workerMonitor = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return monitor.isCanceled();
+			}
+		};
+		Deque<Future<Boolean>> pending = new ArrayDeque<Future<Boolean>>();
+		Iterator<IResource> it = resources.iterator();
+		try {
+			while (true) {
+				// Keep the queue short, the checkers may be canceled at any time.
+				while (pending.size() < 2 * threadCount && it.hasNext()) {
+					final IResource resource = it.next();
+					pending.add(executor.submit(new Callable<Boolean>() {
+						@Override
+						public Boolean call() {
+							return runCheckers(resource, null, checkerLaunchMode, workerMonitor);
+						}
+					}));
+				}
+				Future<Boolean> next = pending.poll();
+				if (next == null || monitor.isCanceled())
+					return;
+				try {
+					if (!next.get())
 						return;
-					processResource(child, null, checkerLaunchMode, new SubProgressMonitor(monitor, childWeight));
+				} catch (ExecutionException e) {
+					CodanCorePlugin.log(e.getCause());
+				} catch (InterruptedException e) {
+					return;
 				}
+				monitor.worked(1);
 			}
 		} finally {
+			for (Future<Boolean> future : pending) {
+				future.cancel(false);
+			}
+			executor.shutdown();
+			try {
+				while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+					// Wait for the running checkers.
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
 			monitor.done();
 		}
 	}
+
+	/**
+	 * Collects the given container and its members, like they are visited by
+	 * {@link #processResource(IResource, Object, CheckerLaunchMode, IProgressMonitor)}.
+	 */
+	private static void collectResources(IContainer container, List<IResource> resources) {
+		resources.add(container);
+		try {
+			for (IResource child : container.members()) {
+				if (child instanceof IContainer) {
+					collectResources((IContainer) child, resources);
+				} else {
+					resources.add(child);
+				}
+			}
+		} catch (CoreException e) {
+			CodanCorePlugin.log(e);
+		}
+	}
 }
@@ -11,11 +11,15 @@
 package org.eclipse.cdt.codan.internal.core.cfg;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.cdt.codan.core.model.cfg.IBasicBlock;
 import org.eclipse.cdt.codan.core.model.cfg.IBranchNode;
@@ -27,13 +31,22 @@ import org.eclipse.cdt.codan.core.model.cfg.ISingleOutgoing;
 import org.eclipse.cdt.codan.core.model.cfg.IStartNode;
 
 /**
- * Implementation of control flow graph
+ * Implementation of control flow graph. In addition to the graph itself, provides reachability
+ * information and a dominator tree, which are computed on first use. The graph must not be
+ * modified once these have been requested.
  */
 public class ControlFlowGraph implements IControlFlowGraph {
 	private List<IExitNode> exitNodes;
 	private List<IBasicBlock> deadNodes = new ArrayList<IBasicBlock>();
 	private IStartNode start;
 
+	// Lazily computed analyses, indexed by the position of a node in the node list.
+	private List<IBasicBlock> nodeList;
+	private Map<IBasicBlock, Integer> nodeIndex;
+	private BitSet reachable;
+	private BitSet dead;
+	private int[] idom;
+
 	public ControlFlowGraph(IStartNode start, Collection<IExitNode> exitNodes) {
 		setExitNodes(exitNodes);
 		this.start = start;
@@ -148,4 +161,247 @@ public class ControlFlowGraph implements IControlFlowGraph {
 			getNodes(b, result);
 		}
 	}
+
+	/**
+	 * Returns all nodes of the graph in a deterministic order: the nodes reachable from the start
+	 * node, the nodes reachable from the roots of dead code, and the merge nodes of decisions that
+	 * are not connected otherwise. Two graphs with the same structure list their nodes in the same
+	 * order.
+	 */
+	public synchronized List<IBasicBlock> getNodeList() {
+		if (nodeList == null) {
+			LinkedHashSet<IBasicBlock> result = new LinkedHashSet<IBasicBlock>();
+			collectNodes(start, result);
+			for (IBasicBlock d : deadNodes) {
+				collectNodes(d, result);
+			}
+			nodeList = Collections.unmodifiableList(new ArrayList<IBasicBlock>(result));
+			nodeIndex = new IdentityHashMap<IBasicBlock, Integer>(nodeList.size());
+			for (int i = 0; i < nodeList.size(); i++) {
+				nodeIndex.put(nodeList.get(i), i);
+			}
+		}
+		return nodeList;
+	}
+
+	private void collectNodes(IBasicBlock node, Collection<IBasicBlock> result) {
+		if (node == null || !result.add(node))
+			return;
+		for (IBasicBlock b : node.getOutgoingNodes()) {
+			collectNodes(b, result);
+		}
+		if (node instanceof IDecisionNode) {
+			collectNodes(((IDecisionNode) node).getMergeNode(), result);
+		}
+	}
+
+	private int indexOf(IBasicBlock node) {
+		getNodeList();
+		Integer index = nodeIndex.get(node);
+		if (index == null)
+			throw new IllegalArgumentException("Node does not belong to the graph"); //$NON-NLS-1$
+		return index;
+	}
+
+	/**
+	 * Returns whether the node can be reached from the start node.
+	 */
+	public synchronized boolean isReachable(IBasicBlock node) {
+		if (reachable == null) {
+			reachable = computeReachable(Collections.<IBasicBlock>singletonList(start));
+		}
+		return reachable.get(indexOf(node));
+	}
+
+	/**
+	 * Returns whether the node belongs to a section of dead code, i.e. whether it can be reached
+	 * from one of the unconnected nodes. Note that a node can both be dead and reachable, when the
+	 * dead code flows into the live code.
+	 */
+	public synchronized boolean isDead(IBasicBlock node) {
+		if (dead == null) {
+			dead = computeReachable(deadNodes);
+		}
+		return dead.get(indexOf(node));
+	}
+
+	/**
+	 * Returns the nodes that belong to sections of dead code, see {@link #isDead(IBasicBlock)}.
+	 */
+	public synchronized Collection<IBasicBlock> getDeadNodes() {
+		List<IBasicBlock> nodes = getNodeList();
+		if (dead == null) {
+			dead = computeReachable(deadNodes);
+		}
+		Collection<IBasicBlock> result = new LinkedHashSet<IBasicBlock>();
+		for (int i = dead.nextSetBit(0); i >= 0; i = dead.nextSetBit(i + 1)) {
+			result.add(nodes.get(i));
+		}
+		return result;
+	}
+
+	private BitSet computeReachable(Collection<? extends IBasicBlock> roots) {
+		BitSet result = new BitSet(getNodeList().size());
+		List<IBasicBlock> worklist = new ArrayList<IBasicBlock>(roots);
+		while (!worklist.isEmpty()) {
+			IBasicBlock node = worklist.remove(worklist.size() - 1);
+			if (node == null)
+				continue;
+			int i = indexOf(node);
+			if (result.get(i))
+				continue;
+			result.set(i);
+			for (IBasicBlock b : node.getOutgoingNodes()) {
+				worklist.add(b);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the immediate dominator of the node, or <code>null</code> for the start node and
+	 * for nodes that cannot be reached from the start node.
+	 */
+	public synchronized IBasicBlock getImmediateDominator(IBasicBlock node) {
+		int i = getImmediateDominator(indexOf(node));
+		return i < 0 ? null : getNodeList().get(i);
+	}
+
+	/**
+	 * Returns whether every path from the start node to <code>node</code> passes through
+	 * <code>dominator</code>. A node dominates itself, a node that cannot be reached from the start
+	 * node is not dominated by any node.
+	 */
+	public synchronized boolean dominates(IBasicBlock dominator, IBasicBlock node) {
+		final int d = indexOf(dominator);
+		int i = indexOf(node);
+		if (!isReachable(node))
+			return false;
+		while (i >= 0) {
+			if (i == d)
+				return true;
+			i = getImmediateDominator(i);
+		}
+		return false;
+	}
+
+	private int getImmediateDominator(int i) {
+		if (idom == null) {
+			idom = computeDominators();
+		}
+		return idom[i];
+	}
+
+	/**
+	 * Computes the immediate dominators using the iterative algorithm by Cooper, Harvey and
+	 * Kennedy, see "A Simple, Fast Dominance Algorithm".
+	 */
+	private int[] computeDominators() {
+		final List<IBasicBlock> nodes = getNodeList();
+		final int size = nodes.size();
+
+		// Post-order numbering of the nodes reachable from the start node.
+		int[] postOrder = new int[size];
+		int[] order = new int[size];
+		int count = 0;
+		BitSet visited = new BitSet(size);
+		List<int[]> stack = new ArrayList<int[]>();
+		stack.add(new int[] { indexOf(start), 0 });
+		visited.set(indexOf(start));
+		while (!stack.isEmpty()) {
+			int[] top = stack.get(stack.size() - 1);
+			IBasicBlock[] outgoing = nodes.get(top[0]).getOutgoingNodes();
+			if (top[1] < outgoing.length) {
+				IBasicBlock next = outgoing[top[1]++];
+				if (next != null) {
+					int n = indexOf(next);
+					if (!visited.get(n)) {
+						visited.set(n);
+						stack.add(new int[] { n, 0 });
+					}
+				}
+			} else {
+				stack.remove(stack.size() - 1);
+				postOrder[top[0]] = count;
+				order[count++] = top[0];
+			}
+		}
+
+		List<List<Integer>> predecessors = new ArrayList<List<Integer>>(size);
+		for (int i = 0; i < size; i++) {
+			predecessors.add(new ArrayList<Integer>(2));
+		}
+		for (int i = visited.nextSetBit(0); i >= 0; i = visited.nextSetBit(i + 1)) {
+			for (IBasicBlock b : nodes.get(i).getOutgoingNodes()) {
+				if (b != null)
+					predecessors.get(indexOf(b)).add(i);
+			}
+		}
+
+		int[] result = new int[size];
+		Arrays.fill(result, -1);
+		final int root = order[count - 1];
+		result[root] = root;
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			// Reverse post-order, skipping the start node.
+			for (int k = count - 2; k >= 0; k--) {
+				final int n = order[k];
+				int newIdom = -1;
+				for (int p : predecessors.get(n)) {
+					if (result[p] < 0)
+						continue;
+					newIdom = newIdom < 0 ? p : intersect(result, postOrder, p, newIdom);
+				}
+				if (result[n] != newIdom) {
+					result[n] = newIdom;
+					changed = true;
+				}
+			}
+		}
+		result[root] = -1;
+		return result;
+	}
+
+	private static int intersect(int[] idom, int[] postOrder, int b1, int b2) {
+		while (b1 != b2) {
+			while (postOrder[b1] < postOrder[b2])
+				b1 = idom[b1];
+			while (postOrder[b2] < postOrder[b1])
+				b2 = idom[b2];
+		}
+		return b1;
+	}
+
+	/**
+	 * Computes the node list, the reachability information and the dominator tree right away.
+	 */
+	public synchronized void computeAnalyses() {
+		isReachable(start);
+		isDead(start);
+		getImmediateDominator(start);
+	}
+
+	/**
+	 * Adopts the analyses already computed for a graph with the same structure, see
+	 * {@link #getNodeList()}.
+	 */
+	public synchronized void copyAnalysesFrom(ControlFlowGraph other) {
+		List<IBasicBlock> otherNodes;
+		BitSet otherReachable, otherDead;
+		int[] otherIdom;
+		synchronized (other) {
+			otherNodes = other.getNodeList();
+			otherReachable = other.reachable;
+			otherDead = other.dead;
+			otherIdom = other.idom;
+		}
+		if (getNodeList().size() != otherNodes.size())
+			throw new IllegalArgumentException("Graphs differ in structure"); //$NON-NLS-1$
+		// The analyses are never modified after they have been computed, they can be shared.
+		reachable = otherReachable;
+		dead = otherDead;
+		idom = otherIdom;
+	}
 }
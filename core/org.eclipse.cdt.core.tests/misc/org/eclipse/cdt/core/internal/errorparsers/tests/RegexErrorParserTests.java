@@ -12,6 +12,7 @@
 package org.eclipse.cdt.core.internal.errorparsers.tests;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
@@ -28,6 +29,7 @@ import org.eclipse.cdt.core.errorparsers.RegexErrorPattern;
 import org.eclipse.cdt.core.testplugin.CTestPlugin;
 import org.eclipse.cdt.core.testplugin.ResourceHelper;
 import org.eclipse.cdt.internal.errorparsers.ErrorParserExtensionManager;
+import org.eclipse.cdt.internal.errorparsers.ErrorParserPrefilter;
 import org.eclipse.cdt.internal.errorparsers.GASErrorParser;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
@@ -744,5 +746,36 @@ public class RegexErrorParserTests extends TestCase {
 		assertEquals(0, errorList.size());
 	}
 
-
+	/**
+	 * Check the literals used to skip regex error parsers that cannot match a line.
+	 *
+	 * @throws Exception...
+	 */
+	public void testPrefilter() throws Exception {
+		assertEquals(": *** ", ErrorParserPrefilter.getRequiredLiteral(".*make.*: \\*\\*\\* .*"));
+		assertEquals("ommand not found", ErrorParserPrefilter.getRequiredLiteral(".*[Cc]ommand not found.*"));
+		assertEquals("Error:", ErrorParserPrefilter.getRequiredLiteral("Error:\\s*(.*)"));
+		assertEquals("cd", ErrorParserPrefilter.getRequiredLiteral("ab?cd"));
+		assertEquals("yz", ErrorParserPrefilter.getRequiredLiteral("x{0,2}yz+w"));
+		assertNull(ErrorParserPrefilter.getRequiredLiteral("(?i)error"));
+		assertNull(ErrorParserPrefilter.getRequiredLiteral("error|warning"));
+		assertNull(ErrorParserPrefilter.getRequiredLiteral("(.*)"));
+
+		RegexErrorParser makeParser = new RegexErrorParser();
+		makeParser.addPattern(new RegexErrorPattern(".*make.*: \\*\\*\\* .*", "", "", "$0", "", IMarkerGenerator.SEVERITY_ERROR_RESOURCE, true));
+		makeParser.addPattern(new RegexErrorPattern("Error:\\s*(.*)", "", "", "$1", "", IMarkerGenerator.SEVERITY_ERROR_RESOURCE, true));
+		RegexErrorParser anyParser = new RegexErrorParser();
+		anyParser.addPattern(new RegexErrorPattern("(.*)", "", "", "$1", "", IMarkerGenerator.SEVERITY_INFO, false));
+		ErrorParserPrefilter prefilter = new ErrorParserPrefilter(Arrays.asList(
+				new IErrorParser[] { makeParser }, new IErrorParser[] { anyParser }));
+
+		prefilter.setLine("make: *** [all] Error 2");
+		assertTrue(prefilter.canMatch(makeParser));
+		assertTrue(prefilter.canMatch(anyParser));
+		prefilter.setLine("Error: no input files");
+		assertTrue(prefilter.canMatch(makeParser));
+		prefilter.setLine("gcc -O2 -c main.c");
+		assertFalse(prefilter.canMatch(makeParser));
+		assertTrue(prefilter.canMatch(anyParser));
+	}
 }
@@ -11,6 +11,8 @@
  *******************************************************************************/
 package org.eclipse.cdt.core.model.tests;
 
+import java.io.ByteArrayInputStream;
+
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
@@ -194,6 +196,72 @@ public class ASTCacheTests extends BaseTestCase {
 		assertEquals(3, counter[0]);
 	}
 
+	public void testInactiveASTs() throws Exception {
+		final ASTCache cache= new ASTCache();
+		final IASTTranslationUnit[] asts= new IASTTranslationUnit[1];
+		cache.setActiveElement(fTU1);
+		cache.runOnAST(fTU1, true, null, new ASTRunnable() {
+			@Override
+			public IStatus runOnAST(ILanguage lang, IASTTranslationUnit ast) throws CoreException {
+				assertNotNull(ast);
+				asts[0]= ast;
+				return Status.OK_STATUS;
+			}
+		});
+
+		// The AST of the previously active element is reused.
+		cache.setActiveElement(fTU2);
+		cache.setActiveElement(fTU1);
+		cache.runOnAST(fTU1, false, null, new ASTRunnable() {
+			@Override
+			public IStatus runOnAST(ILanguage lang, IASTTranslationUnit ast) throws CoreException {
+				assertSame(asts[0], ast);
+				return Status.OK_STATUS;
+			}
+		});
+
+		// A prebuilt AST is available without waiting.
+		cache.prebuildAST(fTU2, null);
+		cache.setActiveElement(fTU2);
+		cache.runOnAST(fTU2, false, null, new ASTRunnable() {
+			@Override
+			public IStatus runOnAST(ILanguage lang, IASTTranslationUnit ast) throws CoreException {
+				assertNotNull(ast);
+				assertEquals("void foo2() {}", ast.getDeclarations()[0].getRawSignature());
+				return Status.OK_STATUS;
+			}
+		});
+
+		// Inactive ASTs are discarded on request.
+		cache.setActiveElement(fTU1);
+		cache.disposeInactiveASTs();
+		cache.setActiveElement(fTU2);
+		cache.runOnAST(fTU2, false, null, new ASTRunnable() {
+			@Override
+			public IStatus runOnAST(ILanguage lang, IASTTranslationUnit ast) throws CoreException {
+				assertNull(ast);
+				return Status.OK_STATUS;
+			}
+		});
+	}
+
+	public void testModifiedFileDiscardsInactiveAST() throws Exception {
+		final ASTCache cache= new ASTCache();
+		cache.setActiveElement(fTU1);
+		cache.prebuildAST(fTU2, null);
+
+		IFile file2= (IFile) fTU2.getResource();
+		file2.setContents(new ByteArrayInputStream("void bar2() {}".getBytes()), true, false, null);
+		cache.setActiveElement(fTU2);
+		cache.runOnAST(fTU2, false, null, new ASTRunnable() {
+			@Override
+			public IStatus runOnAST(ILanguage lang, IASTTranslationUnit ast) throws CoreException {
+				assertNull(ast);
+				return Status.OK_STATUS;
+			}
+		});
+	}
+
 	private void checkAccessWithSequentialReconciler() throws Exception {
 		final ASTCache cache= new ASTCache();
 		final MockReconciler reconciler1= new MockReconciler(fTU1, cache);
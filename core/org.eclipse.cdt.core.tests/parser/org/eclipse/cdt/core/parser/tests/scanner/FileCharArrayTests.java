@@ -23,6 +23,7 @@ import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
 import org.eclipse.cdt.internal.core.parser.scanner.AbstractCharArray;
 import org.eclipse.cdt.internal.core.parser.scanner.FileCharArray;
 import org.eclipse.cdt.internal.core.parser.scanner.LazyCharArray;
+import org.eclipse.cdt.internal.core.parser.scanner.MappedCharArray;
 
 public class FileCharArrayTests extends BaseTestCase {
 	
@@ -84,6 +85,37 @@ public class FileCharArrayTests extends BaseTestCase {
 
 	}
 
+	public void testMappedAscii() throws IOException {
+		final int charSize= LazyCharArray.CHUNK_SIZE*3+1;
+		createFile(true, charSize);
+
+		AbstractCharArray decoded;
+		AbstractCharArray mapped;
+		final FileInputStream inputStream = new FileInputStream(fFile);
+		try {
+			decoded = FileCharArray.create(fFile.getPath(), "utf-8", inputStream);
+			mapped = MappedCharArray.create(inputStream.getChannel(), "utf-8");
+		} finally {
+			inputStream.close();
+		}
+		assertNotNull(mapped);
+		checkContent(mapped, 0, charSize);
+		assertEquals(charSize, mapped.getLength());
+		assertEquals(decoded.getContentsHash(), mapped.getContentsHash());
+	}
+
+	public void testMappedNonAscii() throws IOException {
+		createFile(false, LazyCharArray.CHUNK_SIZE*3);
+
+		final FileInputStream inputStream = new FileInputStream(fFile);
+		try {
+			assertNull(MappedCharArray.create(inputStream.getChannel(), "utf-8"));
+			assertNotNull(MappedCharArray.create(inputStream.getChannel(), "iso-8859-1"));
+		} finally {
+			inputStream.close();
+		}
+	}
+
 	public void checkContent(AbstractCharArray charArray, int from, int to) {
 		for (int i = from; i < to; i++) {
 			assertEquals(i % 127, charArray.get(i));
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.core.parser.tests.scanner;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import junit.framework.TestSuite;
+
+import org.eclipse.cdt.core.parser.FileContent;
+import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
+import org.eclipse.cdt.internal.core.parser.scanner.AbstractCharArray;
+import org.eclipse.cdt.internal.core.parser.scanner.CharArray;
+import org.eclipse.cdt.internal.core.parser.scanner.FileContentCache;
+import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContent;
+
+public class FileContentCacheTests extends BaseTestCase {
+
+	public static TestSuite suite() {
+		return suite(FileContentCacheTests.class);
+	}
+
+	private File fFile;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		FileContentCache.getInstance().clear();
+		fFile= File.createTempFile("cached", ".h");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (fFile != null) {
+			fFile.delete();
+		}
+		FileContentCache.getInstance().clear();
+		super.tearDown();
+	}
+
+	private void writeFile(String content, long timestamp) throws IOException {
+		OutputStream out= new FileOutputStream(fFile);
+		try {
+			out.write(content.getBytes());
+		} finally {
+			out.close();
+		}
+		fFile.setLastModified(timestamp);
+	}
+
+	private AbstractCharArray read() {
+		InternalFileContent content=
+				(InternalFileContent) FileContent.createForExternalFileLocation(fFile.getPath());
+		assertNotNull(content);
+		return content.getSource();
+	}
+
+	public void testContentIsShared() throws Exception {
+		writeFile("#ifndef H_\n#define H_\nint x;\n#endif\n", 100000);
+		AbstractCharArray first= read();
+		AbstractCharArray second= read();
+		assertSame(first, second);
+		assertEquals("#ifndef H_\n#define H_\nint x;\n#endif\n", second.toString());
+	}
+
+	public void testModifiedFileIsReread() throws Exception {
+		writeFile("int x;\n", 100000);
+		AbstractCharArray first= read();
+		writeFile("int xyz;\n", 100000);
+		AbstractCharArray second= read();
+		assertNotSame(first, second);
+		assertEquals("int xyz;\n", second.toString());
+
+		writeFile("int abc;\n", 200000);
+		AbstractCharArray third= read();
+		assertNotSame(second, third);
+		assertEquals("int abc;\n", third.toString());
+	}
+
+	public void testUnknownCharset() throws Exception {
+		FileContentCache cache= FileContentCache.getInstance();
+		String path= fFile.getPath();
+		CharArray content= new CharArray("int x;\n");
+		cache.put(path, 100000, 7, null, content);
+		assertSame(content, cache.get(path, 100000, 7, null));
+		assertNull(cache.get(path, 100000, 7, "UTF-8"));
+
+		cache.put(path, 100000, 7, "UTF-8", content);
+		assertNull(cache.get(path, 100000, 7, null));
+	}
+}
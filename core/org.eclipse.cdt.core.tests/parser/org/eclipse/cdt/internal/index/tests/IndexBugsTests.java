@@ -2539,6 +2539,42 @@ public class IndexBugsTests extends BaseTestCase {
 		}
 	}
 
+	//	struct S { int i; };
+
+	//	#include "header.h"
+	//	int fSOURCE(S s) { return s.i; }
+	public void testReadAheadOfSources() throws Exception {
+		IndexerPreferences.set(fCProject.getProject(), IndexerPreferences.KEY_INDEXER_THREAD_COUNT, "4");
+		try {
+			String[] contents= getContentsForTest(2);
+			final int count= 20;
+			TestSourceReader.createFile(fCProject.getProject(), "header.h", contents[0]);
+			for (int i = 0; i < count; i++) {
+				TestSourceReader.createFile(fCProject.getProject(), "source" + i + ".cpp",
+						contents[1].replace("SOURCE", String.valueOf(i)));
+			}
+			CCorePlugin.getIndexManager().reindex(fCProject);
+			waitForIndexer();
+			fIndex.acquireReadLock();
+			try {
+				for (int i = 0; i < count; i++) {
+					IIndexBinding[] bindings = fIndex.findBindings(("f" + i).toCharArray(), IndexFilter.ALL, npm());
+					assertEquals(1, bindings.length);
+					assertEquals(1, fIndex.findDefinitions(bindings[0]).length);
+				}
+				IIndexBinding[] bindings = fIndex.findBindings("S".toCharArray(), IndexFilter.ALL, npm());
+				assertEquals(1, bindings.length);
+				assertEquals(count, fIndex.findReferences(bindings[0]).length);
+			} finally {
+				fIndex.releaseReadLock();
+			}
+		} finally {
+			Properties defaults = IndexerPreferences.getDefaultIndexerProperties();
+			IndexerPreferences.set(fCProject.getProject(), IndexerPreferences.KEY_INDEXER_THREAD_COUNT,
+					defaults.getProperty(IndexerPreferences.KEY_INDEXER_THREAD_COUNT));
+		}
+	}
+
 	// extern int h1;
 
 	// extern int h2;
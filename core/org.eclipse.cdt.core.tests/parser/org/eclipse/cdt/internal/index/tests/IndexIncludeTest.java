@@ -764,4 +764,121 @@ public class IndexIncludeTest extends IndexTestBase {
 			fIndex.releaseReadLock();
 		}
 	}	
+
+	// #define DEPENDENT_VAR dependent_1
+
+	// #define DEPENDENT_VAR dependent_2
+
+	// #include "dependent.h"
+	// int DEPENDENT_VAR;
+	public void testUpdateDependentFiles() throws Exception {
+		waitForIndexer();
+		CharSequence[] contents= getContentsForTest(3);
+		final IFile header= TestSourceReader.createFile(fProject.getProject(), "dependent.h", contents[0].toString());
+		IFile source= TestSourceReader.createFile(fProject.getProject(), "dependent.cpp", contents[2].toString());
+		waitUntilFileIsIndexed(fIndex, source);
+		IndexerPreferences.set(fProject.getProject(), IndexerPreferences.KEY_UPDATE_DEPENDENT_FILES, "true");
+		try {
+			waitForIndexer();
+			fIndex.acquireReadLock();
+			try {
+				assertEquals(1, fIndex.findBindings("dependent_1".toCharArray(), IndexFilter.ALL_DECLARED, npm()).length);
+			} finally {
+				fIndex.releaseReadLock();
+			}
+
+			// Change the definition of the macro, the source using it has to be updated, too.
+			final long t1= System.currentTimeMillis();
+			final String changedContents = contents[1].toString();
+			ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+				@Override
+				public void run(IProgressMonitor monitor) throws CoreException {
+					header.setContents(new ByteArrayInputStream(changedContents.getBytes()), false, false, npm());
+					header.setLocalTimeStamp(t1 + 1000);
+				}
+			}, npm());
+			waitForIndexer();
+
+			fIndex.acquireReadLock();
+			try {
+				assertEquals(0, fIndex.findBindings("dependent_1".toCharArray(), IndexFilter.ALL_DECLARED, npm()).length);
+				assertEquals(1, fIndex.findBindings("dependent_2".toCharArray(), IndexFilter.ALL_DECLARED, npm()).length);
+			} finally {
+				fIndex.releaseReadLock();
+			}
+		} finally {
+			IndexerPreferences.set(fProject.getProject(), IndexerPreferences.KEY_UPDATE_DEPENDENT_FILES, "false");
+			waitForIndexer();
+		}
+	}
+
+	// int dependent_var;
+	// void dependent_func(int);
+
+	// // A comment changes the contents of the header, but not its interface.
+	// int dependent_var;
+	// void dependent_func(int);
+
+	// #include "unchanged_interface.h"
+	// void dependent_user() { dependent_func(dependent_var); }
+	public void testDependentFilesOfUnchangedInterface() throws Exception {
+		assertFalse(isDependentFileUpdated("unchanged_interface"));
+	}
+
+	// int dependent_var;
+	// void dependent_func(int);
+
+	// int dependent_var;
+	// void dependent_func(long);
+
+	// #include "changed_interface.h"
+	// void dependent_user() { dependent_func(dependent_var); }
+	public void testDependentFilesOfChangedInterface() throws Exception {
+		assertTrue(isDependentFileUpdated("changed_interface"));
+	}
+
+	/**
+	 * Replaces the contents of a header with the second section of the test's comment and returns
+	 * whether the source including it has been indexed again.
+	 */
+	private boolean isDependentFileUpdated(String name) throws Exception {
+		waitForIndexer();
+		CharSequence[] contents= getContentsForTest(3);
+		final IFile header= TestSourceReader.createFile(fProject.getProject(), name + ".h", contents[0].toString());
+		IFile source= TestSourceReader.createFile(fProject.getProject(), name + ".cpp", contents[2].toString());
+		waitUntilFileIsIndexed(fIndex, source);
+		IndexerPreferences.set(fProject.getProject(), IndexerPreferences.KEY_UPDATE_DEPENDENT_FILES, "true");
+		try {
+			waitForIndexer();
+			long readTime;
+			fIndex.acquireReadLock();
+			try {
+				readTime= getIndexFile(source).getSourceReadTime();
+			} finally {
+				fIndex.releaseReadLock();
+			}
+
+			final long t1= System.currentTimeMillis();
+			final String changedContents = contents[1].toString();
+			ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+				@Override
+				public void run(IProgressMonitor monitor) throws CoreException {
+					header.setContents(new ByteArrayInputStream(changedContents.getBytes()), false, false, npm());
+					header.setLocalTimeStamp(t1 + 1000);
+				}
+			}, npm());
+			waitUntilFileIsIndexed(fIndex, header);
+			waitForIndexer();
+
+			fIndex.acquireReadLock();
+			try {
+				return getIndexFile(source).getSourceReadTime() != readTime;
+			} finally {
+				fIndex.releaseReadLock();
+			}
+		} finally {
+			IndexerPreferences.set(fProject.getProject(), IndexerPreferences.KEY_UPDATE_DEPENDENT_FILES, "false");
+			waitForIndexer();
+		}
+	}
 }
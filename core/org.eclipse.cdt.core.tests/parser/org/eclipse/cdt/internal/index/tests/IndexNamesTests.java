@@ -234,6 +234,53 @@ public class IndexNamesTests extends BaseTestCase {
 		}
 	}
 
+	// void func();
+	// int var;
+	//
+	// class C {
+	//    void m1() {
+	//       func();
+	//    }
+	//    void m2() {
+	//       var=1;
+	//    }
+	// };
+	// void other() {
+	//    func();
+	// }
+	public void testNestingWithInlineMethods() throws Exception {
+		waitForIndexer();
+		String content= getComment();
+		IFile file= createFile(getProject().getProject(), "test.cpp", content);
+		waitUntilFileIsIndexed(file, 4000);
+
+		fIndex.acquireReadLock();
+		try {
+			IIndexBinding[] classBS= fIndex.findBindings(getPattern("C"), true, IndexFilter.ALL, npm());
+			assertLength(1, classBS);
+			IIndexName[] names= fIndex.findDefinitions(classBS[0]);
+			assertLength(1, names);
+
+			// The names within the methods are not enclosed by the class, the ones of other() neither.
+			IIndexName[] enclosed= names[0].getEnclosedNames();
+			assertLength(2, enclosed);
+			assertName("m1", enclosed[0]);
+			assertName("m2", enclosed[1]);
+			assertName("C", enclosed[1].getEnclosingDefinition());
+
+			IIndexName[] enclosedByM1= enclosed[0].getEnclosedNames();
+			assertLength(1, enclosedByM1);
+			assertName("func", enclosedByM1[0]);
+			assertName("m1", enclosedByM1[0].getEnclosingDefinition());
+
+			IIndexName[] enclosedByM2= enclosed[1].getEnclosedNames();
+			assertLength(1, enclosedByM2);
+			assertName("var", enclosedByM2[0]);
+		} finally {
+			fIndex.releaseReadLock();
+		}
+	}
+
 	//	class X {
 	//		public:
 	//			virtual void vm() {
@@ -30,6 +30,7 @@ import org.eclipse.cdt.core.model.CoreModel;
 import org.eclipse.cdt.core.model.ICProject;
 import org.eclipse.cdt.core.testplugin.CProjectHelper;
 import org.eclipse.cdt.core.testplugin.util.TestSourceReader;
+import org.eclipse.cdt.internal.core.pdom.TeamPDOMExportOperation;
 import org.eclipse.cdt.internal.core.pdom.indexer.IndexerPreferences;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -315,6 +316,44 @@ public class TeamSharedIndexTest extends IndexTestBase {
 		checkVariable(prj, "d", 0);
 	}
 
+	public void testDeltaExport() throws Exception {
+		String prjName= "__testDeltaExport__";
+		ICProject prj= createProject(prjName);
+		String loc= IndexerPreferences.getIndexImportLocation(prj.getProject());
+		checkVariable(prj, "a", 1);
+		checkVariable(prj, "b", 1);
+		checkVariable(prj, "c", 1);
+
+		// export the project.
+		fPDOMManager.export(prj, loc, 0, npm());
+		waitForIndexer(prj);
+
+		// add file and export the differences, only.
+		TestSourceReader.createFile(prj.getProject(), "d.cpp", "int d;");
+		waitForIndexer(prj);
+		checkVariable(prj, "d", 1);
+		fPDOMManager.export(prj, loc, TeamPDOMExportOperation.EXPORT_OPTION_DELTA, npm());
+		waitForIndexer(prj);
+
+		// set indexer to the fake one.
+		fPDOMManager.setIndexerId(prj, FakeIndexer.ID);
+		IndexerPreferences.setScope(prj.getProject(), IndexerPreferences.SCOPE_PROJECT_SHARED);
+		new ProjectScope(prj.getProject()).getNode(CCorePlugin.PLUGIN_ID).flush();
+		waitForIndexer(prj);
+		checkVariable(prj, "d", 0);
+
+		deleteAndWait(prj);
+		unregisterProject(prj);
+
+		// import project, the delta is applied to the archive.
+		prj = recreateProject(prjName);
+		registerProject(prj);
+		checkVariable(prj, "a", 1);
+		checkVariable(prj, "b", 1);
+		checkVariable(prj, "c", 1);
+		checkVariable(prj, "d", 1);
+	}
+
 	public void testExportWithRemoval() throws Exception {
 		String prjName= "__testExportWithRemoval__";
 		ICProject prj= createProject(prjName);
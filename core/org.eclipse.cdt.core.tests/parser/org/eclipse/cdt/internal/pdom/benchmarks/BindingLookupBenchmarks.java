@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.internal.pdom.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Test;
+
+import org.eclipse.cdt.core.CCorePlugin;
+import org.eclipse.cdt.core.dom.ILinkage;
+import org.eclipse.cdt.core.dom.IPDOMManager;
+import org.eclipse.cdt.core.index.IndexFilter;
+import org.eclipse.cdt.core.index.URIRelativeLocationConverter;
+import org.eclipse.cdt.core.model.ICProject;
+import org.eclipse.cdt.core.model.LanguageManager;
+import org.eclipse.cdt.core.testplugin.CProjectHelper;
+import org.eclipse.cdt.core.testplugin.util.TestSourceReader;
+import org.eclipse.cdt.internal.core.CCoreInternals;
+import org.eclipse.cdt.internal.core.pdom.PDOM;
+import org.eclipse.cdt.internal.core.pdom.db.IBTreeVisitor;
+import org.eclipse.cdt.internal.core.pdom.dom.FindBinding;
+import org.eclipse.cdt.internal.core.pdom.dom.PDOMBinding;
+import org.eclipse.cdt.internal.core.pdom.dom.PDOMLinkage;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Throughput of the binding lookup in the C++ linkage of a PDOM.
+ * <p>
+ * By default the PDOM of a synthetic project is measured. A recorded PDOM, e.g. one exported
+ * with the <code>GeneratePDOM</code> application, can be measured instead by passing its location
+ * with the system property {@code cdt.benchmark.pdom}.
+ */
+public class BindingLookupBenchmarks extends PDOMBenchmark {
+	private static final String RECORDED_PDOM= System.getProperty("cdt.benchmark.pdom");
+	private static final int FILE_COUNT= 100;
+	private static final int BINDINGS_PER_FILE= 20;
+	private static final int MAX_SAMPLES= 10000;
+
+	private ICProject fProject;
+	private PDOM fPDOM;
+	private PDOMLinkage fLinkage;
+	private List<char[]> fNames;
+	private List<int[]> fNodeTypes;
+
+	public static Test suite() {
+		return suite(BindingLookupBenchmarks.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		if (RECORDED_PDOM != null) {
+			File file= new File(RECORDED_PDOM);
+			fPDOM= new PDOM(file, new URIRelativeLocationConverter(file.getParentFile().toURI()),
+					LanguageManager.getInstance().getPDOMLinkageFactoryMappings());
+		} else {
+			fProject= createSyntheticProject();
+			fPDOM= (PDOM) CCoreInternals.getPDOMManager().getPDOM(fProject);
+		}
+		fPDOM.acquireReadLock();
+		fLinkage= fPDOM.getLinkage(ILinkage.CPP_LINKAGE_ID);
+		assertNotNull("The PDOM does not contain C++ bindings", fLinkage);
+		collectSamples();
+		assertFalse("The PDOM does not contain C++ bindings", fNames.isEmpty());
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (fPDOM != null) {
+			fPDOM.releaseReadLock();
+			if (fProject == null) {
+				fPDOM.close();
+			}
+		}
+		if (fProject != null) {
+			CProjectHelper.delete(fProject);
+		}
+		super.tearDown();
+	}
+
+	private ICProject createSyntheticProject() throws Exception {
+		ICProject project= CProjectHelper.createCCProject("BindingLookupBenchmarks" + System.currentTimeMillis(),
+				null, IPDOMManager.ID_NO_INDEXER);
+		for (int i = 0; i < FILE_COUNT; i++) {
+			StringBuilder code= new StringBuilder();
+			code.append("namespace ns").append(i % 10).append(" {\n");
+			for (int j = 0; j < BINDINGS_PER_FILE; j++) {
+				final String suffix= i + "_" + j;
+				code.append("class Class").append(suffix).append(" { int field; void method(int); };\n");
+				code.append("int function").append(suffix).append("(Class").append(suffix).append("& c);\n");
+			}
+			code.append("}\n");
+			for (int j = 0; j < BINDINGS_PER_FILE; j++) {
+				code.append("int global").append(i).append('_').append(j).append(";\n");
+			}
+			TestSourceReader.createFile(project.getProject(), "file" + i + ".cpp", code.toString());
+		}
+		CCorePlugin.getIndexManager().setIndexerId(project, IPDOMManager.ID_FAST_INDEXER);
+		waitForIndexer(project);
+		return project;
+	}
+
+	/**
+	 * Collects the names and node types of the global bindings of the linkage.
+	 */
+	private void collectSamples() throws CoreException {
+		fNames= new ArrayList<>();
+		fNodeTypes= new ArrayList<>();
+		fLinkage.getIndex().accept(new IBTreeVisitor() {
+			@Override
+			public int compare(long record) throws CoreException {
+				return 0;
+			}
+
+			@Override
+			public boolean visit(long record) throws CoreException {
+				PDOMBinding binding= fLinkage.getBinding(record);
+				if (binding != null) {
+					fNames.add(binding.getNameCharArray());
+					fNodeTypes.add(new int[] { binding.getNodeType() });
+				}
+				return fNames.size() < MAX_SAMPLES;
+			}
+		});
+	}
+
+	private int sample(int invocation) {
+		return (invocation * 7919 & Integer.MAX_VALUE) % fNames.size();
+	}
+
+	public void testFindBinding() throws Exception {
+		measure("findBinding", new Operation() {
+			@Override
+			public long run(int invocation) throws Exception {
+				final int i= sample(invocation);
+				PDOMBinding binding= FindBinding.findBinding(fLinkage.getIndex(), fLinkage, fNames.get(i),
+						fNodeTypes.get(i), 0);
+				return binding == null ? 0 : binding.getRecord();
+			}
+		});
+	}
+
+	public void testFindBindingsByQualifiedName() throws Exception {
+		measure("findBindingsByQualifiedName", new Operation() {
+			@Override
+			public long run(int invocation) throws Exception {
+				final char[][] name= { fNames.get(sample(invocation)) };
+				return fPDOM.findBindings(name, IndexFilter.ALL, npm()).length;
+			}
+		});
+	}
+
+	public void testFindBindingsByName() throws Exception {
+		measure("findBindingsByName", new Operation() {
+			@Override
+			public long run(int invocation) throws Exception {
+				final char[] name= fNames.get(sample(invocation));
+				return fPDOM.findBindings(name, false, IndexFilter.ALL, npm()).length;
+			}
+		});
+	}
+}
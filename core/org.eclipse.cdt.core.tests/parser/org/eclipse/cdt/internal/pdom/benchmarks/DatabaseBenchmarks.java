@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.internal.pdom.benchmarks;
+
+import java.io.File;
+import java.util.Random;
+
+import junit.framework.Test;
+
+import org.eclipse.cdt.internal.core.pdom.db.BTree;
+import org.eclipse.cdt.internal.core.pdom.db.ChunkCache;
+import org.eclipse.cdt.internal.core.pdom.db.Database;
+import org.eclipse.cdt.internal.core.pdom.db.IBTreeComparator;
+import org.eclipse.cdt.internal.core.pdom.db.IBTreeVisitor;
+import org.eclipse.cdt.internal.core.pdom.db.IString;
+import org.eclipse.cdt.internal.core.pdom.db.PDOMStringSet;
+import org.eclipse.cdt.internal.core.pdom.db.ShortString;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Throughput of the B-tree, the string implementations and the string set of the database.
+ * The database file is memory-mapped when the system property {@code cdt.benchmark.mapped}
+ * is set.
+ */
+public class DatabaseBenchmarks extends PDOMBenchmark {
+	private static final boolean MAPPED= Boolean.getBoolean("cdt.benchmark.mapped");
+	private static final int RECORD_COUNT= 50000;
+	private static final int STRING_COUNT= 1000;
+	private static final int DEGREE= 8;
+
+	private File fDbFile;
+	private Database fDb;
+	private long[] fRecords;
+
+	public static Test suite() {
+		return suite(DatabaseBenchmarks.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fDbFile= File.createTempFile("pdombenchmark", "db");
+		fDb= new Database(fDbFile, new ChunkCache(), 0, false, MAPPED);
+		fDb.setExclusiveLock();
+		Random random= new Random(4711);
+		fRecords= new long[RECORD_COUNT];
+		for (int i = 0; i < fRecords.length; i++) {
+			fRecords[i]= fDb.malloc(Database.INT_SIZE);
+			fDb.putInt(fRecords[i], random.nextInt());
+		}
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fDb.close();
+		fDbFile.delete();
+		super.tearDown();
+	}
+
+	private BTree createBTree(long rootPointer) {
+		return new BTree(fDb, rootPointer, DEGREE, new IBTreeComparator() {
+			@Override
+			public int compare(long record1, long record2) throws CoreException {
+				return Integer.compare(fDb.getInt(record1), fDb.getInt(record2));
+			}
+		});
+	}
+
+	private BTree createFilledBTree() throws CoreException {
+		BTree btree= createBTree(fDb.malloc(Database.PTR_SIZE));
+		for (long record : fRecords) {
+			btree.insert(record);
+		}
+		return btree;
+	}
+
+	public void testBTreeInsert() throws Exception {
+		measure("btreeInsert", new Operation() {
+			private BTree fBTree;
+
+			@Override
+			public long run(int invocation) throws Exception {
+				final int i= invocation % fRecords.length;
+				if (i == 0) {
+					// Start over with an empty tree, such that the depth of the tree stays bounded.
+					fBTree= createBTree(fDb.malloc(Database.PTR_SIZE));
+				}
+				return fBTree.insert(fRecords[i]);
+			}
+		});
+	}
+
+	public void testBTreeLookup() throws Exception {
+		final BTree btree= createFilledBTree();
+		measure("btreeLookup", new Operation() {
+			@Override
+			public long run(int invocation) throws Exception {
+				final int key= fDb.getInt(fRecords[(invocation * 7919 & Integer.MAX_VALUE) % fRecords.length]);
+				final long[] result= {0};
+				btree.accept(new IBTreeVisitor() {
+					@Override
+					public int compare(long record) throws CoreException {
+						return Integer.compare(fDb.getInt(record), key);
+					}
+
+					@Override
+					public boolean visit(long record) throws CoreException {
+						result[0]= record;
+						return false;
+					}
+				});
+				return result[0];
+			}
+		});
+	}
+
+	public void testBTreeVisitAll() throws Exception {
+		final BTree btree= createFilledBTree();
+		measure("btreeVisitAll", new Operation() {
+			@Override
+			public long run(int invocation) throws Exception {
+				final long[] sum= {0};
+				btree.accept(new IBTreeVisitor() {
+					@Override
+					public int compare(long record) throws CoreException {
+						return 0;
+					}
+
+					@Override
+					public boolean visit(long record) throws CoreException {
+						sum[0]+= record;
+						return true;
+					}
+				});
+				return sum[0];
+			}
+		});
+	}
+
+	public void testShortStringCompare() throws Exception {
+		measureStringCompare("shortStringCompare", 32);
+	}
+
+	public void testLongStringCompare() throws Exception {
+		measureStringCompare("longStringCompare", ShortString.MAX_BYTE_LENGTH + 512);
+	}
+
+	/**
+	 * Measures the comparison of strings of the given length that differ in their last
+	 * character only, which is the worst case for the comparison.
+	 */
+	private void measureStringCompare(String name, int length) throws Exception {
+		final IString[] strings= new IString[STRING_COUNT];
+		final char[][] chars= new char[STRING_COUNT][];
+		for (int i = 0; i < strings.length; i++) {
+			char[] c= new char[length];
+			for (int j = 0; j < c.length; j++) {
+				c[j]= (char) ('a' + j % 26);
+			}
+			c[c.length - 1]= (char) ('0' + i % 10);
+			chars[i]= c;
+			strings[i]= fDb.newString(c);
+		}
+		measure(name, new Operation() {
+			@Override
+			public long run(int invocation) throws Exception {
+				final int i= invocation % strings.length;
+				final int j= (invocation * 31 + 1 & Integer.MAX_VALUE) % strings.length;
+				return strings[i].compare(strings[j], true) + strings[i].compare(chars[j], false);
+			}
+		});
+	}
+
+	public void testStringSetAdd() throws Exception {
+		measure("stringSetAdd", new Operation() {
+			private PDOMStringSet fStringSet;
+
+			@Override
+			public long run(int invocation) throws Exception {
+				final int i= invocation % STRING_COUNT;
+				if (i == 0) {
+					fStringSet= new PDOMStringSet(fDb, fDb.malloc(Database.PTR_SIZE));
+				}
+				return fStringSet.add("string" + i); //$NON-NLS-1$
+			}
+		});
+	}
+
+	public void testStringSetFind() throws Exception {
+		final PDOMStringSet stringSet= new PDOMStringSet(fDb, fDb.malloc(Database.PTR_SIZE));
+		final String[] strings= new String[STRING_COUNT];
+		for (int i = 0; i < strings.length; i++) {
+			strings[i]= "string" + i; //$NON-NLS-1$
+			stringSet.add(strings[i]);
+		}
+		measure("stringSetFind", new Operation() {
+			@Override
+			public long run(int invocation) throws Exception {
+				final int i= (invocation * 7919 & Integer.MAX_VALUE) % strings.length;
+				if ((invocation & 0xfff) == 0) {
+					// Include the cost of reading the strings from the database.
+					stringSet.clearCaches();
+				}
+				return stringSet.find(strings[i]);
+			}
+		});
+	}
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.internal.pdom.benchmarks;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
+
+/**
+ * Base class for micro-benchmarks of the PDOM storage layer.
+ * <p>
+ * Each benchmark consists of a number of warm-up iterations followed by a number of measured
+ * iterations, each of which runs the measured operation repeatedly for a fixed amount of time.
+ * The throughput of the measured iterations is reported on the console in the format used by
+ * JMH, and appended to the file given by the system property {@code cdt.benchmark.output}, such
+ * that results of different builds can be compared.
+ * <p>
+ * The parameters can be changed with the system properties {@code cdt.benchmark.warmup},
+ * {@code cdt.benchmark.iterations} and {@code cdt.benchmark.time} (milliseconds per iteration).
+ */
+public abstract class PDOMBenchmark extends BaseTestCase {
+	private static final int WARMUP_ITERATIONS= Integer.getInteger("cdt.benchmark.warmup", 3);
+	private static final int MEASURED_ITERATIONS= Integer.getInteger("cdt.benchmark.iterations", 5);
+	private static final long ITERATION_TIME_MS= Long.getLong("cdt.benchmark.time", 500);
+	private static final String OUTPUT_FILE= System.getProperty("cdt.benchmark.output");
+
+	/**
+	 * An operation to be measured.
+	 */
+	protected interface Operation {
+		/**
+		 * Performs the operation for the given invocation count. The result is consumed by the
+		 * benchmark, such that the computation cannot be optimized away.
+		 */
+		long run(int invocation) throws Exception;
+	}
+
+	private static boolean sHeaderPrinted;
+	/**
+	 * Consumes the results of the operations. The results of an iteration are combined and written
+	 * to the volatile field, which cannot be eliminated, such that the results have to be computed.
+	 */
+	private volatile long fSink;
+
+	public PDOMBenchmark() {
+		super();
+	}
+
+	public PDOMBenchmark(String name) {
+		super(name);
+	}
+
+	/**
+	 * Measures the throughput of the given operation and reports it under the given name.
+	 * @return the mean throughput in operations per millisecond.
+	 */
+	protected double measure(String name, Operation op) throws Exception {
+		int invocation= 0;
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			invocation= runIteration(op, invocation, null);
+		}
+		double[] scores= new double[MEASURED_ITERATIONS];
+		long[] opsAndTime= new long[2];
+		for (int i = 0; i < scores.length; i++) {
+			invocation= runIteration(op, invocation, opsAndTime);
+			scores[i]= opsAndTime[0] * 1000000.0 / opsAndTime[1];
+		}
+		double mean= 0;
+		for (double score : scores) {
+			mean+= score;
+		}
+		mean/= scores.length;
+		double variance= 0;
+		for (double score : scores) {
+			variance+= (score - mean) * (score - mean);
+		}
+		double error= scores.length > 1 ? Math.sqrt(variance / (scores.length - 1)) : 0;
+		report(getClass().getSimpleName() + '.' + name, scores.length, mean, error);
+		return mean;
+	}
+
+	private int runIteration(Operation op, int invocation, long[] opsAndTime) throws Exception {
+		final long start= System.nanoTime();
+		final long end= start + ITERATION_TIME_MS * 1000000;
+		long now;
+		long ops= 0;
+		long sink= 0;
+		do {
+			sink= sink * 31 + op.run(invocation++);
+			ops++;
+		} while ((now= System.nanoTime()) < end);
+		fSink= sink;
+		if (opsAndTime != null) {
+			opsAndTime[0]= ops;
+			opsAndTime[1]= now - start;
+		}
+		return invocation;
+	}
+
+	private void report(String benchmark, int count, double score, double error) throws IOException {
+		synchronized (PDOMBenchmark.class) {
+			if (!sHeaderPrinted) {
+				sHeaderPrinted= true;
+				System.out.println(String.format(Locale.ENGLISH, "%-60s %5s %3s %14s %12s  %s",
+						"Benchmark", "Mode", "Cnt", "Score", "Error", "Units"));
+			}
+		}
+		System.out.println(String.format(Locale.ENGLISH, "%-60s %5s %3d %14.3f \u00B1 %10.3f  %s",
+				benchmark, "thrpt", count, score, error, "ops/ms"));
+		if (OUTPUT_FILE != null) {
+			PrintWriter out= new PrintWriter(new FileWriter(new File(OUTPUT_FILE), true));
+			try {
+				out.println(String.format(Locale.ENGLISH, "%s,%d,%.3f,%.3f", benchmark, count, score, error));
+			} finally {
+				out.close();
+			}
+		}
+	}
+}
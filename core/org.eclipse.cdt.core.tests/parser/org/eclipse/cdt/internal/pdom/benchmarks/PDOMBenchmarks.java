@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.internal.pdom.benchmarks;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Benchmarks of the PDOM, not part of the automated test suites. Run them headless with
+ * <code>mvn verify -P pdom-benchmarks</code> from the directory of this plug-in.
+ */
+public class PDOMBenchmarks extends TestSuite {
+
+	public static Test suite() {
+		TestSuite suite = new PDOMBenchmarks();
+
+		suite.addTest(DatabaseBenchmarks.suite());
+		suite.addTest(BindingLookupBenchmarks.suite());
+
+		return suite;
+	}
+}
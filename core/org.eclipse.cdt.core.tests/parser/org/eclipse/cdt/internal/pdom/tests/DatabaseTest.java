@@ -142,6 +142,264 @@ public class DatabaseTest extends BaseTestCase {
 		assertEquals(mem2, mem1);
 	}
 
+	public void testMappedStorage() throws Exception {
+		final int count= 3 * Database.CHUNK_SIZE / 8;
+		long[] records= new long[count];
+		for (int i = 0; i < count; i++) {
+			records[i]= db.malloc(8);
+			db.putLong(records[i], i * 31L);
+		}
+		long str= db.newString("mapped").getRecord();
+		db.flush();
+
+		Database mapped= new Database(db.getLocation(), new ChunkCache(), 0, false, true);
+		try {
+			assertTrue(mapped.isMapped());
+			mapped.setLocked(true);
+			for (int i = 0; i < count; i++) {
+				assertEquals(i * 31L, mapped.getLong(records[i]));
+			}
+			assertTrue(mapped.getString(str).equals("mapped"));
+
+			// Modifications are written through the file channel and are visible after re-reading.
+			mapped.setExclusiveLock();
+			mapped.putLong(records[0], -1);
+			assertEquals(-1, mapped.getLong(records[0]));
+			mapped.flush();
+			mapped.getChunkCache().setMaxSize(0);
+			assertEquals(-1, mapped.getLong(records[0]));
+			assertEquals(31L, mapped.getLong(records[1]));
+		} finally {
+			mapped.setExclusiveLock();
+			mapped.close();
+		}
+	}
+
+	public void testConcurrentReaders() throws Exception {
+		final int count= 32 * Database.CHUNK_SIZE / 8;
+		final long[] records= new long[count];
+		for (int i = 0; i < count; i++) {
+			records[i]= db.malloc(8);
+			db.putLong(records[i], i * 17L);
+		}
+		db.flush();
+		db.giveUpExclusiveLock(true);
+		db.setLocked(true);
+
+		// A cache that is much smaller than the database forces evictions while reading.
+		final ChunkCache cache= db.getChunkCache();
+		cache.setMaxSize(0);
+		final Throwable[] failure= { null };
+		Thread[] readers= new Thread[4];
+		for (int t = 0; t < readers.length; t++) {
+			final int seed= t;
+			readers[t]= new Thread() {
+				@Override
+				public void run() {
+					try {
+						Random random= new Random(seed);
+						for (int i = 0; i < 20000; i++) {
+							int idx= random.nextInt(count);
+							assertEquals(idx * 17L, db.getLong(records[idx]));
+						}
+					} catch (Throwable e) {
+						synchronized (failure) {
+							failure[0]= e;
+						}
+					}
+				}
+			};
+			readers[t].start();
+		}
+		for (Thread reader : readers) {
+			reader.join();
+		}
+		if (failure[0] != null) {
+			throw new Exception(failure[0]);
+		}
+		assertTrue(db.getCachedChunkCount() <= cache.getMaxSize() / Database.CHUNK_SIZE);
+		assertTrue(cache.getHits() + cache.getMisses() > 0);
+		db.setExclusiveLock();
+	}
+
+	public void testSnapshot() throws Exception {
+		final int count= 3 * Database.CHUNK_SIZE / 8;
+		long[] records= new long[count];
+		for (int i = 0; i < count; i++) {
+			records[i]= db.malloc(8);
+			db.putLong(records[i], i);
+		}
+		db.giveUpExclusiveLock(false);
+		db.setExclusiveLock();
+
+		db.startSnapshot();
+		db.putLong(records[1], -1);
+		long record= db.malloc(8);
+		db.putLong(record, 42);
+		assertEquals(-1, db.getLong(records[1]));
+		assertEquals(1, readInOtherThread(records[1]));
+
+		// Neither flushing nor evicting the chunk must expose the modification.
+		db.flush();
+		db.getChunkCache().setMaxSize(0);
+		assertEquals(1, readInOtherThread(records[1]));
+		assertEquals(2, readInOtherThread(records[2]));
+
+		db.endSnapshot();
+		assertEquals(-1, readInOtherThread(records[1]));
+		assertEquals(42, readInOtherThread(record));
+		db.flush();
+		db.getChunkCache().setMaxSize(0);
+		assertEquals(-1, db.getLong(records[1]));
+	}
+
+	public void testConcurrentSnapshotReads() throws Exception {
+		runSnapshotReads(db);
+	}
+
+	public void testConcurrentSnapshotReadsMapped() throws Exception {
+		Database mapped= new Database(getTestDir().append(getName() + System.currentTimeMillis() + ".dat").toFile(),
+				new ChunkCache(), 0, false, true);
+		try {
+			assertTrue(mapped.isMapped());
+			mapped.setExclusiveLock();
+			runSnapshotReads(mapped);
+		} finally {
+			mapped.setExclusiveLock();
+			mapped.close();
+			if (!mapped.getLocation().delete()) {
+				mapped.getLocation().deleteOnExit();
+			}
+		}
+	}
+
+	/**
+	 * Readers check that all values they read belong to the same generation, while a writer
+	 * modifies all of them in every generation, flushes and evicts chunks during the snapshot.
+	 * The readers of a snapshot are waited for before it ends, like in the PDOM.
+	 */
+	private void runSnapshotReads(final Database database) throws Exception {
+		final int count= 8 * Database.CHUNK_SIZE / 8;
+		final long[] records= new long[count];
+		for (int i = 0; i < count; i++) {
+			records[i]= database.malloc(8);
+			database.putLong(records[i], 0);
+		}
+		database.giveUpExclusiveLock(true);
+		// Chunks are read again, mapped databases access them in place.
+		final ChunkCache cache= database.getChunkCache();
+		cache.setMaxSize(0);
+		cache.setMaxSize(64 * Database.CHUNK_SIZE);
+		database.setLocked(true);
+
+		final Object gate= new Object();
+		final int[] readerCount= { 0 };
+		final boolean[] ending= { false };
+		final boolean[] done= { false };
+		final Throwable[] failure= { null };
+		Thread[] readers= new Thread[4];
+		for (int t = 0; t < readers.length; t++) {
+			readers[t]= new Thread() {
+				@Override
+				public void run() {
+					try {
+						long lastGeneration= 0;
+						while (true) {
+							synchronized (gate) {
+								while (ending[0])
+									gate.wait();
+								if (done[0])
+									return;
+								readerCount[0]++;
+							}
+							try {
+								long generation= database.getLong(records[0]);
+								assertTrue(generation >= lastGeneration);
+								for (int i = 1; i < count; i++) {
+									assertEquals(generation, database.getLong(records[i]));
+								}
+								lastGeneration= generation;
+							} finally {
+								synchronized (gate) {
+									readerCount[0]--;
+									gate.notifyAll();
+								}
+							}
+						}
+					} catch (Throwable e) {
+						synchronized (failure) {
+							failure[0]= e;
+						}
+					}
+				}
+			};
+			readers[t].start();
+		}
+
+		try {
+			for (int generation = 1; generation <= 50; generation++) {
+				synchronized (failure) {
+					if (failure[0] != null)
+						break;
+				}
+				database.setExclusiveLock();
+				database.startSnapshot();
+				for (int i = 0; i < count; i++) {
+					database.putLong(records[i], generation);
+					if (i % 1000 == 0) {
+						cache.setMaxSize(2 * Database.CHUNK_SIZE);
+					}
+				}
+				database.malloc(8);
+				database.flush();
+				synchronized (gate) {
+					ending[0]= true;
+					while (readerCount[0] > 0)
+						gate.wait();
+					database.endSnapshot();
+					ending[0]= false;
+					gate.notifyAll();
+				}
+				database.giveUpExclusiveLock(true);
+				cache.setMaxSize(64 * Database.CHUNK_SIZE);
+			}
+		} finally {
+			synchronized (gate) {
+				done[0]= true;
+				gate.notifyAll();
+			}
+			for (Thread reader : readers) {
+				reader.join();
+			}
+		}
+		if (failure[0] != null) {
+			throw new Exception(failure[0]);
+		}
+		database.setExclusiveLock();
+		assertEquals(50, database.getLong(records[count - 1]));
+	}
+
+	private long readInOtherThread(final long record) throws Exception {
+		final long[] result= { 0 };
+		final Exception[] failure= { null };
+		Thread reader= new Thread() {
+			@Override
+			public void run() {
+				try {
+					result[0]= db.getLong(record);
+				} catch (Exception e) {
+					failure[0]= e;
+				}
+			}
+		};
+		reader.start();
+		reader.join();
+		if (failure[0] != null) {
+			throw failure[0];
+		}
+		return result[0];
+	}
+
 	private static class FindVisitor implements IBTreeVisitor {
 		private Database db;
 		private String key;
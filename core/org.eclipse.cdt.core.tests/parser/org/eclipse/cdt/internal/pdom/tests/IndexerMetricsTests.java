@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.internal.pdom.tests;
+
+import junit.framework.Test;
+
+import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
+import org.eclipse.cdt.internal.core.pdom.IndexerMetrics;
+import org.eclipse.cdt.internal.core.pdom.IndexerProgress;
+import org.eclipse.cdt.internal.core.pdom.IndexerStatistics;
+
+/**
+ * Tests for the export of the indexer metrics.
+ */
+public class IndexerMetricsTests extends BaseTestCase {
+
+	public static Test suite() {
+		return suite(IndexerMetricsTests.class);
+	}
+
+	private String toJSON(IndexerMetrics metrics) {
+		IndexerStatistics stats= new IndexerStatistics();
+		stats.fScanTime= 3;
+		stats.fParsingTime= 11;
+		stats.fLockWaitTime= 7;
+		return metrics.toJSON("project\"1", 42, stats, new IndexerProgress(), 3, 1, 1024);
+	}
+
+	public void testSummary() throws Exception {
+		String json= toJSON(new IndexerMetrics());
+		assertTrue(json, json.contains("\"project\": \"project\\\"1\""));
+		assertTrue(json, json.contains("\"total\": 42,"));
+		assertTrue(json, json.contains("\"scan\": 3,"));
+		assertTrue(json, json.contains("\"parse\": 11,"));
+		assertTrue(json, json.contains("\"lockWait\": 7\n"));
+		assertTrue(json, json.contains("\"hitRatio\": 0.75\n"));
+		assertTrue(json, json.contains("\"slowestFiles\": [\n\t]\n"));
+	}
+
+	public void testSlowestFiles() throws Exception {
+		IndexerMetrics metrics= new IndexerMetrics();
+		for (int i = 0; i < 100; i++) {
+			metrics.addFile("file" + i + ".cpp", i, 0, 1);
+		}
+		assertEquals(100, metrics.getFileCount());
+		String json= toJSON(metrics);
+		int first= json.indexOf("\"path\": \"file99.cpp\"");
+		int second= json.indexOf("\"path\": \"file98.cpp\"");
+		assertTrue(json, first > 0 && second > first);
+		assertTrue(json, json.contains("\"path\": \"file50.cpp\""));
+		assertFalse(json, json.contains("\"path\": \"file49.cpp\""));
+		// Files with a parse time of 0 and 1 ms are in the first two buckets.
+		assertTrue(json, json.contains("\"parse\": [1, 1, 2, 4, 8, 16, 32, 36, 0,"));
+	}
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.internal.pdom.tests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.Test;
+
+import org.eclipse.cdt.core.dom.ILinkage;
+import org.eclipse.cdt.core.index.IndexFilter;
+import org.eclipse.cdt.core.testplugin.util.TestSourceReader;
+import org.eclipse.cdt.internal.core.pdom.db.IBTreeVisitor;
+import org.eclipse.cdt.internal.core.pdom.dom.BindingCollector;
+import org.eclipse.cdt.internal.core.pdom.dom.FindBinding;
+import org.eclipse.cdt.internal.core.pdom.dom.PDOMBinding;
+import org.eclipse.cdt.internal.core.pdom.dom.PDOMLinkage;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Tests for the in-memory index of the names of global bindings.
+ */
+public class PDOMNameIndexTests extends PDOMInlineCodeTestBase {
+
+	public static Test suite() {
+		return suite(PDOMNameIndexTests.class);
+	}
+
+	private List<PDOMBinding> getGlobalBindings(final PDOMLinkage linkage) throws CoreException {
+		final List<PDOMBinding> result= new ArrayList<PDOMBinding>();
+		linkage.getIndex().accept(new IBTreeVisitor() {
+			@Override
+			public int compare(long record) throws CoreException {
+				return 0;
+			}
+
+			@Override
+			public boolean visit(long record) throws CoreException {
+				PDOMBinding binding= linkage.getBinding(record);
+				if (binding != null)
+					result.add(binding);
+				return true;
+			}
+		});
+		return result;
+	}
+
+	// namespace ns { int x; }
+	// int foo(int);
+	// int foo(char);
+	// int Foo;
+	// struct foo {};
+	// enum E { e1, e2 };
+	// enum F { e1b, e2b };
+	// static int local;
+	// class C {};
+	// typedef C Foo_t;
+	public void testLookupMatchesBTree() throws Exception {
+		setUpSections(1);
+		PDOMLinkage linkage= pdom.getLinkage(ILinkage.CPP_LINKAGE_ID);
+		List<PDOMBinding> bindings= getGlobalBindings(linkage);
+		assertTrue(bindings.size() > 10);
+		for (PDOMBinding binding : bindings) {
+			final char[] name= binding.getNameCharArray();
+			BindingCollector expected= new BindingCollector(linkage, name);
+			linkage.getIndex().accept(expected);
+			BindingCollector actual= new BindingCollector(linkage, name);
+			linkage.acceptGlobalBindings(name, actual);
+			assertTrue(new String(name), Arrays.equals(expected.getBindings(), actual.getBindings()));
+
+			final int[] nodeType= { binding.getNodeType() };
+			assertEquals(new String(name),
+					FindBinding.findBinding(linkage.getIndex(), linkage, name, nodeType, 0),
+					FindBinding.findGlobalBinding(linkage, name, nodeType, 0));
+		}
+		assertEquals(0, linkage.getBindingsViaCache("fOO".toCharArray(), npm()).length);
+	}
+
+	// int existing();
+	public void testBindingsAddedAfterCreation() throws Exception {
+		setUpSections(1);
+		assertEquals(1, pdom.findBindings("existing".toCharArray(), false, IndexFilter.ALL, npm()).length);
+		assertEquals(0, pdom.findBindings("added".toCharArray(), false, IndexFilter.ALL, npm()).length);
+		pdom.releaseReadLock();
+		try {
+			TestSourceReader.createFile(cproject.getProject(), "added.cpp", "int added();");
+			waitForIndexer(cproject);
+		} finally {
+			pdom.acquireReadLock();
+		}
+		assertEquals(1, pdom.findBindings("added".toCharArray(), false, IndexFilter.ALL, npm()).length);
+		assertEquals(1, pdom.findBindings("existing".toCharArray(), false, IndexFilter.ALL, npm()).length);
+	}
+}
@@ -0,0 +1,274 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.internal.pdom.tests;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Test;
+
+import org.eclipse.cdt.core.dom.ast.tag.ITag;
+import org.eclipse.cdt.core.dom.ast.tag.IWritableTag;
+import org.eclipse.cdt.core.index.IIndexFileLocation;
+import org.eclipse.cdt.core.index.IIndexLocationConverter;
+import org.eclipse.cdt.core.model.LanguageManager;
+import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
+import org.eclipse.cdt.internal.core.pdom.WritablePDOM;
+import org.eclipse.cdt.internal.core.pdom.tag.PDOMTagIndex;
+
+/**
+ * Tests for readers of the PDOM that continue with a snapshot while a write lock is held.
+ */
+public class PDOMSnapshotReadsTests extends BaseTestCase {
+	private WritablePDOM pdom;
+
+	public static Test suite() {
+		return suite(PDOMSnapshotReadsTests.class);
+	}
+
+	private static class MockIndexLocationConverter implements IIndexLocationConverter {
+		@Override
+		public IIndexFileLocation fromInternalFormat(String raw) {
+			return null;
+		}
+
+		@Override
+		public String toInternalFormat(IIndexFileLocation location) {
+			return null;
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		File tmpFile = File.createTempFile(getClass().getSimpleName() + '.'
+				+ Double.toString(Math.random()).substring(2), null);
+		pdom = new WritablePDOM(tmpFile, new MockIndexLocationConverter(),
+				LanguageManager.getInstance().getPDOMLinkageFactoryMappings());
+		pdom.setSnapshotReads(true);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		pdom.close();
+		super.tearDown();
+	}
+
+	private static long record(int i) {
+		return ((1000 + i * 1000L) & ~7L) | 2;
+	}
+
+	private static String tagger(int i) {
+		return "tagger_" + i; //$NON-NLS-1$
+	}
+
+	private boolean hasTag(int i) throws InterruptedException {
+		pdom.acquireReadLock();
+		try {
+			return PDOMTagIndex.getTag(pdom, record(i), tagger(i)) != null;
+		} finally {
+			pdom.releaseReadLock();
+		}
+	}
+
+	public void testReaderSeesSnapshot() throws Exception {
+		pdom.acquireWriteLock(null);
+		assertNotNull(PDOMTagIndex.createTag(pdom, record(0), tagger(0), 1));
+		pdom.releaseWriteLock();
+
+		pdom.acquireWriteLock(null);
+		try {
+			assertNotNull(PDOMTagIndex.createTag(pdom, record(1), tagger(1), 1));
+
+			final boolean[] seen= new boolean[2];
+			final Exception[] failure= { null };
+			Thread reader= new Thread() {
+				@Override
+				public void run() {
+					try {
+						seen[0]= hasTag(0);
+						seen[1]= hasTag(1);
+					} catch (Exception e) {
+						failure[0]= e;
+					}
+				}
+			};
+			reader.start();
+			reader.join(10000);
+			assertFalse(reader.isAlive());
+			assertNull(failure[0]);
+			// The reader is not blocked by the writer and does not see its modifications.
+			assertTrue(seen[0]);
+			assertFalse(seen[1]);
+		} finally {
+			pdom.releaseWriteLock();
+		}
+		assertTrue(hasTag(1));
+	}
+
+	public void testConcurrentReadsAndWrites() throws Exception {
+		final int tagCount= 200;
+		final AtomicInteger published= new AtomicInteger();
+		final AtomicBoolean done= new AtomicBoolean();
+		final List<Throwable> failures= Collections.synchronizedList(new ArrayList<Throwable>());
+
+		List<Thread> readers= new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			Thread reader= new Thread() {
+				@Override
+				public void run() {
+					try {
+						while (!done.get()) {
+							int count= published.get();
+							pdom.acquireReadLock();
+							try {
+								// Every tag published before the read lock is visible, also to
+								// readers of a snapshot.
+								for (int i = 0; i < count; i++) {
+									if (PDOMTagIndex.getTag(pdom, record(i), tagger(i)) == null)
+										throw new AssertionError("Missing tag " + i); //$NON-NLS-1$
+								}
+							} finally {
+								pdom.releaseReadLock();
+							}
+						}
+					} catch (Throwable e) {
+						failures.add(e);
+					}
+				}
+			};
+			readers.add(reader);
+			reader.start();
+		}
+
+		try {
+			for (int i = 0; i < tagCount && failures.isEmpty(); i++) {
+				pdom.acquireWriteLock(null);
+				try {
+					assertNotNull(PDOMTagIndex.createTag(pdom, record(i), tagger(i), 1));
+				} finally {
+					pdom.releaseWriteLock();
+				}
+				published.set(i + 1);
+			}
+		} finally {
+			done.set(true);
+			for (Thread reader : readers) {
+				reader.join(10000);
+			}
+		}
+		for (Thread reader : readers) {
+			assertFalse(reader.isAlive());
+		}
+		assertTrue(failures.toString(), failures.isEmpty());
+
+		for (int i = 0; i < tagCount; i++) {
+			assertTrue(hasTag(i));
+		}
+	}
+
+	/**
+	 * A writer modifies a group of tags in every transaction, readers check that they see all of
+	 * them from the same transaction and never the results cached by other threads.
+	 */
+	public void testConcurrentModifications() throws Exception {
+		final int tagCount= 100;
+		final int transactions= 100;
+		final String generationKey= "generation"; //$NON-NLS-1$
+		pdom.acquireWriteLock(null);
+		try {
+			for (int i = 0; i < tagCount; i++) {
+				assertNotNull(PDOMTagIndex.createTag(pdom, record(i), tagger(i), 1));
+			}
+		} finally {
+			pdom.releaseWriteLock();
+		}
+
+		final AtomicBoolean done= new AtomicBoolean();
+		final List<Throwable> failures= Collections.synchronizedList(new ArrayList<Throwable>());
+		List<Thread> readers= new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			Thread reader= new Thread() {
+				@Override
+				public void run() {
+					try {
+						int lastGeneration= 0;
+						while (!done.get()) {
+							pdom.acquireReadLock();
+							try {
+								int generation= PDOMTagIndex.getTag(pdom, record(0), tagger(0)).getByte(0);
+								if (generation < lastGeneration)
+									throw new AssertionError("Went back to generation " + generation); //$NON-NLS-1$
+								for (int i = 1; i < tagCount; i++) {
+									ITag tag= PDOMTagIndex.getTag(pdom, record(i), tagger(i));
+									if (tag.getByte(0) != generation)
+										throw new AssertionError("Tag " + i + " of generation " + tag.getByte(0) //$NON-NLS-1$ //$NON-NLS-2$
+												+ " read with generation " + generation); //$NON-NLS-1$
+								}
+								Object cached= pdom.getCachedResult(generationKey);
+								if (cached != null && !cached.equals(generation))
+									throw new AssertionError("Cached generation " + cached + " read with " + generation); //$NON-NLS-1$ //$NON-NLS-2$
+								pdom.putCachedResult(generationKey, generation);
+								lastGeneration= generation;
+							} finally {
+								pdom.releaseReadLock();
+							}
+						}
+					} catch (Throwable e) {
+						failures.add(e);
+					}
+				}
+			};
+			readers.add(reader);
+			reader.start();
+		}
+
+		try {
+			for (int generation = 1; generation <= transactions && failures.isEmpty(); generation++) {
+				pdom.acquireWriteLock(null);
+				try {
+					pdom.putCachedResult(generationKey, -1);
+					for (int i = 0; i < tagCount; i++) {
+						ITag tag= PDOMTagIndex.getTag(pdom, record(i), tagger(i));
+						assertTrue(((IWritableTag) tag).putByte(0, (byte) generation));
+					}
+					// Allocations in the same transaction.
+					assertNotNull(PDOMTagIndex.createTag(pdom, record(tagCount + generation),
+							tagger(tagCount + generation), 1));
+				} finally {
+					pdom.releaseWriteLock();
+				}
+			}
+		} finally {
+			done.set(true);
+			for (Thread reader : readers) {
+				reader.join(10000);
+			}
+		}
+		for (Thread reader : readers) {
+			assertFalse(reader.isAlive());
+		}
+		assertTrue(failures.toString(), failures.isEmpty());
+
+		pdom.acquireReadLock();
+		try {
+			for (int i = 0; i < tagCount; i++) {
+				assertEquals(transactions, PDOMTagIndex.getTag(pdom, record(i), tagger(i)).getByte(0));
+			}
+		} finally {
+			pdom.releaseReadLock();
+		}
+	}
+}
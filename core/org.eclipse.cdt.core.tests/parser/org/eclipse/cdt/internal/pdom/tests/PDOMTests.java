@@ -40,7 +40,11 @@ public class PDOMTests extends TestSuite {
 		suite.addTest(OverloadsWithinCommonHeaderTests.suite());
 		suite.addTest(BTreeTests.suite());
 		suite.addTest(PDOMStringSetTests.suite());
+		suite.addTest(PDOMNameIndexTests.suite());
+		suite.addTest(IndexerMetricsTests.suite());
+		suite.addTest(ReadAheadQueueTests.suite());
 		suite.addTest(PDOMTagIndexTests.suite());
+		suite.addTest(PDOMSnapshotReadsTests.suite());
 		suite.addTest(FilesOnReindexTests.suite());
 		suite.addTest(GeneratePDOMApplicationTest.suite());
 
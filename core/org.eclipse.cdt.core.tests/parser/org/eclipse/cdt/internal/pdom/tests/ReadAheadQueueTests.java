@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.internal.pdom.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Test;
+
+import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
+import org.eclipse.cdt.internal.core.pdom.ReadAheadQueue;
+
+/**
+ * Tests for the queue reading the sources ahead of the indexer.
+ */
+public class ReadAheadQueueTests extends BaseTestCase {
+
+	public static Test suite() {
+		return suite(ReadAheadQueueTests.class);
+	}
+
+	private static List<Integer> inputs(int count) {
+		List<Integer> inputs= new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			inputs.add(i);
+		}
+		return inputs;
+	}
+
+	public void testOrder() throws Exception {
+		ReadAheadQueue<Integer, String> queue= new ReadAheadQueue<>("test", 4, 8, inputs(100),
+				new ReadAheadQueue.Producer<Integer, String>() {
+			@Override
+			public String produce(Integer input) throws Exception {
+				// Later inputs complete first.
+				Thread.sleep((100 - input) % 7);
+				return "r" + input;
+			}
+		});
+		try {
+			for (int i = 0; i < 100; i++) {
+				assertTrue(queue.hasNext());
+				assertEquals("r" + i, queue.next());
+			}
+			assertFalse(queue.hasNext());
+		} finally {
+			queue.close();
+		}
+	}
+
+	public void testBoundedReadAhead() throws Exception {
+		final AtomicInteger started= new AtomicInteger();
+		ReadAheadQueue<Integer, Integer> queue= new ReadAheadQueue<>("test", 4, 3, inputs(20),
+				new ReadAheadQueue.Producer<Integer, Integer>() {
+			@Override
+			public Integer produce(Integer input) {
+				started.incrementAndGet();
+				return input;
+			}
+		});
+		try {
+			for (int i = 0; i < 10; i++) {
+				assertEquals(i, queue.next().intValue());
+				assertTrue(started.get() <= i + 1 + 3);
+			}
+		} finally {
+			queue.close();
+		}
+		assertTrue(started.get() <= 10 + 3);
+	}
+
+	public void testException() throws Exception {
+		ReadAheadQueue<Integer, Integer> queue= new ReadAheadQueue<>("test", 2, 4, inputs(5),
+				new ReadAheadQueue.Producer<Integer, Integer>() {
+			@Override
+			public Integer produce(Integer input) throws Exception {
+				if (input == 2)
+					throw new IllegalStateException("input 2");
+				return input;
+			}
+		});
+		try {
+			assertEquals(0, queue.next().intValue());
+			assertEquals(1, queue.next().intValue());
+			try {
+				queue.next();
+				fail();
+			} catch (ExecutionException e) {
+				assertEquals("input 2", e.getCause().getMessage());
+			}
+			// The remaining inputs are not affected.
+			assertEquals(3, queue.next().intValue());
+			assertEquals(4, queue.next().intValue());
+		} finally {
+			queue.close();
+		}
+	}
+
+	public void testClose() throws Exception {
+		final CountDownLatch running= new CountDownLatch(2);
+		final CountDownLatch release= new CountDownLatch(1);
+		final AtomicInteger started= new AtomicInteger();
+		final AtomicInteger completed= new AtomicInteger();
+		final ReadAheadQueue<Integer, Integer> queue= new ReadAheadQueue<>("test", 2, 10, inputs(10),
+				new ReadAheadQueue.Producer<Integer, Integer>() {
+			@Override
+			public Integer produce(Integer input) throws Exception {
+				started.incrementAndGet();
+				running.countDown();
+				release.await();
+				completed.incrementAndGet();
+				return input;
+			}
+		});
+		assertTrue(running.await(10, TimeUnit.SECONDS));
+
+		final boolean[] closed= { false };
+		Thread closer= new Thread() {
+			@Override
+			public void run() {
+				try {
+					queue.close();
+					closed[0]= true;
+				} catch (InterruptedException e) {
+				}
+			}
+		};
+		closer.start();
+		// Closing waits for the running computations.
+		closer.join(200);
+		assertTrue(closer.isAlive());
+		release.countDown();
+		closer.join(10000);
+		assertTrue(closed[0]);
+		// The computations that had not started are cancelled.
+		assertEquals(2, started.get());
+		assertEquals(2, completed.get());
+	}
+}
@@ -11,14 +11,24 @@
  ******************************************************************************/
 package org.eclipse.cdt.internal.core.model;
 
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
 import org.eclipse.cdt.core.index.IIndex;
 import org.eclipse.cdt.core.index.IIndexManager;
+import org.eclipse.cdt.core.model.CModelException;
+import org.eclipse.cdt.core.model.IBuffer;
 import org.eclipse.cdt.core.model.ILanguage;
 import org.eclipse.cdt.core.model.ITranslationUnit;
+import org.eclipse.cdt.core.model.IWorkingCopy;
 import org.eclipse.cdt.internal.core.dom.parser.ASTTranslationUnit;
+import org.eclipse.cdt.internal.core.parser.scanner.StreamHasher;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.IStatus;
@@ -28,7 +38,15 @@ import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.Status;
 
 /**
- * Provides a shared AST of a single translation unit at a time.
+ * Provides a shared AST of a single translation unit at a time, the active element.
+ * <p>
+ * In addition the ASTs of a few recently active translation units, and ASTs prebuilt in
+ * the background via {@link #prebuildAST(ITranslationUnit, IProgressMonitor)}, are kept.
+ * Such an AST is reused when it's translation unit becomes active again, as long as neither
+ * the index nor the contents of the translation unit have changed. These ASTs are softly
+ * referenced, such that they are discarded when memory gets low. In addition their estimated
+ * size is limited, in megabytes it can be set with the system property
+ * <code>org.eclipse.cdt.core.model.inactiveASTCacheMB</code>.
  *
  * @since 4.0
  */
@@ -61,6 +79,88 @@ public class ASTCache {
 		IStatus runOnAST(ILanguage lang, IASTTranslationUnit ast) throws CoreException;
 	}
 
+	/** The maximum number of ASTs kept for translation units other than the active one */
+	private static final int MAX_INACTIVE_ASTS= 16;
+	/** The limit for the estimated size of the ASTs kept for translation units other than the active one */
+	private static final long MAX_INACTIVE_AST_BYTES=
+			Integer.getInteger("org.eclipse.cdt.core.model.inactiveASTCacheMB", 64) * 1024L * 1024L; //$NON-NLS-1$
+	/**
+	 * The estimated size of an AST created with {@link #PARSE_MODE} per character of the source
+	 * it has been created for.
+	 */
+	private static final int AST_BYTES_PER_CHAR= 80;
+
+	/**
+	 * Identifies the contents of a translation unit. The contents of a file are identified by
+	 * its modification stamp, a hash of the contents is computed only for working copies with
+	 * unsaved changes and for files without a modification stamp.
+	 */
+	private static final class ContentsVersion {
+		static final ContentsVersion NONE= new ContentsVersion(IResource.NULL_STAMP, false, 0, 0);
+
+		final long fModificationStamp;
+		final boolean fHashed;
+		final int fLength;
+		final long fContentsHash;
+
+		private ContentsVersion(long modificationStamp, boolean hashed, int length, long contentsHash) {
+			fModificationStamp= modificationStamp;
+			fHashed= hashed;
+			fLength= length;
+			fContentsHash= contentsHash;
+		}
+
+		static ContentsVersion of(ITranslationUnit tUnit) {
+			final long stamp= getModificationStamp(tUnit);
+			if (stamp != IResource.NULL_STAMP && !hasUnsavedChanges(tUnit))
+				return new ContentsVersion(stamp, false, 0, 0);
+
+			char[] contents= tUnit.getContents();
+			if (contents == null)
+				return new ContentsVersion(stamp, true, 0, 0);
+			StreamHasher hasher= new StreamHasher();
+			hasher.addChunk(contents);
+			return new ContentsVersion(stamp, true, contents.length, hasher.computeHash());
+		}
+
+		/**
+		 * Returns whether the translation unit still has the contents identified by this version.
+		 * The contents are hashed only when the cheap checks are inconclusive.
+		 */
+		boolean isCurrent(ITranslationUnit tUnit) {
+			if (this == NONE)
+				return false;
+			final long stamp= getModificationStamp(tUnit);
+			if (stamp != fModificationStamp)
+				return false;
+			final boolean hashed= stamp == IResource.NULL_STAMP || hasUnsavedChanges(tUnit);
+			if (hashed != fHashed)
+				return false;
+			if (!hashed)
+				return true;
+			if (getContentsLength(tUnit) != fLength)
+				return false;
+			return of(tUnit).fContentsHash == fContentsHash;
+		}
+	}
+
+	/**
+	 * An AST kept for a translation unit that is not the active element.
+	 */
+	private static final class InactiveAST {
+		final SoftReference<IASTTranslationUnit> fAST;
+		final long fLastWriteOnIndex;
+		final ContentsVersion fContentsVersion;
+		final long fEstimatedBytes;
+
+		InactiveAST(IASTTranslationUnit ast, long lastWriteOnIndex, ContentsVersion contentsVersion) {
+			fAST= new SoftReference<>(ast);
+			fLastWriteOnIndex= lastWriteOnIndex;
+			fContentsVersion= contentsVersion;
+			fEstimatedBytes= (long) ((ASTTranslationUnit) ast).getLength() * AST_BYTES_PER_CHAR;
+		}
+	}
+
 	private final int fParseMode;
 	private final Object fCacheMutex= new Object();
 
@@ -76,6 +176,13 @@ public class ASTCache {
 	private long fLastWriteOnIndex;
 	/** Indicates whether the AST is currently being computed */
 	private boolean fIsReconciling;
+	/** The version of the contents of the active translation unit the cached AST was created for */
+	private ContentsVersion fContentsVersion= ContentsVersion.NONE;
+	/**
+	 * ASTs of translation units other than the active one, keyed by the original translation
+	 * unit, in the order of access.
+	 */
+	private final LinkedHashMap<ITranslationUnit, InactiveAST> fInactiveASTs= new LinkedHashMap<>(16, 0.75f, true);
 
 	/**
 	 * Create a new AST cache.
@@ -107,9 +214,25 @@ public class ASTCache {
 			if (progressMonitor != null && progressMonitor.isCanceled())
 				return null;
 
+			// Inactive ASTs are validated outside of the lock, and only when there is no valid AST
+			// for the active element.
+			final boolean useInactiveAST;
+			synchronized (fCacheMutex) {
+				useInactiveAST= !tUnit.equals(fActiveTU) || (!fIsReconciling
+						&& (fAST == null || fLastWriteOnIndex < index.getLastWriteAccess()));
+			}
+			final InactiveAST inactiveAST= useInactiveAST ? findInactiveAST(tUnit, index) : null;
 			final boolean isActiveElement;
 			synchronized (fCacheMutex) {
 				isActiveElement= tUnit.equals(fActiveTU);
+				if (!isActiveElement && inactiveAST != null) {
+					IASTTranslationUnit ast= inactiveAST.fAST.get();
+					if (ast != null) {
+						if (DEBUG)
+							System.out.println(DEBUG_PREFIX + getThreadName() + "returning inactive AST:" + toString(ast) + " for: " + tUnit.getElementName()); //$NON-NLS-1$ //$NON-NLS-2$
+						return ast;
+					}
+				}
 				if (isActiveElement) {
 					if (fAST != null) {
 						// AST is cached
@@ -123,6 +246,18 @@ public class ASTCache {
 							return fAST;
 						}
 					}
+					if (inactiveAST != null && !fIsReconciling) {
+						IASTTranslationUnit ast= inactiveAST.fAST.get();
+						if (ast != null && fInactiveASTs.remove(getCacheKey(tUnit)) == inactiveAST) {
+							// Reuse the AST of a recently active or a prebuilt translation unit
+							if (DEBUG)
+								System.out.println(DEBUG_PREFIX + getThreadName() + "reusing inactive AST:" + toString(ast) + " for: " + tUnit.getElementName()); //$NON-NLS-1$ //$NON-NLS-2$
+							((ASTTranslationUnit) ast).setOriginatingTranslationUnit(tUnit);
+							cache(ast, tUnit, inactiveAST.fContentsVersion);
+							fLastWriteOnIndex= inactiveAST.fLastWriteOnIndex;
+							return ast;
+						}
+					}
 					// no cached AST
 					if (!wait) {
 						// no AST, no wait - we are done
@@ -154,8 +289,10 @@ public class ASTCache {
 				}
 			}
 
-			if (isActiveElement)
-				aboutToBeReconciled(tUnit);
+			if (!isActiveElement)
+				return createInactiveAST(tUnit, index, progressMonitor);
+
+			aboutToBeReconciled(tUnit);
 
 			if (DEBUG)
 				System.err.println(DEBUG_PREFIX + getThreadName() + "creating AST for " + tUnit.getElementName()); //$NON-NLS-1$
@@ -168,20 +305,90 @@ public class ASTCache {
 				else if (DEBUG && ast != null)
 					System.err.println(DEBUG_PREFIX + getThreadName() + "created AST for: " + tUnit.getElementName()); //$NON-NLS-1$
 			} finally {
-				if (isActiveElement) {
-					if (fAST != null) {
-						if (DEBUG)
-							System.out.println(DEBUG_PREFIX + getThreadName() + "Ignore created AST for " + tUnit.getElementName() + "- AST from reconciler is newer"); //$NON-NLS-1$ //$NON-NLS-2$
-						// other reconciler was faster, still need to trigger notify
-						reconciled(fAST, tUnit);
-					} else
-						reconciled(ast, tUnit);
-				}
+				if (fAST != null) {
+					if (DEBUG)
+						System.out.println(DEBUG_PREFIX + getThreadName() + "Ignore created AST for " + tUnit.getElementName() + "- AST from reconciler is newer"); //$NON-NLS-1$ //$NON-NLS-2$
+					// other reconciler was faster, still need to trigger notify
+					reconciled(fAST, tUnit);
+				} else
+					reconciled(ast, tUnit);
 			}
 			return ast;
 		}
 	}
 
+	/**
+	 * Creates an AST for a translation unit that is not the active element and keeps it for
+	 * later requests.
+	 */
+	private IASTTranslationUnit createInactiveAST(ITranslationUnit tUnit, IIndex index,
+			IProgressMonitor progressMonitor) {
+		if (DEBUG)
+			System.err.println(DEBUG_PREFIX + getThreadName() + "creating inactive AST for " + tUnit.getElementName()); //$NON-NLS-1$
+
+		// Determine the version first, the contents may change while parsing.
+		final ContentsVersion contentsVersion= ContentsVersion.of(tUnit);
+		final long lastWriteOnIndex= index.getLastWriteAccess();
+		final IASTTranslationUnit ast= createAST(tUnit, index, progressMonitor);
+		if (ast == null || (progressMonitor != null && progressMonitor.isCanceled()))
+			return null;
+
+		synchronized (fCacheMutex) {
+			if (!tUnit.equals(fActiveTU)) {
+				putInactiveAST(tUnit, ast, lastWriteOnIndex, contentsVersion);
+			}
+		}
+		return ast;
+	}
+
+	/**
+	 * Returns the inactive AST kept for the given translation unit, provided it is still valid
+	 * for the current contents of the translation unit and the given index.
+	 */
+	private InactiveAST findInactiveAST(ITranslationUnit tUnit, IIndex index) {
+		final ITranslationUnit key= getCacheKey(tUnit);
+		final InactiveAST inactiveAST;
+		synchronized (fCacheMutex) {
+			inactiveAST= fInactiveASTs.get(key);
+			if (inactiveAST == null)
+				return null;
+		}
+		if (inactiveAST.fLastWriteOnIndex >= index.getLastWriteAccess() && inactiveAST.fAST.get() != null
+				&& inactiveAST.fContentsVersion.isCurrent(tUnit)) {
+			return inactiveAST;
+		}
+		synchronized (fCacheMutex) {
+			if (fInactiveASTs.get(key) == inactiveAST) {
+				if (DEBUG)
+					System.out.println(DEBUG_PREFIX + getThreadName() + "discarding out-dated inactive AST for: " + toString(tUnit)); //$NON-NLS-1$
+				fInactiveASTs.remove(key);
+			}
+		}
+		return null;
+	}
+
+	private void putInactiveAST(ITranslationUnit tUnit, IASTTranslationUnit ast, long lastWriteOnIndex,
+			ContentsVersion contentsVersion) {
+		assert Thread.holdsLock(fCacheMutex);
+		fInactiveASTs.put(getCacheKey(tUnit), new InactiveAST(ast, lastWriteOnIndex, contentsVersion));
+		int size= fInactiveASTs.size();
+		long bytes= 0;
+		for (InactiveAST inactiveAST : fInactiveASTs.values()) {
+			bytes += inactiveAST.fEstimatedBytes;
+		}
+		for (Iterator<InactiveAST> it= fInactiveASTs.values().iterator(); it.hasNext();) {
+			// Remove the least recently used ASTs and the ones that have been garbage collected. The
+			// AST that has just been added is kept, even if it exceeds the limit by itself.
+			final InactiveAST inactiveAST= it.next();
+			if ((size > 1 && (size > MAX_INACTIVE_ASTS || bytes > MAX_INACTIVE_AST_BYTES))
+					|| inactiveAST.fAST.get() == null) {
+				it.remove();
+				size--;
+				bytes -= inactiveAST.fEstimatedBytes;
+			}
+		}
+	}
+
 	/**
 	 * Executes {@link ASTRunnable#runOnAST(ILanguage, IASTTranslationUnit)} with the AST
 	 * provided by this cache for the given translation unit. Handles acquiring
@@ -277,8 +484,9 @@ public class ASTCache {
 	 *
 	 * @param ast    the AST
 	 * @param tUnit  the translation unit
+	 * @param contentsVersion  the version of the contents the AST was created for
 	 */
-	private void cache(IASTTranslationUnit ast, ITranslationUnit tUnit) {
+	private void cache(IASTTranslationUnit ast, ITranslationUnit tUnit, ContentsVersion contentsVersion) {
 		assert Thread.holdsLock(fCacheMutex);
 		if (fActiveTU != null && !fActiveTU.equals(tUnit)) {
 			if (DEBUG && tUnit != null) // don't report call from disposeAST()
@@ -294,6 +502,7 @@ public class ASTCache {
 
 		fAST= ast;
 		fLastWriteOnIndex= fAST == null ? 0 : fAST.getIndex().getLastWriteAccess();
+		fContentsVersion= contentsVersion;
 
 		// Signal AST change
 		fCacheMutex.notifyAll();
@@ -311,7 +520,49 @@ public class ASTCache {
 				System.out.println(DEBUG_PREFIX + getThreadName() + "disposing AST: " + toString(fAST) + " for: " + toString(fActiveTU)); //$NON-NLS-1$ //$NON-NLS-2$
 
 			fAST= null;
-			cache(null, null);
+			cache(null, null, ContentsVersion.NONE);
+		}
+	}
+
+	/**
+	 * Disposes the ASTs kept for translation units other than the active element.
+	 */
+	public void disposeInactiveASTs() {
+		synchronized (fCacheMutex) {
+			fInactiveASTs.clear();
+		}
+	}
+
+	/**
+	 * Creates an AST for the given translation unit unless it is the active element or a valid
+	 * AST is already available for it. The AST is kept, such that it is available at once
+	 * when the translation unit becomes active or is requested otherwise.
+	 *
+	 * @param tUnit  the translation unit
+	 * @param monitor  a progress monitor, may be <code>null</code>
+	 */
+	public void prebuildAST(ITranslationUnit tUnit, IProgressMonitor monitor) {
+		if (tUnit == null || isActiveElement(tUnit))
+			return;
+
+		IIndex index;
+		try {
+			index = CCorePlugin.getIndexManager().getIndex(tUnit.getCProject(),
+					IIndexManager.ADD_EXTENSION_FRAGMENTS_EDITOR);
+			index.acquireReadLock();
+		} catch (CoreException e) {
+			CCorePlugin.log(e);
+			return;
+		} catch (InterruptedException e) {
+			return;
+		}
+
+		try {
+			if (findInactiveAST(tUnit, index) == null) {
+				createInactiveAST(tUnit, index, monitor);
+			}
+		} finally {
+			index.releaseReadLock();
 		}
 	}
 
@@ -362,9 +613,13 @@ public class ASTCache {
 			return;
 		}
 		synchronized (fCacheMutex) {
+			if (fAST != null && fActiveTU != null && !fIsReconciling) {
+				// Keep the AST in case the translation unit becomes active again.
+				putInactiveAST(fActiveTU, fAST, fLastWriteOnIndex, fContentsVersion);
+			}
 			fIsReconciling= false;
 			fActiveTU= tUnit;
-			cache(null, tUnit);
+			cache(null, tUnit, ContentsVersion.NONE);
 		}
 		if (DEBUG)
 			System.out.println(DEBUG_PREFIX + getThreadName() + "active element is: " + toString(tUnit)); //$NON-NLS-1$
@@ -401,7 +656,7 @@ public class ASTCache {
 				System.out.println(DEBUG_PREFIX + getThreadName() + "about to reconcile: " + toString(tUnit)); //$NON-NLS-1$
 
 			fIsReconciling= true;
-			cache(null, tUnit);
+			cache(null, tUnit, ContentsVersion.NONE);
 		}
 	}
 
@@ -412,6 +667,8 @@ public class ASTCache {
 	 * @param tUnit  the translation unit
 	 */
 	public void reconciled(IASTTranslationUnit ast, ITranslationUnit tUnit) {
+		final ContentsVersion contentsVersion= ast != null && tUnit != null ?
+				ContentsVersion.of(tUnit) : ContentsVersion.NONE;
 		synchronized (fCacheMutex) {
 			if (tUnit == null || !tUnit.equals(fActiveTU)) {
 				if (DEBUG)
@@ -422,7 +679,7 @@ public class ASTCache {
 				System.out.println(DEBUG_PREFIX + getThreadName() + "reconciled: " + toString(tUnit) + ", AST: " + toString(ast)); //$NON-NLS-1$ //$NON-NLS-2$
 
 			fIsReconciling= false;
-			cache(ast, tUnit);
+			cache(ast, tUnit, contentsVersion);
 		}
 	}
 
@@ -442,6 +699,56 @@ public class ASTCache {
 		}
 	}
 
+	/**
+	 * Returns the key for the inactive ASTs. Working copies share the key with their original
+	 * translation unit, the hash of the contents tells whether an AST can be reused.
+	 */
+	private static ITranslationUnit getCacheKey(ITranslationUnit tUnit) {
+		if (tUnit instanceof IWorkingCopy) {
+			ITranslationUnit original= ((IWorkingCopy) tUnit).getOriginalElement();
+			if (original != null)
+				return original;
+		}
+		return tUnit;
+	}
+
+	private static long getModificationStamp(ITranslationUnit tUnit) {
+		IResource resource= tUnit.getResource();
+		if (resource != null)
+			return resource.getModificationStamp();
+		IPath location= tUnit.getLocation();
+		if (location != null) {
+			long lastModified= location.toFile().lastModified();
+			if (lastModified != 0)
+				return lastModified;
+		}
+		return IResource.NULL_STAMP;
+	}
+
+	private static boolean hasUnsavedChanges(ITranslationUnit tUnit) {
+		if (!(tUnit instanceof IWorkingCopy))
+			return false;
+		try {
+			return tUnit.hasUnsavedChanges();
+		} catch (CModelException e) {
+			return true;
+		}
+	}
+
+	private static int getContentsLength(ITranslationUnit tUnit) {
+		try {
+			if (tUnit.isOpen()) {
+				IBuffer buffer= tUnit.getBuffer();
+				if (buffer != null)
+					return buffer.getLength();
+			}
+		} catch (CModelException e) {
+			// Use the contents.
+		}
+		char[] contents= tUnit.getContents();
+		return contents != null ? contents.length : 0;
+	}
+
 	private static String getThreadName() {
 		String name= Thread.currentThread().getName();
 		if (name != null)
@@ -21,7 +21,9 @@ import org.eclipse.cdt.core.index.IIndexFileLocation;
 import org.eclipse.cdt.core.parser.FileContent;
 import org.eclipse.cdt.core.parser.ParserFactory;
 import org.eclipse.cdt.internal.core.parser.scanner.AbstractCharArray;
+import org.eclipse.cdt.internal.core.parser.scanner.CharArray;
 import org.eclipse.cdt.internal.core.parser.scanner.FileCharArray;
+import org.eclipse.cdt.internal.core.parser.scanner.FileContentCache;
 import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContent;
 import org.eclipse.cdt.internal.core.resources.PathCanonicalizationStrategy;
 import org.eclipse.cdt.utils.UNCPathConverter;
@@ -212,6 +214,11 @@ public class InternalParserUtil extends ParserFactory {
 		if (includeFile != null && includeFile.isFile()) {
 			long timestamp = includeFile.lastModified();
 			long fileSize = includeFile.length();
+			final FileContentCache cache = FileContentCache.getInstance();
+			CharArray cached = cache.get(path, timestamp, fileSize, encoding);
+			if (cached != null)
+				return new InternalFileContent(path, cached, timestamp, fileSize, fileReadTime);
+
 			FileInputStream in;
 			try {
 				in = new FileInputStream(includeFile);
@@ -220,7 +227,10 @@ public class InternalParserUtil extends ParserFactory {
 				return null;
 			}
 			try {
-				return createFileContent(path, localPath, encoding, in, timestamp, fileSize, fileReadTime);
+				InternalFileContent content = createFileContent(path, localPath, encoding, in, timestamp, fileSize, fileReadTime);
+				if (content != null)
+					cache.put(path, timestamp, fileSize, encoding, content.getSource());
+				return content;
 			} finally {
 				try {
 					in.close();
@@ -29,6 +29,12 @@ import org.eclipse.cdt.core.CCorePlugin;
  */
 public class FileCharArray extends LazyCharArray {
 	private static final String UTF8_CHARSET_NAME = "UTF-8"; //$NON-NLS-1$
+	/**
+	 * Whether large files with single-byte characters are memory-mapped rather than decoded into
+	 * chunks on the heap, see {@link MappedCharArray}. Mapped files cannot be modified or deleted
+	 * on some platforms, therefore this is off by default.
+	 */
+	private static final boolean MAP_FILES = Boolean.getBoolean("org.eclipse.cdt.core.parser.mappedFiles"); //$NON-NLS-1$
 
 	public static AbstractCharArray create(String fileName, String charSet, InputStream in)
 			throws IOException {
@@ -45,6 +51,11 @@ public class FileCharArray extends LazyCharArray {
 		if (lsize < CHUNK_SIZE) {
 			return decodeSmallFile(channel, (int) lsize, charSet);
 		}
+		if (MAP_FILES) {
+			AbstractCharArray mapped= MappedCharArray.create(channel, charSet);
+			if (mapped != null)
+				return mapped;
+		}
 
 		return new FileCharArray(fileName, charSet);
 	}
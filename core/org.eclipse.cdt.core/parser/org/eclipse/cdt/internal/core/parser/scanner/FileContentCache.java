@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.parser.scanner;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.cdt.core.parser.util.CharArrayIntMap;
+
+/**
+ * Cache for the contents of files outside of the workspace (e.g. system headers), shared by all
+ * translation units that are parsed by the indexer or for an editor. Next to the decoded
+ * contents the include guard detected for a file is cached, because it does not depend on the
+ * macros defined at the point of inclusion.
+ * <p>
+ * Entries are validated against the timestamp and the size of the file. The size of the cache
+ * in megabytes can be set with the system property
+ * <code>org.eclipse.cdt.core.parser.fileContentCacheMB</code>, a value of 0 disables the cache.
+ */
+public final class FileContentCache {
+	private static final int DEFAULT_SIZE_MB= 16;
+	private static final FileContentCache INSTANCE= new FileContentCache(
+			Integer.getInteger("org.eclipse.cdt.core.parser.fileContentCacheMB", DEFAULT_SIZE_MB) * 1024L * 1024L / 2); //$NON-NLS-1$
+	private static final char[] NO_GUARD= {};
+
+	private static final class Entry {
+		final long fTimestamp;
+		final long fFileSize;
+		final String fCharset;
+		final CharArray fContent;
+		int fGuardOptions= -1;
+		char[] fGuard;
+
+		Entry(long timestamp, long fileSize, String charset, CharArray content) {
+			fTimestamp= timestamp;
+			fFileSize= fileSize;
+			fCharset= charset;
+			fContent= content;
+		}
+	}
+
+	public static FileContentCache getInstance() {
+		return INSTANCE;
+	}
+
+	private final long fCapacityChars;
+	private long fSizeChars;
+	private final LinkedHashMap<String, Entry> fEntries= new LinkedHashMap<>(64, 0.75f, true);
+	private long fHits;
+	private long fMisses;
+
+	FileContentCache(long capacityChars) {
+		fCapacityChars= capacityChars;
+	}
+
+	/**
+	 * Returns the cached contents of the given file, or <code>null</code> if the contents are not
+	 * cached or have been cached for a different version of the file.
+	 */
+	public synchronized CharArray get(String path, long timestamp, long fileSize, String charset) {
+		if (fCapacityChars <= 0)
+			return null;
+		Entry entry= fEntries.get(path);
+		if (entry != null) {
+			if (entry.fTimestamp == timestamp && entry.fFileSize == fileSize && Objects.equals(entry.fCharset, charset)) {
+				fHits++;
+				return entry.fContent;
+			}
+			remove(path);
+		}
+		fMisses++;
+		return null;
+	}
+
+	/**
+	 * Stores the contents of a file. Contents that are read lazily are not cached.
+	 */
+	public synchronized void put(String path, long timestamp, long fileSize, String charset,
+			AbstractCharArray content) {
+		if (fCapacityChars <= 0 || !(content instanceof CharArray) || content.hasError())
+			return;
+		final int length= content.getLength();
+		if (length > fCapacityChars / 4)
+			return;
+
+		remove(path);
+		fEntries.put(path, new Entry(timestamp, fileSize, charset, (CharArray) content));
+		fSizeChars += length;
+		for (Iterator<Map.Entry<String, Entry>> it= fEntries.entrySet().iterator(); fSizeChars > fCapacityChars && it.hasNext();) {
+			fSizeChars -= it.next().getValue().fContent.getLength();
+			it.remove();
+		}
+	}
+
+	/**
+	 * Returns the include guard for the given content, which is detected only once for contents
+	 * obtained from this cache.
+	 */
+	public char[] getIncludeGuard(String path, AbstractCharArray content, Lexer.LexerOptions lexOptions,
+			CharArrayIntMap ppKeywords) {
+		final int options= getOptionsKey(lexOptions);
+		Entry entry;
+		synchronized (this) {
+			entry= fEntries.get(path);
+			if (entry == null || entry.fContent != content) {
+				entry= null;
+			} else if (entry.fGuardOptions == options) {
+				return entry.fGuard == NO_GUARD ? null : entry.fGuard;
+			}
+		}
+		final char[] guard= IncludeGuardDetection.detectIncludeGuard(content, lexOptions, ppKeywords);
+		if (entry != null) {
+			synchronized (this) {
+				entry.fGuardOptions= options;
+				entry.fGuard= guard == null ? NO_GUARD : guard;
+			}
+		}
+		return guard;
+	}
+
+	/**
+	 * The options of the lexer that can affect the detection of an include guard.
+	 */
+	private static int getOptionsKey(Lexer.LexerOptions options) {
+		int key= 0;
+		if (options.fSupportDollarInIdentifiers)
+			key |= 1;
+		if (options.fSupportAtSignInIdentifiers)
+			key |= 2;
+		if (options.fSupportMinAndMax)
+			key |= 4;
+		if (options.fSupportSlashPercentComments)
+			key |= 8;
+		if (options.fSupportUTFLiterals)
+			key |= 16;
+		if (options.fSupportRawStringLiterals)
+			key |= 32;
+		return key;
+	}
+
+	private void remove(String path) {
+		Entry old= fEntries.remove(path);
+		if (old != null) {
+			fSizeChars -= old.fContent.getLength();
+		}
+	}
+
+	public synchronized void clear() {
+		fEntries.clear();
+		fSizeChars= 0;
+	}
+
+	public synchronized long getHits() {
+		return fHits;
+	}
+
+	public synchronized long getMisses() {
+		return fMisses;
+	}
+}
@@ -30,9 +30,9 @@ public abstract class ImageLocationInfo {
 	public abstract boolean canConcatenate(ImageLocationInfo info);
 
 	public static class MacroImageLocationInfo extends ImageLocationInfo {
-		private final ObjectStyleMacro fMacro;
-		private final int fOffset;
-		private final int fEndOffset;
+		final ObjectStyleMacro fMacro;
+		final int fOffset;
+		final int fEndOffset;
 
 		public MacroImageLocationInfo(ObjectStyleMacro macro, int offset, int endOffset) {
 			fMacro= macro;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2008 Wind River Systems, Inc. and others.
+ * Copyright (c) 2007, 2014 Wind River Systems, Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,6 +16,8 @@ import org.eclipse.cdt.core.dom.ast.IASTImageLocation;
 import org.eclipse.cdt.core.dom.ast.IASTNodeLocation;
 import org.eclipse.cdt.core.dom.ast.IASTPreprocessorMacroDefinition;
 import org.eclipse.cdt.core.dom.ast.IMacroBinding;
+import org.eclipse.cdt.internal.core.parser.scanner.ImageLocationInfo.MacroImageLocationInfo;
+import org.eclipse.cdt.internal.core.parser.scanner.ImageLocationInfo.ParameterImageLocationInfo;
 
 /**
  * A location context representing macro expansions.
@@ -24,15 +26,47 @@ import org.eclipse.cdt.core.dom.ast.IMacroBinding;
 class LocationCtxMacroExpansion extends LocationCtx {
 	private final LocationMap fLocationMap;
 	private final int fLength;
-	private final ImageLocationInfo[] fLocationInfos;
+	/**
+	 * The image location infos are stored in compact form, the objects are recreated when an image
+	 * location is requested. Per info there are three ints: the offset of the token within the
+	 * expansion, followed by the start and end offset of the macro definition or by the start and
+	 * end sequence number of the argument. The macro is stored separately, {@code null} for
+	 * arguments.
+	 */
+	private final int[] fImageLocationData;
+	private final ObjectStyleMacro[] fImageLocationMacros;
 	private final ASTMacroReferenceName fExpansionName;
 
+	private static final int[] NO_DATA= {};
+	private static final ObjectStyleMacro[] NO_MACROS= {};
+
 	public LocationCtxMacroExpansion(LocationMap map, LocationCtxContainer parent, int parentOffset, int parentEndOffset,
 			int sequenceNumber, int length, ImageLocationInfo[] imageLocations,	ASTMacroReferenceName expansionName) {
 		super(parent, parentOffset, parentEndOffset, sequenceNumber);
 		fLocationMap= map;
 		fLength= length;
-		fLocationInfos= imageLocations;
+		if (imageLocations.length == 0) {
+			fImageLocationData= NO_DATA;
+			fImageLocationMacros= NO_MACROS;
+		} else {
+			fImageLocationData= new int[3 * imageLocations.length];
+			fImageLocationMacros= new ObjectStyleMacro[imageLocations.length];
+			for (int i= 0; i < imageLocations.length; i++) {
+				final ImageLocationInfo info= imageLocations[i];
+				final int j= 3 * i;
+				fImageLocationData[j]= info.fTokenOffsetInExpansion;
+				if (info instanceof MacroImageLocationInfo) {
+					MacroImageLocationInfo mli= (MacroImageLocationInfo) info;
+					fImageLocationMacros[i]= mli.fMacro;
+					fImageLocationData[j + 1]= mli.fOffset;
+					fImageLocationData[j + 2]= mli.fEndOffset;
+				} else {
+					ParameterImageLocationInfo pli= (ParameterImageLocationInfo) info;
+					fImageLocationData[j + 1]= pli.fSequenceNumber;
+					fImageLocationData[j + 2]= pli.fSequenceEndNumber;
+				}
+			}
+		}
 		fExpansionName= expansionName;
 		if (!(expansionName.getParent() instanceof ASTMacroExpansion)) {
 			throw new IllegalArgumentException(expansionName.toString() + " is not a macro expansion name"); //$NON-NLS-1$
@@ -79,27 +113,54 @@ class LocationCtxMacroExpansion extends LocationCtx {
 		}
 		final int end= offset + length;
 		int nextToCheck= offset;
-		ImageLocationInfo firstInfo= null;
-		ImageLocationInfo lastInfo= null;
-		for (ImageLocationInfo info : fLocationInfos) {
-			if (info.fTokenOffsetInExpansion == nextToCheck) {
-				if (firstInfo == null || lastInfo == null) {
-					firstInfo= lastInfo= info;
-				} else if (lastInfo.canConcatenate(info)) {
-					lastInfo= info;
+		int first= -1;
+		int last= -1;
+		for (int i= 0; i < fImageLocationMacros.length; i++) {
+			final int tokenOffset= fImageLocationData[3 * i];
+			if (tokenOffset == nextToCheck) {
+				if (last < 0) {
+					first= last= i;
+				} else if (canConcatenate(last, i)) {
+					last= i;
 				} else {
 					return null;
 				}
 				if (++nextToCheck == end) {
-					return firstInfo.createLocation(fLocationMap, lastInfo);
+					return getImageLocationInfo(first).createLocation(fLocationMap, getImageLocationInfo(last));
 				}
-			} else if (info.fTokenOffsetInExpansion > nextToCheck) {
+			} else if (tokenOffset > nextToCheck) {
 				return null;
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * Same as {@link ImageLocationInfo#canConcatenate(ImageLocationInfo)} for the infos with
+	 * the given indices.
+	 */
+	private boolean canConcatenate(int info, int next) {
+		final ObjectStyleMacro macro= fImageLocationMacros[info];
+		if (macro != fImageLocationMacros[next])
+			return false;
+		// The end offset of a macro info or the end sequence number of an argument info must not
+		// exceed the start of the next info.
+		return fImageLocationData[3 * info + 2] <= fImageLocationData[3 * next + 1];
+	}
+
+	private ImageLocationInfo getImageLocationInfo(int i) {
+		final int j= 3 * i;
+		final ObjectStyleMacro macro= fImageLocationMacros[i];
+		ImageLocationInfo info;
+		if (macro != null) {
+			info= new MacroImageLocationInfo(macro, fImageLocationData[j + 1], fImageLocationData[j + 2]);
+		} else {
+			info= new ParameterImageLocationInfo(fImageLocationData[j + 1], fImageLocationData[j + 2]);
+		}
+		info.fTokenOffsetInExpansion= fImageLocationData[j];
+		return info;
+	}
+
 	public ASTPreprocessorName[] getNestedMacroReferences() {
 		return fLocationMap.getNestedMacroReferences((ASTMacroExpansion) fExpansionName.getParent());
 	}
@@ -830,6 +830,22 @@ public class LocationMap implements ILocationResolver {
 	public ASTPreprocessorName[] getNestedMacroReferences(ASTMacroExpansion expansion) {
 		final IASTName explicitRef= expansion.getMacroReference(); 
 		List<ASTPreprocessorName> result= new ArrayList<>();
+		// The nested references are added right after the explicit reference, see pushMacroExpansion().
+		final int offset= expansion.getOffset();
+		for (int i= findLastMacroReferenceBefore(fMacroReferences, offset) + 1; i < fMacroReferences.size(); i++) {
+			ASTPreprocessorName name= fMacroReferences.get(i);
+			if (name == explicitRef) {
+				for (i++; i < fMacroReferences.size(); i++) {
+					name= fMacroReferences.get(i);
+					if (name.getParent() != expansion)
+						break;
+					result.add(name);
+				}
+				return result.toArray(new ASTPreprocessorName[result.size()]);
+			}
+			if (name.getOffset() > offset)
+				break;
+		}
 		for (ASTPreprocessorName name : fMacroReferences) {
 			if (name.getParent() == expansion && name != explicitRef) {
 				result.add(name);
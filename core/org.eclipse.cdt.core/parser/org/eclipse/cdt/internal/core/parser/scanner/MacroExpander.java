@@ -938,12 +938,16 @@ public class MacroExpander {
 	}
 
 	public IASTName[] clearImplicitExpansions() {
+		if (fImplicitMacroExpansions.isEmpty())
+			return IASTName.EMPTY_NAME_ARRAY;
 		IASTName[] result= fImplicitMacroExpansions.toArray(new IASTName[fImplicitMacroExpansions.size()]);
 		fImplicitMacroExpansions.clear();
 		return result;
 	}
 
 	public ImageLocationInfo[] clearImageLocationInfos() {
+		if (fImageLocationInfos.isEmpty())
+			return ImageLocationInfo.NO_LOCATION_INFOS;
 		ImageLocationInfo[] result= fImageLocationInfos.toArray(new ImageLocationInfo[fImageLocationInfos.size()]);
 		fImageLocationInfos.clear();
 		return result;
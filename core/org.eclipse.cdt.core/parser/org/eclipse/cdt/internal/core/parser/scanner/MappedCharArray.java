@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.parser.scanner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Implementation of char array for a file that is memory-mapped, for files that consist of
+ * single-byte characters only. The characters are not copied to the heap, every byte of the
+ * mapped buffer is a character.
+ */
+public final class MappedCharArray extends AbstractCharArray {
+	private static final String UTF8_CHARSET_NAME = "UTF-8"; //$NON-NLS-1$
+	private static final String ASCII_CHARSET_NAME = "US-ASCII"; //$NON-NLS-1$
+	private static final String LATIN1_CHARSET_NAME = "ISO-8859-1"; //$NON-NLS-1$
+	private static final int HASH_CHUNK_SIZE = 4096;
+
+	/**
+	 * Maps the file of the given channel. Returns <code>null</code> if the charset does not
+	 * support the mapping or the file contains bytes that would need to be decoded.
+	 */
+	public static MappedCharArray create(FileChannel channel, String charSet) throws IOException {
+		final String name= Charset.forName(charSet).name();
+		final boolean latin1= LATIN1_CHARSET_NAME.equals(name);
+		final boolean utf8= UTF8_CHARSET_NAME.equals(name);
+		if (!latin1 && !utf8 && !ASCII_CHARSET_NAME.equals(name))
+			return null;
+
+		final long size= channel.size();
+		if (size > Integer.MAX_VALUE)
+			return null;
+
+		final MappedByteBuffer buffer= channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		int start= 0;
+		if (utf8 && size >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB &&
+				buffer.get(2) == (byte) 0xBF) {
+			start= 3;
+		}
+		if (!latin1) {
+			// Bytes outside of the ASCII range have to be decoded.
+			for (int i= start; i < size; i++) {
+				if (buffer.get(i) < 0)
+					return null;
+			}
+		}
+		return new MappedCharArray(buffer, start, (int) size - start);
+	}
+
+	private final ByteBuffer fBuffer;
+	private final int fStart;
+	private final int fLength;
+	private long fHash64;
+
+	private MappedCharArray(ByteBuffer buffer, int start, int length) {
+		fBuffer= buffer;
+		fStart= start;
+		fLength= length;
+	}
+
+	@Override
+	public int tryGetLength() {
+		return fLength;
+	}
+
+	@Override
+	public int getLength() {
+		return fLength;
+	}
+
+	@Override
+	public boolean isValidOffset(int offset) {
+		return offset >= 0 && offset < fLength;
+	}
+
+	@Override
+	public char get(int offset) {
+		return (char) (fBuffer.get(fStart + offset) & 0xff);
+	}
+
+	@Override
+	public void arraycopy(int offset, char[] destination, int destinationPos, int length) {
+		final int start= fStart + offset;
+		for (int i= 0; i < length; i++) {
+			destination[destinationPos + i]= (char) (fBuffer.get(start + i) & 0xff);
+		}
+	}
+
+	@Override
+	public boolean hasError() {
+		return false;
+	}
+
+	@Override
+	public long getContentsHash() {
+		if (fHash64 == 0 && fLength != 0) {
+			// Same value as for the decoded characters, see LazyCharArray and CharArray.
+			StreamHasher hasher= new StreamHasher();
+			char[] chunk= new char[Math.min(fLength, HASH_CHUNK_SIZE)];
+			for (int offset= 0; offset < fLength; offset += chunk.length) {
+				final int length= Math.min(chunk.length, fLength - offset);
+				if (length < chunk.length)
+					chunk= new char[length];
+				arraycopy(offset, chunk, 0, length);
+				hasher.addChunk(chunk);
+			}
+			fHash64= hasher.computeHash();
+		}
+		return fHash64;
+	}
+}
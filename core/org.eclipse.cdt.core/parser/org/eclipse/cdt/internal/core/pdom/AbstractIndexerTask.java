@@ -29,6 +29,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -311,6 +312,9 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 	private Map<IIndexFile, IndexFileContent> fIndexContentCache= new LRUCache<>(500);
 	private Map<IIndexFileLocation, IIndexFragmentFile[]> fIndexFilesCache= new LRUCache<>(5000);
 	private Map<IIndexFileLocation, LocationTask> fOneLinkageTasks= new HashMap<>();
+	/** Files including a header whose interface has changed, to be updated after the requested files. */
+	private HashMap<Integer, List<IIndexFileLocation>> fDependentFiles;
+	private final Set<IIndexFragmentFile> fRequestedDependentFiles= new HashSet<>();
 
 	private Object[] fFilesToUpdate;
 	private List<Object> fFilesToRemove = new ArrayList<>();
@@ -324,6 +328,7 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 	private long fIncludedFileSizeLimit;
 	private InternalFileContentProvider fCodeReaderFactory;
 	private int fSwallowOutOfMemoryError= 5;
+	private int fParserThreadCount= 1;
 	/**
 	 * A queue of urgent indexing tasks that contribute additional files to this task.
 	 * The files from the urgent tasks are indexed before all not yet processed files.
@@ -331,6 +336,7 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 	private final Deque<AbstractIndexerTask> fUrgentTasks;
 	boolean fTaskCompleted;
 	private IndexerProgress fInfo= new IndexerProgress();
+	private final IndexerMetrics fMetrics= new IndexerMetrics();
 	private IProgressMonitor fProgressMonitor;
 
 	public AbstractIndexerTask(Object[] filesToUpdate, Object[] filesToRemove,
@@ -384,6 +390,15 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 		fPragmaPrivatePattern = pattern;
 	}
 
+	/**
+	 * Sets the number of threads used for indexing source files. With more than one thread
+	 * the contents of the sources are read ahead on a pool of threads, while the sources are
+	 * parsed and written to the index one at a time by the thread running the task.
+	 */
+	public final void setParserThreadCount(int count) {
+		fParserThreadCount= Math.max(1, count);
+	}
+
 	/**
 	 * @see IPDOMIndexerTask#acceptUrgentTask(IPDOMIndexerTask)
 	 */
@@ -479,6 +494,13 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 		}
 	}
 
+	/**
+	 * Returns the per-file timings collected by this task.
+	 */
+	public IndexerMetrics getMetrics() {
+		return fMetrics;
+	}
+
 	/**
 	 * Updates current progress information with the provided delta.
 	 */
@@ -565,6 +587,11 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 						}
 						synchronized (this) {
 							if (fUrgentTasks.isEmpty()) {
+								if (moreFiles == null && fDependentFiles != null && !monitor.isCanceled()) {
+									// Update the files including headers with a changed interface.
+									moreFiles= fDependentFiles;
+									fDependentFiles= null;
+								}
 								if (moreFiles == null) {
 									// No urgent tasks and no more files to parse. We are done.
 									fTaskCompleted = true;
@@ -635,6 +662,7 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 		final boolean checkFileContentsHash = (fUpdateFlags & IIndexManager.UPDATE_CHECK_CONTENTS_HASH) != 0;
 		final boolean forceUnresolvedIncludes = (fUpdateFlags & IIndexManager.UPDATE_UNRESOLVED_INCLUDES) != 0;
 		final boolean both = fIndexHeadersWithoutContext == UnusedHeaderStrategy.useBoth;
+		final long start= System.currentTimeMillis();
 		int count= 0;
 		int forceFirst= fForceNumberFiles;
 		BitSet linkages= new BitSet();
@@ -710,6 +738,7 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 			incrementRequestedFilesCount(count - fFilesToUpdate.length);
 			fFilesToUpdate= null;
 		}
+		fStatistics.fScanTime += System.currentTimeMillis() - start;
 	}
 
 	private void addPerLinkage(int linkageID, IIndexFileLocation ifl, HashMap<Integer, List<IIndexFileLocation>> files) {
@@ -779,6 +808,44 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 		return null;
 	}
 
+	@Override
+	protected void reportDependentFiles(IIndexFragmentFile file, IIndexFragmentFile[] includers)
+			throws CoreException {
+		int count= 0;
+		for (IIndexFragmentFile includer : includers) {
+			// Every version is requested at most once per task, this breaks include cycles.
+			if (!fRequestedDependentFiles.add(includer))
+				continue;
+
+			final int linkageID= includer.getLinkageID();
+			final IIndexFileLocation ifl= includer.getLocation();
+			LinkageTask map= findRequestMap(linkageID);
+			LocationTask locTask= map == null ? null : map.find(ifl);
+			if (locTask != null && locTask.findVersion(includer) != null)
+				continue; // Already updated or about to be updated by this task.
+
+			final Object tu= fResolver.getInputFile(ifl);
+			if (tu == null)
+				continue;
+			final boolean isSourceUnit= fResolver.isSourceUnit(tu);
+			final UpdateKind kind= isSourceUnit && isRequiredInIndex(tu, ifl, isSourceUnit) ?
+					UpdateKind.REQUIRED_SOURCE : UpdateKind.OTHER_HEADER;
+			if (requestUpdate(linkageID, ifl, includer, tu, kind)) {
+				if (fDependentFiles == null)
+					fDependentFiles= new HashMap<>();
+				addPerLinkage(linkageID, ifl, fDependentFiles);
+				count++;
+			}
+		}
+		if (count > 0) {
+			if (fShowActivity) {
+				trace("Indexer: interface of " + file.getLocation().getURI() + " changed, updating " + //$NON-NLS-1$
+						count + " dependent files"); //$NON-NLS-1$
+			}
+			incrementRequestedFilesCount(count);
+		}
+	}
+
 	@Override
 	protected void reportFileWrittenToIndex(FileInAST file, IIndexFragmentFile ifile) throws CoreException {
 		final FileContentKey fck = file.fileContentKey;
@@ -885,17 +952,22 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 				continue;
 
 			// First parse the required sources.
-			for (Iterator<IIndexFileLocation> it= filesAtPriority.iterator(); it.hasNext();) {
-				IIndexFileLocation ifl= it.next();
-				LocationTask locTask = map.find(ifl);
-				if (locTask == null || locTask.isCompleted()) {
-					it.remove();
-				} else if (locTask.fKind == UpdateKind.REQUIRED_SOURCE) {
-					if (monitor.isCanceled() || hasUrgentTasks())
-						return;
-					final Object tu = locTask.fTu;
-					final IScannerInfo scannerInfo = getScannerInfo(linkageID, tu);
-					parseFile(tu, getLanguage(tu, linkageID), ifl, scannerInfo, null, monitor);
+			if (fParserThreadCount > 1) {
+				if (!parseRequiredSourcesWithReadAhead(linkageID, map, filesAtPriority, monitor))
+					return;
+			} else {
+				for (Iterator<IIndexFileLocation> it= filesAtPriority.iterator(); it.hasNext();) {
+					IIndexFileLocation ifl= it.next();
+					LocationTask locTask = map.find(ifl);
+					if (locTask == null || locTask.isCompleted()) {
+						it.remove();
+					} else if (locTask.fKind == UpdateKind.REQUIRED_SOURCE) {
+						if (monitor.isCanceled() || hasUrgentTasks())
+							return;
+						final Object tu = locTask.fTu;
+						final IScannerInfo scannerInfo = getScannerInfo(linkageID, tu);
+						parseFile(tu, getLanguage(tu, linkageID), ifl, scannerInfo, null, monitor);
+					}
 				}
 			}
 	
@@ -966,6 +1038,66 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 		}
 	}
 
+	/**
+	 * Parses the required sources, while their contents are read ahead on a pool of threads.
+	 * Parsing and writing stays on the thread of the task: an AST refers to objects of the index,
+	 * which may be replaced when a different AST is written.
+	 *
+	 * @return {@code false} if parsing was interrupted by cancellation or by an urgent task.
+	 */
+	private boolean parseRequiredSourcesWithReadAhead(int linkageID, LinkageTask map,
+			List<IIndexFileLocation> files, final IProgressMonitor monitor)
+			throws CoreException, InterruptedException {
+		List<IIndexFileLocation> sources= new ArrayList<>();
+		List<LocationTask> tasks= new ArrayList<>();
+		for (Iterator<IIndexFileLocation> it= files.iterator(); it.hasNext();) {
+			IIndexFileLocation ifl= it.next();
+			LocationTask locTask = map.find(ifl);
+			if (locTask == null || locTask.isCompleted()) {
+				it.remove();
+			} else if (locTask.fKind == UpdateKind.REQUIRED_SOURCE) {
+				sources.add(ifl);
+				tasks.add(locTask);
+			}
+		}
+		if (sources.isEmpty())
+			return true;
+
+		ReadAheadQueue<LocationTask, FileContent> contents= new ReadAheadQueue<>("Indexer Reader", //$NON-NLS-1$
+				fParserThreadCount, 2 * fParserThreadCount, tasks,
+				new ReadAheadQueue.Producer<LocationTask, FileContent>() {
+					@Override
+					public FileContent produce(LocationTask locTask) {
+						if (monitor.isCanceled())
+							return null;
+						return fResolver.getCodeReader(locTask.fTu);
+					}
+				});
+		try {
+			for (int i = 0; i < sources.size(); i++) {
+				if (monitor.isCanceled() || hasUrgentTasks())
+					return false;
+				FileContent codeReader;
+				try {
+					codeReader= contents.next();
+				} catch (ExecutionException e) {
+					// Read the file on this thread, such that the error is reported for the file.
+					codeReader= null;
+				}
+				// The source may have been written together with one of the previous sources.
+				final LocationTask locTask= tasks.get(i);
+				if (locTask.isCompleted())
+					continue;
+				final Object tu = locTask.fTu;
+				final IScannerInfo scannerInfo = getScannerInfo(linkageID, tu);
+				parseFile(tu, getLanguage(tu, linkageID), sources.get(i), scannerInfo, null, codeReader, monitor);
+			}
+		} finally {
+			contents.close();
+		}
+		return true;
+	}
+
 	private void parseVersionInContext(int linkageID, LinkageTask map, IIndexFileLocation ifl,
 			final FileVersionTask versionTask, Object tu, LinkedHashSet<IIndexFile> safeGuard,
 			IProgressMonitor monitor) throws CoreException, InterruptedException {
@@ -1070,6 +1202,16 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 	private DependsOnOutdatedFileException parseFile(Object tu, AbstractLanguage lang,
 			IIndexFileLocation ifl, IScannerInfo scanInfo, FileContext ctx, IProgressMonitor pm)
 			throws CoreException, InterruptedException {
+		return parseFile(tu, lang, ifl, scanInfo, ctx, null, pm);
+	}
+
+	/**
+	 * Parses a file and writes it to the index. The content of the file is read unless it is
+	 * provided by the caller.
+	 */
+	private DependsOnOutdatedFileException parseFile(Object tu, AbstractLanguage lang,
+			IIndexFileLocation ifl, IScannerInfo scanInfo, FileContext ctx, FileContent codeReader,
+			IProgressMonitor pm) throws CoreException, InterruptedException {
 		boolean resultCacheCleared = false;
 		IPath path= getLabel(ifl);
 		Throwable th= null;
@@ -1079,20 +1221,26 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 			}
 			pm.subTask(getMessage(MessageKind.parsingFileTask,
 					path.lastSegment(), path.removeLastSegments(1).toString()));
-			FileContent codeReader= fResolver.getCodeReader(tu);
+			if (codeReader == null)
+				codeReader= fResolver.getCodeReader(tu);
 			final boolean isSource = fResolver.isSourceUnit(tu);
 
 			long start= System.currentTimeMillis();
 			IASTTranslationUnit ast= createAST(lang, codeReader, scanInfo, isSource, fASTOptions, ctx, pm);
-			fStatistics.fParsingTime += System.currentTimeMillis() - start;
+			final int parsingTime= (int) (System.currentTimeMillis() - start);
+			fStatistics.fParsingTime += parsingTime;
 			if (ast == null) {
 				++fStatistics.fTooManyTokensCount;
 			} else {
 				// Give the new AST a chance to recognize its translation unit before it is written
 				// to the index.
 				((ASTTranslationUnit) ast).setOriginatingTranslationUnit((ITranslationUnit) tu);
+				final int resolutionTime= fStatistics.fResolutionTime;
+				final int addToIndexTime= fStatistics.fAddToIndexTime;
 				writeToIndex(lang.getLinkageID(), ast, codeReader, ctx, pm);
 				resultCacheCleared = true;  // The cache was cleared while writing to the index.
+				fMetrics.addFile(path.toString(), parsingTime, fStatistics.fResolutionTime - resolutionTime,
+						fStatistics.fAddToIndexTime - addToIndexTime);
 			}
 		} catch (RuntimeException e) {
 			final Throwable cause = e.getCause();
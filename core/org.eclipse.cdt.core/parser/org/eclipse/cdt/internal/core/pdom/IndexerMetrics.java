@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.pdom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Per-file timings of an indexer task. Collects histograms of the time spent for parsing,
+ * name resolution and writing to the index per translation unit, and keeps the files that took
+ * longest. Together with the {@link IndexerStatistics} the metrics can be exported as JSON.
+ */
+public class IndexerMetrics {
+	public static final int PARSE= 0;
+	public static final int RESOLVE= 1;
+	public static final int WRITE= 2;
+	private static final String[] PHASE_NAMES= { "parse", "resolve", "write" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+	/** Bucket i counts the files that took less than 2^i milliseconds, the last bucket the rest. */
+	private static final int BUCKET_COUNT= 20;
+	private static final int SLOWEST_FILE_COUNT= 50;
+
+	private static class FileTiming {
+		final String fPath;
+		final int[] fTimes;
+		final int fTotal;
+
+		FileTiming(String path, int[] times) {
+			fPath= path;
+			fTimes= times;
+			fTotal= times[PARSE] + times[RESOLVE] + times[WRITE];
+		}
+	}
+
+	private static final Comparator<FileTiming> BY_TOTAL_TIME= new Comparator<FileTiming>() {
+		@Override
+		public int compare(FileTiming t1, FileTiming t2) {
+			return Integer.compare(t1.fTotal, t2.fTotal);
+		}
+	};
+
+	private final int[][] fHistograms= new int[PHASE_NAMES.length + 1][BUCKET_COUNT];
+	private final PriorityQueue<FileTiming> fSlowestFiles= new PriorityQueue<>(SLOWEST_FILE_COUNT + 1, BY_TOTAL_TIME);
+	private int fFileCount;
+
+	/**
+	 * Records the timings for a translation unit, in milliseconds.
+	 */
+	public synchronized void addFile(String path, int parseTime, int resolveTime, int writeTime) {
+		final int[] times= { parseTime, resolveTime, writeTime };
+		final FileTiming timing= new FileTiming(path, times);
+		for (int i = 0; i < times.length; i++) {
+			fHistograms[i][getBucket(times[i])]++;
+		}
+		fHistograms[times.length][getBucket(timing.fTotal)]++;
+		fFileCount++;
+
+		fSlowestFiles.add(timing);
+		if (fSlowestFiles.size() > SLOWEST_FILE_COUNT) {
+			fSlowestFiles.poll();
+		}
+	}
+
+	private static int getBucket(int time) {
+		int bucket= 0;
+		while (bucket < BUCKET_COUNT - 1 && time >= 1 << bucket) {
+			bucket++;
+		}
+		return bucket;
+	}
+
+	public synchronized int getFileCount() {
+		return fFileCount;
+	}
+
+	/**
+	 * Returns the metrics together with the statistics of the task in JSON format.
+	 */
+	public synchronized String toJSON(String project, long totalTime, IndexerStatistics stats,
+			IndexerProgress progress, long cacheHits, long cacheMisses, long databaseSize) {
+		StringBuilder buf= new StringBuilder();
+		buf.append("{\n"); //$NON-NLS-1$
+		appendProperty(buf, 1, "project").append(quote(project)).append(",\n"); //$NON-NLS-1$
+		appendProperty(buf, 1, "sources").append(progress.fCompletedSources).append(",\n"); //$NON-NLS-1$
+		appendProperty(buf, 1, "headers").append(progress.fCompletedHeaders).append(",\n"); //$NON-NLS-1$
+		appendProperty(buf, 1, "databaseSize").append(databaseSize).append(",\n"); //$NON-NLS-1$
+
+		appendProperty(buf, 1, "timings").append("{\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		appendProperty(buf, 2, "total").append(totalTime).append(",\n"); //$NON-NLS-1$
+		appendProperty(buf, 2, "scan").append(stats.fScanTime).append(",\n"); //$NON-NLS-1$
+		appendProperty(buf, 2, "parse").append(stats.fParsingTime).append(",\n"); //$NON-NLS-1$
+		appendProperty(buf, 2, "resolve").append(stats.fResolutionTime).append(",\n"); //$NON-NLS-1$
+		appendProperty(buf, 2, "write").append(stats.fAddToIndexTime).append(",\n"); //$NON-NLS-1$
+		appendProperty(buf, 2, "lockWait").append(stats.fLockWaitTime).append('\n'); //$NON-NLS-1$
+		indent(buf, 1).append("},\n"); //$NON-NLS-1$
+
+		final long lookups= cacheHits + cacheMisses;
+		appendProperty(buf, 1, "chunkCache").append("{\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		appendProperty(buf, 2, "hits").append(cacheHits).append(",\n"); //$NON-NLS-1$
+		appendProperty(buf, 2, "misses").append(cacheMisses).append(",\n"); //$NON-NLS-1$
+		appendProperty(buf, 2, "hitRatio").append(lookups == 0 ? 0.0 : (double) cacheHits / lookups).append('\n'); //$NON-NLS-1$
+		indent(buf, 1).append("},\n"); //$NON-NLS-1$
+
+		appendProperty(buf, 1, "names").append("{\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		appendProperty(buf, 2, "declarations").append(stats.fDeclarationCount).append(",\n"); //$NON-NLS-1$
+		appendProperty(buf, 2, "references").append(stats.fReferenceCount).append(",\n"); //$NON-NLS-1$
+		appendProperty(buf, 2, "unresolved").append(stats.fProblemBindingCount).append('\n'); //$NON-NLS-1$
+		indent(buf, 1).append("},\n"); //$NON-NLS-1$
+
+		appendProperty(buf, 1, "errors").append("{\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		appendProperty(buf, 2, "internal").append(stats.fErrorCount).append(",\n"); //$NON-NLS-1$
+		appendProperty(buf, 2, "unresolvedIncludes").append(stats.fUnresolvedIncludesCount).append(",\n"); //$NON-NLS-1$
+		appendProperty(buf, 2, "preprocessor").append(stats.fPreprocessorProblemCount).append(",\n"); //$NON-NLS-1$
+		appendProperty(buf, 2, "syntax").append(stats.fSyntaxProblemsCount).append(",\n"); //$NON-NLS-1$
+		appendProperty(buf, 2, "tooManyTokens").append(stats.fTooManyTokensCount).append('\n'); //$NON-NLS-1$
+		indent(buf, 1).append("},\n"); //$NON-NLS-1$
+
+		appendProperty(buf, 1, "histograms").append("{\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		appendProperty(buf, 2, "bucketLimits").append('['); //$NON-NLS-1$
+		for (int i = 0; i < BUCKET_COUNT - 1; i++) {
+			buf.append(1 << i).append(", "); //$NON-NLS-1$
+		}
+		buf.append("null],\n"); //$NON-NLS-1$
+		for (int i = 0; i < fHistograms.length; i++) {
+			appendProperty(buf, 2, i < PHASE_NAMES.length ? PHASE_NAMES[i] : "total").append('['); //$NON-NLS-1$
+			for (int j = 0; j < BUCKET_COUNT; j++) {
+				if (j > 0)
+					buf.append(", "); //$NON-NLS-1$
+				buf.append(fHistograms[i][j]);
+			}
+			buf.append(i < fHistograms.length - 1 ? "],\n" : "]\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		indent(buf, 1).append("},\n"); //$NON-NLS-1$
+
+		List<FileTiming> slowest= new ArrayList<>(fSlowestFiles);
+		Collections.sort(slowest, Collections.reverseOrder(BY_TOTAL_TIME));
+		appendProperty(buf, 1, "slowestFiles").append("[\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		for (int i = 0; i < slowest.size(); i++) {
+			FileTiming timing= slowest.get(i);
+			indent(buf, 2).append("{ \"path\": ").append(quote(timing.fPath)); //$NON-NLS-1$
+			for (int j = 0; j < PHASE_NAMES.length; j++) {
+				buf.append(", \"").append(PHASE_NAMES[j]).append("\": ").append(timing.fTimes[j]); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			buf.append(", \"total\": ").append(timing.fTotal); //$NON-NLS-1$
+			buf.append(i < slowest.size() - 1 ? " },\n" : " }\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		indent(buf, 1).append("]\n"); //$NON-NLS-1$
+		buf.append("}\n"); //$NON-NLS-1$
+		return buf.toString();
+	}
+
+	private static StringBuilder indent(StringBuilder buf, int level) {
+		for (int i = 0; i < level; i++) {
+			buf.append('\t');
+		}
+		return buf;
+	}
+
+	private static StringBuilder appendProperty(StringBuilder buf, int level, String name) {
+		return indent(buf, level).append(quote(name)).append(": "); //$NON-NLS-1$
+	}
+
+	private static String quote(String str) {
+		StringBuilder buf= new StringBuilder(str.length() + 2);
+		buf.append('"');
+		for (int i = 0; i < str.length(); i++) {
+			final char c= str.charAt(i);
+			switch (c) {
+			case '"':
+			case '\\':
+				buf.append('\\').append(c);
+				break;
+			case '\n':
+				buf.append("\\n"); //$NON-NLS-1$
+				break;
+			case '\r':
+				buf.append("\\r"); //$NON-NLS-1$
+				break;
+			case '\t':
+				buf.append("\\t"); //$NON-NLS-1$
+				break;
+			default:
+				if (c < 0x20) {
+					buf.append(String.format("\\u%04x", (int) c)); //$NON-NLS-1$
+				} else {
+					buf.append(c);
+				}
+				break;
+			}
+		}
+		return buf.append('"').toString();
+	}
+}
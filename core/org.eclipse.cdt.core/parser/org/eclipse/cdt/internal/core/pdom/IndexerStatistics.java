@@ -12,9 +12,11 @@
 package org.eclipse.cdt.internal.core.pdom;
 
 public class IndexerStatistics {
+	public int fScanTime;
 	public int fResolutionTime;
 	public int fParsingTime;
 	public int fAddToIndexTime;
+	public int fLockWaitTime;
 	public int fErrorCount;
 	public int fReferenceCount= 0;
 	public int fDeclarationCount= 0;
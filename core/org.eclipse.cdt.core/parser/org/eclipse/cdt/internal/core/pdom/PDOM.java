@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -107,6 +108,13 @@ public class PDOM extends PlatformObject implements IPDOM {
 	private static final int LONG_WRITE_LOCK_REPORT_THRESHOLD = 1000;
 	private static final int LONG_READ_LOCK_WAIT_REPORT_THRESHOLD = 1000;
 	static boolean sDEBUG_LOCKS= false; // Initialized in the PDOMManager, because IBM needs PDOM independent of runtime plugin.
+	/**
+	 * Whether readers may access the state of the index before the current write transaction,
+	 * rather than waiting for the write lock to be released. Needs to be enabled explicitly, see
+	 * {@link #getResultCache()} for the objects shared between the writer and the readers.
+	 */
+	private static final boolean SNAPSHOT_READS=
+			Boolean.getBoolean("org.eclipse.cdt.core.parser.pdom.snapshotReads"); //$NON-NLS-1$
 
 	/**
 	 * Identifier for PDOM format
@@ -357,15 +365,17 @@ public class PDOM extends PlatformObject implements IPDOM {
 
 	// Local caches
 	protected Database db;
-	private BTree fileIndex;
+	private volatile BTree fileIndex;
 	private PDOMTagIndex tagIndex;
-	private BTree indexOfDefectiveFiles;
-	private BTree indexOfFiledWithUnresolvedIncludes;
+	private volatile BTree indexOfDefectiveFiles;
+	private volatile BTree indexOfFiledWithUnresolvedIncludes;
 	private final Map<Integer, PDOMLinkage> fLinkageIDCache = new HashMap<>();
 	private File fPath;
 	private final IIndexLocationConverter locationConverter;
 	private final Map<String, IPDOMLinkageFactory> fPDOMLinkageFactoryCache;
 	private final HashMap<Object, Object> fResultCache= new HashMap<>();
+	private final HashMap<Thread, HashMap<Object, Object>> fThreadResultCaches= new HashMap<>();
+	private volatile Map<Integer, PDOMLinkage> fSnapshotLinkages;
 	private List<IListener> listeners;
 	protected ChangeEvent fEvent= new ChangeEvent();
 
@@ -441,11 +451,23 @@ public class PDOM extends PlatformObject implements IPDOM {
 	}
 
 	public PDOMLinkage getLinkage(int linkageID) throws CoreException {
-		return fLinkageIDCache.get(linkageID);
+		return getLinkageIDCache().get(linkageID);
 	}
 
 	private Collection<PDOMLinkage> getLinkageList() {
-		return fLinkageIDCache.values();
+		return getLinkageIDCache().values();
+	}
+
+	/**
+	 * Returns the linkages visible to the calling thread. Readers of a snapshot do not see
+	 * linkages created by the writer.
+	 */
+	private Map<Integer, PDOMLinkage> getLinkageIDCache() {
+		final Map<Integer, PDOMLinkage> snapshotLinkages= fSnapshotLinkages;
+		if (snapshotLinkages != null && db.isSnapshotReader()) {
+			return snapshotLinkages;
+		}
+		return fLinkageIDCache;
 	}
 
 	public void accept(IPDOMVisitor visitor) throws CoreException {
@@ -487,7 +509,7 @@ public class PDOM extends PlatformObject implements IPDOM {
 		return fileIndex;
 	}
 
-	public PDOMTagIndex getTagIndex() throws CoreException {
+	public synchronized PDOMTagIndex getTagIndex() throws CoreException {
 		if (tagIndex == null) {
 			tagIndex = new PDOMTagIndex(db, TAG_INDEX);
 		}
@@ -604,6 +626,7 @@ public class PDOM extends PlatformObject implements IPDOM {
 
 	protected void clear() throws CoreException {
 		assert lockCount < 0; // needs write-lock.
+		stopSnapshotReads();
 
 		// Clear out the database, everything is set to zero.
 		int vers = getDefaultVersion();
@@ -614,6 +637,7 @@ public class PDOM extends PlatformObject implements IPDOM {
 
 	void reloadFromFile(File file) throws CoreException {
 		assert lockCount < 0;	// must have write lock.
+		stopSnapshotReads();
 		File oldFile= fPath;
 		clearCaches();
 		try {
@@ -939,25 +963,59 @@ public class PDOM extends PlatformObject implements IPDOM {
 
 	// Read-write lock rules. Readers don't conflict with other readers,
 	// Writers conflict with readers, and everyone conflicts with writers.
+	// With snapshot reads enabled, readers don't conflict with writers either. They read
+	// a snapshot of the database taken when the write lock was acquired, the writer waits for
+	// these readers before it releases the write lock.
 	private final Object mutex = new Object();
+	private volatile boolean fSnapshotReads= SNAPSHOT_READS;
 	private int lockCount;
 	private int waitingReaders;
+	private boolean admitSnapshotReaders;
+	private int snapshotReaders;
+	private int writerBlockingReaders;
 	private long lastWriteAccess= 0;
 	private long lastReadAccess= 0;
 	private long timeWriteLockAcquired;
 
+	/**
+	 * Enables or disables snapshot reads for this PDOM, by default they are controlled by the
+	 * system property <code>org.eclipse.cdt.core.parser.pdom.snapshotReads</code>. Takes effect
+	 * for the next write lock.
+	 */
+	public void setSnapshotReads(boolean enable) {
+		synchronized (mutex) {
+			fSnapshotReads= enable;
+		}
+	}
+
 	@Override
 	public void acquireReadLock() throws InterruptedException {
+		acquireReadLock(false);
+	}
+
+	/**
+	 * Acquires a read lock. With <code>blockWriters</code> set, the read lock is not granted during
+	 * a write transaction and writers have to wait until it is released, which is necessary for
+	 * accessing the database file directly. Such a lock must be released with
+	 * {@link #releaseReadLock(boolean)}.
+	 */
+	public void acquireReadLock(boolean blockWriters) throws InterruptedException {
 		long t = sDEBUG_LOCKS ? System.nanoTime() : 0;
 		synchronized (mutex) {
 			++waitingReaders;
 			try {
-				while (lockCount < 0)
+				while (lockCount < 0 && (blockWriters || !admitSnapshotReaders))
 					mutex.wait();
 			} finally {
 				--waitingReaders;
 			}
-			++lockCount;
+			if (lockCount < 0) {
+				++snapshotReaders;
+			} else {
+				++lockCount;
+				if (blockWriters)
+					++writerBlockingReaders;
+			}
 			db.setLocked(true);
 
 			if (sDEBUG_LOCKS) {
@@ -972,16 +1030,31 @@ public class PDOM extends PlatformObject implements IPDOM {
 
 	@Override
 	public void releaseReadLock() {
+		releaseReadLock(false);
+	}
+
+	/**
+	 * Releases a read lock, <code>blockWriters</code> must have the same value as for acquiring it.
+	 */
+	public void releaseReadLock(boolean blockWriters) {
 		boolean clearCache= false;
 		synchronized (mutex) {
-			assert lockCount > 0: "No lock to release"; //$NON-NLS-1$
+			assert lockCount > 0 || snapshotReaders > 0: "No lock to release"; //$NON-NLS-1$
 			if (sDEBUG_LOCKS) {
 				decReadLock(fLockDebugging);
 			}
+			if (blockWriters) {
+				assert writerBlockingReaders > 0;
+				--writerBlockingReaders;
+			}
 
 			lastReadAccess= System.currentTimeMillis();
-			if (lockCount > 0)
+			if (lockCount < 0) {
+				if (snapshotReaders > 0)
+					--snapshotReaders;
+			} else if (lockCount > 0) {
 				--lockCount;
+			}
 			mutex.notifyAll();
 			clearCache= lockCount == 0;
 			db.setLocked(lockCount != 0);
@@ -1002,13 +1075,17 @@ public class PDOM extends PlatformObject implements IPDOM {
 
 	/**
 	 * Acquire a write lock on this PDOM, giving up the specified number of read locks first. Blocks
-	 * until any existing read/write locks are released.
+	 * until any existing read/write locks are released. With snapshot reads enabled, the
+	 * write lock is granted while other threads hold read locks, these continue to read the state
+	 * of the PDOM before the write lock was acquired.
 	 * @throws InterruptedException
 	 * @throws IllegalStateException if this PDOM is not writable
 	 */
 	public void acquireWriteLock(int giveupReadLocks, IProgressMonitor monitor) throws InterruptedException {
 		assert !isPermanentlyReadOnly();
+		final boolean snapshotReads;
 		synchronized (mutex) {
+			snapshotReads= fSnapshotReads;
 			if (sDEBUG_LOCKS) {
 				incWriteLock(giveupReadLocks);
 			}
@@ -1025,7 +1102,8 @@ public class PDOM extends PlatformObject implements IPDOM {
 
 			// Let the readers go first
 			long start= sDEBUG_LOCKS ? System.currentTimeMillis() : 0;
-			while (lockCount > giveupReadLocks || waitingReaders > 0) {
+			while ((lockCount > giveupReadLocks && (!snapshotReads || writerBlockingReaders > 0))
+					|| waitingReaders > 0) {
 				mutex.wait(CANCELLATION_CHECK_INTERVAL);
 				if (monitor != null && monitor.isCanceled()) {
 					throw new OperationCanceledException();
@@ -1034,10 +1112,56 @@ public class PDOM extends PlatformObject implements IPDOM {
 					start = reportBlockedWriteLock(start, giveupReadLocks);
 				}
 			}
+			if (snapshotReads) {
+				// The remaining readers continue with the snapshot.
+				snapshotReaders= lockCount - giveupReadLocks;
+				admitSnapshotReaders= true;
+				fSnapshotLinkages= new HashMap<>(fLinkageIDCache);
+			}
 			lockCount= -1;
 			if (sDEBUG_LOCKS)
 				timeWriteLockAcquired = System.currentTimeMillis();
 			db.setExclusiveLock();
+			if (snapshotReads) {
+				db.startSnapshot();
+			}
+		}
+		if (snapshotReads) {
+			// Outside of the mutex, a reader of the snapshot may be creating the index of a linkage.
+			for (PDOMLinkage linkage : fLinkageIDCache.values()) {
+				linkage.startSnapshot();
+			}
+		}
+	}
+
+	/**
+	 * Waits for the readers of the snapshot and makes the modifications visible to all threads.
+	 * Until the write lock is released, readers have to wait for it. Must be called by the writer.
+	 */
+	private void stopSnapshotReads() {
+		boolean interrupted= false;
+		synchronized (mutex) {
+			if (!admitSnapshotReaders)
+				return;
+			// Like for acquiring the write lock, the readers go first. A reader may acquire further
+			// read locks before it releases the ones it holds.
+			while (snapshotReaders > 0) {
+				try {
+					mutex.wait();
+				} catch (InterruptedException e) {
+					interrupted= true;
+				}
+			}
+			admitSnapshotReaders= false;
+			db.endSnapshot();
+			fSnapshotLinkages= null;
+		}
+		// The objects cached by the readers reflect the snapshot.
+		synchronized (fResultCache) {
+			fThreadResultCaches.keySet().retainAll(Collections.singleton(Thread.currentThread()));
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
 		}
 	}
 
@@ -1047,6 +1171,7 @@ public class PDOM extends PlatformObject implements IPDOM {
 
 	@SuppressWarnings("nls")
 	public void releaseWriteLock(int establishReadLocks, boolean flush) {
+		stopSnapshotReads();
 		// When all locks are released we can clear the result cache.
 		if (establishReadLocks == 0) {
 			clearResultCache();
@@ -1095,7 +1220,7 @@ public class PDOM extends PlatformObject implements IPDOM {
 	}
 
 	protected PDOMLinkage adaptLinkage(ILinkage linkage) throws CoreException {
-		return fLinkageIDCache.get(linkage.getLinkageID());
+		return getLinkageIDCache().get(linkage.getLinkageID());
 	}
 
 	private ThreadLocal<IBinding> inProgress = new ThreadLocal<>();
@@ -1131,7 +1256,7 @@ public class PDOM extends PlatformObject implements IPDOM {
 		}
 
 		if (binding instanceof IMacroBinding) {
-			for (PDOMLinkage linkage2 : fLinkageIDCache.values()) {
+			for (PDOMLinkage linkage2 : getLinkageIDCache().values()) {
 				IIndexFragmentBinding pdomBinding = findBindingInLinkage(linkage2, binding, includeLocal);
 				if (pdomBinding != null)
 					return pdomBinding;
@@ -1413,6 +1538,7 @@ public class PDOM extends PlatformObject implements IPDOM {
 	}
 
 	public void close() throws CoreException {
+		stopSnapshotReads();
 		db.close();
 		clearCaches();
 	}
@@ -1430,7 +1556,34 @@ public class PDOM extends PlatformObject implements IPDOM {
 	public void clearResultCache() {
 		synchronized (fResultCache) {
 			fResultCache.clear();
+			fThreadResultCaches.clear();
+		}
+	}
+
+	/**
+	 * Returns the cache for the results computed by the calling thread, must be called while
+	 * holding the lock on {@link #fResultCache}.
+	 * <p>
+	 * With snapshot reads enabled, every thread has a cache of its own. The objects representing
+	 * the nodes of the PDOM fill caches of their own lazily (names, template parameters, scopes,
+	 * specializations, ...). An object shared between the writer and a reader of the snapshot
+	 * would expose state computed by the writer to the reader, including pointers to records
+	 * that are not part of the snapshot. Threads obtain such objects through the result cache,
+	 * only, with the exception of the linkages. These cache the name index, which is aware of
+	 * the snapshot, and indexes that do not cache content of the database, like the lazily
+	 * created instances of BTree and PDOMTagIndex of the PDOM.
+	 */
+	private HashMap<Object, Object> getResultCache() {
+		if (!fSnapshotReads)
+			return fResultCache;
+
+		final Thread thread= Thread.currentThread();
+		HashMap<Object, Object> resultCache= fThreadResultCaches.get(thread);
+		if (resultCache == null) {
+			resultCache= new HashMap<>();
+			fThreadResultCaches.put(thread, resultCache);
 		}
+		return resultCache;
 	}
 
 	@Override
@@ -1449,13 +1602,17 @@ public class PDOM extends PlatformObject implements IPDOM {
 	}
 
 	protected void flush() throws CoreException {
+		if (db.isSnapshotReader()) {
+			// The database is being modified, dirty chunks are flushed by the writer.
+			return;
+		}
 		db.flush();
 	}
 
 	@Override
 	public Object getCachedResult(Object key) {
 		synchronized (fResultCache) {
-			return fResultCache.get(key);
+			return getResultCache().get(key);
 		}
 	}
 
@@ -1466,9 +1623,10 @@ public class PDOM extends PlatformObject implements IPDOM {
 	@Override
 	public Object putCachedResult(Object key, Object result, boolean replace) {
 		synchronized (fResultCache) {
-			Object old= fResultCache.put(key, result);
+			final HashMap<Object, Object> resultCache= getResultCache();
+			Object old= resultCache.put(key, result);
 			if (old != null && !replace) {
-				fResultCache.put(key, old);
+				resultCache.put(key, old);
 				return old;
 			}
 			return result;
@@ -1477,7 +1635,7 @@ public class PDOM extends PlatformObject implements IPDOM {
 
 	public void removeCachedResult(Object key) {
 		synchronized (fResultCache) {
-			fResultCache.remove(key);
+			getResultCache().remove(key);
 		}
 	}
 
@@ -1527,28 +1685,28 @@ public class PDOM extends PlatformObject implements IPDOM {
 		if (binding instanceof ICPPFunction) {
 			ICPPFunction func = (ICPPFunction) binding;
 			if (func.isExternC()) {
-				result = FindBinding.findBinding(c.getIndex(), c,
+				result = FindBinding.findGlobalBinding(c,
 						func.getNameCharArray(), new int[] { IIndexCBindingConstants.CFUNCTION }, 0);
 			}
 		} else if (binding instanceof ICPPVariable) {
 			ICPPVariable var = (ICPPVariable) binding;
 			if (var.isExternC()) {
-				result = FindBinding.findBinding(c.getIndex(), c,
+				result = FindBinding.findGlobalBinding(c,
 						var.getNameCharArray(), new int[] { IIndexCBindingConstants.CVARIABLE }, 0);
 			}
 		} else if (binding instanceof IEnumeration) {
-			result= FindBinding.findBinding(c.getIndex(), c,
+			result= FindBinding.findGlobalBinding(c,
 					binding.getNameCharArray(), new int[] {IIndexCBindingConstants.CENUMERATION }, 0);
 		} else if (binding instanceof IEnumerator) {
-			result= FindBinding.findBinding(c.getIndex(), c,
+			result= FindBinding.findGlobalBinding(c,
 					binding.getNameCharArray(), new int[] {IIndexCBindingConstants.CENUMERATOR }, 0);
 		} else if (binding instanceof ITypedef) {
-			result= FindBinding.findBinding(c.getIndex(), c,
+			result= FindBinding.findGlobalBinding(c,
 					binding.getNameCharArray(), new int[] {IIndexCBindingConstants.CTYPEDEF }, 0);
 		} else if (binding instanceof ICompositeType) {
 			final int key= ((ICompositeType) binding).getKey();
 			if (key == ICompositeType.k_struct || key == ICompositeType.k_union) {
-				result= FindBinding.findBinding(c.getIndex(), c,
+				result= FindBinding.findGlobalBinding(c,
 					binding.getNameCharArray(), new int[] {IIndexCBindingConstants.CSTRUCTURE }, 0);
 				if (result instanceof ICompositeType && ((ICompositeType) result).getKey() != key) {
 					result= null;
@@ -1251,7 +1251,8 @@ public class PDOMManager implements IWritableIndexManager, IListener {
 		try {
 			// Copy it.
 			PDOM pdom= getOrCreatePDOM(cproject, monitor);
-			pdom.acquireReadLock();
+			// The file is copied, it must not be modified in the meantime.
+			pdom.acquireReadLock(true);
 			String oldID= null;
 			try {
 				oldID= pdom.getProperty(IIndexFragment.PROPERTY_FRAGMENT_ID);
@@ -1260,7 +1261,7 @@ public class PDOMManager implements IWritableIndexManager, IListener {
 				pdom.getDB().transferTo(stream.getChannel());
 				stream.close();
 			} finally {
-				pdom.releaseReadLock();
+				pdom.releaseReadLock(true);
 			}
 
 			// Overwrite internal location representations.
@@ -24,6 +24,8 @@ import java.util.Set;
 
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.dom.ILinkage;
+import org.eclipse.cdt.core.dom.ast.ASTTypeUtil;
+import org.eclipse.cdt.core.dom.ast.DOMException;
 import org.eclipse.cdt.core.dom.ast.IASTDeclSpecifier;
 import org.eclipse.cdt.core.dom.ast.IASTFileLocation;
 import org.eclipse.cdt.core.dom.ast.IASTName;
@@ -37,12 +39,16 @@ import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
 import org.eclipse.cdt.core.dom.ast.IBinding;
 import org.eclipse.cdt.core.dom.ast.ICompositeType;
 import org.eclipse.cdt.core.dom.ast.IEnumeration;
+import org.eclipse.cdt.core.dom.ast.IFunction;
 import org.eclipse.cdt.core.dom.ast.IProblemBinding;
+import org.eclipse.cdt.core.dom.ast.IType;
 import org.eclipse.cdt.core.dom.ast.ITypedef;
+import org.eclipse.cdt.core.dom.ast.IVariable;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPASTCompositeTypeSpecifier.ICPPASTBaseSpecifier;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPASTQualifiedName;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPASTTemplateId;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPASTUsingDirective;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPBinding;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPClassTemplate;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPFunctionTemplate;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPNamespace;
@@ -51,6 +57,8 @@ import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateParameter;
 import org.eclipse.cdt.core.index.IIndexFile;
 import org.eclipse.cdt.core.index.IIndexFileLocation;
 import org.eclipse.cdt.core.index.IIndexInclude;
+import org.eclipse.cdt.core.index.IIndexMacro;
+import org.eclipse.cdt.core.index.IIndexName;
 import org.eclipse.cdt.core.index.IIndexSymbols;
 import org.eclipse.cdt.core.index.IPDOMASTProcessor;
 import org.eclipse.cdt.core.index.IndexLocationFactory;
@@ -61,10 +69,15 @@ import org.eclipse.cdt.core.parser.util.CharArrayUtils;
 import org.eclipse.cdt.internal.core.dom.parser.ASTInternal;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.ICPPUnknownBinding;
 import org.eclipse.cdt.internal.core.index.FileContentKey;
+import org.eclipse.cdt.internal.core.index.IIndexFragmentBinding;
 import org.eclipse.cdt.internal.core.index.IIndexFragmentFile;
+import org.eclipse.cdt.internal.core.index.IIndexFragmentInclude;
+import org.eclipse.cdt.internal.core.index.IIndexFragmentName;
 import org.eclipse.cdt.internal.core.index.IWritableIndex;
 import org.eclipse.cdt.internal.core.index.IWritableIndex.IncludeInformation;
+import org.eclipse.cdt.internal.core.index.IndexCPPSignatureUtil;
 import org.eclipse.cdt.internal.core.parser.scanner.LocationMap;
+import org.eclipse.cdt.internal.core.parser.scanner.StreamHasher;
 import org.eclipse.cdt.internal.core.pdom.dom.PDOMASTAdapter;
 import org.eclipse.cdt.internal.core.pdom.indexer.IndexerASTVisitor;
 import org.eclipse.core.runtime.CoreException;
@@ -205,6 +218,7 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 	protected final IndexerInputAdapter fResolver;
 
 	private int fSkipReferences= SKIP_NO_REFERENCES;
+	private boolean fReportDependentFiles;
 
 	public PDOMWriter(IndexerInputAdapter resolver) {
 		fStatistics= new IndexerStatistics();
@@ -248,6 +262,15 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 		return fSkipReferences;
 	}
 
+	/**
+	 * Determines whether the files including a file are reported via {@link #reportDependentFiles}
+	 * when the interface of the file changes. The interface of a file consists of its significant
+	 * macros, the macros it defines, its includes and the bindings it declares.
+	 */
+	public void setReportDependentFiles(boolean val) {
+		fReportDependentFiles= val;
+	}
+
 	/**
 	 * Extracts symbols from the given AST and adds them to the index.  Ignores Data maps that are
 	 * empty and ones where storageLinkageID == {@link ILinkage#NO_LINKAGE_ID}.
@@ -321,6 +344,10 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 						if (ifile == null)
 							ifile= newFile;
 						if (ctx != null && !ctx.fOldFile.equals(ifile) && ifile != null) {
+							// The significant macros of the header have changed, the files including
+							// the old version are now including a different one.
+							IIndexFragmentFile[] dependents= fReportDependentFiles ?
+									getIncluders(data.fIndex, ctx.fOldFile) : null;
 							if (ctx.fOldFile.hasPragmaOnceSemantics() &&
 									!ifile.hasPragmaOnceSemantics()) {
 								data.fIndex.transferContext(ctx.fOldFile, ifile);
@@ -328,6 +355,9 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 							} else {
 								data.fIndex.transferIncluders(ctx.fOldFile, ifile);
 							}
+							if (dependents != null && dependents.length > 0) {
+								reportDependentFiles(ifile, dependents);
+							}
 						}
 					}
 				} catch (RuntimeException e) {
@@ -350,6 +380,7 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 							fileInAST.fileContentKey.getLocation().getURI().getPath()), th));
 				}
 				fStatistics.fAddToIndexTime += lock.getCumulativeLockTime();
+				fStatistics.fLockWaitTime += lock.getCumulativeWaitTime();
 			}
 		}
 	}
@@ -571,6 +602,8 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 		IIndexFileLocation location = fileKey.getLocation();
 		ISignificantMacros significantMacros = fileKey.getSignificantMacros();
 		IIndexFragmentFile oldFile = index.getWritableFile(storageLinkageID, location, significantMacros);
+		final boolean checkInterface= fReportDependentFiles && oldFile != null && oldFile.hasContent();
+		final long oldInterfaceHash= checkInterface ? computeInterfaceHash(oldFile) : 0;
 		file= index.addUncommittedFile(storageLinkageID, location, significantMacros);
 		try {
 			boolean pragmaOnce= owner != null ? owner.hasPragmaOnceSemantics() : data.fAST.hasPragmaOnceSemantics();
@@ -623,9 +656,97 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 		} finally {
 			index.clearUncommittedFile();
 		}
+		if (checkInterface && file != null && computeInterfaceHash(file) != oldInterfaceHash) {
+			IIndexFragmentFile[] dependents= getIncluders(index, file);
+			if (dependents.length > 0) {
+				reportDependentFiles(file, dependents);
+			}
+		}
 		return file;
 	}
 
+	/**
+	 * Computes a hash of the parts of the file that can affect the files including it. The hash does
+	 * not depend on the offsets, such that edits of comments or function bodies do not change it.
+	 */
+	private long computeInterfaceHash(IIndexFragmentFile file) throws CoreException {
+		StreamHasher hasher= new StreamHasher();
+		hasher.addChunk(file.getSignificantMacros().encode());
+		for (IIndexMacro macro : file.getMacros()) {
+			hasher.addChunk(macro.getNameCharArray());
+			if (macro.isFunctionStyle()) {
+				hasher.addChunk(new char[] { '(' });
+				for (char[] param : macro.getParameterList()) {
+					hasher.addChunk(param);
+					hasher.addChunk(new char[] { ',' });
+				}
+			}
+			char[] expansion= macro.getExpansionImage();
+			hasher.addChunk(new char[] { '=' });
+			if (expansion != null)
+				hasher.addChunk(expansion);
+			hasher.addChunk(new char[] { '\n' });
+		}
+		for (IIndexInclude include : file.getIncludes()) {
+			hasher.addChunk(include.getFullName().toCharArray());
+			hasher.addChunk(new char[] { include.isResolved() ? '+' : '-', include.isActive() ? '+' : '-' });
+		}
+		for (IIndexName name : file.findNames(0, Integer.MAX_VALUE)) {
+			if (name.isDeclaration()) {
+				IIndexFragmentBinding binding= ((IIndexFragmentName) name).getBinding();
+				if (binding != null) {
+					addToHash(hasher, binding);
+					hasher.addChunk(new char[] { name.isDefinition() ? 'd' : 'D' });
+				}
+			}
+		}
+		return hasher.computeHash();
+	}
+
+	/**
+	 * Adds the identity of the binding to the hash. The record of a binding in the index is not
+	 * used, it changes when a binding is deleted together with its last declaration and stored
+	 * again.
+	 */
+	private static void addToHash(StreamHasher hasher, IIndexFragmentBinding binding) throws CoreException {
+		hasher.addChunk(new char[] { (char) binding.getLinkage().getLinkageID(), (char) binding.getBindingConstant() });
+		for (String name : binding.getQualifiedName()) {
+			hasher.addChunk(name.toCharArray());
+			hasher.addChunk(new char[] { ':' });
+		}
+		StringBuilder signature= new StringBuilder();
+		try {
+			if (binding instanceof ICPPBinding) {
+				signature.append(IndexCPPSignatureUtil.getSignature(binding));
+			}
+			IType type= null;
+			if (binding instanceof IFunction) {
+				type= ((IFunction) binding).getType();
+			} else if (binding instanceof IVariable) {
+				type= ((IVariable) binding).getType();
+			} else if (binding instanceof ITypedef) {
+				type= ((ITypedef) binding).getType();
+			}
+			if (type != null) {
+				ASTTypeUtil.appendType(type, true, signature);
+			}
+		} catch (DOMException e) {
+			CCorePlugin.log(e);
+		}
+		hasher.addChunk(signature.toString().toCharArray());
+	}
+
+	private IIndexFragmentFile[] getIncluders(IWritableIndex index, IIndexFragmentFile file) throws CoreException {
+		Set<IIndexFragmentFile> result= new HashSet<>();
+		for (IIndexFragmentInclude include : index.getWritableFragment().findIncludedBy(file)) {
+			IIndexFile includer= include.getIncludedBy();
+			if (includer instanceof IIndexFragmentFile && !includer.equals(file)) {
+				result.add((IIndexFragmentFile) includer);
+			}
+		}
+		return result.toArray(new IIndexFragmentFile[result.size()]);
+	}
+
 	protected int computeFileSizeAndEncodingHashcode(IIndexFileLocation location) {
 		return computeFileSizeAndEncodingHashcode((int) fResolver.getFileSize(location), location);
 	}
@@ -650,6 +771,14 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 	 */
 	protected abstract void reportFileWrittenToIndex(FileInAST file, IIndexFragmentFile iFile) throws CoreException;
 
+	/**
+	 * Informs the subclass that the interface of a file has changed while it was stored in the index,
+	 * such that the given files including it may need to be updated. Called only when reporting of
+	 * dependent files has been enabled via {@link #setReportDependentFiles(boolean)}.
+	 */
+	protected void reportDependentFiles(IIndexFragmentFile file, IIndexFragmentFile[] includers) throws CoreException {
+	}
+
 	private String getLocationInfo(String filename, int lineNumber) {
 		return " at " + filename + "(" + lineNumber + ")"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 	}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.pdom;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes the results for a list of inputs on a pool of threads, ahead of a consumer that
+ * takes the results in the order of the inputs. At most a fixed number of results is computed
+ * ahead of the consumer. The queue has to be closed, which cancels the computations that have not
+ * yet started and waits for the running ones.
+ * <p>
+ * The queue is used by a single consumer thread.
+ */
+public class ReadAheadQueue<I, R> {
+	/**
+	 * Computes the result for an input, called on the threads of the queue.
+	 */
+	public interface Producer<I, R> {
+		R produce(I input) throws Exception;
+	}
+
+	private final Iterator<I> fInputs;
+	private final Producer<I, R> fProducer;
+	private final int fMaxAhead;
+	private final ExecutorService fExecutor;
+	private final Deque<Future<R>> fPending= new ArrayDeque<>();
+
+	/**
+	 * @param name the name of the threads of the queue
+	 * @param threadCount the number of threads computing results
+	 * @param maxAhead the maximum number of results computed ahead of the consumer
+	 */
+	public ReadAheadQueue(final String name, int threadCount, int maxAhead, List<I> inputs,
+			Producer<I, R> producer) {
+		fInputs= inputs.iterator();
+		fProducer= producer;
+		fMaxAhead= Math.max(1, maxAhead);
+		fExecutor= Executors.newFixedThreadPool(Math.max(1, Math.min(threadCount, inputs.size())),
+				new ThreadFactory() {
+			private final AtomicInteger fCount= new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread= new Thread(r, name + ' ' + fCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		fill();
+	}
+
+	private void fill() {
+		while (fPending.size() < fMaxAhead && fInputs.hasNext()) {
+			final I input= fInputs.next();
+			fPending.add(fExecutor.submit(new Callable<R>() {
+				@Override
+				public R call() throws Exception {
+					return fProducer.produce(input);
+				}
+			}));
+		}
+	}
+
+	public boolean hasNext() {
+		return !fPending.isEmpty();
+	}
+
+	/**
+	 * Returns the result for the next input, waits for it if necessary.
+	 * @throws ExecutionException if the producer failed for the input, the queue can still be
+	 * used for the remaining inputs.
+	 */
+	public R next() throws InterruptedException, ExecutionException {
+		Future<R> next= fPending.poll();
+		if (next == null)
+			throw new NoSuchElementException();
+		fill();
+		return next.get();
+	}
+
+	/**
+	 * Cancels the computations that have not yet started and waits for the running ones.
+	 */
+	public void close() throws InterruptedException {
+		for (Future<R> future : fPending) {
+			future.cancel(false);
+		}
+		fPending.clear();
+		fExecutor.shutdown();
+		while (!fExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
+			// Wait for the running computations.
+		}
+	}
+}
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.pdom;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import org.eclipse.cdt.internal.core.pdom.db.Database;
+
+/**
+ * Computes and applies the differences between two versions of a database file, on the level of
+ * the chunks of the database. A delta stores the chunks of the new version that differ from the
+ * base version, together with the checksums of both versions. Applying a delta to a file other
+ * than its base is detected and rejected, a delta that does not reproduce the new version results
+ * in an exception.
+ */
+public class TeamPDOMDelta {
+	private static final int MAGIC= 0x50444c54;
+	private static final int VERSION= 1;
+	private static final int CHUNK_SIZE= Database.CHUNK_SIZE;
+	private static final int END= -1;
+
+	/**
+	 * Writes the chunks of <code>target</code> that differ from the chunks of <code>base</code>
+	 * to <code>delta</code>.
+	 * @return the number of chunks stored in the delta.
+	 */
+	public static int createDelta(File base, File target, File delta, MessageDigest md) throws IOException {
+		final long baseLength= base.length();
+		final long targetLength= target.length();
+		final byte[] baseChecksum= Checksums.computeChecksum(md, base);
+		final byte[] targetChecksum= Checksums.computeChecksum(md, target);
+
+		int count= 0;
+		DataInputStream baseIn= new DataInputStream(new BufferedInputStream(new FileInputStream(base)));
+		try {
+			DataInputStream targetIn= new DataInputStream(new BufferedInputStream(new FileInputStream(target)));
+			try {
+				DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(delta)));
+				try {
+					out.writeInt(MAGIC);
+					out.writeInt(VERSION);
+					out.writeInt(CHUNK_SIZE);
+					out.writeUTF(md.getAlgorithm());
+					out.writeLong(baseLength);
+					writeChecksum(out, baseChecksum);
+					out.writeLong(targetLength);
+					writeChecksum(out, targetChecksum);
+
+					final byte[] baseChunk= new byte[CHUNK_SIZE];
+					final byte[] targetChunk= new byte[CHUNK_SIZE];
+					for (int i= 0; (long) i * CHUNK_SIZE < targetLength; i++) {
+						final long offset= (long) i * CHUNK_SIZE;
+						final int len= (int) Math.min(CHUNK_SIZE, targetLength - offset);
+						final int baseLen= (int) Math.max(0, Math.min(len, baseLength - offset));
+						targetIn.readFully(targetChunk, 0, len);
+						baseIn.readFully(baseChunk, 0, baseLen);
+						if (baseLen < len || !equalBytes(baseChunk, targetChunk, len)) {
+							out.writeInt(i);
+							out.write(targetChunk, 0, len);
+							count++;
+						}
+					}
+					out.writeInt(END);
+				} finally {
+					out.close();
+				}
+			} finally {
+				targetIn.close();
+			}
+		} finally {
+			baseIn.close();
+		}
+		return count;
+	}
+
+	/**
+	 * Reconstructs the new version of a file from its base version and a delta.
+	 * @return <code>false</code> if the delta was not computed for the given base, in which case
+	 * the target is not written.
+	 * @throws IOException if the delta is invalid or does not reproduce the new version of the file.
+	 */
+	public static boolean applyDelta(File base, InputStream delta, File target) throws IOException {
+		DataInputStream in= new DataInputStream(new BufferedInputStream(delta));
+		if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != CHUNK_SIZE) {
+			throw new IOException("Unsupported format of index delta"); //$NON-NLS-1$
+		}
+		MessageDigest md;
+		try {
+			md= MessageDigest.getInstance(in.readUTF());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+		final long baseLength= in.readLong();
+		final byte[] baseChecksum= readChecksum(in);
+		final long targetLength= in.readLong();
+		final byte[] targetChecksum= readChecksum(in);
+		if (base.length() != baseLength || !Arrays.equals(baseChecksum, Checksums.computeChecksum(md, base))) {
+			return false;
+		}
+
+		copy(base, target);
+		RandomAccessFile out= new RandomAccessFile(target, "rw"); //$NON-NLS-1$
+		try {
+			out.setLength(targetLength);
+			final byte[] chunk= new byte[CHUNK_SIZE];
+			int i;
+			while ((i= in.readInt()) != END) {
+				final long offset= (long) i * CHUNK_SIZE;
+				if (i < 0 || offset >= targetLength) {
+					throw new IOException("Invalid chunk in index delta: " + i); //$NON-NLS-1$
+				}
+				final int len= (int) Math.min(CHUNK_SIZE, targetLength - offset);
+				in.readFully(chunk, 0, len);
+				out.seek(offset);
+				out.write(chunk, 0, len);
+			}
+		} catch (EOFException e) {
+			throw new IOException("Truncated index delta", e); //$NON-NLS-1$
+		} finally {
+			out.close();
+		}
+		if (!Arrays.equals(targetChecksum, Checksums.computeChecksum(md, target))) {
+			throw new IOException("Checksum mismatch after applying index delta"); //$NON-NLS-1$
+		}
+		return true;
+	}
+
+	private static boolean equalBytes(byte[] a, byte[] b, int len) {
+		for (int i= 0; i < len; i++) {
+			if (a[i] != b[i])
+				return false;
+		}
+		return true;
+	}
+
+	private static void writeChecksum(DataOutputStream out, byte[] checksum) throws IOException {
+		out.writeInt(checksum.length);
+		out.write(checksum);
+	}
+
+	private static byte[] readChecksum(DataInputStream in) throws IOException {
+		final int len= in.readInt();
+		if (len < 0 || len > 1024) {
+			throw new IOException("Invalid checksum in index delta"); //$NON-NLS-1$
+		}
+		byte[] checksum= new byte[len];
+		in.readFully(checksum);
+		return checksum;
+	}
+
+	private static void copy(File source, File target) throws IOException {
+		InputStream in= new FileInputStream(source);
+		try {
+			FileOutputStream out= new FileOutputStream(target);
+			try {
+				byte[] buffer= new byte[CHUNK_SIZE * 16];
+				int read;
+				while ((read= in.read(buffer)) >= 0) {
+					out.write(buffer, 0, read);
+				}
+			} finally {
+				out.close();
+			}
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -57,6 +57,16 @@ public class TeamPDOMExportOperation implements IWorkspaceRunnable {
 	 */
 	public static int EXPORT_OPTION_RESOURCE_SNAPSHOT = 1;
 
+	/**
+	 * Option constant (value:2) to indicate that the archive found at the target location
+	 * should be kept as the base, and only the chunks of the index that differ from the base
+	 * should be exported to the location of the delta, see
+	 * {@link TeamPDOMImportOperation#getDeltaLocation(File)}. A full archive is exported
+	 * when there is no archive at the target location.
+	 * @since 5.9
+	 */
+	public static int EXPORT_OPTION_DELTA = 2;
+
 	private static final String RESOURCE_PREFIX = "res-"; //$NON-NLS-1$
 	private static final String CDT_PREFIX = "cdt-"; //$NON-NLS-1$
 	private static final String RESOURCE_SNAP_EXTENSION = "snap.zip"; //$NON-NLS-1$
@@ -125,7 +135,11 @@ public class TeamPDOMExportOperation implements IWorkspaceRunnable {
 			}
 			
 			// create archive
-			createArchive(tmpPDOM, tmpChecksums);
+			if ((fOptions & EXPORT_OPTION_DELTA) == 0 || !createDeltaArchive(tmpPDOM, tmpChecksums)) {
+				createArchive(fTargetLocationFile, TeamPDOMImportOperation.INDEX_NAME, tmpPDOM, tmpChecksums);
+				// A delta computed against the previous archive no longer applies.
+				TeamPDOMImportOperation.getDeltaLocation(fTargetLocationFile).delete();
+			}
 			
 			// store preferences
 			monitor.setTaskName(Messages.TeamPDOMExportOperation_taskExportIndex);
@@ -237,14 +251,47 @@ public class TeamPDOMExportOperation implements IWorkspaceRunnable {
 		}
 	} 
 
-	private void createArchive(File tmpPDOM, File tmpChecksums) throws CoreException {
-		fTargetLocationFile.delete();
+	/**
+	 * Writes the differences between the index of the archive at the target location and
+	 * the new index to the location of the delta. Returns <code>false</code> if there is no
+	 * base to compute the differences against.
+	 */
+	private boolean createDeltaArchive(File tmpPDOM, File tmpChecksums) throws CoreException {
+		if (!fTargetLocationFile.isFile()) {
+			return false;
+		}
+		File tmpBase= null;
+		File tmpDelta= null;
+		try {
+			tmpBase= File.createTempFile("base", ".pdom"); //$NON-NLS-1$ //$NON-NLS-2$
+			tmpDelta= File.createTempFile("tmp", ".delta"); //$NON-NLS-1$ //$NON-NLS-2$
+			if (!TeamPDOMImportOperation.extractIndex(fTargetLocationFile, tmpBase)) {
+				return false;
+			}
+			TeamPDOMDelta.createDelta(tmpBase, tmpPDOM, tmpDelta, fMessageDigest);
+			createArchive(TeamPDOMImportOperation.getDeltaLocation(fTargetLocationFile),
+					TeamPDOMImportOperation.DELTA_NAME, tmpDelta, tmpChecksums);
+			return true;
+		} catch (IOException e) {
+			throw new CoreException(CCorePlugin.createStatus(Messages.TeamPDOMExportOperation_errorWriteTempFile, e));
+		} finally {
+			if (tmpBase != null) {
+				tmpBase.delete();
+			}
+			if (tmpDelta != null) {
+				tmpDelta.delete();
+			}
+		}
+	}
+
+	private void createArchive(File target, String indexName, File tmpPDOM, File tmpChecksums) throws CoreException {
+		target.delete();
 		ZipOutputStream out= null;
 		try {
-			fTargetLocationFile.getParentFile().mkdirs();
-			out= new ZipOutputStream(new FileOutputStream(fTargetLocationFile));
+			target.getParentFile().mkdirs();
+			out= new ZipOutputStream(new FileOutputStream(target));
 			out.setLevel(Deflater.BEST_COMPRESSION);
-			writeEntry(out, TeamPDOMImportOperation.INDEX_NAME, tmpPDOM);
+			writeEntry(out, indexName, tmpPDOM);
 			writeEntry(out, TeamPDOMImportOperation.CHECKSUMS_NAME, tmpChecksums);
 		}
 		catch (IOException e) {
@@ -253,7 +300,7 @@ public class TeamPDOMExportOperation implements IWorkspaceRunnable {
 		finally {
 			close(out);
 		}
-		IFile[] wsResource= ResourceLookup.findFilesForLocation(new Path(fTargetLocationFile.getAbsolutePath()));
+		IFile[] wsResource= ResourceLookup.findFilesForLocation(new Path(target.getAbsolutePath()));
 		for (IFile file : wsResource) {
 			file.refreshLocal(0, new NullProgressMonitor());
 		}
@@ -11,9 +11,12 @@
 package org.eclipse.cdt.internal.core.pdom;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
@@ -54,6 +57,9 @@ import org.eclipse.osgi.util.NLS;
 public class TeamPDOMImportOperation implements IWorkspaceRunnable {
 	static final String CHECKSUMS_NAME = "checksums.dat"; //$NON-NLS-1$
 	static final String INDEX_NAME = "cdt-index.pdom"; //$NON-NLS-1$
+	static final String DELTA_NAME = "cdt-index.delta"; //$NON-NLS-1$
+	private static final String ARCHIVE_EXTENSION = ".zip"; //$NON-NLS-1$
+	private static final String DELTA_ARCHIVE_EXTENSION = ".delta.zip"; //$NON-NLS-1$
 	private static final Pattern PROJECT_VAR_PATTERN= Pattern.compile("\\$\\{(project_[a-zA-Z0-9]*)\\}"); //$NON-NLS-1$
 	private static final String PROJECT_VAR_REPLACEMENT_BEGIN = "\\${$1:"; //$NON-NLS-1$
 	private static final String PROJECT_VAR_REPLACEMENT_END = "}"; //$NON-NLS-1$
@@ -133,21 +139,118 @@ public class TeamPDOMImportOperation implements IWorkspaceRunnable {
 		return location.toFile();
 	}
 
+	/**
+	 * Returns the location of the delta that belongs to the archive at the given location.
+	 */
+	static File getDeltaLocation(File archive) {
+		String name= archive.getName();
+		if (name.endsWith(ARCHIVE_EXTENSION)) {
+			name= name.substring(0, name.length() - ARCHIVE_EXTENSION.length());
+		}
+		return new File(archive.getParentFile(), name + DELTA_ARCHIVE_EXTENSION);
+	}
+
+	/**
+	 * Copies the index stored in the archive to the target file. Returns <code>false</code> if
+	 * the archive does not contain an index.
+	 */
+	static boolean extractIndex(File archive, File target) throws IOException {
+		ZipFile zip= new ZipFile(archive);
+		try {
+			ZipEntry indexEntry= zip.getEntry(INDEX_NAME);
+			if (indexEntry == null) {
+				return false;
+			}
+			InputStream in= zip.getInputStream(indexEntry);
+			try {
+				Files.copy(in, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				in.close();
+			}
+			return true;
+		} finally {
+			zip.close();
+		}
+	}
+
 	private void doImportIndex(File importFile, IProgressMonitor monitor) throws CoreException, InterruptedException, IOException {
-		ZipFile zip= new ZipFile(importFile);
 		Map<?, ?> checksums= null;
+		File deltaFile= getDeltaLocation(importFile);
+		if (deltaFile.isFile()) {
+			checksums= importIndexWithDelta(importFile, deltaFile, monitor);
+		}
+		if (checksums == null) {
+			ZipFile zip= new ZipFile(importFile);
+			try {
+				importIndex(zip, monitor);
+				checksums= getChecksums(zip);
+			} finally {
+				try {
+					zip.close();
+				} catch (IOException e) {
+					CCorePlugin.log(e);
+				}
+			}
+		}
+		
+		checkIndex(checksums, monitor);
+	}
+
+	/**
+	 * Imports the index obtained by applying the delta to the index of the archive. Returns
+	 * the checksums stored with the delta, or <code>null</code> if the delta does not belong
+	 * to the archive and nothing was imported.
+	 */
+	private Map<?, ?> importIndexWithDelta(File importFile, File deltaFile, IProgressMonitor monitor) throws CoreException, IOException {
+		ZipFile zip= new ZipFile(deltaFile);
+		File tmpBase= null;
+		File tmpPDOM= null;
 		try {
-			importIndex(zip, monitor);
-			checksums= getChecksums(zip);
+			ZipEntry deltaEntry= zip.getEntry(DELTA_NAME);
+			if (deltaEntry == null) {
+				throw new CoreException(CCorePlugin.createStatus(
+						NLS.bind(Messages.PDOMImportTask_errorInvalidArchive, zip.getName())));
+			}
+			tmpBase= File.createTempFile("base", ".pdom"); //$NON-NLS-1$ //$NON-NLS-2$
+			tmpPDOM= File.createTempFile("tmp", ".pdom"); //$NON-NLS-1$ //$NON-NLS-2$
+			if (!extractIndex(importFile, tmpBase)) {
+				throw new CoreException(CCorePlugin.createStatus(
+						NLS.bind(Messages.PDOMImportTask_errorInvalidArchive, importFile.getPath())));
+			}
+			InputStream in= zip.getInputStream(deltaEntry);
+			try {
+				if (!TeamPDOMDelta.applyDelta(tmpBase, in, tmpPDOM)) {
+					if (fShowActivity) {
+						System.out.println("Indexer: PDOMImporter ignores outdated delta " + deltaFile); //$NON-NLS-1$
+					}
+					return null;
+				}
+			} finally {
+				in.close();
+			}
+			tmpBase.delete();
+			tmpBase= null;
+
+			InputStream stream= new FileInputStream(tmpPDOM);
+			try {
+				CCoreInternals.getPDOMManager().importProjectPDOM(fProject, stream, monitor);
+			} finally {
+				stream.close();
+			}
+			return getChecksums(zip);
 		} finally {
+			if (tmpBase != null) {
+				tmpBase.delete();
+			}
+			if (tmpPDOM != null) {
+				tmpPDOM.delete();
+			}
 			try {
 				zip.close();
 			} catch (IOException e) {
 				CCorePlugin.log(e);
 			}
 		}
-		
-		checkIndex(checksums, monitor);
 	}
 
 	private void importIndex(ZipFile zip, IProgressMonitor monitor) throws CoreException, IOException {
@@ -20,9 +20,20 @@ import org.eclipse.core.runtime.CoreException;
 
 /**
  * Caches the content of a piece of the database.
+ * <p>
+ * The content is either held in a byte array, or, for databases that map their file into
+ * memory, accessed in place through a read-only view of the mapping. A mapped chunk is copied
+ * to a byte array the first time it is modified, such that no array is allocated for chunks
+ * that are only read.
+ * <p>
+ * While the database provides a snapshot to concurrent readers, the chunk is modified in a copy
+ * that is visible to the writing thread, only. See {@link Database#startSnapshot()}.
  */
 final class Chunk {
-	final private byte[] fBuffer= new byte[Database.CHUNK_SIZE];
+	// Readers of a snapshot access the buffers without a lock, while the writer replaces them.
+	private volatile byte[] fBuffer;			// null while the content is accessed in the mapped file.
+	private volatile ByteBuffer fMappedBuffer;	// Read-only view of the mapped file, or null.
+	private volatile byte[] fWriterBuffer;		// Modified content, while the database provides a snapshot.
 
 	final Database fDatabase;
 	final int fSequenceNumber;
@@ -33,8 +44,34 @@ final class Chunk {
 	int fCacheIndex= -1;
 		
 	Chunk(Database db, int sequenceNumber) {
+		this(db, sequenceNumber, new byte[Database.CHUNK_SIZE]);
+	}
+
+	private Chunk(Database db, int sequenceNumber, byte[] buffer) {
 		fDatabase= db;
 		fSequenceNumber= sequenceNumber;
+		fBuffer= buffer;
+	}
+
+	/**
+	 * Creates a chunk with the content of the given chunk of the database file. For a mapped
+	 * database the chunk is a view of the mapping, otherwise the content is read into an array.
+	 */
+	static Chunk read(Database db, int sequenceNumber) throws CoreException {
+		final ByteBuffer mapped;
+		try {
+			mapped= db.getMappedChunk(sequenceNumber);
+		} catch (IOException e) {
+			throw new CoreException(new DBStatus(e));
+		}
+		if (mapped != null) {
+			final Chunk chunk= new Chunk(db, sequenceNumber, null);
+			chunk.fMappedBuffer= mapped;
+			return chunk;
+		}
+		final Chunk chunk= new Chunk(db, sequenceNumber);
+		chunk.read();
+		return chunk;
 	}
 
 	void read() throws CoreException {
@@ -47,8 +84,11 @@ final class Chunk {
 	}
 
 	void flush() throws CoreException {
+		// Only modified chunks are flushed, they are not mapped.
+		final byte[] buffer= fWriterBuffer != null ? fWriterBuffer : fBuffer;
+		assert buffer != null;
 		try {
-			final ByteBuffer buf= ByteBuffer.wrap(fBuffer);
+			final ByteBuffer buf= ByteBuffer.wrap(buffer);
 			fDatabase.write(buf, (long) fSequenceNumber * Database.CHUNK_SIZE);
 		} catch (IOException e) {
 			throw new CoreException(new DBStatus(e));
@@ -56,37 +96,126 @@ final class Chunk {
 		fDirty= false;
 	}
 
+	/**
+	 * Returns whether the content of the chunk is accessed in place in the mapped database file.
+	 */
+	boolean isMapped() {
+		return fMappedBuffer != null;
+	}
+
+	/**
+	 * Returns whether the chunk has been modified while the database provides a snapshot.
+	 * Such a chunk must not be released before the snapshot ends.
+	 */
+	boolean hasWriterBuffer() {
+		return fWriterBuffer != null;
+	}
+
+	/**
+	 * Makes the modifications made during a snapshot visible to all threads.
+	 */
+	void endSnapshot() {
+		if (fWriterBuffer != null) {
+			fBuffer= fWriterBuffer;
+			fMappedBuffer= null;
+			fWriterBuffer= null;
+		}
+	}
+
+	/**
+	 * Returns the array to read from, or {@code null} if the content has to be read from the
+	 * mapped file. The thread writing the database sees its own modifications, all other threads
+	 * see the content of the snapshot.
+	 */
+	private byte[] buffer() {
+		final byte[] writerBuffer= fWriterBuffer;
+		if (writerBuffer != null && fDatabase.isSnapshotWriter()) {
+			return writerBuffer;
+		}
+		return fBuffer;
+	}
+
+	/**
+	 * Returns the view of the mapped file to read from, called when {@link #buffer()} returned
+	 * {@code null}.
+	 */
+	private ByteBuffer mappedBuffer() {
+		final ByteBuffer mapped= fMappedBuffer;
+		if (mapped != null) {
+			return mapped;
+		}
+		// The chunk has been copied to an array since buffer() was called.
+		return ByteBuffer.wrap(fBuffer);
+	}
+
+	/**
+	 * Must be called before the chunk is modified, returns the array to write to. Replaces a view
+	 * of the mapped file with a private copy, such that modifications reach the file only when the
+	 * chunk is flushed.
+	 */
+	private byte[] prepareWrite() {
+		assert fLocked;
+		fDirty= true;
+		if (fWriterBuffer != null) {
+			return fWriterBuffer;
+		}
+		if (fDatabase.addToSnapshot(this)) {
+			// Readers of the snapshot keep using the original content. The mapped file is
+			// modified when the writer flushes the chunk, so the readers need a copy, too.
+			final byte[] writerBuffer= copy();
+			if (fBuffer == null) {
+				fBuffer= writerBuffer.clone();
+				fMappedBuffer= null;
+			}
+			fWriterBuffer= writerBuffer;
+			return writerBuffer;
+		}
+		if (fBuffer == null) {
+			fBuffer= copy();
+			fMappedBuffer= null;
+		}
+		return fBuffer;
+	}
+
+	private byte[] copy() {
+		if (fBuffer != null) {
+			return fBuffer.clone();
+		}
+		final byte[] copy= new byte[Database.CHUNK_SIZE];
+		final ByteBuffer src= fMappedBuffer.duplicate();
+		src.clear();
+		src.get(copy);
+		return copy;
+	}
+
 	private static int recPtrToIndex(final long offset) {
 		return (int) (offset & Database.OFFSET_IN_CHUNK_MASK);
 	}
 
 	public void putByte(final long offset, final byte value) {
-		assert fLocked;
-		fDirty= true;
-		fBuffer[recPtrToIndex(offset)]= value;
+		prepareWrite()[recPtrToIndex(offset)]= value;
 	}
 	
 	public byte getByte(final long offset) {
-		return fBuffer[recPtrToIndex(offset)];
+		final byte[] buf= buffer();
+		if (buf == null)
+			return mappedBuffer().get(recPtrToIndex(offset));
+		return buf[recPtrToIndex(offset)];
 	}
 	
 	public byte[] getBytes(final long offset, final int length) {
 		final byte[] bytes = new byte[length];
-		System.arraycopy(fBuffer, recPtrToIndex(offset), bytes, 0, length);
+		get(offset, bytes, 0, length);
 		return bytes;
 	}
 	
 	public void putBytes(final long offset, final byte[] bytes) {
-		assert fLocked;
-		fDirty= true;
-		System.arraycopy(bytes, 0, fBuffer, recPtrToIndex(offset), bytes.length);
+		System.arraycopy(bytes, 0, prepareWrite(), recPtrToIndex(offset), bytes.length);
 	}
 	
 	public void putInt(final long offset, final int value) {
-		assert fLocked;
-		fDirty= true;
 		int idx= recPtrToIndex(offset);
-		putInt(value, fBuffer, idx);
+		putInt(value, prepareWrite(), idx);
 	}
 
 	static final void putInt(final int value, final byte[] buffer, int idx) {
@@ -97,7 +226,10 @@ final class Chunk {
 	}
 	
 	public int getInt(final long offset) {
-		return getInt(fBuffer, recPtrToIndex(offset));
+		final byte[] buf= buffer();
+		if (buf == null)
+			return mappedBuffer().getInt(recPtrToIndex(offset));
+		return getInt(buf, recPtrToIndex(offset));
 	}
 
 	static final int getInt(final byte[] buffer, int idx) {
@@ -158,10 +290,8 @@ final class Chunk {
 	 * This is a pointer to a block + BLOCK_HEADER_SIZE.
 	 */
 	public void putRecPtr(final long offset, final long value) {
-		assert fLocked;
-		fDirty = true;
 		int idx = recPtrToIndex(offset);
-		putRecPtr(value, fBuffer, idx);
+		putRecPtr(value, prepareWrite(), idx);
 	}
 	
 	/**
@@ -169,135 +299,149 @@ final class Chunk {
 	 * i.e. the pointer is not moved past the BLOCK_HEADER_SIZE.
 	 */
 	public void putFreeRecPtr(final long offset, final long value) {
-		assert fLocked;
-		fDirty = true;
 		int idx = recPtrToIndex(offset);
-		putInt(compressFreeRecPtr(value), fBuffer, idx);
+		putInt(compressFreeRecPtr(value), prepareWrite(), idx);
 	}
 
 	public long getRecPtr(final long offset) {
-		final int idx = recPtrToIndex(offset);
-		return getRecPtr(fBuffer, idx);
+		long address = expandToFreeRecPtr(getInt(offset));
+		return address != 0 ? (address + Database.BLOCK_HEADER_SIZE) : address;
 	}
 	
 	public long getFreeRecPtr(final long offset) {
-		final int idx = recPtrToIndex(offset);
-		int value = getInt(fBuffer, idx);
-		return expandToFreeRecPtr(value);
+		return expandToFreeRecPtr(getInt(offset));
 	}
 	
 	public void put3ByteUnsignedInt(final long offset, final int value) {
-		assert fLocked;
-		fDirty= true;
+		final byte[] buf= prepareWrite();
 		int idx= recPtrToIndex(offset);
-		fBuffer[idx]= (byte) (value >> 16);
-		fBuffer[++idx]= (byte) (value >> 8);
-		fBuffer[++idx]= (byte) (value);
+		buf[idx]= (byte) (value >> 16);
+		buf[++idx]= (byte) (value >> 8);
+		buf[++idx]= (byte) (value);
 	}
 	
 	public int get3ByteUnsignedInt(final long offset) {
+		final byte[] buf= buffer();
 		int idx= recPtrToIndex(offset);
-		return ((fBuffer[idx] & 0xff) << 16) |
-				((fBuffer[++idx] & 0xff) <<  8) |
-				((fBuffer[++idx] & 0xff) <<  0);
+		if (buf == null) {
+			final ByteBuffer mapped= mappedBuffer();
+			return ((mapped.get(idx) & 0xff) << 16) |
+					((mapped.get(++idx) & 0xff) <<  8) |
+					((mapped.get(++idx) & 0xff) <<  0);
+		}
+		return ((buf[idx] & 0xff) << 16) |
+				((buf[++idx] & 0xff) <<  8) |
+				((buf[++idx] & 0xff) <<  0);
 	}
 
 	public void putShort(final long offset, final short value) {
-		assert fLocked;
-		fDirty= true;
+		final byte[] buf= prepareWrite();
 		int idx= recPtrToIndex(offset);
-		fBuffer[idx]= (byte) (value >> 8);
-		fBuffer[++idx]= (byte) (value);
+		buf[idx]= (byte) (value >> 8);
+		buf[++idx]= (byte) (value);
 	}
 	
 	public short getShort(final long offset) {
+		final byte[] buf= buffer();
 		int idx= recPtrToIndex(offset);
-		return (short) (((fBuffer[idx] << 8) | (fBuffer[++idx] & 0xff)));
+		if (buf == null)
+			return mappedBuffer().getShort(idx);
+		return (short) (((buf[idx] << 8) | (buf[++idx] & 0xff)));
 	}
 
 	public long getLong(final long offset) {
+		final byte[] buf= buffer();
 		int idx= recPtrToIndex(offset);
-		return ((((long) fBuffer[idx] & 0xff) << 56) |
-				(((long) fBuffer[++idx] & 0xff) << 48) |
-				(((long) fBuffer[++idx] & 0xff) << 40) |
-				(((long) fBuffer[++idx] & 0xff) << 32) |
-				(((long) fBuffer[++idx] & 0xff) << 24) |
-				(((long) fBuffer[++idx] & 0xff) << 16) |
-				(((long) fBuffer[++idx] & 0xff) <<  8) |
-				(((long) fBuffer[++idx] & 0xff) <<  0));
+		if (buf == null)
+			return mappedBuffer().getLong(idx);
+		return ((((long) buf[idx] & 0xff) << 56) |
+				(((long) buf[++idx] & 0xff) << 48) |
+				(((long) buf[++idx] & 0xff) << 40) |
+				(((long) buf[++idx] & 0xff) << 32) |
+				(((long) buf[++idx] & 0xff) << 24) |
+				(((long) buf[++idx] & 0xff) << 16) |
+				(((long) buf[++idx] & 0xff) <<  8) |
+				(((long) buf[++idx] & 0xff) <<  0));
 	}
 
 	public void putLong(final long offset, final long value) {
-		assert fLocked;
-		fDirty= true;
+		final byte[] buf= prepareWrite();
 		int idx= recPtrToIndex(offset);
 
-		fBuffer[idx]=   (byte) (value >> 56);
-		fBuffer[++idx]= (byte) (value >> 48);
-		fBuffer[++idx]= (byte) (value >> 40);
-		fBuffer[++idx]= (byte) (value >> 32);
-		fBuffer[++idx]= (byte) (value >> 24);
-		fBuffer[++idx]= (byte) (value >> 16);
-		fBuffer[++idx]= (byte) (value >> 8);
-		fBuffer[++idx]= (byte) (value);
+		buf[idx]=   (byte) (value >> 56);
+		buf[++idx]= (byte) (value >> 48);
+		buf[++idx]= (byte) (value >> 40);
+		buf[++idx]= (byte) (value >> 32);
+		buf[++idx]= (byte) (value >> 24);
+		buf[++idx]= (byte) (value >> 16);
+		buf[++idx]= (byte) (value >> 8);
+		buf[++idx]= (byte) (value);
 	}
 	
 	public void putChar(final long offset, final char value) {
-		assert fLocked;
-		fDirty= true;
+		final byte[] buf= prepareWrite();
 		int idx= recPtrToIndex(offset);
-		fBuffer[idx]= (byte) (value >> 8);
-		fBuffer[++idx]= (byte) (value);
+		buf[idx]= (byte) (value >> 8);
+		buf[++idx]= (byte) (value);
 	}
 	
 	public void putChars(final long offset, char[] chars, int start, int len) {
-		assert fLocked;
-		fDirty= true;
+		final byte[] buf= prepareWrite();
 		int idx= recPtrToIndex(offset)-1;
 		final int end= start + len;
 		for (int i = start; i < end; i++) {
 			char value= chars[i];
-			fBuffer[++idx]= (byte) (value >> 8);
-			fBuffer[++idx]= (byte) (value);
+			buf[++idx]= (byte) (value >> 8);
+			buf[++idx]= (byte) (value);
 		}
 	}
 
 	public void putCharsAsBytes(final long offset, char[] chars, int start, int len) {
-		assert fLocked;
-		fDirty= true;
+		final byte[] buf= prepareWrite();
 		int idx= recPtrToIndex(offset)-1;
 		final int end= start + len;
 		for (int i = start; i < end; i++) {
 			char value= chars[i];
-			fBuffer[++idx]= (byte) (value);
+			buf[++idx]= (byte) (value);
 		}
 	}
 
 	public char getChar(final long offset) {
+		final byte[] buf= buffer();
 		int idx= recPtrToIndex(offset);
-		return (char) (((fBuffer[idx] << 8) | (fBuffer[++idx] & 0xff)));
+		if (buf == null)
+			return mappedBuffer().getChar(idx);
+		return (char) (((buf[idx] << 8) | (buf[++idx] & 0xff)));
 	}
 
 	public void getChars(final long offset, final char[] result, int start, int len) {
-		final ByteBuffer buf= ByteBuffer.wrap(fBuffer);
-		buf.position(recPtrToIndex(offset));
-		buf.asCharBuffer().get(result, start, len);
+		final byte[] buf= buffer();
+		final ByteBuffer view= buf == null ? mappedBuffer().duplicate() : ByteBuffer.wrap(buf);
+		view.position(recPtrToIndex(offset));
+		view.asCharBuffer().get(result, start, len);
 	}
 
 	public void getCharsFromBytes(final long offset, final char[] result, int start, int len) {
+		final byte[] buf= buffer();
 		final int pos = recPtrToIndex(offset);
+		if (buf == null) {
+			final ByteBuffer mapped= mappedBuffer();
+			for (int i = 0; i < len; i++) {
+				result[start + i] =  (char) (mapped.get(pos + i) & 0xff);
+			}
+			return;
+		}
 		for (int i = 0; i < len; i++) {
-			result[start + i] =  (char) (fBuffer[pos + i] & 0xff);
+			result[start + i] =  (char) (buf[pos + i] & 0xff);
 		}
 	}
 
 	void clear(final long offset, final int length) {
-		assert fLocked;
-		fDirty= true;
+		final byte[] buf= prepareWrite();
 		int idx = recPtrToIndex(offset);
 		final int end = idx + length;
 		for (; idx < end; idx++) {
-			fBuffer[idx] = 0;
+			buf[idx] = 0;
 		}
 	}
 
@@ -306,10 +450,8 @@ final class Chunk {
 	}
 	
 	void put(final long offset, final byte[] data, int dataPos, final int len) {
-		assert fLocked;
-		fDirty = true;
 		int idx = recPtrToIndex(offset);
-		System.arraycopy(data, dataPos, fBuffer, idx, len);
+		System.arraycopy(data, dataPos, prepareWrite(), idx, len);
 	}
 	
 	public void get(final long offset, byte[] data) {
@@ -317,7 +459,14 @@ final class Chunk {
 	}
 
 	public void get(final long offset, byte[] data, int dataPos, int len) {
+		final byte[] buf= buffer();
 		int idx = recPtrToIndex(offset);
-		System.arraycopy(fBuffer, idx, data, dataPos, len);
+		if (buf == null) {
+			final ByteBuffer view= mappedBuffer().duplicate();
+			view.position(idx);
+			view.get(data, dataPos, len);
+			return;
+		}
+		System.arraycopy(buf, idx, data, dataPos, len);
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007 Wind River Systems, Inc. and others.
+ * Copyright (c) 2007, 2014 Wind River Systems, Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -7,133 +7,259 @@
  *
  * Contributors:
  *     Markus Schorn - initial API and implementation
- *******************************************************************************/ 
+ *******************************************************************************/
 package org.eclipse.cdt.internal.core.pdom.db;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cache for the chunks of one or more databases.
+ * <p>
+ * The cache is split into segments, each of them managing an equal share of the memory budget
+ * with the CLOCK algorithm under its own lock. Chunks are distributed over the segments by
+ * database and chunk number, such that concurrent readers of the same or of different databases
+ * rarely contend. Evicted chunks are released from their database only after the lock of the
+ * segment has been given up, a segment never acquires the lock of a database.
+ */
 public final class ChunkCache {
+	private static final int SEGMENT_COUNT= 16;  // Must be a power of two.
 	private static ChunkCache sSharedInstance= new ChunkCache();
-	
-	private Chunk[] fPageTable;
-	private boolean fTableIsFull;
-	private int fPointer;
-	
-	public static ChunkCache getSharedInstance() {
-		return sSharedInstance;
-	}
 
-	public ChunkCache() {
-		this(5 * 1024 * 1024);
-	}
-	
-	public ChunkCache(long maxSize) {
-		fPageTable= new Chunk[computeLength(maxSize)];
-	}
-	
-	public synchronized void add(Chunk chunk, boolean locked) {
-		if (locked) {
-			chunk.fLocked= true;
-		}
-		if (chunk.fCacheIndex >= 0) {
-			chunk.fCacheHitFlag= true;
-			return;
+	private static final class Segment {
+		private Chunk[] fPageTable;
+		private boolean fTableIsFull;
+		private int fPointer;
+		private long fHits;
+		private long fMisses;
+
+		Segment(int length) {
+			fPageTable= new Chunk[length];
 		}
-		if (fTableIsFull) {
-			evictChunk();
-			chunk.fCacheIndex= fPointer;
-			fPageTable[fPointer]= chunk;
-		} else {
-			chunk.fCacheIndex= fPointer;
-			fPageTable[fPointer]= chunk;
-
-			fPointer++;
-			if (fPointer == fPageTable.length) {
-				fPointer= 0;
-				fTableIsFull= true;
+
+		/**
+		 * Adds the chunk to the segment, returns the chunk that had to be evicted to make room
+		 * for it or {@code null}.
+		 */
+		synchronized Chunk add(Chunk chunk, boolean locked) {
+			if (locked) {
+				chunk.fLocked= true;
 			}
+			if (chunk.fCacheIndex >= 0) {
+				chunk.fCacheHitFlag= true;
+				fHits++;
+				return null;
+			}
+			fMisses++;
+			chunk.fDatabase.fCachedChunks.incrementAndGet();
+			Chunk evicted= null;
+			if (fTableIsFull) {
+				evicted= evictChunk();
+				chunk.fCacheIndex= fPointer;
+				fPageTable[fPointer]= chunk;
+			} else {
+				chunk.fCacheIndex= fPointer;
+				fPageTable[fPointer]= chunk;
+
+				fPointer++;
+				if (fPointer == fPageTable.length) {
+					fPointer= 0;
+					fTableIsFull= true;
+				}
+			}
+			return evicted;
 		}
-	}
-	
-	/**                                                                   
-	 * Evicts a chunk from the page table and the chunk table.            
-	 * After this method returns, {@link #fPointer}  will contain
-	 * the index of the evicted chunk within the page table.              
-	 */                                                                   
-	private void evictChunk() {
-		/*
-		 * Use the CLOCK algorithm to determine which chunk to evict.
-		 * i.e., if the chunk in the current slot of the page table has been
-		 * recently referenced (i.e. the reference flag is set), unset the
-		 * reference flag and move to the next slot.  Otherwise, evict the
-		 * chunk in the current slot.
+
+		/**
+		 * Evicts a chunk from the page table. After this method returns, {@link #fPointer}
+		 * will contain the index of the evicted chunk within the page table.
 		 */
-		while (true) {
-			Chunk chunk = fPageTable[fPointer];
-			if (chunk.fCacheHitFlag) {
-				chunk.fCacheHitFlag= false;
-				fPointer= (fPointer + 1) % fPageTable.length;
-			} else {
-				chunk.fDatabase.releaseChunk(chunk);
+		private Chunk evictChunk() {
+			/*
+			 * Use the CLOCK algorithm to determine which chunk to evict.
+			 * i.e., if the chunk in the current slot of the page table has been
+			 * recently referenced (i.e. the reference flag is set), unset the
+			 * reference flag and move to the next slot.  Otherwise, evict the
+			 * chunk in the current slot.
+			 */
+			while (true) {
+				Chunk chunk = fPageTable[fPointer];
+				if (chunk.fCacheHitFlag) {
+					chunk.fCacheHitFlag= false;
+					fPointer= (fPointer + 1) % fPageTable.length;
+				} else {
+					chunk.fCacheIndex= -1;
+					chunk.fDatabase.fCachedChunks.decrementAndGet();
+					fPageTable[fPointer] = null;
+					return chunk;
+				}
+			}
+		}
+
+		synchronized void remove(Chunk chunk) {
+			final int idx= chunk.fCacheIndex;
+			if (idx >= 0) {
+				if (fTableIsFull) {
+					fPointer= fPageTable.length-1;
+					fTableIsFull= false;
+				} else {
+					fPointer--;
+				}
 				chunk.fCacheIndex= -1;
-				fPageTable[fPointer] = null;
-				return;
+				chunk.fDatabase.fCachedChunks.decrementAndGet();
+				final Chunk move= fPageTable[fPointer];
+				fPageTable[idx]= move;
+				move.fCacheIndex= idx;
+				fPageTable[fPointer]= null;
 			}
 		}
-	}
 
-	public synchronized void remove(Chunk chunk) {
-		final int idx= chunk.fCacheIndex;
-		if (idx >= 0) {
-			if (fTableIsFull) {
-				fPointer= fPageTable.length-1;
+		synchronized boolean contains(Chunk chunk) {
+			return chunk.fCacheIndex >= 0;
+		}
+
+		synchronized int getLength() {
+			return fPageTable.length;
+		}
+
+		/**
+		 * Changes the number of chunks the segment can hold, evicted chunks are added to the
+		 * given list.
+		 */
+		synchronized void setLength(int newLength, List<Chunk> evicted) {
+			final int oldLength= fTableIsFull ? fPageTable.length : fPointer;
+			if (newLength > oldLength) {
+				Chunk[] newTable= new Chunk[newLength];
+				System.arraycopy(fPageTable, 0, newTable, 0, oldLength);
 				fTableIsFull= false;
+				fPointer= oldLength;
+				fPageTable= newTable;
 			} else {
-				fPointer--;
+				for (int i= newLength; i < oldLength; i++) {
+					final Chunk chunk= fPageTable[i];
+					chunk.fCacheIndex= -1;
+					chunk.fDatabase.fCachedChunks.decrementAndGet();
+					evicted.add(chunk);
+				}
+				Chunk[] newTable= new Chunk[newLength];
+				System.arraycopy(fPageTable, 0, newTable, 0, newLength);
+				fTableIsFull= true;
+				fPointer= 0;
+				fPageTable= newTable;
 			}
-			chunk.fCacheIndex= -1;
-			final Chunk move= fPageTable[fPointer];
-			fPageTable[idx]= move;
-			move.fCacheIndex= idx;
-			fPageTable[fPointer]= null;
-		}	
+		}
+
+		synchronized long getHits() {
+			return fHits;
+		}
+
+		synchronized long getMisses() {
+			return fMisses;
+		}
+	}
+
+	private final Segment[] fSegments;
+
+	public static ChunkCache getSharedInstance() {
+		return sSharedInstance;
 	}
 
-	/**                                                                           
+	public ChunkCache() {
+		this(5 * 1024 * 1024);
+	}
+
+	public ChunkCache(long maxSize) {
+		final int length= computeSegmentLength(maxSize);
+		fSegments= new Segment[SEGMENT_COUNT];
+		for (int i = 0; i < fSegments.length; i++) {
+			fSegments[i]= new Segment(length);
+		}
+	}
+
+	private Segment getSegment(Chunk chunk) {
+		int h= System.identityHashCode(chunk.fDatabase) * 31 + chunk.fSequenceNumber;
+		h ^= (h >>> 16);
+		return fSegments[h & (SEGMENT_COUNT - 1)];
+	}
+
+	/**
+	 * Adds a chunk to the cache, or marks it as recently used if it is already cached.
+	 * Must be called while holding the lock of the chunk's database. The lock is needed to
+	 * release the evicted chunk, if one is returned, which has to be done by calling
+	 * {@link Database#releaseChunk(Chunk)} after the lock of the database has been given up.
+	 *
+	 * @return the chunk evicted from the cache to make room for the new one, or {@code null}.
+	 */
+	Chunk add(Chunk chunk, boolean locked) {
+		return getSegment(chunk).add(chunk, locked);
+	}
+
+	/**
+	 * Removes a chunk from the cache. Must be called while holding the lock of the chunk's
+	 * database.
+	 */
+	void remove(Chunk chunk) {
+		getSegment(chunk).remove(chunk);
+	}
+
+	/**
+	 * Returns whether the chunk is currently held by the cache.
+	 */
+	boolean contains(Chunk chunk) {
+		return getSegment(chunk).contains(chunk);
+	}
+
+	/**
 	 * Returns the maximum size of the chunk cache in bytes.
-	 */                                                                           
-	public synchronized long getMaxSize() {
-		return (long) fPageTable.length * Database.CHUNK_SIZE;
+	 */
+	public long getMaxSize() {
+		long length= 0;
+		for (Segment segment : fSegments) {
+			length+= segment.getLength();
+		}
+		return length * Database.CHUNK_SIZE;
 	}
 
-	/**                                                                           
+	/**
 	 * Clears the page table and changes it to hold chunks with
-	 * maximum total memory of <code>maxSize</code>.       
-	 * @param maxSize the total size of the chunks in bytes.                
-	 */                                                                           
-	public synchronized void setMaxSize(long maxSize) {
-		final int newLength= computeLength(maxSize);
-		final int oldLength= fTableIsFull ? fPageTable.length : fPointer;
-		if (newLength > oldLength) {
-			Chunk[] newTable= new Chunk[newLength];
-			System.arraycopy(fPageTable, 0, newTable, 0, oldLength);
-			fTableIsFull= false;
-			fPointer= oldLength;
-			fPageTable= newTable;
-		} else {
-			for (int i= newLength; i < oldLength; i++) {
-				final Chunk chunk= fPageTable[i];
-				chunk.fDatabase.releaseChunk(chunk);
-				chunk.fCacheIndex= -1;
-			}
-			Chunk[] newTable= new Chunk[newLength];
-			System.arraycopy(fPageTable, 0, newTable, 0, newLength);
-			fTableIsFull= true;
-			fPointer= 0;
-			fPageTable= newTable;
-		}       
-	}                                                                             
-
-	private int computeLength(long maxSize) {
-		long maxLength= Math.min(maxSize / Database.CHUNK_SIZE, Integer.MAX_VALUE);
+	 * maximum total memory of <code>maxSize</code>.
+	 * @param maxSize the total size of the chunks in bytes.
+	 */
+	public void setMaxSize(long maxSize) {
+		final int newLength= computeSegmentLength(maxSize);
+		List<Chunk> evicted= new ArrayList<>();
+		for (Segment segment : fSegments) {
+			segment.setLength(newLength, evicted);
+		}
+		for (Chunk chunk : evicted) {
+			chunk.fDatabase.releaseChunk(chunk);
+		}
+	}
+
+	/**
+	 * Returns the number of requests for chunks that were already cached.
+	 */
+	public long getHits() {
+		long hits= 0;
+		for (Segment segment : fSegments) {
+			hits+= segment.getHits();
+		}
+		return hits;
+	}
+
+	/**
+	 * Returns the number of chunks that had to be added to the cache.
+	 */
+	public long getMisses() {
+		long misses= 0;
+		for (Segment segment : fSegments) {
+			misses+= segment.getMisses();
+		}
+		return misses;
+	}
+
+	private static int computeSegmentLength(long maxSize) {
+		long maxLength= Math.min(maxSize / Database.CHUNK_SIZE / SEGMENT_COUNT, Integer.MAX_VALUE);
 		return Math.max(1, (int) maxLength);
 	}
 }
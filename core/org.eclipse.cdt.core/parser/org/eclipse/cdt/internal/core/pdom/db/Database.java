@@ -19,10 +19,14 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.core.runtime.CoreException;
@@ -63,6 +67,21 @@ import com.ibm.icu.text.MessageFormat;
  * PREV_OFFSET      | pointer to previous block (of same size) (only in free blocks)
  * NEXT_OFFSET      | pointer to next block (of same size) (only in free blocks)
  *
+ * ===== memory mapped storage
+ *
+ * When the file is mapped, it is mapped read-only in regions of MAPPED_REGION_SIZE bytes. Chunks
+ * read from the file are views of the mapped regions rather than copies. Modified chunks are
+ * copied to the heap and written back through the file channel, such that the protocol for
+ * marking the file incomplete while it is being modified is preserved. The file format is the
+ * same for both storage modes.
+ *
+ * ===== snapshots
+ *
+ * The thread holding the exclusive lock may start a snapshot, which allows other threads to read
+ * the database concurrently. A chunk that existed when the snapshot was started is copied the
+ * first time it is modified, the writer works on the copy while all other threads continue to
+ * see the original content. Chunks modified during the snapshot are kept in memory until the
+ * snapshot ends, where the copies replace the originals.
  */
 public class Database {
 	// Public for tests only, you shouldn't need these.
@@ -90,9 +109,19 @@ public class Database {
 	private static final int BLOCK_PREV_OFFSET = BLOCK_HEADER_SIZE;
 	private static final int BLOCK_NEXT_OFFSET = BLOCK_HEADER_SIZE + INT_SIZE;
 
+	/**
+	 * Whether databases map their files into memory by default.
+	 */
+	private static final boolean MAP_FILES = Boolean.getBoolean("org.eclipse.cdt.core.parser.pdom.db.mapped"); //$NON-NLS-1$
+	private static final int CHUNKS_PER_MAPPED_REGION = 1 << 14;
+	private static final long MAPPED_REGION_SIZE = (long) CHUNKS_PER_MAPPED_REGION * CHUNK_SIZE;
+	private static final MappedByteBuffer[] NO_REGIONS = {};
+
 	private final File fLocation;
 	private final boolean fReadOnly;
 	private RandomAccessFile fFile;
+	private final boolean fMapFile;
+	private MappedByteBuffer[] fMappedRegions= NO_REGIONS;  // Protected by fChunksLock.
 	private boolean fExclusiveLock;	 // Necessary for any write operation.
 	private boolean fLocked;		 // Necessary for any operation.
 	private boolean fIsMarkedIncomplete;
@@ -103,6 +132,12 @@ public class Database {
 	private int fChunksUsed;
 	private int fChunksAllocated;
 	private ChunkCache fCache;
+	private final Object fChunksLock= new Object();  // Protects fChunks and the chunks' lock flags.
+	final AtomicInteger fCachedChunks= new AtomicInteger();  // Maintained by the cache.
+
+	private volatile Thread fSnapshotWriter;  // Non-null while a snapshot is provided to other threads.
+	private int fSnapshotChunkCount;
+	private final ArrayList<Chunk> fSnapshotChunks= new ArrayList<>();
 
 	private long malloced;
 	private long freed;
@@ -118,9 +153,24 @@ public class Database {
 	 * @throws CoreException
 	 */
 	public Database(File location, ChunkCache cache, int version, boolean openReadOnly) throws CoreException {
+		this(location, cache, version, openReadOnly, MAP_FILES);
+	}
+
+	/**
+	 * Construct a new Database object, creating a backing file if necessary.
+	 * @param location the local file path for the database
+	 * @param cache the cache to be used optimization
+	 * @param version the version number to store in the database (only applicable for new databases)
+	 * @param openReadOnly whether this Database object will ever need writing to
+	 * @param mapFile whether the file shall be mapped into memory rather than read chunk by chunk
+	 * @throws CoreException
+	 */
+	public Database(File location, ChunkCache cache, int version, boolean openReadOnly, boolean mapFile)
+			throws CoreException {
 		try {
 			fLocation = location;
 			fReadOnly= openReadOnly;
+			fMapFile= mapFile;
 			fCache= cache;
 			openFile();
 
@@ -172,6 +222,46 @@ public class Database {
 		}
 	}
 
+	/**
+	 * Returns a read-only view of the given chunk in the mapped file, or {@code null} if the file
+	 * is not mapped or does not yet contain the chunk. The header chunk is never mapped. Called
+	 * while holding the lock on the cache.
+	 */
+	ByteBuffer getMappedChunk(int index) throws IOException {
+		if (!fMapFile || index == 0)
+			return null;
+
+		final int regionIndex= index / CHUNKS_PER_MAPPED_REGION;
+		final int offsetInRegion= (index % CHUNKS_PER_MAPPED_REGION) * CHUNK_SIZE;
+		MappedByteBuffer region;
+		synchronized (fChunksLock) {
+			if (regionIndex >= fMappedRegions.length) {
+				fMappedRegions= Arrays.copyOf(fMappedRegions, regionIndex + 1);
+			}
+			region= fMappedRegions[regionIndex];
+			if (region == null || region.capacity() < offsetInRegion + CHUNK_SIZE) {
+				// The region is mapped for the first time, or the file has grown since.
+				final long start= regionIndex * MAPPED_REGION_SIZE;
+				final long size= Math.min(MAPPED_REGION_SIZE, fFile.length() - start);
+				if (size < offsetInRegion + CHUNK_SIZE)
+					return null;
+				region= fFile.getChannel().map(MapMode.READ_ONLY, start, size);
+				fMappedRegions[regionIndex]= region;
+			}
+		}
+		final ByteBuffer view= region.duplicate();
+		view.position(offsetInRegion);
+		view.limit(offsetInRegion + CHUNK_SIZE);
+		return view.slice();
+	}
+
+	/**
+	 * Returns whether the database file is mapped into memory.
+	 */
+	public boolean isMapped() {
+		return fMapFile;
+	}
+
 	private void reopen(ClosedChannelException e, int attempt) throws ClosedChannelException, FileNotFoundException {
 		// Only if the current thread was not interrupted we try to reopen the file.
 		if (e instanceof ClosedByInterruptException || attempt >= 20) {
@@ -212,6 +302,7 @@ public class Database {
 	 */
 	public void clear(int version) throws CoreException {
 		assert fExclusiveLock;
+		assert fSnapshotWriter == null;
 		removeChunksFromCache();
 
 		fVersion= version;
@@ -245,7 +336,7 @@ public class Database {
 	}
 
 	private void removeChunksFromCache() {
-		synchronized (fCache) {
+		synchronized (fChunksLock) {
 			for (int i= 1; i < fChunks.length; i++) {
 				Chunk chunk= fChunks[i];
 				if (chunk != null) {
@@ -253,6 +344,9 @@ public class Database {
 					fChunks[i]= null;
 				}
 			}
+			// No chunk refers to the mapped regions anymore, they must not be used after the file
+			// is truncated.
+			fMappedRegions= NO_REGIONS;
 		}
 	}
 
@@ -267,23 +361,39 @@ public class Database {
 		long long_index = offset / CHUNK_SIZE;
 		assert long_index < Integer.MAX_VALUE;
 
-		synchronized (fCache) {
+		final int index = (int) long_index;
+		Chunk chunk;
+		Chunk evicted= null;
+		synchronized (fChunksLock) {
 			assert fLocked;
-			final int index = (int) long_index;
 			if (index < 0 || index >= fChunks.length) {
 				databaseCorruptionDetected();
 			}
-			Chunk chunk= fChunks[index];
-			if (chunk == null) {
-				cacheMisses++;
-				chunk = fChunks[index] = new Chunk(this, index);
-				chunk.read();
-			} else {
+			chunk= fChunks[index];
+			if (chunk != null) {
 				cacheHits++;
+				evicted= fCache.add(chunk, fExclusiveLock && !isSnapshotReader());
 			}
-			fCache.add(chunk, fExclusiveLock);
-			return chunk;
 		}
+		if (chunk == null) {
+			// Read the chunk without holding the lock, such that other readers are not blocked by
+			// the i/o. Concurrent readers may load the same chunk, only one of the copies is kept.
+			final Chunk newChunk= Chunk.read(this, index);
+			synchronized (fChunksLock) {
+				chunk= fChunks[index];
+				if (chunk == null) {
+					cacheMisses++;
+					chunk= fChunks[index]= newChunk;
+				} else {
+					cacheHits++;
+				}
+				evicted= fCache.add(chunk, fExclusiveLock && !isSnapshotReader());
+			}
+		}
+		if (evicted != null) {
+			evicted.fDatabase.releaseChunk(evicted);
+		}
+		return chunk;
 	}
 
 	private void databaseCorruptionDetected() throws CoreException {
@@ -345,7 +455,9 @@ public class Database {
 
 	private long createNewChunk() throws CoreException {
 		assert fExclusiveLock;
-		synchronized (fCache) {
+		final Chunk evicted;
+		final long address;
+		synchronized (fChunksLock) {
 			final int newChunkIndex = fChunksUsed; // fChunks.length;
 
 			final Chunk chunk = new Chunk(this, newChunkIndex);
@@ -362,23 +474,26 @@ public class Database {
 			fChunksUsed += 1;
 			fChunks[newChunkIndex] = chunk;
 
-			fCache.add(chunk, true);
-			long address = (long) newChunkIndex * CHUNK_SIZE;
-
-			/*
-			 * Non-dense pointers are at most 31 bits dense pointers are at most 35 bits Check the sizes here
-			 * and throw an exception if the address is too large. By throwing the CoreException with the
-			 * special status, the indexing operation should be stopped. This is desired since generally, once
-			 * the max size is exceeded, there are lots of errors.
-			 */
-			if (address >= MAX_DB_SIZE) {
-				Object bindings[] = { this.getLocation().getAbsolutePath(), MAX_DB_SIZE };
-				throw new CoreException(new Status(IStatus.ERROR, CCorePlugin.PLUGIN_ID,
-						CCorePlugin.STATUS_PDOM_TOO_LARGE, NLS.bind(
-								CCorePlugin.getResourceString("pdom.DatabaseTooLarge"), bindings), null)); //$NON-NLS-1$
-			}
-			return address;
+			evicted= fCache.add(chunk, true);
+			address = (long) newChunkIndex * CHUNK_SIZE;
+		}
+		if (evicted != null) {
+			evicted.fDatabase.releaseChunk(evicted);
 		}
+
+		/*
+		 * Non-dense pointers are at most 31 bits dense pointers are at most 35 bits Check the sizes here
+		 * and throw an exception if the address is too large. By throwing the CoreException with the
+		 * special status, the indexing operation should be stopped. This is desired since generally, once
+		 * the max size is exceeded, there are lots of errors.
+		 */
+		if (address >= MAX_DB_SIZE) {
+			Object bindings[] = { this.getLocation().getAbsolutePath(), MAX_DB_SIZE };
+			throw new CoreException(new Status(IStatus.ERROR, CCorePlugin.PLUGIN_ID,
+					CCorePlugin.STATUS_PDOM_TOO_LARGE, NLS.bind(
+							CCorePlugin.getResourceString("pdom.DatabaseTooLarge"), bindings), null)); //$NON-NLS-1$
+		}
+		return address;
 	}
 
 	/**
@@ -386,7 +501,9 @@ public class Database {
 	 */
 	private long createNewChunks(int numChunks) throws CoreException {
 		assert fExclusiveLock;
-		synchronized (fCache) {
+		final Chunk evicted;
+		final long address;
+		synchronized (fChunksLock) {
 			final int oldLen= fChunks.length;
 			Chunk[] newchunks = new Chunk[oldLen + numChunks];
 			System.arraycopy(fChunks, 0, newchunks, 0, oldLen);
@@ -397,11 +514,15 @@ public class Database {
 			chunk.fDirty= true;
 			newchunks[ oldLen + numChunks - 1 ] = chunk;
 			fChunks= newchunks;
-			fCache.add(chunk, true);
+			evicted= fCache.add(chunk, true);
 			fChunksAllocated=oldLen + numChunks;
 			fChunksUsed=oldLen + numChunks;
-			return (long) (oldLen + numChunks - 1) * CHUNK_SIZE;
+			address= (long) (oldLen + numChunks - 1) * CHUNK_SIZE;
+		}
+		if (evicted != null) {
+			evicted.fDatabase.releaseChunk(evicted);
 		}
+		return address;
 	}
 
 	private long getFirstBlock(int blocksize) throws CoreException {
@@ -613,6 +734,7 @@ public class Database {
 	 */
 	public void close() throws CoreException {
 		assert fExclusiveLock;
+		assert fSnapshotWriter == null;
 		flush();
 		removeChunksFromCache();
 
@@ -636,14 +758,28 @@ public class Database {
 	}
 
 	/**
-	 * Called from any thread via the cache, protected by {@link #fCache}.
+	 * Called from any thread after the chunk has been evicted from the cache. Must not be called
+	 * while holding the lock of a database.
 	 */
 	void releaseChunk(final Chunk chunk) {
-		if (!chunk.fLocked) {
-			fChunks[chunk.fSequenceNumber]= null;
+		synchronized (fChunksLock) {
+			final int index= chunk.fSequenceNumber;
+			// The chunk may have been added to the cache again, or the database may have been
+			// cleared in the meantime.
+			if (!chunk.fLocked && index < fChunks.length && fChunks[index] == chunk
+					&& !fCache.contains(chunk)) {
+				fChunks[index]= null;
+			}
 		}
 	}
 
+	/**
+	 * Returns the number of chunks of this database that are currently held by the cache.
+	 */
+	public int getCachedChunkCount() {
+		return fCachedChunks.get();
+	}
+
 	/**
 	 * Returns the cache used for this database.
 	 * @since 4.0
@@ -665,19 +801,70 @@ public class Database {
 		fLocked= val;
 	}
 
+	/**
+	 * Starts providing a snapshot of the current content of the database to other threads.
+	 * Until {@link #endSnapshot()} is called, modifications made by the calling thread are
+	 * visible to this thread, only. The exclusive lock is required.
+	 */
+	public void startSnapshot() {
+		assert fExclusiveLock && fSnapshotWriter == null;
+		fSnapshotChunkCount= fChunksUsed;
+		fSnapshotWriter= Thread.currentThread();
+	}
+
+	/**
+	 * Ends the snapshot and makes the modifications visible to all threads. Must be called by
+	 * the thread that started the snapshot, while no other thread accesses the database.
+	 */
+	public void endSnapshot() {
+		assert fSnapshotWriter == Thread.currentThread();
+		for (Chunk chunk : fSnapshotChunks) {
+			chunk.endSnapshot();
+		}
+		fSnapshotChunks.clear();
+		fSnapshotWriter= null;
+	}
+
+	/**
+	 * Returns whether the calling thread reads a snapshot of the database, i.e. the database is
+	 * modified by another thread.
+	 */
+	public boolean isSnapshotReader() {
+		final Thread writer= fSnapshotWriter;
+		return writer != null && writer != Thread.currentThread();
+	}
+
+	boolean isSnapshotWriter() {
+		return fSnapshotWriter == Thread.currentThread();
+	}
+
+	/**
+	 * Called before a chunk is modified for the first time since the last call to
+	 * {@link #endSnapshot()}. Returns whether the chunk has to be copied for the writer.
+	 */
+	boolean addToSnapshot(Chunk chunk) {
+		if (fSnapshotWriter == null || chunk.fSequenceNumber >= fSnapshotChunkCount) {
+			// Readers of the snapshot do not access chunks that have been created after it.
+			return false;
+		}
+		assert isSnapshotWriter();
+		fSnapshotChunks.add(chunk);
+		return true;
+	}
+
 	public void giveUpExclusiveLock(final boolean flush) throws CoreException {
 		if (fExclusiveLock) {
 			try {
 				ArrayList<Chunk> dirtyChunks= new ArrayList<>();
-				synchronized (fCache) {
+				synchronized (fChunksLock) {
 					for (int i= 1; i < fChunksUsed; i++) {
 						Chunk chunk= fChunks[i];
 						if (chunk != null) {
-							if (chunk.fCacheIndex < 0) {
+							if (!fCache.contains(chunk)) {
 								// Locked chunk that has been removed from cache.
 								if (chunk.fDirty) {
 									dirtyChunks.add(chunk); // Keep in fChunks until it is flushed.
-								} else {
+								} else if (!chunk.hasWriterBuffer()) {
 									chunk.fLocked= false;
 									fChunks[i]= null;
 								}
@@ -687,7 +874,7 @@ public class Database {
 									if (flush) {
 										dirtyChunks.add(chunk);
 									}
-								} else {
+								} else if (!chunk.hasWriterBuffer()) {
 									chunk.fLocked= false;
 								}
 							} else {
@@ -716,8 +903,9 @@ public class Database {
 		}
 
 		// Be careful as other readers may access chunks concurrently.
+		assert !isSnapshotReader();
 		ArrayList<Chunk> dirtyChunks= new ArrayList<>();
-		synchronized (fCache) {
+		synchronized (fChunksLock) {
 			for (int i= 1; i < fChunksUsed ; i++) {
 				Chunk chunk= fChunks[i];
 				if (chunk != null && chunk.fDirty) {
@@ -731,7 +919,7 @@ public class Database {
 	}
 
 	private void flushAndUnlockChunks(final ArrayList<Chunk> dirtyChunks, boolean isComplete) throws CoreException {
-		assert !Thread.holdsLock(fCache);
+		assert !Thread.holdsLock(fChunksLock);
 		synchronized (fHeaderChunk) {
 			final boolean haveDirtyChunks = !dirtyChunks.isEmpty();
 			if (haveDirtyChunks || fHeaderChunk.fDirty) {
@@ -745,10 +933,13 @@ public class Database {
 				}
 
 				// Only after the chunks are flushed we may unlock and release them.
-				synchronized (fCache) {
+				synchronized (fChunksLock) {
 					for (Chunk chunk : dirtyChunks) {
+						// Chunks modified during a snapshot must stay in memory until it ends.
+						if (chunk.hasWriterBuffer())
+							continue;
 						chunk.fLocked= false;
-						if (chunk.fCacheIndex < 0) {
+						if (!fCache.contains(chunk)) {
 							fChunks[chunk.fSequenceNumber]= null;
 						}
 					}
@@ -24,6 +24,9 @@ import org.eclipse.core.runtime.CoreException;
  * for storing strings in Database. Which means that a linear lookup is needed to find strings in the list. An
  * in-memory, lazily-loaded, cache is provided so the list will only be fully retrieved once in the lifetime
  * of this instance. A BTree will be more efficient for larger sets.
+ * <p>
+ * The set is used by concurrent readers of the index, access to the cache is synchronized. Readers of
+ * a snapshot of the database do not use the cache, which may contain strings added by the writer.
  */
 public class PDOMStringSet {
 	private final Database db;
@@ -43,7 +46,7 @@ public class PDOMStringSet {
 		loaded = 0;
 	}
 
-	public void clearCaches() {
+	public synchronized void clearCaches() {
 		head = 0;
 		loaded = 0;
 
@@ -83,7 +86,7 @@ public class PDOMStringSet {
 	 * Adds the given string to the receiving set. May cause the entire list to be loaded from the Database
 	 * while testing for uniqueness. Returns the record of the string that was inserted into the list.
 	 */
-	public long add(String str) throws CoreException {
+	public synchronized long add(String str) throws CoreException {
 		long record = find(str);
 		if (record != 0)
 			return record;
@@ -116,6 +119,26 @@ public class PDOMStringSet {
 	 * instance. Returns the record of the String.
 	 */
 	public long find(String str) throws CoreException {
+		if (db.isSnapshotReader())
+			return findInSnapshot(str);
+
+		synchronized (this) {
+			return findCached(str);
+		}
+	}
+
+	private long findInSnapshot(String str) throws CoreException {
+		long curr = db.getRecPtr(ptr);
+		while (curr != 0) {
+			long item = NodeType.Item.get(db, curr);
+			if (db.getString(item).compare(str, true) == 0)
+				return item;
+			curr = NodeType.Next.get(db, curr);
+		}
+		return 0;
+	}
+
+	private long findCached(String str) throws CoreException {
 		if (lazyCache != null) {
 			Long l = lazyCache.get(str);
 			if (l != null)
@@ -157,7 +180,7 @@ public class PDOMStringSet {
 	/**
 	 * Return a pointer to the record of the String that was removed.
 	 */
-	public long remove(String str) throws CoreException {
+	public synchronized long remove(String str) throws CoreException {
 		if (lazyCache != null)
 			lazyCache.remove(str);
 
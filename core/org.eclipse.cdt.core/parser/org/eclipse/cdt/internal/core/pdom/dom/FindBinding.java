@@ -174,6 +174,16 @@ public class FindBinding {
 		return visitor.getResult();
 	}
 
+	/**
+	 * Finds a binding in the global index of the linkage, see {@link PDOMLinkage#acceptGlobalBindings}.
+	 */
+	public static PDOMBinding findGlobalBinding(final PDOMLinkage linkage, final char[] name,
+			final int[] constants, final long localToFileRec) throws CoreException {
+		final DefaultFindBindingVisitor visitor = new DefaultFindBindingVisitor(linkage, name, constants, localToFileRec);
+		linkage.acceptGlobalBindings(name, visitor);
+		return visitor.getResult();
+	}
+
 	public static PDOMBinding findBinding(IPDOMNode node, final PDOMLinkage linkage, final char[] name, final int[] constants,
 			long localToFileRec) throws CoreException {
 		final DefaultFindBindingVisitor visitor = new DefaultFindBindingVisitor(linkage, name, constants, localToFileRec);
@@ -16,6 +16,7 @@ package org.eclipse.cdt.internal.core.pdom.dom;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -83,9 +84,14 @@ public class PDOMFile implements IIndexFragmentFile {
 	private static final int RECORD_SIZE= REPLACEMENT_HEADER + Database.PTR_SIZE;   // 9*PTR_SIZE + 3+1+8+8+8+4 = 68
 
 	private static final int FLAG_PRAGMA_ONCE_SEMANTICS	= 0x01;
+	/**
+	 * The names of the file are ordered such that the names enclosed by a definition, including
+	 * the names enclosed by nested definitions, directly follow the name of the definition.
+	 */
+	private static final int FLAG_NESTED_NAME_ORDER		= 0x02;
 
 	public static class Comparator implements IBTreeComparator {
-		private Database db;
+		private final Database db;
 
 		public Comparator(Database db) {
 			this.db = db;
@@ -380,6 +386,25 @@ public class PDOMFile implements IIndexFragmentFile {
 		db.putByte(record + FLAGS, flags);
 	}
 
+	/**
+	 * Returns whether the names enclosed by a definition can be found without scanning all the
+	 * names of the file, see {@link PDOMName#getEnclosedNames()}.
+	 */
+	boolean hasNestedNameOrder() throws CoreException {
+		return (fLinkage.getDB().getByte(record + FLAGS) & FLAG_NESTED_NAME_ORDER) != 0;
+	}
+
+	private void setNestedNameOrder(boolean value) throws CoreException {
+		Database db = fLinkage.getDB();
+		byte flags = db.getByte(record + FLAGS);
+		if (value) {
+			flags |= FLAG_NESTED_NAME_ORDER;
+		} else {
+			flags &= ~FLAG_NESTED_NAME_ORDER;
+		}
+		db.putByte(record + FLAGS, flags);
+	}
+
 	private PDOMName getFirstName() throws CoreException {
 		long namerec = fLinkage.getDB().getRecPtr(record + FIRST_NAME);
 		return namerec != 0 ? new PDOMName(fLinkage, namerec) : null;
@@ -473,6 +498,10 @@ public class PDOMFile implements IIndexFragmentFile {
 		HashMap<IASTName, PDOMName> nameCache= new HashMap<IASTName, PDOMName>();
 		PDOMName lastName= null;
 		PDOMMacroReferenceName lastMacroName= null;
+		// Stack of the definitions enclosing the last name, used to check the order of the names.
+		long[] nesting= new long[16];
+		int nestingDepth= 0;
+		boolean isNestedOrder= true;
 		for (IASTName[] name : names) {
 			if (name[0] != null) {
 				if (lock != null) {
@@ -483,6 +512,21 @@ public class PDOMFile implements IIndexFragmentFile {
 				if (fname instanceof PDOMName) {
 					PDOMName pdomName = (PDOMName) fname;
 					nameCache.put(name[0], pdomName);
+					if (isNestedOrder) {
+						long callerRec= caller != null ? caller.getRecord() : 0;
+						while (nestingDepth > 0 && nesting[nestingDepth - 1] != callerRec) {
+							nestingDepth--;
+						}
+						if (callerRec != 0 && nestingDepth == 0) {
+							// The name does not follow the other names of its enclosing definition.
+							isNestedOrder= false;
+						} else {
+							if (nestingDepth == nesting.length) {
+								nesting= Arrays.copyOf(nesting, 2 * nestingDepth);
+							}
+							nesting[nestingDepth++]= pdomName.getRecord();
+						}
+					}
 					if (lastName == null) {
 						setFirstName(pdomName);
 					} else {
@@ -500,6 +544,7 @@ public class PDOMFile implements IIndexFragmentFile {
 				}
 			}
 		}
+		setNestedNameOrder(isNestedOrder);
 	}
 
 	private IIndexFragmentName createPDOMName(PDOMLinkage linkage, IASTName name, PDOMName caller) throws CoreException {
@@ -578,6 +623,7 @@ public class PDOMFile implements IIndexFragmentFile {
 			name.delete();
 		}
 		setFirstName(null);
+		setNestedNameOrder(false);
 
 		// Delete all macro references
 		ArrayList<PDOMMacroReferenceName> mrefs= new ArrayList<PDOMMacroReferenceName>();
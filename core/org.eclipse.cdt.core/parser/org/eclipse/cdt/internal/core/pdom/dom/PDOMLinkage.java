@@ -73,9 +73,18 @@ public abstract class PDOMLinkage extends PDOMNamedNode implements IIndexLinkage
 	protected static final int RECORD_SIZE = PDOMNamedNode.RECORD_SIZE + 20;
 	protected static final long[] FILE_LOCAL_REC_DUMMY = new long[] { 0 };
 
+	/**
+	 * Whether global bindings are looked up via an in-memory hash index of their names, rather
+	 * than by searching the BTree.
+	 */
+	private static final boolean USE_NAME_INDEX=
+			!Boolean.getBoolean("org.eclipse.cdt.core.parser.pdom.noNameIndex"); //$NON-NLS-1$
+
 	private BTree fMacroIndex= null;  // No need for volatile, all fields of BTree are final.
 	private final PDOM fPDOM;
 	private final Database fDatabase;
+	private final Object fNameIndexLock= new Object();
+	private volatile PDOMNameIndex fNameIndex;
 
 	public PDOMLinkage(PDOM pdom, long record) {
 		super(null, record);
@@ -170,7 +179,98 @@ public abstract class PDOMLinkage extends PDOMNamedNode implements IIndexLinkage
 
 	@Override
 	public void addChild(PDOMNode child) throws CoreException {
-		getIndex().insert(child.getRecord());
+		final long rec= child.getRecord();
+		if (getIndex().insert(rec) == rec) {
+			final PDOMNameIndex nameIndex= fNameIndex;
+			if (nameIndex != null && child instanceof PDOMNamedNode) {
+				nameIndex.add(((PDOMNamedNode) child).getNameCharArray(), rec);
+			}
+		}
+	}
+
+	/**
+	 * Visits the global bindings with the given name in the order of the BTree returned by
+	 * {@link #getIndex()}, just like {@link BTree#accept(IBTreeVisitor)} does. The visitor has to
+	 * match the name case-sensitively, such that the candidates can be found via the in-memory
+	 * name index rather than by searching the BTree.
+	 */
+	public void acceptGlobalBindings(char[] name, IBTreeVisitor visitor) throws CoreException {
+		final PDOMNameIndex nameIndex= getNameIndex();
+		final long[] candidates= nameIndex == null ? null : nameIndex.find(name, fDatabase.isSnapshotReader());
+		if (candidates == null) {
+			getIndex().accept(visitor);
+			return;
+		}
+
+		int count= 0;
+		for (long rec : candidates) {
+			if (visitor.compare(rec) == 0) {
+				candidates[count++]= rec;
+			}
+		}
+		// Restore the order of the BTree, there are only a few candidates.
+		if (count > 1) {
+			final IBTreeComparator cmp= getIndexComparator();
+			for (int i= 1; i < count; i++) {
+				final long rec= candidates[i];
+				int j= i;
+				for (; j > 0 && cmp.compare(candidates[j - 1], rec) > 0; j--) {
+					candidates[j]= candidates[j - 1];
+				}
+				candidates[j]= rec;
+			}
+		}
+		for (int i= 0; i < count; i++) {
+			if (!visitor.visit(candidates[i]))
+				return;
+		}
+	}
+
+	/**
+	 * Returns the in-memory index of the names of the global bindings, creating it if necessary,
+	 * or <code>null</code> if it cannot be used.
+	 */
+	private PDOMNameIndex getNameIndex() throws CoreException {
+		if (!USE_NAME_INDEX)
+			return null;
+		PDOMNameIndex nameIndex= fNameIndex;
+		if (nameIndex == null && !fDatabase.isSnapshotReader()) {
+			synchronized (fNameIndexLock) {
+				nameIndex= fNameIndex;
+				// A reader of a snapshot would miss the bindings added by the writer.
+				if (nameIndex == null && !fDatabase.isSnapshotReader()) {
+					final PDOMNameIndex newIndex= new PDOMNameIndex();
+					getIndex().accept(new IBTreeVisitor() {
+						@Override
+						public int compare(long rec) throws CoreException {
+							return 0;
+						}
+
+						@Override
+						public boolean visit(long rec) throws CoreException {
+							newIndex.add(PDOMNamedNode.getDBName(fDatabase, rec).getChars(), rec);
+							return true;
+						}
+					});
+					fNameIndex= nameIndex= newIndex;
+				}
+			}
+		}
+		return nameIndex;
+	}
+
+	/**
+	 * Called by the writer after a snapshot of the PDOM has been started, before any modification
+	 * is made. Bindings added from now on are hidden from the readers of the snapshot.
+	 */
+	public void startSnapshot() {
+		// Waits for a reader that is creating the name index.
+		synchronized (fNameIndexLock) {
+			final PDOMNameIndex nameIndex= fNameIndex;
+			if (nameIndex != null) {
+				nameIndex.startSnapshot();
+			}
+		}
 	}
 	
 	public final PDOMBinding getBinding(long record) throws CoreException {
@@ -403,7 +503,7 @@ public abstract class PDOMLinkage extends PDOMNamedNode implements IIndexLinkage
 		
 		BindingCollector visitor = new BindingCollector(this, name, null, false, false, true);
 		visitor.setMonitor(monitor);
-		getIndex().accept(visitor);
+		acceptGlobalBindings(name, visitor);
 		PDOMBinding[] result= visitor.getBindings();
 		synchronized (map) {
 			map.put(name, result);
@@ -13,6 +13,7 @@
 package org.eclipse.cdt.internal.core.pdom.dom;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.dom.ast.IASTFileLocation;
@@ -407,12 +408,36 @@ public final class PDOMName implements IIndexFragmentName, IASTFileLocation {
 	@Override
 	public IIndexName[] getEnclosedNames() throws CoreException {
 		ArrayList<PDOMName> result= new ArrayList<PDOMName>();
-		PDOMName name= getNextInFile();
-		while (name != null) {
-			if (name.getEnclosingDefinitionRecord() == record) {
-				result.add(name);
+		PDOMFile file= getFile();
+		if (file != null && file.hasNestedNameOrder()) {
+			// The enclosed names and the names of nested definitions directly follow this name,
+			// stop at the first name outside of this definition.
+			long[] nesting= new long[16];
+			int nestingDepth= 0;
+			nesting[nestingDepth++]= record;
+			for (PDOMName name= getNextInFile(); name != null; name= name.getNextInFile()) {
+				long callerRec= name.getEnclosingDefinitionRecord();
+				while (nestingDepth > 0 && nesting[nestingDepth - 1] != callerRec) {
+					nestingDepth--;
+				}
+				if (nestingDepth == 0)
+					break;
+				if (callerRec == record) {
+					result.add(name);
+				}
+				if (nestingDepth == nesting.length) {
+					nesting= Arrays.copyOf(nesting, 2 * nestingDepth);
+				}
+				nesting[nestingDepth++]= name.getRecord();
+			}
+		} else {
+			PDOMName name= getNextInFile();
+			while (name != null) {
+				if (name.getEnclosingDefinitionRecord() == record) {
+					result.add(name);
+				}
+				name= name.getNextInFile();
 			}
-			name= name.getNextInFile();
 		}
 		return result.toArray(new PDOMName[result.size()]);
 	}
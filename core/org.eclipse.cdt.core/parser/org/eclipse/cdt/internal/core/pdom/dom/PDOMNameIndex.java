@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.pdom.dom;
+
+import org.eclipse.cdt.core.parser.util.CharArrayUtils;
+
+/**
+ * In-memory hash index for the global bindings of a linkage. Maps the hash codes of the names
+ * of the bindings to their records, using primitive arrays only. Different names may share
+ * a hash code, the caller has to check the names of the records returned by {@link #find}.
+ * <p>
+ * Like the BTree of global bindings, the index grows only. Entries added after the start of
+ * a snapshot are not visible to the readers of the snapshot.
+ */
+final class PDOMNameIndex {
+	private static final int INITIAL_CAPACITY= 1024;
+	private static final long[] NO_RECORDS= {};
+
+	// 1 + the index of the first entry of a bucket, or 0 for an empty bucket.
+	private int[] fBuckets= new int[INITIAL_CAPACITY];
+	// 1 + the index of the next entry within the same bucket, or 0.
+	private int[] fNext= new int[INITIAL_CAPACITY];
+	private int[] fHashes= new int[INITIAL_CAPACITY];
+	private long[] fRecords= new long[INITIAL_CAPACITY];
+	private int fSize;
+	private int fSnapshotSize= -1;
+
+	/**
+	 * Adds the record of a binding with the given name.
+	 */
+	synchronized void add(char[] name, long record) {
+		if (fSize == fRecords.length) {
+			grow();
+		}
+		final int hash= hash(name);
+		final int bucket= hash & (fBuckets.length - 1);
+		fHashes[fSize]= hash;
+		fRecords[fSize]= record;
+		fNext[fSize]= fBuckets[bucket];
+		fBuckets[bucket]= ++fSize;
+	}
+
+	/**
+	 * Returns the records of the bindings that may have the given name, in reverse order of
+	 * their addition. Returns <code>null</code> when the index cannot be used by a reader
+	 * of a snapshot, because it was created after the snapshot was started.
+	 */
+	synchronized long[] find(char[] name, boolean snapshotReader) {
+		final int limit;
+		if (snapshotReader) {
+			if (fSnapshotSize < 0)
+				return null;
+			limit= fSnapshotSize;
+		} else {
+			limit= fSize;
+		}
+		final int hash= hash(name);
+		long[] result= NO_RECORDS;
+		int count= 0;
+		for (int i= fBuckets[hash & (fBuckets.length - 1)]; i != 0; i= fNext[i - 1]) {
+			final int idx= i - 1;
+			if (idx < limit && fHashes[idx] == hash) {
+				if (count == result.length) {
+					long[] newResult= new long[Math.max(4, 2 * count)];
+					System.arraycopy(result, 0, newResult, 0, count);
+					result= newResult;
+				}
+				result[count++]= fRecords[idx];
+			}
+		}
+		if (count < result.length) {
+			long[] newResult= new long[count];
+			System.arraycopy(result, 0, newResult, 0, count);
+			result= newResult;
+		}
+		return result;
+	}
+
+	/**
+	 * Makes the current entries visible to the readers of a snapshot, the entries added later
+	 * on are hidden from them.
+	 */
+	synchronized void startSnapshot() {
+		fSnapshotSize= fSize;
+	}
+
+	/**
+	 * Returns the number of entries.
+	 */
+	synchronized int size() {
+		return fSize;
+	}
+
+	private void grow() {
+		final int capacity= 2 * fRecords.length;
+		int[] hashes= new int[capacity];
+		long[] records= new long[capacity];
+		System.arraycopy(fHashes, 0, hashes, 0, fSize);
+		System.arraycopy(fRecords, 0, records, 0, fSize);
+		fHashes= hashes;
+		fRecords= records;
+
+		// Rehash, the order of the entries within a bucket is preserved.
+		fNext= new int[capacity];
+		fBuckets= new int[capacity];
+		final int mask= capacity - 1;
+		for (int i= 0; i < fSize; i++) {
+			final int bucket= fHashes[i] & mask;
+			fNext[i]= fBuckets[bucket];
+			fBuckets[bucket]= i + 1;
+		}
+	}
+
+	private static int hash(char[] name) {
+		int h= CharArrayUtils.hash(name);
+		return h ^ (h >>> 16);
+	}
+}
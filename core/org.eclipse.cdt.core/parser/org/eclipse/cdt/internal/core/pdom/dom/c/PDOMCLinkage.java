@@ -280,7 +280,7 @@ class PDOMCLinkage extends PDOMLinkage implements IIndexCBindingConstants {
 		if (parent == this) {
 			final int[] bindingTypes = new int[] {getBindingType(binding)};
 			final char[] nameChars = binding.getNameCharArray();
-			PDOMBinding nonLocal= FindBinding.findBinding(getIndex(), this, nameChars, bindingTypes, 0);
+			PDOMBinding nonLocal= FindBinding.findGlobalBinding(this, nameChars, bindingTypes, 0);
 			if (localToFileHolder == null)
 				return nonLocal;
 			
@@ -288,7 +288,7 @@ class PDOMCLinkage extends PDOMLinkage implements IIndexCBindingConstants {
 			if (localToFileRec == 0)
 				return nonLocal;
 			localToFileHolder[0]= localToFileRec;
-			return FindBinding.findBinding(getIndex(), this, nameChars, bindingTypes, localToFileRec);
+			return FindBinding.findGlobalBinding(this, nameChars, bindingTypes, localToFileRec);
 		} 
 		if (parent instanceof IPDOMMemberOwner) {
 			final int[] bindingTypes = new int[] {getBindingType(binding)};
@@ -104,6 +104,16 @@ public class CPPFindBinding extends FindBinding {
 		return visitor.getResult();
 	}
 
+	/**
+	 * Finds a binding in the global index of the linkage, see {@link PDOMLinkage#acceptGlobalBindings}.
+	 */
+	public static PDOMBinding findGlobalBinding(PDOMLinkage linkage, char[] name, int c2, int ty2,
+			long localToFileRec) throws CoreException {
+		CPPFindBindingVisitor visitor= new CPPFindBindingVisitor(linkage, name, c2, ty2, localToFileRec);
+		linkage.acceptGlobalBindings(name, visitor);
+		return visitor.getResult();
+	}
+
 	public static PDOMBinding findBinding(PDOMNode node, PDOMLinkage linkage, char[] name, int constant,
 			int sigHash, long localToFileRec) throws CoreException {
 		CPPFindBindingVisitor visitor= new CPPFindBindingVisitor(linkage, name, constant, sigHash,
@@ -130,6 +140,21 @@ public class CPPFindBinding extends FindBinding {
 				new int[] {linkage.getBindingType(binding)}, localToFileRec);
 	}
 
+	public static PDOMBinding findGlobalBinding(PDOMLinkage linkage, IBinding binding,
+			long localToFileRec) throws CoreException {
+		Integer hash= 0;
+		try {
+			hash = IndexCPPSignatureUtil.getSignatureHash(binding);
+		} catch (DOMException e) {
+		}
+		if (hash != null) {
+			return findGlobalBinding(linkage, binding.getNameCharArray(),
+					linkage.getBindingType(binding), hash.intValue(), localToFileRec);
+		}
+		return FindBinding.findGlobalBinding(linkage, binding.getNameCharArray(),
+				new int[] {linkage.getBindingType(binding)}, localToFileRec);
+	}
+
 	public static PDOMBinding findBinding(PDOMNode node, PDOMLinkage linkage, IBinding binding,
 			long localToFileRec) throws CoreException {
 		Integer hash = null;
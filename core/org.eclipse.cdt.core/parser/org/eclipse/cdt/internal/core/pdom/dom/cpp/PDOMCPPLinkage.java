@@ -875,14 +875,14 @@ class PDOMCPPLinkage extends PDOMLinkage implements IIndexCPPBindingConstants {
 			parent= adaptOrAddParent(false, binding);
 		}
 		if (parent == this) {
-			PDOMBinding glob= CPPFindBinding.findBinding(getIndex(), this, binding, 0);
+			PDOMBinding glob= CPPFindBinding.findGlobalBinding(this, binding, 0);
 			if (fileLocalRecHolder == null)
 				return glob;
 			final long loc= getLocalToFileRec(parent, binding, glob);
 			if (loc == 0)
 				return glob;
 			fileLocalRecHolder[0]= loc;
-			return CPPFindBinding.findBinding(getIndex(), this, binding, loc);
+			return CPPFindBinding.findGlobalBinding(this, binding, loc);
 		}
 		if (parent instanceof PDOMCPPNamespace) {
 			final BTree btree = ((PDOMCPPNamespace) parent).getIndex();
@@ -38,6 +38,8 @@ public abstract class AbstractPDOMIndexer implements IPDOMIndexer {
 		fProperties.put(IndexerPreferences.KEY_SKIP_MACRO_REFERENCES, String.valueOf(false)); 
 		fProperties.put(IndexerPreferences.KEY_INDEX_ALL_HEADER_VERSIONS, String.valueOf(false));
 		fProperties.put(IndexerPreferences.KEY_INDEX_ALL_VERSIONS_SPECIFIC_HEADERS, ""); //$NON-NLS-1$
+		fProperties.put(IndexerPreferences.KEY_INDEXER_THREAD_COUNT, String.valueOf(IndexerPreferences.DEFAULT_INDEXER_THREAD_COUNT));
+		fProperties.put(IndexerPreferences.KEY_UPDATE_DEPENDENT_FILES, String.valueOf(false));
 	}
 
 	@Override
@@ -60,6 +62,9 @@ public abstract class AbstractPDOMIndexer implements IPDOMIndexer {
 		for (Map.Entry<Object, Object> entry : fProperties.entrySet()) {
 			String key = (String) entry.getKey();
 			String val = (String) entry.getValue();
+			if (IndexerPreferences.KEY_INDEXER_THREAD_COUNT.equals(key) ||
+					IndexerPreferences.KEY_UPDATE_DEPENDENT_FILES.equals(key))
+				continue; // Does not require the index to be rebuilt.
 
 			if (val != null) { // relevant property
 				String v2= (String) props.get(key);
@@ -68,11 +68,16 @@ public class IndexerPreferences {
 	public static final String KEY_REINDEX_ON_INDEXER_CHANGE = "reindexOnIndexerChange"; //$NON-NLS-1$
 	public static final String KEY_INDEX_ALL_HEADER_VERSIONS= "indexAllHeaderVersions"; //$NON-NLS-1$
 	public static final String KEY_INDEX_ALL_VERSIONS_SPECIFIC_HEADERS= "indexAllVersionsSpecificHeaders"; //$NON-NLS-1$
+	/** Number of threads reading source files ahead of the indexer, does not require the index to be rebuilt. */
+	public static final String KEY_INDEXER_THREAD_COUNT= "indexerThreadCount"; //$NON-NLS-1$
+	/** Whether files including a header are updated when the preprocessor interface or the declarations of the header change. */
+	public static final String KEY_UPDATE_DEPENDENT_FILES= "updateDependentFiles"; //$NON-NLS-1$
 
 	private static final String DEFAULT_INDEX_IMPORT_LOCATION = ".settings/cdt-index.zip"; //$NON-NLS-1$
 	private static final int DEFAULT_UPDATE_POLICY= 0;
 	public static final int DEFAULT_FILE_SIZE_LIMIT_MB = 8;
 	public static final int DEFAULT_INCLUDED_FILE_SIZE_LIMIT_MB = 16;
+	public static final int DEFAULT_INDEXER_THREAD_COUNT = 1;
 
 	private static final String QUALIFIER = CCorePlugin.PLUGIN_ID;
 	private static final String INDEXER_NODE = "indexer"; //$NON-NLS-1$
@@ -336,6 +341,8 @@ public class IndexerPreferences {
 		prefs.putBoolean(KEY_SKIP_MACRO_REFERENCES, false);
 		prefs.put(KEY_INDEX_IMPORT_LOCATION, DEFAULT_INDEX_IMPORT_LOCATION);
 		prefs.putBoolean(KEY_INDEX_ALL_HEADER_VERSIONS, false);
+		prefs.putInt(KEY_INDEXER_THREAD_COUNT, DEFAULT_INDEXER_THREAD_COUNT);
+		prefs.putBoolean(KEY_UPDATE_DEPENDENT_FILES, false);
 	}
 
 	public static void setDefaultIndexerId(String defaultId) {
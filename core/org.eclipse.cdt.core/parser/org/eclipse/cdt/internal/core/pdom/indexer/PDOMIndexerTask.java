@@ -12,6 +12,11 @@
  *******************************************************************************/
 package org.eclipse.cdt.internal.core.pdom.indexer;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
@@ -51,6 +56,11 @@ import com.ibm.icu.text.NumberFormat;
  */
 public abstract class PDOMIndexerTask extends AbstractIndexerTask implements IPDOMIndexerTask {
 	private static final String TRUE = Boolean.TRUE.toString();
+	/**
+	 * System property naming a directory, to which the metrics of every indexer task are written
+	 * in JSON format, one file per project.
+	 */
+	private static final String METRICS_DIRECTORY = "org.eclipse.cdt.core.indexer.metricsDirectory"; //$NON-NLS-1$
 
 	private AbstractPDOMIndexer fIndexer;
 	private boolean fWriteInfoToLog;
@@ -68,6 +78,9 @@ public abstract class PDOMIndexerTask extends AbstractIndexerTask implements IPD
 		final long fileLimit = getIntProperty(IndexerPreferences.KEY_SKIP_FILES_LARGER_THAN_MB, 0);
 		final long includedFileLimit = getIntProperty(IndexerPreferences.KEY_SKIP_INCLUDED_FILES_LARGER_THAN_MB, 0);
 		setFileSizeLimits(fileLimit * 1024 * 1024, includedFileLimit * 1024 * 1024);
+		setParserThreadCount(getIntProperty(IndexerPreferences.KEY_INDEXER_THREAD_COUNT,
+				IndexerPreferences.DEFAULT_INDEXER_THREAD_COUNT));
+		setReportDependentFiles(checkProperty(IndexerPreferences.KEY_UPDATE_DEPENDENT_FILES));
 		setIndexAllHeaderVersions(checkProperty(IndexerPreferences.KEY_INDEX_ALL_HEADER_VERSIONS));
 		setHeadersToIndexAllVersions(getStringSet(IndexerPreferences.KEY_INDEX_ALL_VERSIONS_SPECIFIC_HEADERS));
 		if (checkProperty(IndexerPreferences.KEY_SKIP_ALL_REFERENCES)) {
@@ -227,6 +240,12 @@ public abstract class PDOMIndexerTask extends AbstractIndexerTask implements IPD
 	}
 
 	protected void traceEnd(long start, IWritableIndex index, boolean wasCancelled) {
+		// metrics for headless runs
+		final String metricsDirectory= System.getProperty(METRICS_DIRECTORY);
+		if (metricsDirectory != null && !wasCancelled && index != null) {
+			writeMetrics(new File(metricsDirectory), System.currentTimeMillis() - start, index);
+		}
+
 		// log entry
 		if (fWriteInfoToLog && !wasCancelled && index != null) {
 			final long totalTime = System.currentTimeMillis() - start;
@@ -291,9 +310,11 @@ public abstract class PDOMIndexerTask extends AbstractIndexerTask implements IPD
 			System.out.println(indent + " Database: " + dbSize + " bytes");   //$NON-NLS-1$ //$NON-NLS-2$
 			System.out.println(indent + " Timings: "     //$NON-NLS-1$
 					+ totalTime + " total, "    //$NON-NLS-1$
+					+ fStatistics.fScanTime + " scan, "    //$NON-NLS-1$
 					+ fStatistics.fParsingTime + " parser, "    //$NON-NLS-1$
 					+ fStatistics.fResolutionTime + " resolution, "    //$NON-NLS-1$
-					+ fStatistics.fAddToIndexTime + " index update.");    //$NON-NLS-1$
+					+ fStatistics.fAddToIndexTime + " index update, "    //$NON-NLS-1$
+					+ fStatistics.fLockWaitTime + " waiting for index lock.");    //$NON-NLS-1$
 			System.out.println(indent + " Errors: "    //$NON-NLS-1$
 					+ fStatistics.fErrorCount + " internal, "    //$NON-NLS-1$
 					+ fStatistics.fUnresolvedIncludesCount + " include, "     //$NON-NLS-1$
@@ -371,6 +392,23 @@ public abstract class PDOMIndexerTask extends AbstractIndexerTask implements IPD
 		}
 	}
 
+	private void writeMetrics(File directory, long totalTime, IWritableIndex index) {
+		final String project= getCProject().getElementName();
+		final String json= getMetrics().toJSON(project, totalTime, fStatistics, getProgressInformation(),
+				index.getCacheHits(), index.getCacheMisses(), index.getDatabaseSizeBytes());
+		directory.mkdirs();
+		try {
+			Writer out= new OutputStreamWriter(new FileOutputStream(new File(directory, project + ".indexer-metrics.json")), "UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$
+			try {
+				out.write(json);
+			} finally {
+				out.close();
+			}
+		} catch (IOException e) {
+			CCorePlugin.log(e);
+		}
+	}
+
 	protected ICProject getCProject() {
 		return fIndexer.project;
 	}
@@ -48,7 +48,7 @@ public class PDOMTagIndex {
 		this.rootRecord = 0;
 	}
 
-	private long getFieldAddress(Fields field) throws CoreException {
+	private synchronized long getFieldAddress(Fields field) throws CoreException {
 		if (rootRecord == 0)
 			rootRecord = db.getRecPtr(ptr);
 
@@ -60,18 +60,27 @@ public class PDOMTagIndex {
 		return rootRecord + field.offset;
 	}
 
-	private PDOMStringSet getTaggerIds() throws CoreException {
+	private synchronized PDOMStringSet getTaggerIds() throws CoreException {
 		if (taggerIds == null)
 			taggerIds = new PDOMStringSet(db, getFieldAddress(Fields.TaggerIds));
 		return taggerIds;
 	}
 
-	private BTree getTagsBTree() throws CoreException {
+	private synchronized BTree getTagsBTree() throws CoreException {
 		if (tags == null)
 			tags = new BTree(db, getFieldAddress(Fields.Tags), new PDOMTag.BTreeComparator(db));
 		return tags;
 	}
 
+	/**
+	 * Returns whether the index can be used by the calling thread. A reader of a snapshot of the
+	 * database must neither create the index nor use one that the writer has created after the
+	 * snapshot was taken.
+	 */
+	private boolean isVisible() throws CoreException {
+		return !db.isSnapshotReader() || db.getRecPtr(ptr) != 0;
+	}
+
 	/**
 	 * Return the record storing the specified tagger id. Create a new record if needed.
 	 */
@@ -130,6 +139,14 @@ public class PDOMTagIndex {
 		if (db == null)
 			return null;
 
+		try {
+			if (!isVisible())
+				return null;
+		} catch (CoreException e) {
+			CCorePlugin.log(e);
+			return null;
+		}
+
 		long idRecord = getIdRecord(id, false);
 		if (idRecord == 0L)
 			return null;
@@ -147,6 +164,8 @@ public class PDOMTagIndex {
 	private Iterable<ITag> getTags(long binding_record) {
 		BTree btree = null;
 		try {
+			if (!isVisible())
+				return Collections.emptyList();
 			btree = getTagsBTree();
 		} catch (CoreException e) {
 			CCorePlugin.log(e);
@@ -33,6 +33,7 @@ import org.eclipse.cdt.internal.core.IErrorMarkeredOutputStream;
 import org.eclipse.cdt.internal.core.ProblemMarkerFilterManager;
 import org.eclipse.cdt.internal.core.resources.ResourceLookup;
 import org.eclipse.cdt.internal.errorparsers.ErrorParserExtensionManager;
+import org.eclipse.cdt.internal.errorparsers.ErrorParserPrefilter;
 import org.eclipse.cdt.utils.EFSExtensionManager;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -81,6 +82,7 @@ public class ErrorParserManager extends OutputStream implements IConsoleParser,
 	private final IMarkerGenerator fMarkerGenerator;
 
 	private Map<String, IErrorParser[]> fErrorParsers;
+	private ErrorParserPrefilter fPrefilter;
 	private final List<ProblemMarkerInfo> fErrors;
 
 	private final Vector<URI> fDirectoryStack;
@@ -182,6 +184,7 @@ public class ErrorParserManager extends OutputStream implements IConsoleParser,
 				fErrorParsers.put(parsersID, new IErrorParser[] {errorParser} );
 			}
 		}
+		fPrefilter = new ErrorParserPrefilter(fErrorParsers.values());
 	}
 
 	/**
@@ -321,6 +324,7 @@ public class ErrorParserManager extends OutputStream implements IConsoleParser,
 		lineCounter++;
 
 		ProblemMarkerInfo marker=null;
+		fPrefilter.setLine(lineTrimmed);
 
 outer:
 		for (IErrorParser[] parsers : fErrorParsers.values()) {
@@ -339,6 +343,10 @@ outer:
 						continue;
 					}
 				}
+				// skip regex based parsers whose patterns cannot match
+				if (!fPrefilter.canMatch(curr)) {
+					continue;
+				}
 				// standard behavior (pre 5.1) is to trim the line
 				String lineToParse = lineTrimmed;
 				if ((types & IErrorParser2.KEEP_UNTRIMMED) !=0 ) {
@@ -0,0 +1,372 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.internal.errorparsers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.cdt.core.IErrorParser;
+import org.eclipse.cdt.core.errorparsers.ErrorParserNamedWrapper;
+import org.eclipse.cdt.core.errorparsers.RegexErrorParser;
+import org.eclipse.cdt.core.errorparsers.RegexErrorPattern;
+
+/**
+ * Decides cheaply whether an error parser can possibly accept a line of build output.
+ * For each pattern of a {@link RegexErrorParser} a literal is determined that every line matched
+ * by the pattern has to contain. All such literals are searched for in a single pass over a line
+ * using an Aho-Corasick automaton; a parser none of whose literals occur in the line is skipped.
+ * Parsers that are not regex based, or that have a pattern without such a literal, are never
+ * skipped.
+ */
+public final class ErrorParserPrefilter {
+	/** Literals of the patterns of a parser, as indexes into the literals of the automaton. */
+	private final Map<IErrorParser, int[]> fParserLiterals = new IdentityHashMap<IErrorParser, int[]>();
+
+	// Aho-Corasick automaton, state 0 is the root.
+	private char[][] fLabels;
+	private int[][] fTargets;
+	private int[] fFailure;
+	private int[][] fOutputs;
+
+	private String fLine;
+	private final BitSet fFound = new BitSet();
+
+	/**
+	 * @param parsers - the error parsers as stored by the error parser manager.
+	 */
+	public ErrorParserPrefilter(Collection<IErrorParser[]> parsers) {
+		Map<String, Integer> literals = new LinkedHashMap<String, Integer>();
+		for (IErrorParser[] ps : parsers) {
+			for (IErrorParser parser : ps) {
+				IErrorParser curr = parser;
+				if (parser instanceof ErrorParserNamedWrapper) {
+					curr = ((ErrorParserNamedWrapper) parser).getErrorParser();
+				}
+				int[] ids = getLiterals(curr, literals);
+				if (ids != null) {
+					fParserLiterals.put(curr, ids);
+				}
+			}
+		}
+		buildAutomaton(new ArrayList<String>(literals.keySet()));
+	}
+
+	private static int[] getLiterals(IErrorParser parser, Map<String, Integer> literals) {
+		// Subclasses may override the matching.
+		if (parser.getClass() != RegexErrorParser.class)
+			return null;
+		RegexErrorPattern[] patterns = ((RegexErrorParser) parser).getPatterns();
+		if (patterns.length == 0)
+			return null;
+		int[] ids = new int[patterns.length];
+		for (int i = 0; i < patterns.length; i++) {
+			RegexErrorPattern pattern = patterns[i];
+			if (pattern.getClass() != RegexErrorPattern.class)
+				return null;
+			String literal = getRequiredLiteral(pattern.getPattern());
+			if (literal == null)
+				return null;
+			Integer id = literals.get(literal);
+			if (id == null) {
+				id = literals.size();
+				literals.put(literal, id);
+			}
+			ids[i] = id;
+		}
+		return ids;
+	}
+
+	/**
+	 * Sets the line that subsequent calls to {@link #canMatch(IErrorParser)} refer to.
+	 */
+	public void setLine(String line) {
+		fLine = line;
+	}
+
+	/**
+	 * Returns whether the given parser may accept the current line, {@code false} only if it is
+	 * certain that none of its patterns matches the line.
+	 */
+	public boolean canMatch(IErrorParser parser) {
+		int[] ids = fParserLiterals.get(parser);
+		if (ids == null)
+			return true;
+		if (fLine != null) {
+			findLiterals(fLine);
+			fLine = null;
+		}
+		for (int id : ids) {
+			if (fFound.get(id))
+				return true;
+		}
+		return false;
+	}
+
+	private void buildAutomaton(List<String> literals) {
+		List<TreeMap<Character, Integer>> edges = new ArrayList<TreeMap<Character, Integer>>();
+		List<List<Integer>> outputs = new ArrayList<List<Integer>>();
+		edges.add(new TreeMap<Character, Integer>());
+		outputs.add(new ArrayList<Integer>());
+		for (int id = 0; id < literals.size(); id++) {
+			String literal = literals.get(id);
+			int state = 0;
+			for (int i = 0; i < literal.length(); i++) {
+				Integer next = edges.get(state).get(literal.charAt(i));
+				if (next == null) {
+					next = edges.size();
+					edges.get(state).put(literal.charAt(i), next);
+					edges.add(new TreeMap<Character, Integer>());
+					outputs.add(new ArrayList<Integer>());
+				}
+				state = next;
+			}
+			outputs.get(state).add(id);
+		}
+
+		final int size = edges.size();
+		fLabels = new char[size][];
+		fTargets = new int[size][];
+		for (int state = 0; state < size; state++) {
+			TreeMap<Character, Integer> e = edges.get(state);
+			fLabels[state] = new char[e.size()];
+			fTargets[state] = new int[e.size()];
+			int i = 0;
+			for (Map.Entry<Character, Integer> entry : e.entrySet()) {
+				fLabels[state][i] = entry.getKey();
+				fTargets[state][i++] = entry.getValue();
+			}
+		}
+
+		// Breadth-first computation of the failure links, the outputs of the state a failure link
+		// points to are merged into the outputs of the state.
+		fFailure = new int[size];
+		int[] queue = new int[size];
+		int head = 0, tail = 0;
+		for (int target : fTargets[0]) {
+			queue[tail++] = target;
+		}
+		while (head < tail) {
+			final int state = queue[head++];
+			for (int i = 0; i < fLabels[state].length; i++) {
+				final char c = fLabels[state][i];
+				final int target = fTargets[state][i];
+				int f = fFailure[state];
+				int next;
+				while ((next = transition(f, c)) < 0 && f != 0) {
+					f = fFailure[f];
+				}
+				fFailure[target] = next < 0 || next == target ? 0 : next;
+				outputs.get(target).addAll(outputs.get(fFailure[target]));
+				queue[tail++] = target;
+			}
+		}
+		fOutputs = new int[size][];
+		for (int state = 0; state < size; state++) {
+			List<Integer> out = outputs.get(state);
+			fOutputs[state] = new int[out.size()];
+			for (int i = 0; i < out.size(); i++) {
+				fOutputs[state][i] = out.get(i);
+			}
+		}
+	}
+
+	private int transition(int state, char c) {
+		int i = Arrays.binarySearch(fLabels[state], c);
+		return i < 0 ? -1 : fTargets[state][i];
+	}
+
+	private void findLiterals(String line) {
+		fFound.clear();
+		int state = 0;
+		for (int i = 0; i < line.length(); i++) {
+			final char c = line.charAt(i);
+			int next;
+			while ((next = transition(state, c)) < 0 && state != 0) {
+				state = fFailure[state];
+			}
+			state = next < 0 ? 0 : next;
+			for (int id : fOutputs[state]) {
+				fFound.set(id);
+			}
+		}
+	}
+
+	/**
+	 * Returns a literal that is contained in every string matched by the given regular expression,
+	 * or {@code null} if no such literal can be determined. The analysis is conservative, constructs
+	 * that are not understood result in {@code null}.
+	 */
+	public static String getRequiredLiteral(String regex) {
+		String best = ""; //$NON-NLS-1$
+		StringBuilder run = new StringBuilder();
+		final int len = regex.length();
+		int i = 0;
+		while (i < len) {
+			final char c = regex.charAt(i);
+			int literal = -1;
+			int next;
+			switch (c) {
+			case '\\':
+				if (i + 1 >= len)
+					return null;
+				char e = regex.charAt(i + 1);
+				if (e >= '0' && e <= '9' || "QExuckpPN".indexOf(e) >= 0) //$NON-NLS-1$
+					return null;
+				if (!(e >= 'a' && e <= 'z' || e >= 'A' && e <= 'Z'))
+					literal = e;
+				// Otherwise a predefined character class, a boundary or a control character.
+				next = i + 2;
+				break;
+			case '[':
+				next = skipCharacterClass(regex, i);
+				break;
+			case '(':
+				if (regex.startsWith("(?", i) && (i + 2 >= len || ":=!<".indexOf(regex.charAt(i + 2)) < 0)) //$NON-NLS-1$ //$NON-NLS-2$
+					return null; // Embedded flags, e.g. case insensitive matching.
+				next = skipGroup(regex, i);
+				break;
+			case '.':
+			case '^':
+			case '$':
+				next = i + 1;
+				break;
+			case '|':
+			case ')':
+			case '*':
+			case '+':
+			case '?':
+			case '{':
+				return null;
+			default:
+				literal = c;
+				next = i + 1;
+				break;
+			}
+			if (next < 0)
+				return null;
+
+			boolean optional = false;
+			boolean repeated = false;
+			int q = next;
+			if (q < len) {
+				final char qc = regex.charAt(q);
+				if (qc == '*' || qc == '?') {
+					optional = true;
+					q++;
+				} else if (qc == '+') {
+					repeated = true;
+					q++;
+				} else if (qc == '{') {
+					int close = regex.indexOf('}', q);
+					if (close < 0)
+						return null;
+					String min = regex.substring(q + 1, close);
+					int comma = min.indexOf(',');
+					if (comma >= 0)
+						min = min.substring(0, comma);
+					try {
+						optional = Integer.parseInt(min.trim()) == 0;
+					} catch (NumberFormatException ex) {
+						return null;
+					}
+					repeated = true;
+					q = close + 1;
+				}
+				// Reluctant and possessive quantifiers.
+				if (q != next && q < len && (regex.charAt(q) == '?' || regex.charAt(q) == '+'))
+					q++;
+			}
+
+			if (literal >= 0 && !optional) {
+				run.append((char) literal);
+				if (repeated) {
+					best = longer(best, run);
+					run.setLength(0);
+				}
+			} else {
+				best = longer(best, run);
+				run.setLength(0);
+			}
+			i = q;
+		}
+		best = longer(best, run);
+		return best.isEmpty() ? null : best;
+	}
+
+	private static String longer(String best, StringBuilder run) {
+		return run.length() > best.length() ? run.toString() : best;
+	}
+
+	/**
+	 * Returns the index after the character class starting at the given index, or -1.
+	 */
+	private static int skipCharacterClass(String regex, int start) {
+		final int len = regex.length();
+		int i = start + 1;
+		if (i < len && regex.charAt(i) == '^')
+			i++;
+		if (i < len && regex.charAt(i) == ']')
+			i++;
+		int depth = 1;
+		while (i < len) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				i += 2;
+				continue;
+			}
+			if (c == '[') {
+				depth++;
+			} else if (c == ']' && --depth == 0) {
+				return i + 1;
+			}
+			i++;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the index after the group starting at the given index, or -1.
+	 */
+	private static int skipGroup(String regex, int start) {
+		final int len = regex.length();
+		int depth = 0;
+		int i = start;
+		while (i < len) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				if (i + 1 < len && regex.charAt(i + 1) == 'Q')
+					return -1;
+				i += 2;
+				continue;
+			}
+			if (c == '[') {
+				i = skipCharacterClass(regex, i);
+				if (i < 0)
+					return -1;
+				continue;
+			}
+			if (c == '(') {
+				depth++;
+			} else if (c == ')' && --depth == 0) {
+				return i + 1;
+			}
+			i++;
+		}
+		return -1;
+	}
+}
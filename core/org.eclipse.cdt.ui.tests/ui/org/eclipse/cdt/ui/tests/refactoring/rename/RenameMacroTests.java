@@ -152,6 +152,47 @@ public class RenameMacroTests extends RenameTestBase {
         		"Conflicting element type: Enumerator"); //$NON-NLS-1$
    }
 
+    public void testMacroNameConflictInFileWithoutReferences() throws Exception {
+        StringBuilder buf = new StringBuilder();
+        buf.append("int foo();                \n"); //$NON-NLS-1$
+        buf.append("void f() {foo();}         \n"); //$NON-NLS-1$
+        String contents = buf.toString();
+        IFile cpp= importFile("test.cpp", contents); //$NON-NLS-1$
+
+        // The match in the other file refers to a different variable, the file is not parsed for
+        // analyzing the matches.
+        buf = new StringBuilder();
+        buf.append("#define BAR 1             \n"); //$NON-NLS-1$
+        buf.append("static int foo;           \n"); //$NON-NLS-1$
+        importFile("other.cpp", buf.toString()); //$NON-NLS-1$
+        waitForIndexer();
+
+        RefactoringStatus status= checkConditions(cpp, contents.indexOf("foo"), "BAR");  //$NON-NLS-1$ //$NON-NLS-2$
+        assertRefactoringError(status, "'BAR' conflicts with the name of an existing macro."); //$NON-NLS-1$
+    }
+
+    public void testMacroNameConflictInFileWithReferences() throws Exception {
+        StringBuilder buf = new StringBuilder();
+        buf.append("int foo();                \n"); //$NON-NLS-1$
+        buf.append("void f() {foo();}         \n"); //$NON-NLS-1$
+        String contents = buf.toString();
+        IFile cpp= importFile("test.cpp", contents); //$NON-NLS-1$
+
+        buf = new StringBuilder();
+        buf.append("int foo();                \n"); //$NON-NLS-1$
+        buf.append("void g1() {foo();}        \n"); //$NON-NLS-1$
+        importFile("other1.cpp", buf.toString()); //$NON-NLS-1$
+        buf = new StringBuilder();
+        buf.append("#define BAR 1             \n"); //$NON-NLS-1$
+        buf.append("int foo();                \n"); //$NON-NLS-1$
+        buf.append("void g2() {foo();}        \n"); //$NON-NLS-1$
+        importFile("other2.cpp", buf.toString()); //$NON-NLS-1$
+        waitForIndexer();
+
+        RefactoringStatus status= checkConditions(cpp, contents.indexOf("foo"), "BAR");  //$NON-NLS-1$ //$NON-NLS-2$
+        assertRefactoringError(status, "'BAR' conflicts with the name of an existing macro."); //$NON-NLS-1$
+    }
+
     public void testClassMacroClash() throws Exception {
         StringBuilder buf = new StringBuilder();
         buf.append("class CC {int a;};         \n"); //$NON-NLS-1$
@@ -23,6 +23,8 @@ import junit.framework.TestSuite;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.jface.operation.IRunnableContext;
 import org.eclipse.jface.operation.IRunnableWithProgress;
@@ -32,9 +34,12 @@ import org.eclipse.jface.viewers.StructuredViewer;
 import org.eclipse.search.ui.IQueryListener;
 import org.eclipse.search.ui.ISearchQuery;
 import org.eclipse.search.ui.ISearchResult;
+import org.eclipse.search.ui.ISearchResultListener;
 import org.eclipse.search.ui.ISearchResultPage;
 import org.eclipse.search.ui.ISearchResultViewPart;
 import org.eclipse.search.ui.NewSearchUI;
+import org.eclipse.search.ui.SearchResultEvent;
+import org.eclipse.search.ui.text.MatchEvent;
 import org.osgi.framework.Bundle;
 
 import org.eclipse.cdt.core.CCorePlugin;
@@ -379,4 +384,34 @@ public class BasicSearchTest extends BaseUITestCase {
 		query= makeProjectQuery("f");
 		assertOccurrences(query, 6);
 	}
+
+	// void foo() {}
+
+	// void bar() {foo();}
+	public void testCanceledSearchOfFiles() throws Exception {
+		final int fileCount= 20;
+		for (int i = 0; i < fileCount; i++) {
+			TestSourceReader.createFile(fCProject.getProject(), new Path("ref" + i + ".cpp"),
+					"void bar" + i + "() {foo();}");
+		}
+		waitForIndexer(fCProject);
+
+		CSearchQuery query= makeProjectQuery("foo");
+		CSearchResult result= (CSearchResult) query.getSearchResult();
+		final NullProgressMonitor monitor= new NullProgressMonitor();
+		// Cancel the search as soon as the matches of the first file are added.
+		result.addListener(new ISearchResultListener() {
+			@Override
+			public void searchResultChanged(SearchResultEvent e) {
+				if (e instanceof MatchEvent && ((MatchEvent) e).getKind() == MatchEvent.ADDED)
+					monitor.setCanceled(true);
+			}
+		});
+		try {
+			query.run(monitor);
+			fail("Search was not canceled");
+		} catch (OperationCanceledException e) {
+		}
+		assertTrue(result.getMatchCount() < fileCount);
+	}
 }
@@ -17,6 +17,7 @@ import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IDocumentExtension4;
 import org.eclipse.ui.IEditorInput;
@@ -43,6 +44,10 @@ import org.eclipse.cdt.internal.core.model.ASTCache.ASTRunnable;
 /**
  * Provides a shared AST for clients. The shared AST is
  * the AST of the active CEditor's input element.
+ * <p>
+ * When the active editor changes, the ASTs for the partner file of the new input element and
+ * for the input element of the previously active editor are built in the background, such that
+ * they are available at once when switching between header and source or between editors.
  *
  * @since 4.0
  */
@@ -95,6 +100,9 @@ public final class ASTProvider {
 	/** Fast parse mode (use PDOM) */
 	public static int PARSE_MODE_FAST= ITranslationUnit.AST_SKIP_INDEXED_HEADERS;
 
+	/** Delay in milliseconds before ASTs are prebuilt, lets the active AST be computed first */
+	private static final long PREBUILD_DELAY= 500;
+
 	/**
 	 * Internal activation listener.
 	 */
@@ -195,7 +203,47 @@ public final class ASTProvider {
 		}
 	}
 
+	/**
+	 * Job building the ASTs of translation units that are likely to become active next.
+	 */
+	private class PrebuildASTJob extends Job {
+		private ITranslationUnit fActiveTU;
+		private ITranslationUnit fPreviousTU;
+
+		PrebuildASTJob() {
+			super("Prebuild ASTs"); //$NON-NLS-1$
+			setSystem(true);
+			setPriority(Job.DECORATE);
+		}
+
+		synchronized void activeElementChanged(ITranslationUnit activeTU, ITranslationUnit previousTU) {
+			fActiveTU= activeTU;
+			fPreviousTU= previousTU;
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			final ITranslationUnit activeTU;
+			final ITranslationUnit previousTU;
+			synchronized (this) {
+				activeTU= fActiveTU;
+				previousTU= fPreviousTU;
+			}
+			if (activeTU != null && activeTU.isOpen()) {
+				ITranslationUnit partner= SourceHeaderPartnerFinder.getPartnerTranslationUnit(activeTU);
+				if (monitor.isCanceled())
+					return Status.CANCEL_STATUS;
+				fCache.prebuildAST(partner, monitor);
+			}
+			if (previousTU != null && previousTU.isOpen() && !monitor.isCanceled()) {
+				fCache.prebuildAST(previousTU, monitor);
+			}
+			return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+		}
+	}
+
 	private final ASTCache fCache= new ASTCache();
+	private final PrebuildASTJob fPrebuildJob= new PrebuildASTJob();
 	private ActivationListener fActivationListener;
 	private IWorkbenchPart fActiveEditor;
 	private long fTimeStamp;
@@ -242,7 +290,13 @@ public final class ASTProvider {
 				tu = provider.getTranslationUnit();
 		}
 
+		ITranslationUnit previousTU= null;
 		synchronized (this) {
+			if (fActiveEditor != null && fActiveEditor != editor) {
+				ITranslationUnitHolder provider = (ITranslationUnitHolder) fActiveEditor.getAdapter(ITranslationUnitHolder.class);
+				if (provider != null)
+					previousTU = provider.getTranslationUnit();
+			}
 			fActiveEditor= editor;
 			fTimeStamp= IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
 			fCache.setActiveElement(tu);
@@ -250,6 +304,12 @@ public final class ASTProvider {
 
 		// Increase indexing priority of the translation unit of the active editor.
 		fIndexUpdateRequestor.updateIndexInclusion(tu);
+
+		if (tu != null || previousTU != null) {
+			fPrebuildJob.cancel();
+			fPrebuildJob.activeElementChanged(tu, previousTU);
+			fPrebuildJob.schedule(PREBUILD_DELAY);
+		}
 	}
 
 	/**
@@ -303,7 +363,9 @@ public final class ASTProvider {
 			PlatformUI.getWorkbench().removeWindowListener(fActivationListener);
 			fActivationListener= null;
 		}
+		fPrebuildJob.cancel();
 		fCache.setActiveElement(null);
+		fCache.disposeInactiveASTs();
 	}
 
 	/**
@@ -359,6 +421,16 @@ public final class ASTProvider {
 		return fCache.acquireSharedAST(tu, index, waitFlag != WAIT_NO, monitor);
 	}
 
+	/**
+	 * Returns whether the given translation unit is the input of the active editor. With
+	 * {@link #WAIT_ACTIVE_ONLY} a shared AST is provided for such a translation unit, only.
+	 *
+	 * @param tu the translation unit.
+	 */
+	public boolean isActiveElement(ITranslationUnit tu) {
+		return fCache.isActiveElement(tu);
+	}
+
 	/**
 	 * Releases a shared AST previously acquired by calling
 	 * {@link #acquireSharedAST(ITranslationUnit, IIndex, WAIT_FLAG, IProgressMonitor)}.
@@ -54,7 +54,7 @@ public class IndexViewSearchQuery extends CSearchQuery {
 		try {
 			if (CCoreInternals.getPDOMManager().getPDOM(fProject).getLastWriteAccess() == fLastWrite) {
 				IASTNode point= null; // Instantiation of dependent expressions may not work.
-				createMatches(index, fBinding, point);
+				createMatches(index, fBinding, point, monitor);
 			}
 			return Status.OK_STATUS;
 		} catch (CoreException e) {
@@ -12,15 +12,26 @@
  ******************************************************************************/ 
 package org.eclipse.cdt.internal.ui.refactoring.rename;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.Assert;
@@ -101,7 +112,10 @@ import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateTypeParameter;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPUsingDeclaration;
 import org.eclipse.cdt.core.index.IIndex;
 import org.eclipse.cdt.core.index.IIndexBinding;
+import org.eclipse.cdt.core.index.IIndexFile;
 import org.eclipse.cdt.core.index.IIndexName;
+import org.eclipse.cdt.core.index.IndexFilter;
+import org.eclipse.cdt.core.index.IndexLocationFactory;
 import org.eclipse.cdt.core.model.CoreModel;
 import org.eclipse.cdt.core.model.ICElement;
 import org.eclipse.cdt.core.model.ITranslationUnit;
@@ -113,6 +127,7 @@ import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPImplicitMethod;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPMethod;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.CPPVisitor;
 import org.eclipse.cdt.internal.core.index.IIndexScope;
+import org.eclipse.cdt.internal.core.parser.scanner.StreamHasher;
 import org.eclipse.cdt.internal.corext.util.CModelUtil;
 
 import org.eclipse.cdt.internal.ui.editor.ASTProvider;
@@ -128,12 +143,15 @@ public class ASTManager implements IDisposable {
 			| ITranslationUnit.AST_SKIP_TRIVIAL_EXPRESSIONS_IN_AGGREGATE_INITIALIZERS
 			| ITranslationUnit.AST_PARSE_INACTIVE_CODE;
 
+	/** The maximum number of threads parsing files for the analysis of text matches */
+	private static final int MAX_ANALYSIS_THREADS= 4;
+
 	public final static int TRUE= 1;
     public final static int FALSE= 0;
     public final static int UNKNOWN= -1;
     
 	private IASTTranslationUnit fSharedAST;
-    private Map<IFile, IASTTranslationUnit> fTranslationUnits= new HashMap<IFile, IASTTranslationUnit>();
+    private Map<IFile, IASTTranslationUnit> fTranslationUnits= new ConcurrentHashMap<IFile, IASTTranslationUnit>();
     private HashSet<String> fProblemUnits= new HashSet<String>();
     private CRefactoringArgument fArgument;
     private IBinding[] fValidBindings;
@@ -931,7 +949,7 @@ public class ASTManager implements IDisposable {
 						} catch (CoreException e) {
 		            		status.addError(e.getMessage());
 						}
-    	            	if (cacheit) {
+    	            	if (cacheit && ast != null) {
     	            		fTranslationUnits.put(sourceFile, ast);
     	            	}
     	        	} else {
@@ -958,54 +976,280 @@ public class ASTManager implements IDisposable {
         monitor.beginTask(taskName, 2 * count);
         monitor.setTaskName(taskName);
 
+        // Determine the files that need to be parsed.
         List<IFile> files= store.getFileList();
-        int cc= 0;
-        long now= System.currentTimeMillis();
-        long update= now;
+        List<IFile> filesToParse= new ArrayList<>();
+        boolean useIndex= canClassifyMatchesUsingIndex(index);
         for (IFile file : files) {
-            cc++;
             if (store.contains(file)) {
-                if ((now = System.currentTimeMillis()) > update) {
-                    String nofm= nth_of_m(cc, count);
-                    String taskname= NLS.bind(RenameMessages.ASTManager_subtask_analyzing, nofm);
-                    monitor.subTask(taskname); 
-                    update= now + 1000;
-                }
-                boolean doParse= false;
                 Collection<CRefactoringMatch> fm= store.getMatchesForFile(file);
-                for (Iterator<CRefactoringMatch> iterator = fm.iterator(); !doParse && iterator.hasNext();) {
-                    CRefactoringMatch match = iterator.next();
-                    switch (match.getLocation()) {
-                    case CRefactory.OPTION_IN_COMMENT:
-                    case CRefactory.OPTION_IN_INCLUDE_DIRECTIVE:
-                    case CRefactory.OPTION_IN_STRING_LITERAL:
-                        break;
-                    default:
-                        doParse= true;
-                    }
+                if (needsParsing(fm) && !(useIndex && classifyMatchesUsingIndex(index, file, fm))) {
+                    filesToParse.add(file);
+                    continue;
                 }
+            }
+            monitor.worked(2);
+        }
+        if (monitor.isCanceled()) {
+            throw new OperationCanceledException();
+        }
 
-                if (doParse) {
-                    IASTTranslationUnit tu= getTranslationUnit(index, file, false, status);
-                    monitor.worked(1);
-                    analyzeTextMatchesOfTranslationUnit(tu, store, status);
-                    if (status.hasFatalError()) {
-                        return;
-                    }
-                    monitor.worked(1);
-                } else {
-                    monitor.worked(2);
+        final int threadCount= Math.min(Math.min(MAX_ANALYSIS_THREADS,
+        		Runtime.getRuntime().availableProcessors()), filesToParse.size());
+        if (threadCount > 1) {
+            analyzeTextMatchesInParallel(index, filesToParse, threadCount, store, monitor, status);
+        } else {
+            int cc= 0;
+            long update= 0;
+            for (IFile file : filesToParse) {
+                update= reportProgress(++cc, filesToParse.size(), update, monitor);
+                IASTTranslationUnit tu= getTranslationUnit(index, file, false, status);
+                monitor.worked(1);
+                analyzeTextMatchesOfTranslationUnit(tu, store, status);
+                if (status.hasFatalError()) {
+                    return;
                 }
+                monitor.worked(1);
                 if (monitor.isCanceled()) {
                     throw new OperationCanceledException();
                 }
-            } else {
-                monitor.worked(2);
             }
         }
         monitor.done();
     }
 
+    /**
+     * Parses the files on a bounded pool of worker threads. The analysis of the ASTs is done
+     * in the calling thread, in the order of the files. ASTs that are cached, and the shared AST
+     * of the active editor, are obtained via {@link #getTranslationUnit} in the calling thread,
+     * like for the sequential analysis.
+     */
+    private void analyzeTextMatchesInParallel(final IIndex index, List<IFile> files, int threadCount,
+    		CRefactoringMatchStore store, IProgressMonitor monitor, RefactoringStatus status) {
+        ExecutorService executor= Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+			private final AtomicInteger fCount= new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread= new Thread(r, "Rename Analysis " + fCount.incrementAndGet()); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+        final String identifier= fArgument.getName();
+        Deque<Future<IASTTranslationUnit>> pending= new ArrayDeque<>();
+        Iterator<IFile> it= files.iterator();
+        int cc= 0;
+        long update= 0;
+        try {
+            while (true) {
+                // Keep a limited number of ASTs ahead of the analysis to bound memory consumption.
+                while (pending.size() < 2 * threadCount && it.hasNext()) {
+                    final IFile file= it.next();
+                    final ITranslationUnit tu= getWorkingCopy(file);
+                    final boolean parse= tu != null && !fTranslationUnits.containsKey(file)
+                    		&& !ASTProvider.getASTProvider().isActiveElement(tu);
+                    pending.add(executor.submit(new Callable<IASTTranslationUnit>() {
+                        @Override
+						public IASTTranslationUnit call() throws CoreException {
+                            return parse ? prepareAST(index, tu, identifier) : null;
+                        }
+                    }));
+                }
+                Future<IASTTranslationUnit> next= pending.poll();
+                if (next == null)
+                    break;
+                IFile file= files.get(cc);
+                update= reportProgress(++cc, files.size(), update, monitor);
+                IASTTranslationUnit tu= null;
+                boolean failed= false;
+                try {
+                    tu= next.get();
+                } catch (ExecutionException e) {
+                    failed= true;
+                    Throwable cause= e.getCause();
+                    if (cause instanceof CoreException) {
+                        status.addError(cause.getMessage());
+                    } else {
+                        CUIPlugin.log(cause);
+                        status.addError(NLS.bind(RenameMessages.ASTManager_error_analysis_failed,
+                        		file.getFullPath().toString()));
+                    }
+                } catch (InterruptedException e) {
+                    throw new OperationCanceledException();
+                }
+                if (tu == null && !failed) {
+                    tu= getTranslationUnit(index, file, false, status);
+                }
+                monitor.worked(1);
+                if (tu != null) {
+                    analyzeTextMatchesOfTranslationUnit(tu, store, status);
+                }
+                if (status.hasFatalError()) {
+                    return;
+                }
+                monitor.worked(1);
+                if (monitor.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+            }
+        } finally {
+            for (Future<IASTTranslationUnit> future : pending) {
+                future.cancel(false);
+            }
+            // The workers access the index under the read lock held by the caller, wait for them.
+            executor.shutdown();
+            try {
+                while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                    // Wait for the running workers.
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Parses the given file and resolves the names that are going to be analyzed. Runs on
+     * a worker thread, the index is read-locked by the thread performing the analysis.
+     */
+    private static IASTTranslationUnit prepareAST(IIndex index, ITranslationUnit tu, String identifier)
+    		throws CoreException {
+        IASTTranslationUnit ast= tu.getAST(index, PARSE_MODE);
+        if (ast != null) {
+            ast.accept(new ASTSpecificNameVisitor(identifier) {
+                @Override
+				protected int visitName(IASTName name, boolean isDestructor) {
+                    name.resolveBinding();
+                    return ASTVisitor.PROCESS_CONTINUE;
+                }
+            });
+        }
+        return ast;
+    }
+
+    private static ITranslationUnit getWorkingCopy(IFile file) {
+        ICElement celem= CoreModel.getDefault().create(file);
+        if (!(celem instanceof ITranslationUnit))
+            return null;
+        return CModelUtil.toWorkingCopy((ITranslationUnit) celem);
+    }
+
+    private static long reportProgress(int n, int m, long update, IProgressMonitor monitor) {
+        long now= System.currentTimeMillis();
+        if (now > update) {
+            monitor.subTask(NLS.bind(RenameMessages.ASTManager_subtask_analyzing, nth_of_m(n, m)));
+            update= now + 1000;
+        }
+        return update;
+    }
+
+    private static boolean needsParsing(Collection<CRefactoringMatch> matches) {
+        for (CRefactoringMatch match : matches) {
+            if (needsParsing(match))
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean needsParsing(CRefactoringMatch match) {
+        switch (match.getLocation()) {
+        case CRefactory.OPTION_IN_COMMENT:
+        case CRefactory.OPTION_IN_INCLUDE_DIRECTIVE:
+        case CRefactory.OPTION_IN_STRING_LITERAL:
+            return false;
+        default:
+            return true;
+        }
+    }
+
+    /**
+     * Checks whether matches may be classified without parsing the files. Conflicts of the new name
+     * with macro definitions are found by analyzing the ASTs, therefore all files are parsed when
+     * a macro is renamed or when the index contains a macro with the new name.
+     */
+    private boolean canClassifyMatchesUsingIndex(IIndex index) {
+        if (fValidBindings == null || fRenameTo == null
+        		|| fArgument.getArgumentKind() == CRefactory.ARGUMENT_MACRO) {
+            return false;
+        }
+        try {
+            return index.findMacros(fRenameTo.toCharArray(), IndexFilter.ALL, null).length == 0;
+        } catch (CoreException e) {
+            CUIPlugin.log(e);
+            return false;
+        }
+    }
+
+    /**
+     * Classifies the matches in a file without parsing it, if the index is up to date for the file
+     * and shows that none of the matches refers to one of the bindings being renamed. Matches
+     * the index has no name for, e.g. in inactive code, require parsing the file.
+     *
+     * @return <code>true</code> if the matches have been classified, <code>false</code> if the file
+     *     needs to be parsed.
+     */
+    private boolean classifyMatchesUsingIndex(IIndex index, IFile file, Collection<CRefactoringMatch> matches) {
+        try {
+            IIndexFile[] indexFiles= index.getFiles(IndexLocationFactory.getWorkspaceIFL(file));
+            if (indexFiles.length == 0)
+                return false;
+            ICElement celem= CoreModel.getDefault().create(file);
+            if (!(celem instanceof ITranslationUnit))
+                return false;
+            char[] contents= CModelUtil.toWorkingCopy((ITranslationUnit) celem).getContents();
+            if (contents == null)
+                return false;
+            StreamHasher hasher= new StreamHasher();
+            hasher.addChunk(contents);
+            final long contentsHash= hasher.computeHash();
+            for (IIndexFile indexFile : indexFiles) {
+                if (indexFile.getContentsHash() != contentsHash)
+                    return false;
+            }
+
+            for (CRefactoringMatch match : matches) {
+                if (!needsParsing(match))
+                    continue;
+                for (IIndexFile indexFile : indexFiles) {
+                    if (!refersToOtherBinding(index, indexFile, match))
+                        return false;
+                }
+            }
+        } catch (CoreException e) {
+            CUIPlugin.log(e);
+            return false;
+        }
+        for (CRefactoringMatch match : matches) {
+            if (needsParsing(match)) {
+                match.setASTInformation(CRefactoringMatch.AST_REFERENCE_OTHER);
+            }
+        }
+        return true;
+    }
+
+    private boolean refersToOtherBinding(IIndex index, IIndexFile indexFile, CRefactoringMatch match)
+    		throws CoreException {
+        IIndexName[] names= indexFile.findNames(match.getOffset(), match.getLength());
+        for (IIndexName name : names) {
+            if (name.getNodeOffset() == match.getOffset() && name.getNodeLength() == match.getLength()) {
+                IIndexBinding binding= index.findBinding(name);
+                if (binding == null)
+                    return false;
+                for (IBinding renameBinding : fValidBindings) {
+                    try {
+                        if (isSameBinding(index, binding, renameBinding) != FALSE)
+                            return false;
+                    } catch (DOMException e) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void analyzeTextMatchesOfTranslationUnit(IASTTranslationUnit tu, 
             final CRefactoringMatchStore store, final RefactoringStatus status) {
         fKnownBindings= new HashMap<IBinding, Integer>();
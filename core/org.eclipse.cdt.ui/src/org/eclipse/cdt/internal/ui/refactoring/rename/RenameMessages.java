@@ -14,6 +14,7 @@ package org.eclipse.cdt.internal.ui.refactoring.rename;
 import org.eclipse.osgi.util.NLS;
 
 class RenameMessages extends NLS {
+    public static String ASTManager_error_analysis_failed;
     public static String ASTManager_error_macro_name_conflict;
 	public static String ASTManager_subtask_analyzing;
 	public static String ASTManager_task_analyze;
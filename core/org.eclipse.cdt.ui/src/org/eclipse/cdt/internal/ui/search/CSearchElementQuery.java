@@ -48,7 +48,7 @@ public class CSearchElementQuery extends CSearchQuery {
 				if (binding != null) {
 					label= labelForBinding(index, binding, label);
 					IASTNode point= null; // Instantiation of dependent expressions may not work.
-					createMatches(index, binding, point);
+					createMatches(index, binding, point, monitor);
 				}
 			}
 			return Status.OK_STATUS;
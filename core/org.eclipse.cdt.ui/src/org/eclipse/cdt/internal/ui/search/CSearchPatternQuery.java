@@ -186,7 +186,7 @@ public class CSearchPatternQuery extends CSearchQuery {
 				}
 			}
 			IASTNode point= null; // Instantiation of dependent expressions may not work.
-			createMatches(index, matchedBindings.toArray(new IIndexBinding[matchedBindings.size()]), point);
+			createMatches(index, matchedBindings.toArray(new IIndexBinding[matchedBindings.size()]), point, monitor);
 		} catch (CoreException e) {
 			return e.getStatus();
 		}
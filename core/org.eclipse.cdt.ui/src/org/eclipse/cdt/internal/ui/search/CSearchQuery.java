@@ -24,6 +24,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -31,6 +37,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.text.IDocument;
@@ -88,6 +95,9 @@ public abstract class CSearchQuery implements ISearchQuery {
 			CElementLabels.ALL_FULLY_QUALIFIED |
 			CElementLabels.TEMPLATE_ARGUMENTS;
 
+	/** Maximum number of threads reading the files with matches. */
+	private static final int MAX_SCAN_THREADS = 4;
+
 	protected CSearchResult result;
 	protected int flags;
 
@@ -285,7 +295,7 @@ public abstract class CSearchQuery implements ISearchQuery {
 	}
 
 	private void collectNames(IIndex index, Collection<IIndexName> names,
-			Collection<IIndexName> polymorphicNames) throws CoreException {
+			Collection<IIndexName> polymorphicNames, IProgressMonitor monitor) throws CoreException {
 		// group all matched names by files
 		Map<IIndexFile, Set<Match>> fileMatches = new HashMap<>();
 		createMatchesFromNames(index, fileMatches, names, false);
@@ -304,10 +314,11 @@ public abstract class CSearchQuery implements ISearchQuery {
 			}
 		}
 		// for each file with matches create line elements with matches
+		List<IIndexFileLocation> locationsToScan = new ArrayList<>();
+		List<Match[]> matchesToScan = new ArrayList<>();
 		for (Entry<IIndexFile, Set<Match>> entry : fileMatches.entrySet()) {
 			IIndexFile file = entry.getKey();
 			Set<Match> matches = entry.getValue();
-			LineSearchElement[] lineElements = {};
 			// check if there is dirty text editor corresponding to file and convert matches
 			IPath absolutePath = IndexLocationFactory.getAbsolutePath(file.getLocation());
 			if (pathsDirtyEditors.containsKey(absolutePath)) {
@@ -317,34 +328,114 @@ public abstract class CSearchQuery implements ISearchQuery {
 				IEditorInput input = textEditor.getEditorInput();
 				IDocument document = textEditor.getDocumentProvider().getDocument(input);
 				Match[] matchesArray = matches.toArray(new Match[matches.size()]);
-				lineElements = LineSearchElement.createElements(file.getLocation(), matchesArray, document);
+				addLineMatches(LineSearchElement.createElements(file.getLocation(), matchesArray, document));
 			} else {
-				// scan file and group matches by line elements
-				Match[] matchesArray = matches.toArray(new Match[matches.size()]);
-				lineElements = LineSearchElement.createElements(file.getLocation(), matchesArray);
+				// the file is read later, together with the other files
+				locationsToScan.add(file.getLocation());
+				matchesToScan.add(matches.toArray(new Match[matches.size()]));
 			}
-			// create real PDOMSearchMatch with corresponding line elements
-			for (LineSearchElement searchElement : lineElements) {
-				for (Match lineMatch : searchElement.getMatches()) {
-					int offset = lineMatch.getOffset();
-					int length = lineMatch.getLength();
-					CSearchMatch match = new CSearchMatch(searchElement, offset, length);
-					if (lineMatch.isPolymorphicCall())
-						match.setIsPolymorphicCall();
-					if (lineMatch.isWriteAccess()) {
-						match.setIsWriteAccess();
+		}
+		// scan files and group matches by line elements
+		scanFiles(locationsToScan, matchesToScan, monitor);
+	}
+
+	/**
+	 * Reads the given files and adds their matches grouped by lines to the result. The files are
+	 * read on a bounded pool of worker threads, the matches of each file are added to the result
+	 * as soon as the file has been read.
+	 */
+	private void scanFiles(final List<IIndexFileLocation> locations, final List<Match[]> matches,
+			final IProgressMonitor monitor) {
+		final int threadCount = Math.min(Math.min(MAX_SCAN_THREADS,
+				Runtime.getRuntime().availableProcessors()), locations.size());
+		if (threadCount <= 1) {
+			for (int i = 0; i < locations.size(); i++) {
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
+				scanFile(locations.get(i), matches.get(i), monitor);
+			}
+			return;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+			private final AtomicInteger fCount = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "C/C++ Search " + fCount.incrementAndGet()); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		List<Future<?>> futures = new ArrayList<>(locations.size());
+		try {
+			for (int i = 0; i < locations.size(); i++) {
+				final int file = i;
+				futures.add(executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						scanFile(locations.get(file), matches.get(file), monitor);
 					}
-					result.addMatch(match);
+				}));
+			}
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					CUIPlugin.log(e.getCause());
 				}
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
 			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} finally {
+			executor.shutdownNow();
 		}
 	}
 
-	protected void createMatches(IIndex index, IBinding binding, IASTNode point) throws CoreException {
-		createMatches(index, new IBinding[] { binding }, point);
+	/**
+	 * Reads the given file and adds its matches grouped by lines to the result, unless the search
+	 * has been canceled. May be called from multiple threads at once.
+	 */
+	private void scanFile(IIndexFileLocation location, Match[] matches, IProgressMonitor monitor) {
+		if (!monitor.isCanceled()) {
+			addLineMatches(LineSearchElement.createElements(location, matches));
+		}
+	}
+
+	/**
+	 * Creates the search matches for the given line elements and adds them to the result.
+	 * May be called from multiple threads at once.
+	 */
+	private void addLineMatches(LineSearchElement[] lineElements) {
+		List<CSearchMatch> lineMatches = new ArrayList<>();
+		for (LineSearchElement searchElement : lineElements) {
+			for (Match lineMatch : searchElement.getMatches()) {
+				int offset = lineMatch.getOffset();
+				int length = lineMatch.getLength();
+				CSearchMatch match = new CSearchMatch(searchElement, offset, length);
+				if (lineMatch.isPolymorphicCall())
+					match.setIsPolymorphicCall();
+				if (lineMatch.isWriteAccess()) {
+					match.setIsWriteAccess();
+				}
+				lineMatches.add(match);
+			}
+		}
+		if (!lineMatches.isEmpty()) {
+			result.addMatches(lineMatches.toArray(new CSearchMatch[lineMatches.size()]));
+		}
+	}
+
+	protected void createMatches(IIndex index, IBinding binding, IASTNode point, IProgressMonitor monitor)
+			throws CoreException {
+		createMatches(index, new IBinding[] { binding }, point, monitor);
 	}
 
-	protected void createMatches(IIndex index, IBinding[] bindings, IASTNode point) throws CoreException {
+	protected void createMatches(IIndex index, IBinding[] bindings, IASTNode point, IProgressMonitor monitor)
+			throws CoreException {
 		if (bindings == null)
 			return;
 		List<IIndexName> names= new ArrayList<>();
@@ -393,7 +484,7 @@ public abstract class CSearchQuery implements ISearchQuery {
 		}
 
 		if (!names.isEmpty()) {
-			collectNames(index, names, polymorphicNames);
+			collectNames(index, names, polymorphicNames, monitor);
 		}
 	}
 
@@ -486,17 +577,7 @@ public abstract class CSearchQuery implements ISearchQuery {
 				lineElements = LineSearchElement.createElements(fileLocation, matchesArray);
 			}
 			// Create real PDOMSearchMatch with corresponding line elements
-			for (LineSearchElement searchElement : lineElements) {
-				for (Match lineMatch : searchElement.getMatches()) {
-					int offset = lineMatch.getOffset();
-					int length = lineMatch.getLength();
-					CSearchMatch match = new CSearchMatch(searchElement, offset, length);
-					if (lineMatch.isWriteAccess()) {
-						match.setIsWriteAccess();
-					}
-					result.addMatch(match);
-				}
-			}
+			addLineMatches(lineElements);
 		}
 	}
 
@@ -510,6 +591,8 @@ public abstract class CSearchQuery implements ISearchQuery {
 
 	@Override
 	public final IStatus run(IProgressMonitor monitor) throws OperationCanceledException {
+		if (monitor == null)
+			monitor = new NullProgressMonitor();
 		CSearchResult result= (CSearchResult) getSearchResult();
 		result.removeAll();
 
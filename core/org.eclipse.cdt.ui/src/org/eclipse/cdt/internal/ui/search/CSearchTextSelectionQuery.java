@@ -52,7 +52,7 @@ public class CSearchTextSelectionQuery extends CSearchQuery {
 	}
 
 	@Override
-	protected IStatus runWithIndex(final IIndex index, IProgressMonitor monitor) {
+	protected IStatus runWithIndex(final IIndex index, final IProgressMonitor monitor) {
 		return ASTProvider.getASTProvider().runOnAST(tu, ASTProvider.WAIT_ACTIVE_ONLY, monitor, new ASTRunnable() {
 			@Override
 			public IStatus runOnAST(ILanguage language, IASTTranslationUnit ast) throws CoreException {
@@ -77,7 +77,7 @@ public class CSearchTextSelectionQuery extends CSearchQuery {
 							binding= CPPTemplates.findDeclarationForSpecialization(binding);
 							if (binding != null) {
 								label= labelForBinding(index, binding, label);
-								createMatches(index, binding, searchName);
+								createMatches(index, binding, searchName, monitor);
 								return Status.OK_STATUS;
 							}
 						}
@@ -0,0 +1,422 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.dsf.mi.service.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.cdt.dsf.concurrent.DataRequestMonitor;
+import org.eclipse.cdt.dsf.concurrent.DefaultDsfExecutor;
+import org.eclipse.cdt.dsf.concurrent.DsfRunnable;
+import org.eclipse.cdt.dsf.concurrent.Query;
+import org.eclipse.cdt.dsf.debug.service.command.ICommandControlService.ICommandControlDMContext;
+import org.eclipse.cdt.dsf.debug.service.command.ICommandListener;
+import org.eclipse.cdt.dsf.debug.service.command.ICommandResult;
+import org.eclipse.cdt.dsf.debug.service.command.ICommandToken;
+import org.eclipse.cdt.dsf.mi.service.command.commands.MICommand;
+import org.eclipse.cdt.dsf.mi.service.command.commands.MIDataReadMemoryBytes;
+import org.eclipse.cdt.dsf.mi.service.command.commands.MIGDBSet;
+import org.eclipse.cdt.dsf.mi.service.command.commands.MIVarUpdate;
+import org.eclipse.cdt.dsf.mi.service.command.output.MIInfo;
+import org.eclipse.cdt.dsf.service.DsfSession;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.BundleContext;
+
+/**
+ * Tests the pipelining and the merging of commands in {@link AbstractMIControl}, against a
+ * back end that answers the commands on request.
+ */
+public class AbstractMIControlTest {
+	private static final long TIMEOUT_MS = 10000;
+	private static final long QUIET_MS = 200;
+
+	private static class TestMIControl extends AbstractMIControl {
+		private final MIControlDMContext fControlDmc;
+
+		TestMIControl(DsfSession session) {
+			super(session, true, new CommandFactory());
+			fControlDmc = new MIControlDMContext(session.getId(), "test"); //$NON-NLS-1$
+		}
+
+		@Override
+		protected BundleContext getBundleContext() {
+			return null;
+		}
+
+		@Override
+		public MIControlDMContext getControlDMContext() {
+			return fControlDmc;
+		}
+
+		@Override
+		public ICommandControlDMContext getContext() {
+			return fControlDmc;
+		}
+
+		@Override
+		public String getId() {
+			return "test"; //$NON-NLS-1$
+		}
+
+		void start(PipedInputStream in, PipedOutputStream out, int maxPendingCommands) {
+			setMaxPendingCommands(maxPendingCommands);
+			startCommandProcessing(in, out);
+		}
+
+		void stop() {
+			stopCommandProcessing();
+		}
+	}
+
+	/**
+	 * Request monitor that can be waited for.
+	 */
+	private class Result extends DataRequestMonitor<MIInfo> {
+		private final CountDownLatch fDone = new CountDownLatch(1);
+
+		Result() {
+			super(fExecutor, null);
+		}
+
+		@Override
+		protected void handleCompleted() {
+			fDone.countDown();
+		}
+
+		void waitUntilDone() throws InterruptedException {
+			assertTrue(fDone.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+		}
+
+		boolean isDone() {
+			return fDone.getCount() == 0;
+		}
+	}
+
+	private DefaultDsfExecutor fExecutor;
+	private DsfSession fSession;
+	private TestMIControl fControl;
+	private PipedOutputStream fToControl;
+	private PipedInputStream fFromControl;
+	private final BlockingQueue<String> fSentCommands = new LinkedBlockingQueue<String>();
+	private final List<ICommandToken> fQueued = Collections.synchronizedList(new ArrayList<ICommandToken>());
+	private final List<ICommandToken> fRemoved = Collections.synchronizedList(new ArrayList<ICommandToken>());
+	private final List<ICommandToken> fDone = Collections.synchronizedList(new ArrayList<ICommandToken>());
+
+	private void start(final int maxPendingCommands) throws Exception {
+		final PipedInputStream controlIn = new PipedInputStream();
+		fToControl = new PipedOutputStream(controlIn);
+		final PipedOutputStream controlOut = new PipedOutputStream();
+		fFromControl = new PipedInputStream(controlOut);
+
+		Thread backEnd = new Thread("Test back end") { //$NON-NLS-1$
+			@Override
+			public void run() {
+				BufferedReader reader = new BufferedReader(new InputStreamReader(fFromControl));
+				try {
+					String line;
+					while ((line = reader.readLine()) != null) {
+						fSentCommands.add(line);
+					}
+				} catch (IOException e) {
+					// The control was stopped.
+				}
+			}
+		};
+		backEnd.setDaemon(true);
+		backEnd.start();
+
+		fControl = new TestMIControl(fSession);
+		runOnExecutor(new DsfRunnable() {
+			@Override
+			public void run() {
+				fControl.start(controlIn, controlOut, maxPendingCommands);
+				fControl.addCommandListener(new ICommandListener() {
+					@Override
+					public void commandQueued(ICommandToken token) {
+						fQueued.add(token);
+					}
+
+					@Override
+					public void commandSent(ICommandToken token) {
+					}
+
+					@Override
+					public void commandRemoved(ICommandToken token) {
+						fRemoved.add(token);
+					}
+
+					@Override
+					public void commandDone(ICommandToken token, ICommandResult result) {
+						fDone.add(token);
+					}
+				});
+			}
+		});
+	}
+
+	@Before
+	public void setUp() {
+		fExecutor = new DefaultDsfExecutor();
+		fSession = DsfSession.startSession(fExecutor, "org.eclipse.cdt.dsf.gdb.tests"); //$NON-NLS-1$
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if (fControl != null) {
+			runOnExecutor(new DsfRunnable() {
+				@Override
+				public void run() {
+					fControl.stop();
+				}
+			});
+			fToControl.close();
+			fFromControl.close();
+		}
+		DsfSession.endSession(fSession);
+		fExecutor.shutdown();
+	}
+
+	private void runOnExecutor(final DsfRunnable runnable) throws Exception {
+		Query<Object> query = new Query<Object>() {
+			@Override
+			protected void execute(DataRequestMonitor<Object> rm) {
+				runnable.run();
+				rm.done();
+			}
+		};
+		fExecutor.execute(query);
+		query.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+	}
+
+	private ICommandToken queue(final MICommand<? extends MIInfo> command, final Result rm) throws Exception {
+		final ICommandToken[] token = new ICommandToken[1];
+		runOnExecutor(new DsfRunnable() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public void run() {
+				token[0] = fControl.queueCommand((MICommand<MIInfo>) command, rm);
+			}
+		});
+		return token[0];
+	}
+
+	private void remove(final ICommandToken token) throws Exception {
+		runOnExecutor(new DsfRunnable() {
+			@Override
+			public void run() {
+				fControl.removeCommand(token);
+			}
+		});
+	}
+
+	private MIGDBSet gdbSet(int width) {
+		return new MIGDBSet(fControl.getContext(), new String[] { "width", Integer.toString(width) }); //$NON-NLS-1$
+	}
+
+	private MIDataReadMemoryBytes readMemory(String address) {
+		return new MIDataReadMemoryBytes(fControl.getContext(), address, 0, 4);
+	}
+
+	/**
+	 * Returns the token of the next command received by the back end.
+	 */
+	private String nextCommand() throws InterruptedException {
+		String line = fSentCommands.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		assertNotNull(line);
+		int end = 0;
+		while (end < line.length() && Character.isDigit(line.charAt(end))) {
+			end++;
+		}
+		return line.substring(0, end);
+	}
+
+	private void assertNoCommand() throws InterruptedException {
+		assertNull(fSentCommands.poll(QUIET_MS, TimeUnit.MILLISECONDS));
+	}
+
+	private void reply(String token) throws IOException {
+		fToControl.write((token + "^done\n").getBytes()); //$NON-NLS-1$
+		fToControl.flush();
+	}
+
+	@Test
+	public void testPipelining() throws Exception {
+		start(3);
+		Result[] results = new Result[6];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = new Result();
+			queue(gdbSet(i), results[i]);
+		}
+
+		// The back end receives the maximum number of commands before it answers.
+		List<String> tokens = new ArrayList<String>();
+		for (int i = 0; i < 3; i++) {
+			tokens.add(nextCommand());
+		}
+		assertNoCommand();
+
+		// Every result refills the pipeline.
+		reply(tokens.get(0));
+		results[0].waitUntilDone();
+		tokens.add(nextCommand());
+		assertNoCommand();
+
+		reply(tokens.get(1));
+		reply(tokens.get(2));
+		tokens.add(nextCommand());
+		tokens.add(nextCommand());
+		assertNoCommand();
+
+		for (int i = 3; i < tokens.size(); i++) {
+			reply(tokens.get(i));
+		}
+		for (Result result : results) {
+			result.waitUntilDone();
+			assertTrue(result.isSuccess());
+		}
+		assertEquals(6, fDone.size());
+	}
+
+	@Test
+	public void testMergeIdenticalReads() throws Exception {
+		start(1);
+		Result blocking = new Result();
+		queue(gdbSet(0), blocking);
+		String blockingToken = nextCommand();
+
+		Result first = new Result();
+		Result second = new Result();
+		ICommandToken firstToken = queue(readMemory("0x1000"), first); //$NON-NLS-1$
+		ICommandToken secondToken = queue(readMemory("0x1000"), second); //$NON-NLS-1$
+		assertEquals(3, fQueued.size());
+		assertTrue(fQueued.contains(secondToken));
+
+		reply(blockingToken);
+		String readToken = nextCommand();
+		assertNoCommand();
+
+		reply(readToken);
+		first.waitUntilDone();
+		second.waitUntilDone();
+		assertTrue(second.isSuccess());
+		assertSame(first.getData(), second.getData());
+		assertTrue(fDone.contains(firstToken));
+		assertTrue(fDone.contains(secondToken));
+		assertEquals(1, fControl.getCommandStatistics().getMergedCount("-data-read-memory-bytes")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testNoMergeAcrossWritesOrUpdates() throws Exception {
+		start(1);
+		Result blocking = new Result();
+		queue(gdbSet(0), blocking);
+		String blockingToken = nextCommand();
+
+		// A command that changes the state of the back end separates identical reads.
+		Result[] results = new Result[5];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = new Result();
+		}
+		queue(readMemory("0x1000"), results[0]); //$NON-NLS-1$
+		queue(gdbSet(1), results[1]);
+		queue(readMemory("0x1000"), results[2]); //$NON-NLS-1$
+		// -var-update changes the state of the variable objects.
+		queue(new MIVarUpdate(fControl.getContext(), "var1"), results[3]); //$NON-NLS-1$
+		queue(new MIVarUpdate(fControl.getContext(), "var1"), results[4]); //$NON-NLS-1$
+
+		reply(blockingToken);
+		for (Result result : results) {
+			reply(nextCommand());
+			result.waitUntilDone();
+		}
+		assertNoCommand();
+		assertEquals(0, fControl.getCommandStatistics().getMergedCount("-data-read-memory-bytes")); //$NON-NLS-1$
+		assertEquals(0, fControl.getCommandStatistics().getMergedCount("-var-update")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testRemoveMergedCommand() throws Exception {
+		start(1);
+		Result blocking = new Result();
+		queue(gdbSet(0), blocking);
+		String blockingToken = nextCommand();
+
+		Result first = new Result();
+		Result second = new Result();
+		ICommandToken firstToken = queue(readMemory("0x1000"), first); //$NON-NLS-1$
+		ICommandToken secondToken = queue(readMemory("0x1000"), second); //$NON-NLS-1$
+		remove(secondToken);
+
+		reply(blockingToken);
+		reply(nextCommand());
+		first.waitUntilDone();
+		runOnExecutor(new DsfRunnable() {
+			@Override
+			public void run() {
+				// Flushes the listener notifications.
+			}
+		});
+
+		assertFalse(second.isDone());
+		assertTrue(fRemoved.contains(secondToken));
+		assertTrue(fDone.contains(firstToken));
+		assertFalse(fDone.contains(secondToken));
+	}
+
+	@Test
+	public void testRemoveMergeTarget() throws Exception {
+		start(1);
+		Result blocking = new Result();
+		queue(gdbSet(0), blocking);
+		String blockingToken = nextCommand();
+
+		Result first = new Result();
+		Result second = new Result();
+		Result third = new Result();
+		ICommandToken firstToken = queue(readMemory("0x1000"), first); //$NON-NLS-1$
+		ICommandToken secondToken = queue(readMemory("0x1000"), second); //$NON-NLS-1$
+		ICommandToken thirdToken = queue(readMemory("0x1000"), third); //$NON-NLS-1$
+		remove(firstToken);
+
+		// The commands merged into the removed one are sent once, in its place.
+		reply(blockingToken);
+		reply(nextCommand());
+		second.waitUntilDone();
+		third.waitUntilDone();
+		assertNoCommand();
+
+		assertSame(second.getData(), third.getData());
+		assertFalse(first.isDone());
+		assertTrue(fRemoved.contains(firstToken));
+		assertFalse(fDone.contains(firstToken));
+		assertTrue(fDone.contains(secondToken));
+		assertTrue(fDone.contains(thirdToken));
+	}
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.dsf.mi.service.command.output;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compares the throughput of {@link MIParser} with the one of {@link ReferenceMIParser}. Runs as
+ * a Java application, it is not part of the test suites.
+ */
+public class MIParserBenchmark {
+	private static final int WARMUP_ITERATIONS = 5;
+	private static final int MEASURED_ITERATIONS = 10;
+	private static final long ITERATION_TIME_MS = 500;
+
+	private interface Parser {
+		Object parse(String line);
+	}
+
+	private static volatile Object fSink;
+
+	public static void main(String[] args) {
+		final MIParser parser = new MIParser();
+		final ReferenceMIParser reference = new ReferenceMIParser();
+		Parser current = new Parser() {
+			@Override
+			public Object parse(String line) {
+				if (parser.getRecordType(line) == MIParser.RecordType.ResultRecord)
+					return parser.parseMIResultRecord(line);
+				return parser.parseMIOOBRecord(line);
+			}
+		};
+		Parser previous = new Parser() {
+			@Override
+			public Object parse(String line) {
+				if (reference.getRecordType(line) == ReferenceMIParser.RecordType.ResultRecord)
+					return reference.parseMIResultRecord(line);
+				return reference.parseMIOOBRecord(line);
+			}
+		};
+
+		List<String> frames = new ArrayList<String>();
+		frames.add(MIRecordGenerator.stackListFrames(5000));
+		List<String> records = new ArrayList<String>();
+		MIRecordGenerator generator = new MIRecordGenerator(4711);
+		for (int i = 0; i < 10000; i++) {
+			records.add(generator.record());
+		}
+
+		System.out.println(String.format(Locale.ENGLISH, "%-30s %14s %14s %8s", //$NON-NLS-1$
+				"Records", "MIParser", "Reference", "Speedup")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		compare("stackListFrames(5000)", frames, current, previous); //$NON-NLS-1$
+		compare("random records", records, current, previous); //$NON-NLS-1$
+	}
+
+	private static void compare(String name, List<String> lines, Parser current, Parser previous) {
+		double currentScore = measure(lines, current);
+		double previousScore = measure(lines, previous);
+		System.out.println(String.format(Locale.ENGLISH, "%-30s %14.3f %14.3f %7.1fx", //$NON-NLS-1$
+				name, currentScore, previousScore, currentScore / previousScore));
+	}
+
+	/**
+	 * Returns the mean number of lines parsed per millisecond.
+	 */
+	private static double measure(List<String> lines, Parser parser) {
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			runIteration(lines, parser);
+		}
+		double sum = 0;
+		for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+			sum += runIteration(lines, parser);
+		}
+		return sum / MEASURED_ITERATIONS;
+	}
+
+	private static double runIteration(List<String> lines, Parser parser) {
+		final long start = System.nanoTime();
+		final long end = start + ITERATION_TIME_MS * 1000000;
+		long now;
+		long count = 0;
+		int i = 0;
+		do {
+			fSink = parser.parse(lines.get(i));
+			if (++i == lines.size())
+				i = 0;
+			count++;
+		} while ((now = System.nanoTime()) < end);
+		return count * 1000000.0 / (now - start);
+	}
+}
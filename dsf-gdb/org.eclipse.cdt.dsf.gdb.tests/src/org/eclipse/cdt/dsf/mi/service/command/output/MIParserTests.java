@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.dsf.mi.service.command.output;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class MIParserTests {
+	private final MIParser fParser = new MIParser();
+
+	@Test
+	public void testResultRecord() {
+		String line = "12^done,value=\"a \\\"b\\\" \\\\n\",frame={level=\"0\",args=[{name=\"x\",value=\"1\"},{name=\"y\",value=\"2\"}]}";
+		assertEquals(MIParser.RecordType.ResultRecord, fParser.getRecordType(line));
+		MIResultRecord rr = fParser.parseMIResultRecord(line);
+		assertEquals(12, rr.getToken());
+		assertEquals(MIResultRecord.DONE, rr.getResultClass());
+		MIResult[] results = rr.getMIResults();
+		assertEquals(2, results.length);
+		assertEquals("value", results[0].getVariable());
+		assertEquals("a \"b\" \\n", ((MIConst) results[0].getMIValue()).getCString());
+		assertEquals("frame", results[1].getVariable());
+		MITuple frame = (MITuple) results[1].getMIValue();
+		assertEquals(2, frame.getMIResults().length);
+		MIList args = (MIList) frame.getMIResults()[1].getMIValue();
+		assertEquals(2, args.getMIValues().length);
+		assertEquals(0, args.getMIResults().length);
+		MITuple arg = (MITuple) args.getMIValues()[1];
+		assertEquals("y", ((MIConst) arg.getMIResults()[0].getMIValue()).getCString());
+	}
+
+	@Test
+	public void testErrorRecord() {
+		MIResultRecord rr = fParser.parseMIResultRecord("^error,msg=\"No symbol \\\"x\\\" in current context.\"");
+		assertEquals(-1, rr.getToken());
+		assertEquals(MIResultRecord.ERROR, rr.getResultClass());
+		assertEquals("No symbol \"x\" in current context.", ((MIConst) rr.getMIResults()[0].getMIValue()).getCString());
+	}
+
+	@Test
+	public void testAsyncRecord() {
+		MIOOBRecord oob = fParser.parseMIOOBRecord("*stopped,reason=\"end-stepping-range\",thread-id=\"1\"");
+		assertTrue(oob instanceof MIExecAsyncOutput);
+		MIExecAsyncOutput async = (MIExecAsyncOutput) oob;
+		assertEquals("stopped", async.getAsyncClass());
+		assertEquals(2, async.getMIResults().length);
+		assertEquals("thread-id", async.getMIResults()[1].getVariable());
+
+		async = (MIExecAsyncOutput) fParser.parseMIOOBRecord("*running");
+		assertEquals("running", async.getAsyncClass());
+	}
+
+	@Test
+	public void testStreamRecord() {
+		// Backslashes within stream records are not escaped.
+		MIOOBRecord oob = fParser.parseMIOOBRecord("~\"c:\\\\dir\\\"x\\\"\\n\"");
+		assertTrue(oob instanceof MIConsoleStreamOutput);
+		assertEquals("c:\\\\dir\"x\"\\n", ((MIStreamRecord) oob).getCString());
+
+		oob = fParser.parseMIOOBRecord("not an MI record");
+		assertTrue(oob instanceof MITargetStreamOutput);
+		assertEquals("not an MI record\n", ((MIStreamRecord) oob).getCString());
+	}
+
+	@Test
+	public void testLargeRecord() {
+		final int count = 10000;
+		StringBuilder line = new StringBuilder("5^done,stack=[");
+		for (int i = 0; i < count; i++) {
+			if (i > 0)
+				line.append(',');
+			line.append("frame={level=\"").append(i).append("\",func=\"f").append(i).append("\"}");
+		}
+		line.append(']');
+		MIResultRecord rr = fParser.parseMIResultRecord(line.toString());
+		MIList stack = (MIList) rr.getMIResults()[0].getMIValue();
+		assertEquals(count, stack.getMIResults().length);
+		MITuple last = (MITuple) stack.getMIResults()[count - 1].getMIValue();
+		assertEquals("f" + (count - 1), ((MIConst) last.getMIResults()[1].getMIValue()).getCString());
+	}
+
+	/**
+	 * Compares the records parsed by the parser and by the previous implementation, for random
+	 * records and for random mutations of them.
+	 */
+	@Test
+	public void testSameResultsAsReference() {
+		ReferenceMIParser reference = new ReferenceMIParser();
+		MIRecordGenerator generator = new MIRecordGenerator(4711);
+		for (int i = 0; i < 50000; i++) {
+			String line = i % 2 == 0 ? generator.record() : generator.mutatedRecord();
+			if (line.isEmpty())
+				continue;
+			assertEquals(line, parse(reference, line), parse(fParser, line));
+		}
+		String line = MIRecordGenerator.stackListFrames(1000);
+		assertEquals(parse(reference, line), parse(fParser, line));
+	}
+
+	private static String parse(MIParser parser, String line) {
+		try {
+			switch (parser.getRecordType(line)) {
+			case ResultRecord:
+				return describe(parser.parseMIResultRecord(line));
+			case OOBRecord:
+				return describe(parser.parseMIOOBRecord(line));
+			default:
+				return "prompt"; //$NON-NLS-1$
+			}
+		} catch (RuntimeException e) {
+			return "failed"; //$NON-NLS-1$
+		}
+	}
+
+	private static String parse(ReferenceMIParser parser, String line) {
+		try {
+			switch (parser.getRecordType(line)) {
+			case ResultRecord:
+				return describe(parser.parseMIResultRecord(line));
+			case OOBRecord:
+				return describe(parser.parseMIOOBRecord(line));
+			default:
+				return "prompt"; //$NON-NLS-1$
+			}
+		} catch (RuntimeException e) {
+			return "failed"; //$NON-NLS-1$
+		}
+	}
+
+	private static String describe(Object record) {
+		if (record == null)
+			return "null"; //$NON-NLS-1$
+		StringBuilder buf = new StringBuilder(record.getClass().getSimpleName()).append(':');
+		if (record instanceof MIResultRecord) {
+			MIResultRecord rr = (MIResultRecord) record;
+			buf.append(rr.getToken()).append(rr.getResultClass());
+			describe(rr.getMIResults(), buf);
+		} else if (record instanceof MIAsyncRecord) {
+			MIAsyncRecord async = (MIAsyncRecord) record;
+			buf.append(async.getToken()).append(async.getAsyncClass());
+			describe(async.getMIResults(), buf);
+		} else if (record instanceof MIStreamRecord) {
+			buf.append(((MIStreamRecord) record).getCString());
+		}
+		return buf.toString();
+	}
+
+	private static void describe(MIResult[] results, StringBuilder buf) {
+		buf.append('(');
+		for (MIResult result : results) {
+			buf.append(result.getVariable()).append('=');
+			describe(result.getMIValue(), buf);
+			buf.append(';');
+		}
+		buf.append(')');
+	}
+
+	private static void describe(MIValue value, StringBuilder buf) {
+		if (value instanceof MIConst) {
+			buf.append('"').append(((MIConst) value).getCString()).append('"');
+		} else if (value instanceof MITuple) {
+			buf.append('{');
+			describe(((MITuple) value).getMIResults(), buf);
+			buf.append('}');
+		} else if (value instanceof MIList) {
+			MIList list = (MIList) value;
+			buf.append('[');
+			describe(list.getMIResults(), buf);
+			for (MIValue element : list.getMIValues()) {
+				describe(element, buf);
+				buf.append(';');
+			}
+			buf.append(']');
+		} else {
+			buf.append(value);
+		}
+	}
+}
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.dsf.mi.service.command.output;
+
+import java.util.Random;
+
+/**
+ * Generates random MI output records, and mutations of them, for testing the parser.
+ */
+public class MIRecordGenerator {
+	private static final String[] PREFIXES = { "^", "*", "+", "=", "~", "@", "&", "" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+	private static final String[] CLASSES = { "done", "running", "connected", "error", "exit", "stopped", "thread-created", "unknown" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+	private static final String SPECIAL = "\"\\{}[],=^*+~@&n0 "; //$NON-NLS-1$
+
+	private final Random fRandom;
+
+	public MIRecordGenerator(long seed) {
+		fRandom = new Random(seed);
+	}
+
+	/**
+	 * Returns a well-formed record.
+	 */
+	public String record() {
+		StringBuilder buf = new StringBuilder();
+		if (fRandom.nextBoolean())
+			buf.append(fRandom.nextInt(1000));
+		String prefix = PREFIXES[fRandom.nextInt(PREFIXES.length)];
+		buf.append(prefix);
+		if (prefix.equals("~") || prefix.equals("@") || prefix.equals("&")) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			cstring(buf);
+			return buf.toString();
+		}
+		buf.append(CLASSES[fRandom.nextInt(CLASSES.length)]);
+		int count = fRandom.nextInt(4);
+		for (int i = 0; i < count; i++) {
+			buf.append(',');
+			result(buf, 0);
+		}
+		return buf.toString();
+	}
+
+	/**
+	 * Returns a record with random characters inserted, deleted or replaced.
+	 */
+	public String mutatedRecord() {
+		StringBuilder buf = new StringBuilder(record());
+		int count = 1 + fRandom.nextInt(3);
+		for (int i = 0; i < count; i++) {
+			int pos = fRandom.nextInt(buf.length() + 1);
+			char c = SPECIAL.charAt(fRandom.nextInt(SPECIAL.length()));
+			switch (fRandom.nextInt(3)) {
+			case 0:
+				buf.insert(pos, c);
+				break;
+			case 1:
+				if (pos < buf.length())
+					buf.deleteCharAt(pos);
+				break;
+			default:
+				if (pos < buf.length())
+					buf.setCharAt(pos, c);
+				break;
+			}
+		}
+		return buf.toString();
+	}
+
+	/**
+	 * Returns a -stack-list-frames result record with the given number of frames.
+	 */
+	public static String stackListFrames(int count) {
+		StringBuilder buf = new StringBuilder("5^done,stack=["); //$NON-NLS-1$
+		for (int i = 0; i < count; i++) {
+			if (i > 0)
+				buf.append(',');
+			buf.append("frame={level=\"").append(i) //$NON-NLS-1$
+					.append("\",addr=\"0x0000000000400").append(i) //$NON-NLS-1$
+					.append("\",func=\"f").append(i) //$NON-NLS-1$
+					.append("\",file=\"src/file.c\",fullname=\"/home/user/src/file.c\",line=\"") //$NON-NLS-1$
+					.append(i).append("\"}"); //$NON-NLS-1$
+		}
+		buf.append(']');
+		return buf.toString();
+	}
+
+	private void result(StringBuilder buf, int depth) {
+		variable(buf);
+		buf.append('=');
+		value(buf, depth);
+	}
+
+	private void variable(StringBuilder buf) {
+		int length = 1 + fRandom.nextInt(8);
+		for (int i = 0; i < length; i++) {
+			buf.append((char) ('a' + fRandom.nextInt(26)));
+		}
+		if (fRandom.nextInt(4) == 0)
+			buf.append("-id"); //$NON-NLS-1$
+	}
+
+	private void value(StringBuilder buf, int depth) {
+		int kind = depth > 4 ? 0 : fRandom.nextInt(4);
+		switch (kind) {
+		case 0:
+		case 1:
+			cstring(buf);
+			break;
+		case 2: {
+			buf.append('{');
+			int count = fRandom.nextInt(4);
+			for (int i = 0; i < count; i++) {
+				if (i > 0)
+					buf.append(',');
+				result(buf, depth + 1);
+			}
+			buf.append('}');
+			break;
+		}
+		default: {
+			buf.append('[');
+			int count = fRandom.nextInt(4);
+			boolean results = fRandom.nextBoolean();
+			for (int i = 0; i < count; i++) {
+				if (i > 0)
+					buf.append(',');
+				if (results) {
+					result(buf, depth + 1);
+				} else {
+					value(buf, depth + 1);
+				}
+			}
+			buf.append(']');
+			break;
+		}
+		}
+	}
+
+	private void cstring(StringBuilder buf) {
+		buf.append('"');
+		int length = fRandom.nextInt(12);
+		for (int i = 0; i < length; i++) {
+			switch (fRandom.nextInt(10)) {
+			case 0:
+				buf.append("\\\""); //$NON-NLS-1$
+				break;
+			case 1:
+				buf.append("\\\\"); //$NON-NLS-1$
+				break;
+			case 2:
+				buf.append("\\n"); //$NON-NLS-1$
+				break;
+			case 3:
+				buf.append((char) (0x80 + fRandom.nextInt(0x100)));
+				break;
+			default:
+				char c = (char) (' ' + fRandom.nextInt(95));
+				buf.append(c == '"' || c == '\\' ? '_' : c);
+				break;
+			}
+		}
+		buf.append('"');
+	}
+}
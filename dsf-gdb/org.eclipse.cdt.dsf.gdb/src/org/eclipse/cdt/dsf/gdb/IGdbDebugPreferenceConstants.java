@@ -146,5 +146,16 @@ public interface IGdbDebugPreferenceConstants {
 	 * @since 4.2
 	 */
 	public static final String PREF_AGGRESSIVE_BP_FILTER = PREFIX + "aggressiveBpFilter"; //$NON-NLS-1$
+
+	/**
+	 * Boolean preference whether the memory service caches the memory in pages,
+	 * and reads the pages that follow the requested memory in advance.
+	 * The original behavior is to cache exactly the memory that was requested.
+	 * 
+	 * Default is <code>false</code>.
+	 * 
+	 * @since 4.6
+	 */
+	public static final String PREF_MEMORY_CACHE_PAGED = PREFIX + "memoryCachePaged"; //$NON-NLS-1$
 }
 
@@ -1899,9 +1899,19 @@ public class MIExpressions extends AbstractDsfService implements IMIExpressions,
 			int length, 
 			final DataRequestMonitor<IExpressionDMContext[]> rm) {
 		
-		ExprMetaGetChildren getChildren = (startIndex < 0 || length < 0) ? 
-				new ExprMetaGetChildren(exprCtx) : new ExprMetaGetChildren(exprCtx, startIndex + length);
-		final int startIndex1 = (startIndex < 0) ? 0 : startIndex;
+		// An empty range has no children, there is no need to fetch any
+		if (length == 0) {
+			rm.setData(new IExpressionDMContext[0]);
+			rm.done();
+			return;
+		}
+
+		// When a range is given, only the children of that range are returned
+		final boolean isRange = startIndex >= 0 && length > 0;
+		ExprMetaGetChildren getChildren = isRange ?
+				new ExprMetaGetChildren(exprCtx, startIndex, (int) Math.min((long) startIndex + length, Integer.MAX_VALUE)) :
+				new ExprMetaGetChildren(exprCtx);
+		final int startIndex1 = isRange ? 0 : Math.max(startIndex, 0);
 		final int length1 = (length < 0) ? Integer.MAX_VALUE : length;
 		fExpressionCache.execute(
 				getChildren,				
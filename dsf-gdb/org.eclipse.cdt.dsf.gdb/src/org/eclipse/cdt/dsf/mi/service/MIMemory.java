@@ -18,12 +18,20 @@
  *******************************************************************************/
 package org.eclipse.cdt.dsf.mi.service;
 
+import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.cdt.core.IAddress;
 import org.eclipse.cdt.dsf.concurrent.CountingRequestMonitor;
@@ -47,6 +55,7 @@ import org.eclipse.cdt.dsf.debug.service.IRunControl.ISuspendedDMEvent;
 import org.eclipse.cdt.dsf.debug.service.IRunControl.StateChangeReason;
 import org.eclipse.cdt.dsf.debug.service.command.BufferedCommandControl;
 import org.eclipse.cdt.dsf.debug.service.command.CommandCache;
+import org.eclipse.cdt.dsf.gdb.IGdbDebugPreferenceConstants;
 import org.eclipse.cdt.dsf.gdb.internal.GdbPlugin;
 import org.eclipse.cdt.dsf.gdb.service.command.IGDBControl;
 import org.eclipse.cdt.dsf.mi.service.MIExpressions.ExpressionChangedEvent;
@@ -60,6 +69,7 @@ import org.eclipse.cdt.dsf.service.DsfServiceEventHandler;
 import org.eclipse.cdt.dsf.service.DsfSession;
 import org.eclipse.cdt.utils.Addr64;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.debug.core.model.MemoryByte;
 import org.osgi.framework.BundleContext;
@@ -72,6 +82,11 @@ public class MIMemory extends AbstractDsfService implements IMemory, ICachingSer
 	private static final String READ_MEMORY_BYTES_FEATURE = "data-read-memory-bytes"; //$NON-NLS-1$
 	//data-read-memory write is deprecated, its description could be ambiguous for e.g. 16 bit addressable systems
 	private static final String DATA_WRITE_MEMORY_16_NOT_SUPPORTED = "data-write-memory with word-size != 1 not supported"; //$NON-NLS-1$
+
+	// Default parameters of the paged memory caches
+	private static final int DEFAULT_CACHE_PAGE_SIZE = 512;
+	private static final int DEFAULT_CACHE_READ_AHEAD = 2;
+	private static final long DEFAULT_CACHE_LIMIT = 4 * 1024 * 1024;
 	
     public class MemoryChangedEvent extends AbstractDMEvent<IMemoryDMContext> 
         implements IMemoryChangedEvent 
@@ -101,7 +116,7 @@ public class MIMemory extends AbstractDsfService implements IMemory, ICachingSer
     protected MIMemoryCache getMemoryCache(IMemoryDMContext memoryDMC) {
     	MIMemoryCache cache = fMemoryCaches.get(memoryDMC);
     	if (cache == null) {
-    		cache = new MIMemoryCache();
+    		cache = isMemoryCachePaged() ? new MIPagedMemoryCache() : new MIMemoryCache();
     		fMemoryCaches.put(memoryDMC, cache);
     	}
     	return cache;
@@ -110,6 +125,93 @@ public class MIMemory extends AbstractDsfService implements IMemory, ICachingSer
     // Whether the -data-read-memory-bytes should be used
     // instead of -data-read-memory
     private boolean fDataReadMemoryBytes;
+
+    // Whether the memory is cached in pages, null until the preference is read
+    private Boolean fCachePaged;
+
+    // Parameters of the paged memory caches
+    private int fCachePageSize = DEFAULT_CACHE_PAGE_SIZE;
+    private int fCacheReadAhead = DEFAULT_CACHE_READ_AHEAD;
+    private long fCacheLimit = DEFAULT_CACHE_LIMIT;
+
+    /**
+     * Sets whether the memory is cached in pages that are read ahead of the memory 
+     * requests, see {@link MIPagedMemoryCache}.  The setting applies to the caches 
+     * of memory contexts that are accessed for the first time.  By default, the value
+     * of the preference {@link IGdbDebugPreferenceConstants#PREF_MEMORY_CACHE_PAGED} is
+     * used.
+     * @since 4.6
+     */
+    protected void setMemoryCachePaged(boolean paged) {
+    	fCachePaged = paged;
+    }
+
+    /**
+     * Returns whether the memory is cached in pages that are read ahead of the memory 
+     * requests.
+     * @since 4.6
+     */
+    public boolean isMemoryCachePaged() {
+    	if (fCachePaged == null) {
+    		fCachePaged = Platform.getPreferencesService().getBoolean(GdbPlugin.PLUGIN_ID, 
+    				IGdbDebugPreferenceConstants.PREF_MEMORY_CACHE_PAGED, false, null);
+    	}
+    	return fCachePaged;
+    }
+
+    /**
+     * Sets the size of the pages in which the paged memory caches hold the memory, in 
+     * addressable units.  The memory caches are discarded.
+     * @since 4.6
+     */
+    protected void setMemoryCachePageSize(int pageSize) {
+    	fCachePageSize = Math.max(1, pageSize);
+    	if (fMemoryCaches != null) {
+    		fMemoryCaches.clear();
+    	}
+    }
+
+    /**
+     * Returns the size of the pages in which the paged memory caches hold the memory, in 
+     * addressable units.
+     * @since 4.6
+     */
+    public int getMemoryCachePageSize() {
+    	return fCachePageSize;
+    }
+
+    /**
+     * Sets the number of pages that are read ahead of the memory requests, 0 disables
+     * reading ahead.
+     * @since 4.6
+     */
+    protected void setMemoryCacheReadAhead(int pages) {
+    	fCacheReadAhead = Math.max(0, pages);
+    }
+
+    /**
+     * Returns the number of pages that are read ahead of the memory requests.
+     * @since 4.6
+     */
+    public int getMemoryCacheReadAhead() {
+    	return fCacheReadAhead;
+    }
+
+    /**
+     * Sets the number of octets that the paged cache of a memory context holds at most.
+     * @since 4.6
+     */
+    protected void setMemoryCacheLimit(long octets) {
+    	fCacheLimit = Math.max(0, octets);
+    }
+
+    /**
+     * Returns the number of octets that the paged cache of a memory context holds at most.
+     * @since 4.6
+     */
+    public long getMemoryCacheLimit() {
+    	return fCacheLimit;
+    }
     
 	/**
 	 *  Constructor 
@@ -467,6 +569,26 @@ public class MIMemory extends AbstractDsfService implements IMemory, ICachingSer
     	}
 	}
 
+    /**
+     * Drops the cached memory that was changed by others than this service.
+     * @since 4.6
+     */
+    @DsfServiceEventHandler
+    public void eventDispatched(IMemoryChangedEvent e) {
+    	if (e instanceof MemoryChangedEvent) {
+    		// The cache was updated before the event was sent
+    		return;
+    	}
+    	IMemoryDMContext memoryDMC = e.getDMContext();
+    	for (IMemoryDMContext ctx : fMemoryCaches.keySet()) {
+    		MIMemoryCache cache = fMemoryCaches.get(ctx);
+    		if (cache instanceof MIPagedMemoryCache 
+    				&& (ctx != null && ctx.equals(memoryDMC) || DMContexts.isAncestorOf(ctx, memoryDMC))) {
+    			((MIPagedMemoryCache) cache).invalidate(e.getAddresses());
+    		}
+    	}
+    }
+
 	/**
 	 * @deprecated Replaced by the generic {@link #eventDispatched(IExpressionChangedDMEvent)}
 	 */
@@ -1024,6 +1146,437 @@ public class MIMemory extends AbstractDsfService implements IMemory, ICachingSer
  		}
 	}
 
+	///////////////////////////////////////////////////////////////////////////
+	// MIPagedMemoryCache
+	///////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Cache of the memory of a memory context that reads ahead of the requests.
+	 * <p>
+	 * The memory is cached in pages of {@link #getMemoryCachePageSize()} addressable units, 
+	 * aligned on the page size. A request reads the pages it covers that are not cached yet,
+	 * contiguous missing pages are read with a single command. Once the request is served, 
+	 * {@link #getMemoryCacheReadAhead()} pages following the request, in the direction in 
+	 * which the requests move (i.e. the direction in which a memory view is scrolled), are 
+	 * read in the background. The least recently used pages are dropped when the cache holds
+	 * more than {@link #getMemoryCacheLimit()} octets.
+	 * <p>
+	 * A page that cannot be read is not cached. With -data-read-memory, a read fails as a 
+	 * whole if any part of the memory cannot be read. The request is then served by reading 
+	 * exactly the requested memory.
+	 * <p>
+	 * This cache is used when {@link #isMemoryCachePaged()} is set.
+	 * 
+	 * @since 4.6
+	 */
+	protected class MIPagedMemoryCache extends MIMemoryCache {
+		// The cached pages by page number, in least recently used order
+		private final LinkedHashMap<BigInteger, MemoryByte[]> fPages = 
+				new LinkedHashMap<BigInteger, MemoryByte[]>(16, 0.75f, true);
+		// The pages that are being read ahead
+		private final Set<BigInteger> fPendingPages = new HashSet<BigInteger>();
+		// Size of a page in addressable units
+		private final int fPageSize;
+		// Size of an addressable unit in octets
+		private int fWordSize;
+		// Number of octets in the cache
+		private long fSize;
+		// Incremented when the cache is reset, reads issued before do not populate the cache
+		private int fGeneration;
+		// First page of the previous request, and the direction in which the requests move
+		private BigInteger fLastPage;
+		private int fDirection = 1;
+
+		public MIPagedMemoryCache() {
+			fPageSize = getMemoryCachePageSize();
+		}
+
+		@Override
+		public void reset() {
+	    	// Clear the memory cache
+			fPages.clear();
+			fPendingPages.clear();
+			fSize = 0;
+			fGeneration++;
+		}
+
+		private BigInteger getPage(BigInteger address) {
+			return address.divide(BigInteger.valueOf(fPageSize));
+		}
+
+		private BigInteger getPageStart(BigInteger page) {
+			return page.multiply(BigInteger.valueOf(fPageSize));
+		}
+
+		// Whether the page lies completely within the address space of the given address 
+		private boolean isValidPage(IAddress address, BigInteger page) {
+			return page.signum() >= 0 
+					&& getPageStart(page.add(BigInteger.ONE)).subtract(BigInteger.ONE).compareTo(address.getMaxOffset()) <= 0;
+		}
+
+		private IAddress toAddress(IAddress address, BigInteger value) {
+			return address.add(value.subtract(address.getValue()));
+		}
+
+		// Groups the sorted page numbers into runs of contiguous pages, returned as [first, last] pairs
+		private List<BigInteger[]> getRuns(List<BigInteger> pages) {
+			List<BigInteger[]> runs = new ArrayList<BigInteger[]>();
+			BigInteger[] run = null;
+			for (BigInteger page : pages) {
+				if (run != null && run[1].add(BigInteger.ONE).equals(page)) {
+					run[1] = page;
+				} else {
+					run = new BigInteger[] { page, page };
+					runs.add(run);
+				}
+			}
+			return runs;
+		}
+
+		private int getRunLength(BigInteger[] run) {
+			return (run[1].subtract(run[0]).intValue() + 1) * fPageSize;
+		}
+
+		// Whether the block read for a run of pages can be cached
+		private boolean isCacheable(MemoryByte[] block, int octetCount) {
+			if (block == null || block.length != octetCount) {
+				return false;
+			}
+			if (fDataReadMemoryBytes) {
+				// Bytes that cannot be read are reported individually
+				return true;
+			}
+			for (MemoryByte b : block) {
+				if (b.isReadable()) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		// Splits the block read for a run of pages into pages and caches them, unless the cache
+		// was reset since the block was requested
+		private void storePages(BigInteger firstPage, MemoryByte[] block, int word_size, int generation, 
+				Map<BigInteger, MemoryByte[]> pages) 
+		{
+			int pageLength = fPageSize * word_size;
+			BigInteger page = firstPage;
+			for (int pos = 0; pos < block.length; pos += pageLength, page = page.add(BigInteger.ONE)) {
+				MemoryByte[] data = Arrays.copyOfRange(block, pos, pos + pageLength);
+				if (pages != null) {
+					pages.put(page, data);
+				}
+				if (generation == fGeneration) {
+					MemoryByte[] old = fPages.put(page, data);
+					fSize += data.length - (old != null ? old.length : 0);
+				}
+			}
+		}
+
+		// Drops the least recently used pages until the cache is within its limit
+		private void trimCache() {
+			long limit = getMemoryCacheLimit();
+			for (Iterator<MemoryByte[]> it = fPages.values().iterator(); fSize > limit && it.hasNext();) {
+				fSize -= it.next().length;
+				it.remove();
+			}
+		}
+
+		private MemoryByte[] getMemoryFromPages(Map<BigInteger, MemoryByte[]> pages, BigInteger start, 
+				int word_count, int word_size) 
+		{
+			MemoryByte[] result = new MemoryByte[word_count * word_size];
+			BigInteger unit = start;
+			int done = 0;
+			while (done < word_count) {
+				BigInteger page = getPage(unit);
+				int offset = unit.subtract(getPageStart(page)).intValue();
+				int count = Math.min(fPageSize - offset, word_count - done);
+				System.arraycopy(pages.get(page), offset * word_size, result, done * word_size, count * word_size);
+				done += count;
+				unit = unit.add(BigInteger.valueOf(count));
+			}
+			return result;
+		}
+
+		/**
+	     *  Updates the cached pages that overlap the given block with the actual memory 
+	     *  just read from the target. Memory that is not cached is ignored.
+	     * 
+		 * @param modBlockStart
+		 * @param word_count - Number of addressable units
+		 * @param modBlock
+		 * @param word_size - Number of octets per addressable unit
+		 * @return whether the value of any cached byte changed
+		 */
+		private boolean updateMemoryCache(IAddress modBlockStart, int word_count, MemoryByte[] modBlock, int word_size) {
+			if (word_size != fWordSize || modBlock.length < word_count * word_size) {
+				return false;
+			}
+			boolean changed = false;
+			BigInteger start = modBlockStart.getValue();
+			BigInteger end = start.add(BigInteger.valueOf(word_count));
+			for (BigInteger page = getPage(start); getPageStart(page).compareTo(end) < 0; page = page.add(BigInteger.ONE)) {
+				MemoryByte[] data = fPages.get(page);
+				if (data == null) {
+					continue;
+				}
+				BigInteger pageStart = getPageStart(page);
+				BigInteger from = start.max(pageStart);
+				BigInteger to = end.min(pageStart.add(BigInteger.valueOf(fPageSize)));
+				int modPos = from.subtract(start).intValue() * word_size;
+				int pagePos = from.subtract(pageStart).intValue() * word_size;
+				int length = to.subtract(from).intValue() * word_size;
+				for (int i = 0; i < length; i++) {
+					if (data[pagePos + i].getValue() != modBlock[modPos + i].getValue()) {
+						changed = true;
+					}
+					data[pagePos + i] = modBlock[modPos + i];
+				}
+			}
+			return changed;
+		}
+
+		/**
+		 * Drops the cached pages that contain any of the given addresses.
+		 */
+		private void invalidate(IAddress[] addresses) {
+			for (IAddress address : addresses) {
+				MemoryByte[] data = fPages.remove(getPage(address.getValue()));
+				if (data != null) {
+					fSize -= data.length;
+				}
+			}
+		}
+
+	    /**
+		 * @param memoryDMC
+	     * @param address	the memory block address (on the target)
+	     * @param word_size	the size, in bytes, of an addressable item
+	     * @param word_count the number of addressable units to read
+	     * @param drm		the asynchronous data request monitor
+	     */
+	    @Override
+	    public void getMemory(final IMemoryDMContext memoryDMC, final IAddress address, final int word_size, 
+	    		final int word_count, final DataRequestMonitor<MemoryByte[]> drm)
+	    {
+	    	if (word_count == 0) {
+	    		drm.setData(new MemoryByte[0]);
+	    		drm.done();
+	    		return;
+	    	}
+
+	    	if (word_size != fWordSize) {
+	    		// The pages are laid out for a single addressable size
+	    		reset();
+	    		fWordSize = word_size;
+	    	}
+
+	    	final BigInteger start = address.getValue();
+	    	final BigInteger firstPage = getPage(start);
+	    	final BigInteger lastPage = getPage(start.add(BigInteger.valueOf(word_count - 1)));
+	    	if (!isValidPage(address, lastPage)) {
+	    		// The last page would extend beyond the address space, don't cache
+	    		readMemoryBlock(memoryDMC, address, 0, word_size, word_count, drm);
+	    		return;
+	    	}
+
+	    	// Track the direction in which the requests move for the read-ahead
+	    	if (fLastPage != null && !fLastPage.equals(firstPage)) {
+	    		fDirection = firstPage.compareTo(fLastPage);
+	    	}
+	    	fLastPage = firstPage;
+
+	    	// Collect the cached pages and determine the missing ones
+	    	final Map<BigInteger, MemoryByte[]> pages = new HashMap<BigInteger, MemoryByte[]>();
+	    	List<BigInteger> missingPages = new ArrayList<BigInteger>();
+	    	for (BigInteger page = firstPage; page.compareTo(lastPage) <= 0; page = page.add(BigInteger.ONE)) {
+	    		MemoryByte[] data = fPages.get(page);
+	    		if (data != null) {
+	    			pages.put(page, data);
+	    		} else {
+	    			missingPages.add(page);
+	    		}
+	    	}
+	    	final int pageCount = pages.size() + missingPages.size();
+	    	List<BigInteger[]> runs = getRuns(missingPages);
+	    	final int generation = fGeneration;
+
+	    	// A read request will be issued for each run of missing pages
+	    	// so we need to keep track of the count
+	        final CountingRequestMonitor countingRM =
+	        	new CountingRequestMonitor(getExecutor(), drm) { 
+	                @Override
+	                protected void handleSuccess() {
+	                	if (pages.size() < pageCount) {
+	                		// Some pages could not be read as a whole, read only the requested memory
+	                		// so that the parts of the pages outside of it do not fail the request
+	                		readMemoryBlock(memoryDMC, address, 0, word_size, word_count, drm);
+	                	} else {
+	                		drm.setData(getMemoryFromPages(pages, start, word_count, word_size));
+	                		drm.done();
+	                		readAhead(memoryDMC, address, firstPage, lastPage, word_size);
+	                	}
+	                	trimCache();
+	                }
+	            };
+	       	countingRM.setDoneCount(runs.size());
+
+	        // Issue the read requests
+	        for (final BigInteger[] run : runs) {
+	        	final int length = getRunLength(run);
+	        	readMemoryBlock(memoryDMC, toAddress(address, getPageStart(run[0])), 0, word_size, length,
+	        			new DataRequestMonitor<MemoryByte[]>(getExecutor(), countingRM) {
+	        				@Override
+	        				protected void handleCompleted() {
+	        					// A run that cannot be read is not cached, the requested 
+	        					// memory is read on its own once all runs completed
+	        					if (isSuccess() && isCacheable(getData(), length * word_size)) {
+	        						storePages(run[0], getData(), word_size, generation, pages);
+	        					}
+	        					countingRM.done();
+	        				}
+	        			});
+	        }
+	    }
+
+	    /**
+	     * Reads the pages that follow the given range of pages in the direction in which 
+	     * the requests move, unless they are cached or being read already.  
+	     */
+	    private void readAhead(IMemoryDMContext memoryDMC, IAddress address, BigInteger firstPage, 
+	    		BigInteger lastPage, final int word_size) 
+	    {
+	    	List<BigInteger> pages = new ArrayList<BigInteger>();
+	    	BigInteger page = fDirection > 0 ? lastPage : firstPage;
+	    	for (int i = 0; i < getMemoryCacheReadAhead(); i++) {
+	    		page = page.add(BigInteger.valueOf(fDirection));
+	    		if (!isValidPage(address, page)) {
+	    			break;
+	    		}
+	    		if (!fPages.containsKey(page) && !fPendingPages.contains(page)) {
+	    			pages.add(page);
+	    		}
+	    	}
+	    	Collections.sort(pages);
+	    	fPendingPages.addAll(pages);
+
+	    	final int generation = fGeneration;
+	    	for (final BigInteger[] run : getRuns(pages)) {
+	    		final int length = getRunLength(run);
+	    		readMemoryBlock(memoryDMC, toAddress(address, getPageStart(run[0])), 0, word_size, length,
+	    				new DataRequestMonitor<MemoryByte[]>(getExecutor(), null) {
+	    					@Override
+	    					protected void handleCompleted() {
+	    						// Reading ahead is opportunistic, errors are ignored
+	    						if (generation == fGeneration) {
+	    							for (BigInteger p = run[0]; p.compareTo(run[1]) <= 0; p = p.add(BigInteger.ONE)) {
+	    								fPendingPages.remove(p);
+	    							}
+	    						}
+	    						if (isSuccess() && isCacheable(getData(), length * word_size)) {
+	    							storePages(run[0], getData(), word_size, generation, null);
+	    							trimCache();
+	    						}
+	    					}
+	    				});
+	    	}
+	    }
+
+	    /**
+		 * @param memoryDMC
+	     * @param address	the memory block address (on the target)
+	     * @param offset	the offset from the start address
+	     * @param word_size	the size, in bytes, of an addressable item
+	     * @param word_count the number of addressable units to write
+	     * @param buffer	the source buffer
+	     * @param rm		the asynchronous request monitor
+	     */
+	   @Override
+	   public void setMemory(final IMemoryDMContext memoryDMC, final IAddress address,
+			   final long offset, final int word_size, final int word_count, final byte[] buffer,
+			   final RequestMonitor rm)
+	   {
+	       	writeMemoryBlock(
+	       	    memoryDMC, address, offset, word_size, word_count, buffer,
+				new RequestMonitor(getSession().getExecutor(), rm) {
+					@Override
+				    protected void handleSuccess() {
+				    	// Clear the command cache (otherwise we can't guarantee
+						// that the subsequent memory read will be correct) 
+						fCommandCache.reset();
+
+				    	// Re-read the modified memory block to asynchronously update of the memory cache
+				        readMemoryBlock(memoryDMC, address, offset, word_size, word_count,
+					        new DataRequestMonitor<MemoryByte[]>(getExecutor(), rm) { 
+					        	@Override
+	                            protected void handleSuccess() {
+									updateMemoryCache(address.add(offset), word_count, getData(), word_size);
+									// Send the MemoryChangedEvent
+									IAddress[] addresses = new IAddress[word_count];
+									for (int i = 0; i < word_count; i++) {
+										addresses[i] = address.add(offset + i);
+									}
+									getSession().dispatchEvent(new MemoryChangedEvent(memoryDMC, addresses), getProperties());
+									rm.done();
+					        	}
+							});
+				    }
+				});
+	   }
+
+ 	   /**
+ 	    * @param memoryDMC
+ 	    * @param address
+ 	    * @param offset
+ 	    * @param word_size
+ 	    * @param word_count
+ 	    * @param sendMemoryEvent Indicates if a IMemoryChangedEvent should be sent if the memory cache has changed.
+ 	    * @param rm
+ 	    */
+	   @Override
+	   public void refreshMemory(final IMemoryDMContext memoryDMC, final IAddress address,
+ 			   final long offset, final int word_size, final int word_count, final boolean sendMemoryEvent, 
+ 			   final RequestMonitor rm)
+	   {
+		   // Check if we already cache part of this memory area (which means it
+		   // is used by a memory service client that will have to be updated)
+		   boolean cached = false;
+		   if (word_size == fWordSize && word_count > 0) {
+			   BigInteger start = address.add(offset).getValue();
+			   BigInteger lastPage = getPage(start.add(BigInteger.valueOf(word_count - 1)));
+			   for (BigInteger page = getPage(start); !cached && page.compareTo(lastPage) <= 0; page = page.add(BigInteger.ONE)) {
+				   cached = fPages.containsKey(page);
+			   }
+		   }
+
+		   // If none of the requested memory is in cache, just get out
+		   if (!cached) {
+			   rm.done();
+			   return;
+		   }
+
+		   // Read the corresponding memory block
+		   fCommandCache.reset();
+		   readMemoryBlock(memoryDMC, address, offset, word_size, word_count,
+				   new DataRequestMonitor<MemoryByte[]>(getExecutor(), rm) {
+					   @Override
+					   protected void handleSuccess() {
+						   boolean blocksDiffer = updateMemoryCache(address.add(offset), word_count, getData(), word_size);
+						   if (blocksDiffer && sendMemoryEvent) {
+							   // Send the MemoryChangedEvent
+							   final IAddress[] addresses = new IAddress[word_count];
+							   for (int i = 0; i < word_count; i++) {
+								   addresses[i] = address.add(offset + i);
+							   }
+							   getSession().dispatchEvent(new MemoryChangedEvent(memoryDMC, addresses), getProperties());
+						   }
+						   rm.done();
+					   }
+			   });
+ 		}
+	}
+
    /**
     * {@inheritDoc}
     * @since 1.1
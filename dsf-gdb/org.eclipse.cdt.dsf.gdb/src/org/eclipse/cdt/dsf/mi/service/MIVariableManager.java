@@ -22,8 +22,8 @@ package org.eclipse.cdt.dsf.mi.service;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -1337,32 +1337,7 @@ public class MIVariableManager implements ICommandControl {
 	        // never need.  Using -var-list-children will create a variable object for every child
 	        // immediately, that is why we don't want to use it for arrays.
 	        if (isArray()) {
-	        	ExpressionInfo[] childrenOfArray = new ExpressionInfo[getNumChildrenHint()];
-	        	String exprName = exprDmc.getExpression();
-	        	
-        		int castingIndex = 0;
-	        	// in case of casts, need to resolve that before dereferencing, to be safe
-	        	if (exprDmc instanceof ICastedExpressionDMContext) {
-	        		castingIndex = ((ICastedExpressionDMContext)exprDmc).getCastInfo().getArrayStartIndex();
-	        	}
-	        	if (exprDmc instanceof IIndexedPartitionDMContext) {
-	        		castingIndex = ((IIndexedPartitionDMContext)exprDmc).getIndex();
-	        	}
-	        	for (int i= 0; i < childrenOfArray.length; i++) {
-	        		String fullExpr = exprName + "[" + i + "]";//$NON-NLS-1$//$NON-NLS-2$
-	        		
-        			String relExpr;
-	        		if (exprDmc instanceof MIExpressionDMC) {
-	        			relExpr = ((MIExpressionDMC)exprDmc).getRelativeExpression();
-	        		} else {
-	        			// Unexpected, but avoid exception
-	        			relExpr = exprDmc.getExpression();
-	        		}
-	        		relExpr = relExpr + "[" + (castingIndex + i) + "]";//$NON-NLS-1$//$NON-NLS-2$
-	        		
-
-	        		childrenOfArray[i] = new ExpressionInfo(fullExpr, relExpr, false, exprInfo, i);
-	        	}
+	        	ExpressionInfo[] childrenOfArray = createArrayChildren(exprDmc, 0, getNumChildrenHint());
 
 	        	// First store these children, for the next time
 				setChildren(childrenOfArray);
@@ -1391,6 +1366,7 @@ public class MIVariableManager implements ICommandControl {
 	        			protected void handleSuccess() {
 	        				MIVar[] children = getData().getMIVars();
 	        				final boolean localHasMore = getData().hasMore();
+	        				fCreatedCount += children.length;
 	        				
 	        				// The elements of this array normally are an ExpressionInfo, unless it corresponds to
 	        				// a fake child (public, protected, private). In this case it is an ExpressionInfo[]
@@ -1778,6 +1754,70 @@ public class MIVariableManager implements ICommandControl {
 					});
 		}
 
+		/**
+		 * Creates the children of an array in the range [from, to), without creating
+		 * variable objects for them.
+		 */
+		private ExpressionInfo[] createArrayChildren(IExpressionDMContext exprDmc, int from, int to) {
+			ExpressionInfo[] childrenOfArray = new ExpressionInfo[Math.max(0, to - from)];
+			String exprName = exprDmc.getExpression();
+
+			int castingIndex = 0;
+			// in case of casts, need to resolve that before dereferencing, to be safe
+			if (exprDmc instanceof ICastedExpressionDMContext) {
+				castingIndex = ((ICastedExpressionDMContext)exprDmc).getCastInfo().getArrayStartIndex();
+			}
+			if (exprDmc instanceof IIndexedPartitionDMContext) {
+				castingIndex = ((IIndexedPartitionDMContext)exprDmc).getIndex();
+			}
+			for (int i = 0; i < childrenOfArray.length; i++) {
+				int index = from + i;
+				String fullExpr = exprName + "[" + index + "]";//$NON-NLS-1$//$NON-NLS-2$
+
+				String relExpr;
+				if (exprDmc instanceof MIExpressionDMC) {
+					relExpr = ((MIExpressionDMC)exprDmc).getRelativeExpression();
+				} else {
+					// Unexpected, but avoid exception
+					relExpr = exprDmc.getExpression();
+				}
+				relExpr = relExpr + "[" + (castingIndex + index) + "]";//$NON-NLS-1$//$NON-NLS-2$
+
+				childrenOfArray[i] = new ExpressionInfo(fullExpr, relExpr, false, exprInfo, index);
+			}
+			return childrenOfArray;
+		}
+
+		/**
+		 * Returns the children in the range [from, to).  For an array whose children
+		 * were not requested as a whole before, only the children of the range are 
+		 * created, which avoids creating the children of huge arrays that are never 
+		 * displayed.  Otherwise the children up to <code>to</code> are fetched as 
+		 * for {@link #getChildren(IExpressionDMContext, int, DataRequestMonitor)}.
+		 * 
+		 * @since 4.6
+		 */
+		protected void getChildren(final IExpressionDMContext exprDmc, final int from, final int to,
+				final DataRequestMonitor<ChildrenInfo> rm) {
+			if (isArray() && getChildren() == null) {
+				int end = Math.min(to, getNumChildrenHint());
+				rm.setData(new ChildrenInfo(createArrayChildren(exprDmc, from, end), false));
+				rm.done();
+				return;
+			}
+
+			getChildren(exprDmc, to, new DataRequestMonitor<ChildrenInfo>(fSession.getExecutor(), rm) {
+				@Override
+				protected void handleSuccess() {
+					ExpressionInfo[] allChildren = getData().getChildren();
+					int start = Math.min(from, allChildren.length);
+					int end = Math.max(start, Math.min(to, allChildren.length));
+					rm.setData(new ChildrenInfo(Arrays.copyOfRange(allChildren, start, end), getData().hasMore()));
+					rm.done();
+				}
+			});
+		}
+
 		/**
 		 * Method performing special handling for a derived class that is cast to its base class (see bug 320277).
 		 * The command '-var-info-path-expression' returns (*(testbase*) this) but we need (*(struct testbase*) this).
@@ -2011,6 +2051,7 @@ public class MIVariableManager implements ICommandControl {
 							@Override
 							protected void handleSuccess() {
 								if (getData().getMIVars().length == 1) {
+									fCreatedCount++;
 									MIVar miVar = getData().getMIVars()[0];
 									
 									ExpressionInfo localExprInfo = miExprCtx.getExpressionInfo();
@@ -2171,6 +2212,7 @@ public class MIVariableManager implements ICommandControl {
 							@Override
 							protected void handleCompleted() {
 								if (isSuccess()) {
+									fCreatedCount++;
 									setGdbName(getData().getName());
 									setDisplayHint(getData().getDisplayHint());
 									
@@ -2478,14 +2520,13 @@ public class MIVariableManager implements ICommandControl {
 	 * variable object.  Our solution to that is to tweak the LRU to make sure that 
 	 * children are always older than their parents, to guarantee the children will 
 	 * always be delete before their parents.
+	 * The size of the LRU is bounded by the variable object budget, see
+	 * {@link MIVariableManager#setVariableObjectBudget(int)}.
 	 * 
 	 */
 	private class LRUVariableCache extends LinkedHashMap<VariableObjectId, MIVariableObject> {
 		public static final long serialVersionUID = 0;
 
-		// Maximum allowed concurrent variables
-		private static final int MAX_VARIABLE_LIST = 1000;
-		
 		public LRUVariableCache() {
 			super(0,     // Initial load capacity
 				  0.75f, // Load factor as defined in JAVA 1.5
@@ -2504,15 +2545,17 @@ public class MIVariableManager implements ICommandControl {
 			MIVariableObject varObj = super.get(key);
 		    touchAncestors(varObj);
 		    
-		    // If we're over our max size, attempt to remove eldest entry.
-		    if (size() > MAX_VARIABLE_LIST) {
+		    // If we're over our budget, remove the eldest entries.  Many entries can be
+		    // added at once when listing children, so one removal may not be enough.
+		    // Stop at the first entry that cannot be removed, since its parents
+		    // follow it and must not be deleted before it.
+		    while (size() > fVariableObjectBudget) {
 		    	Map.Entry<VariableObjectId, MIVariableObject> eldest = entrySet().iterator().next();
 		    	// First make sure we are not deleting ourselves!
-		    	if (!eldest.getValue().equals(varObj)) {
-		    		if (eldest.getValue().currentState == MIVariableObject.STATE_READY) {
-		    			remove(eldest.getKey());
-		    		}
+		    	if (eldest.getValue().equals(varObj) || eldest.getValue().currentState != MIVariableObject.STATE_READY) {
+		    		break;
 		    	}
+		    	remove(eldest.getKey());
 		    }
 		    return varObj;
 		}
@@ -2540,6 +2583,7 @@ public class MIVariableManager implements ICommandControl {
 		public MIVariableObject remove(Object key) {
 			MIVariableObject varObj = super.remove(key);
 			if (varObj != null) {
+				fDeletedCount++;
 				varObj.deleteInGdb();
 			}
 			return varObj; 
@@ -2565,6 +2609,16 @@ public class MIVariableManager implements ICommandControl {
     
 	/** Our least recently used cache */
 	private final LRUVariableCache lruVariableList;
+
+	// Default maximum number of variable objects in the LRU
+	private static final int DEFAULT_VARIABLE_OBJECT_BUDGET = 1000;
+
+	/** Maximum number of variable objects in the LRU */
+	private int fVariableObjectBudget = DEFAULT_VARIABLE_OBJECT_BUDGET;
+
+	/** Number of variable objects created in GDB, and removed from the LRU */
+	private int fCreatedCount;
+	private int fDeletedCount;
 	
 	/** The list of root variable objects that have been updated */
 	private final LinkedList<MIRootVariableObject> updatedRootList = new LinkedList<MIRootVariableObject>();
@@ -2593,6 +2647,54 @@ public class MIVariableManager implements ICommandControl {
     	fSession.removeServiceEventListener(this);
 	}
 
+	/**
+	 * Sets the maximum number of variable objects that are kept.  When there are more,
+	 * the least recently used ones are deleted in GDB; they are created again if they
+	 * are needed later.
+	 * 
+	 * @since 4.6
+	 */
+	protected void setVariableObjectBudget(int budget) {
+		fVariableObjectBudget = Math.max(1, budget);
+	}
+
+	/**
+	 * @since 4.6
+	 */
+	public int getVariableObjectBudget() {
+		return fVariableObjectBudget;
+	}
+
+	/**
+	 * Returns the number of variable objects currently kept.
+	 * 
+	 * @since 4.6
+	 */
+	public int getVariableObjectCount() {
+		return lruVariableList.size();
+	}
+
+	/**
+	 * Returns the number of variable objects that were created in GDB, by 
+	 * -var-create or -var-list-children.
+	 * 
+	 * @since 4.6
+	 */
+	public int getCreatedVariableObjectCount() {
+		return fCreatedCount;
+	}
+
+	/**
+	 * Returns the number of variable objects that were removed, either because
+	 * the budget was exceeded, or because they went out of scope.  Variable objects
+	 * that are children of others are deleted in GDB together with their root.
+	 * 
+	 * @since 4.6
+	 */
+	public int getDeletedVariableObjectCount() {
+		return fDeletedCount;
+	}
+
     /**
      * @since 3.0
      */
@@ -3014,7 +3116,8 @@ public class MIVariableManager implements ICommandControl {
     				new DataRequestMonitor<MIVariableObject>(fSession.getExecutor(), drm) {
     					@Override
     					protected void handleSuccess() {
-    						getData().getChildren(exprCtx, ((ExprMetaGetChildren)command).getNumChildLimit(),
+    						ExprMetaGetChildren getChildren = (ExprMetaGetChildren)command;
+    						DataRequestMonitor<ChildrenInfo> childrenRm = 
     								new DataRequestMonitor<ChildrenInfo>(fSession.getExecutor(), drm) {
     									@Override
     									protected void handleSuccess() {
@@ -3023,7 +3126,12 @@ public class MIVariableManager implements ICommandControl {
     										drm.done();
     										processCommandDone(token, drm.getData());
     									}
-    								});
+    								};
+    						if (getChildren.getFrom() >= 0) {
+    							getData().getChildren(exprCtx, getChildren.getFrom(), getChildren.getNumChildLimit(), childrenRm);
+    						} else {
+    							getData().getChildren(exprCtx, getChildren.getNumChildLimit(), childrenRm);
+    						}
     					}
     				});
     	
@@ -3154,10 +3262,10 @@ public class MIVariableManager implements ICommandControl {
     	// fails miserably because all objects will have the same depth and we will confuse
     	// them.  Until we find a good solution, we have to clear our entire list of
     	// of variable objects (and delete them in GDB to avoid having too many).
-    	Iterator<Map.Entry<VariableObjectId, MIVariableObject>> iterator = lruVariableList.entrySet().iterator();
-    	while (iterator.hasNext()){
-    		iterator.next();
-    		iterator.remove();
+    	// Removing through the iterator would bypass LRUVariableCache.remove(),
+    	// which deletes the objects in GDB.
+    	for (VariableObjectId id : new ArrayList<VariableObjectId>(lruVariableList.keySet())) {
+    		lruVariableList.remove(id);
     	}
     }
     
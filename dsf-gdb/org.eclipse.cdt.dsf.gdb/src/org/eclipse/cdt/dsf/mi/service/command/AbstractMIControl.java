@@ -49,6 +49,14 @@ import org.eclipse.cdt.dsf.mi.service.IMICommandControl;
 import org.eclipse.cdt.dsf.mi.service.IMIContainerDMContext;
 import org.eclipse.cdt.dsf.mi.service.IMIExecutionDMContext;
 import org.eclipse.cdt.dsf.mi.service.command.commands.MICommand;
+import org.eclipse.cdt.dsf.mi.service.command.commands.MIDataListRegisterValues;
+import org.eclipse.cdt.dsf.mi.service.command.commands.MIDataReadMemory;
+import org.eclipse.cdt.dsf.mi.service.command.commands.MIDataReadMemoryBytes;
+import org.eclipse.cdt.dsf.mi.service.command.commands.MIStackInfoDepth;
+import org.eclipse.cdt.dsf.mi.service.command.commands.MIStackListArguments;
+import org.eclipse.cdt.dsf.mi.service.command.commands.MIStackListFrames;
+import org.eclipse.cdt.dsf.mi.service.command.commands.MIStackListLocals;
+import org.eclipse.cdt.dsf.mi.service.command.commands.MIVarListChildren;
 import org.eclipse.cdt.dsf.mi.service.command.commands.RawCommand;
 import org.eclipse.cdt.dsf.mi.service.command.output.MIConst;
 import org.eclipse.cdt.dsf.mi.service.command.output.MIInfo;
@@ -134,6 +142,14 @@ public abstract class AbstractMIControl extends AbstractDsfService
     private OutputStream fTracingStream = null;
 
     private CommandFactory fCommandFactory;
+
+    /**
+     * Maximum number of commands that are sent to the back end before their
+     * results are received.
+     */
+    private int fMaxPendingCommands = NUMBER_CONCURRENT_COMMANDS;
+
+    private final MICommandStatistics fCommandStatistics = new MICommandStatistics();
     
     public AbstractMIControl(DsfSession session) {
     	this(session, false, false, new CommandFactory());
@@ -184,6 +200,38 @@ public abstract class AbstractMIControl extends AbstractDsfService
     	return fTracingStream;
     }
     
+    /**
+     * Sets the maximum number of commands that are sent to the back end before
+     * their results are received.  The back end processes the commands one after
+     * the other, a larger number avoids a round trip between the results of a 
+     * command and sending the next one.  Commands that have not been sent yet 
+     * can still be removed, coalesced by the command caches or merged with 
+     * identical commands, see {@link #canMergeCommand(MICommand)}.
+     * <p>
+     * The default is 3.
+     * 
+     * @since 4.6
+     */
+    protected void setMaxPendingCommands(int count) {
+    	fMaxPendingCommands = Math.max(1, count);
+    }
+
+    /**
+     * @since 4.6
+     */
+    public int getMaxPendingCommands() {
+    	return fMaxPendingCommands;
+    }
+
+    /**
+     * Returns the latencies of the commands processed by this service.
+     * 
+     * @since 4.6
+     */
+    public MICommandStatistics getCommandStatistics() {
+    	return fCommandStatistics;
+    }
+
     /**
 	 * @since 3.0
 	 */
@@ -271,6 +319,10 @@ public abstract class AbstractMIControl extends AbstractDsfService
     	 *  First go through the commands which have been queueud and not yet sent to the backend.
     	 */
     	for (CommandHandle commandHandle : fCommandQueue) {
+    		for (CommandHandle merged : commandHandle.getMergedHandles()) {
+    			merged.getRequestMonitor().setStatus(genStatus("Connection is shut down")); //$NON-NLS-1$
+    			merged.getRequestMonitor().done();
+    		}
             if (commandHandle.getRequestMonitor() == null) continue;
             commandHandle.getRequestMonitor().setStatus(genStatus("Connection is shut down")); //$NON-NLS-1$
             commandHandle.getRequestMonitor().done();
@@ -282,6 +334,10 @@ public abstract class AbstractMIControl extends AbstractDsfService
     	 */
         synchronized(fRxCommands) {
             for (CommandHandle commandHandle : fRxCommands.values()) {
+        		for (CommandHandle merged : commandHandle.getMergedHandles()) {
+        			merged.getRequestMonitor().setStatus(genStatus("Connection is shut down")); //$NON-NLS-1$
+        			merged.getRequestMonitor().done();
+        		}
                 if (commandHandle.getRequestMonitor() == null) continue;
                 commandHandle.getRequestMonitor().setStatus(genStatus( "Connection is shut down")); //$NON-NLS-1$
                 commandHandle.getRequestMonitor().done();
@@ -295,6 +351,10 @@ public abstract class AbstractMIControl extends AbstractDsfService
         List<CommandHandle> txCommands = new ArrayList<CommandHandle>();
         fTxCommands.drainTo(txCommands);
         for (CommandHandle commandHandle : txCommands) {
+    		for (CommandHandle merged : commandHandle.getMergedHandles()) {
+    			merged.getRequestMonitor().setStatus(genStatus("Connection is shut down")); //$NON-NLS-1$
+    			merged.getRequestMonitor().done();
+    		}
             if (commandHandle.getRequestMonitor() == null) continue;
             commandHandle.getRequestMonitor().setStatus(genStatus("Connection is shut down")); //$NON-NLS-1$
             commandHandle.getRequestMonitor().done();
@@ -336,7 +396,19 @@ public abstract class AbstractMIControl extends AbstractDsfService
             rm.done();
         } else {
         	/*
-        	 *  We only allow three outstanding commands to be on the wire to the backend
+        	 *  An identical command that has not been sent yet will provide the result
+        	 *  for this one, too.
+        	 */
+        	CommandHandle mergeTarget = findMergeTarget(handle);
+        	if (mergeTarget != null) {
+        		mergeTarget.addMergedHandle(handle);
+        		fCommandStatistics.addMerged(miCommand.getOperation());
+        		processCommandQueued(handle);
+        		return handle;
+        	}
+
+        	/*
+        	 *  We only allow a few outstanding commands to be on the wire to the backend
         	 *  at any one time. This allows for coalescing as well as canceling
         	 *  existing commands on a state change. So we add it to the waiting list and let
         	 *  the user know they can now work with this item if need be.
@@ -344,7 +416,7 @@ public abstract class AbstractMIControl extends AbstractDsfService
         	fCommandQueue.add(handle);
             processCommandQueued(handle);
             
-            if (fRxCommands.size() < NUMBER_CONCURRENT_COMMANDS) {
+            if (getPendingCommandCount() < fMaxPendingCommands) {
                 // In a separate dispatch cycle.  This allows command listeners 
             	// to respond to the command queued event.  
                 getExecutor().execute(new DsfRunnable() {
@@ -359,7 +431,63 @@ public abstract class AbstractMIControl extends AbstractDsfService
         return handle;
     }
 
+    /**
+     * Returns whether the result of the given command may be shared with an
+     * identical command that is queued, but has not been sent to the back end 
+     * yet.  This is the case for commands that only read the state of the back
+     * end.  -var-update is not one of them, it resets the changes that the back
+     * end reports for the variable objects.
+     *
+     * @since 4.6
+     */
+    protected boolean canMergeCommand(MICommand<?> command) {
+    	return command instanceof MIVarListChildren
+    		|| command instanceof MIDataReadMemory
+    		|| command instanceof MIDataReadMemoryBytes
+    		|| command instanceof MIDataListRegisterValues
+    		|| command instanceof MIStackListFrames
+    		|| command instanceof MIStackInfoDepth
+    		|| command instanceof MIStackListLocals
+    		|| command instanceof MIStackListArguments;
+    }
+
+    /**
+     * Searches the commands that have not been sent for one that is identical to
+     * the given one, and that is followed by commands that can be merged, only.
+     * Otherwise the state of the back end could change between the two commands.
+     */
+    private CommandHandle findMergeTarget(CommandHandle handle) {
+    	if (handle.getRequestMonitor() == null || !canMergeCommand(handle.getCommand()))
+    		return null;
+    	for (int i = fCommandQueue.size() - 1; i >= 0; i--) {
+    		CommandHandle queued = fCommandQueue.get(i);
+    		if (queued.getCommand().equals(handle.getCommand()) && queued.getRequestMonitor() != null)
+    			return queued;
+    		if (!canMergeCommand(queued.getCommand()))
+    			return null;
+    	}
+    	return null;
+    }
+
+    /**
+     * Number of commands handed to the transmitter thread, for which no result 
+     * has been received yet.
+     */
+    private int getPendingCommandCount() {
+    	return fTxCommands.size() + fRxCommands.size();
+    }
+
+    /**
+     * Sends the next command of the queue, followed by more commands while 
+     * fewer than the maximum number of commands are pending.
+     */
     private void processNextQueuedCommand() {
+    	do {
+    		sendNextQueuedCommand();
+    	} while (!fCommandQueue.isEmpty() && getPendingCommandCount() < fMaxPendingCommands);
+    }
+
+    private void sendNextQueuedCommand() {
 		if (fCommandQueue.size() > 0) {
 			final CommandHandle handle = fCommandQueue.remove(0);
 			if (handle != null) {
@@ -428,8 +556,24 @@ public abstract class AbstractMIControl extends AbstractDsfService
     	synchronized(fCommandQueue) {
     		
     		for ( CommandHandle handle : fCommandQueue ) {
+    			final CommandHandle merged = handle.removeMergedHandle(token);
+    			if ( merged != null ) {
+                    getExecutor().execute(new DsfRunnable() {
+                    	@Override
+                        public void run() {
+                        	processCommandRemoved(merged);
+                        }
+                    });
+    				break;
+    			}
     			if ( handle.equals(token)) {
-    				fCommandQueue.remove(handle);
+    				CommandHandle replacement = handle.createReplacement();
+    				if (replacement != null) {
+    					// Commands merged into the removed one still need to be sent.
+    					fCommandQueue.set(fCommandQueue.indexOf(handle), replacement);
+    				} else {
+    					fCommandQueue.remove(handle);
+    				}
     				
     				final CommandHandle finalHandle = handle;
                     getExecutor().execute(new DsfRunnable() {
@@ -551,6 +695,9 @@ public abstract class AbstractMIControl extends AbstractDsfService
         private MICommand<MIInfo> fCommand;
         private DataRequestMonitor<MIInfo> fRequestMonitor;
         private int fTokenId ;
+        private long fSentTime;
+        /** Identical commands that receive the result of this one, or <code>null</code>. */
+        private List<CommandHandle> fMergedHandles;
         
         CommandHandle(MICommand<MIInfo> c, DataRequestMonitor<MIInfo> d) {
             fCommand = c; 
@@ -566,6 +713,51 @@ public abstract class AbstractMIControl extends AbstractDsfService
         // be sent
         public void generateTokenId() { fTokenId = getNewTokenId(); }
         public Integer getTokenId() { return fTokenId; }
+
+        void addMergedHandle(CommandHandle handle) {
+        	if (fMergedHandles == null) {
+        		fMergedHandles = new ArrayList<CommandHandle>();
+        	}
+        	fMergedHandles.add(handle);
+        }
+
+        /**
+         * Removes the given merged command, returns its handle or <code>null</code>
+         * if it was not merged into this one.
+         */
+        CommandHandle removeMergedHandle(ICommandToken token) {
+        	if (fMergedHandles != null) {
+        		int index = fMergedHandles.indexOf(token);
+        		if (index >= 0) {
+        			return fMergedHandles.remove(index);
+        		}
+        	}
+        	return null;
+        }
+
+        List<CommandHandle> getMergedHandles() {
+        	if (fMergedHandles == null) {
+        		return Collections.emptyList();
+        	}
+        	return fMergedHandles;
+        }
+
+        /**
+         * Creates the handle that takes over the merged commands, when this one
+         * is removed from the queue. Returns <code>null</code> if there are no 
+         * merged commands.
+         */
+        CommandHandle createReplacement() {
+        	if (fMergedHandles == null || fMergedHandles.isEmpty()) {
+        		return null;
+        	}
+        	CommandHandle replacement = fMergedHandles.remove(0);
+        	for (CommandHandle merged : fMergedHandles) {
+        		replacement.addMergedHandle(merged);
+        	}
+        	fMergedHandles = null;
+        	return replacement;
+        }
         
         public int getStackFrameId() {
         	IFrameDMContext frameCtx = DMContexts.getAncestorOfType(fCommand.getContext(), IFrameDMContext.class);
@@ -636,6 +828,7 @@ public abstract class AbstractMIControl extends AbstractDsfService
                      */
                     if (!(commandHandle.getCommand() instanceof RawCommand)) {
                     	// RawCommands will not get an answer, so we cannot put them in the receive queue.
+                    	commandHandle.fSentTime = System.nanoTime();
                     	fRxCommands.put(commandHandle.getTokenId(), commandHandle);
                     }
                 }
@@ -900,6 +1093,9 @@ public abstract class AbstractMIControl extends AbstractDsfService
                 final CommandHandle commandHandle = fRxCommands.remove(id);
 
                 if (commandHandle != null) {
+                	fCommandStatistics.addLatency(commandHandle.getCommand().getOperation(), 
+                			System.nanoTime() - commandHandle.fSentTime);
+
                     final MIOutput response = new MIOutput(
                         rr, fAccumulatedOOBRecords.toArray(new MIOOBRecord[fAccumulatedOOBRecords.size()]) );
                     fAccumulatedOOBRecords.clear();
@@ -926,6 +1122,10 @@ public abstract class AbstractMIControl extends AbstractDsfService
 							Exception exception = new Exception(message);
 							rm.setStatus(new Status(IStatus.ERROR, GdbPlugin.PLUGIN_ID, REQUEST_FAILED, status, exception)); 
 						}
+						for (CommandHandle merged : commandHandle.getMergedHandles()) {
+							merged.getRequestMonitor().setData(result);
+							merged.getRequestMonitor().setStatus(rm.getStatus());
+						}
 						
 						/*
 						 *  We need to complete the command on the DSF thread for data security.
@@ -940,11 +1140,17 @@ public abstract class AbstractMIControl extends AbstractDsfService
 	                            if (commandHandle.getRequestMonitor() != null) {
 	                                commandHandle.getRequestMonitor().done();
 	                            }
+	                            for (CommandHandle merged : commandHandle.getMergedHandles()) {
+	                            	merged.getRequestMonitor().done();
+	                            }
 	                            
 	                            /*
 	                             *  Now tell the generic listeners about it.
 	                             */
 	                            processCommandDone(commandHandle, finalResult);
+	                            for (CommandHandle merged : commandHandle.getMergedHandles()) {
+	                            	processCommandDone(merged, finalResult);
+	                            }
 	                        }
 	                        @Override
                             public String toString() {
@@ -1150,6 +1356,13 @@ public abstract class AbstractMIControl extends AbstractDsfService
              *  Now tell the generic listeners about it.
              */
             processCommandDone(commandHandle, info);
+
+            for (CommandHandle merged : commandHandle.getMergedHandles()) {
+            	merged.getRequestMonitor().setData(info);
+            	merged.getRequestMonitor().setStatus(rm.getStatus());
+            	merged.getRequestMonitor().done();
+            	processCommandDone(merged, info);
+            }
 		}
     }
 }
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.dsf.mi.service.command;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects the latencies of the MI commands sent to the back end, that is
+ * the time from sending a command until its result record is received.
+ * The latencies are grouped by the operation of the command, e.g. "-var-update".
+ * <p>
+ * The statistics are updated from the receiving thread of the command control,
+ * all methods are thread-safe.
+ *
+ * @since 4.6
+ */
+public class MICommandStatistics {
+
+    private static class Entry {
+        int fCount;
+        int fMerged;
+        long fTotalNanos;
+        long fMaxNanos;
+    }
+
+    private final Map<String, Entry> fEntries = new TreeMap<String, Entry>();
+
+    private Entry getEntry(String operation) {
+        Entry entry = fEntries.get(operation);
+        if (entry == null) {
+            entry = new Entry();
+            fEntries.put(operation, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Records the latency of a command.
+     */
+    public synchronized void addLatency(String operation, long nanos) {
+        Entry entry = getEntry(operation);
+        entry.fCount++;
+        entry.fTotalNanos += nanos;
+        entry.fMaxNanos = Math.max(entry.fMaxNanos, nanos);
+    }
+
+    /**
+     * Records that a command was not sent, because it was merged into an identical
+     * command that was waiting to be sent.
+     */
+    public synchronized void addMerged(String operation) {
+        getEntry(operation).fMerged++;
+    }
+
+    /**
+     * Returns the number of results received for the given operation.
+     */
+    public synchronized int getCount(String operation) {
+        Entry entry = fEntries.get(operation);
+        return entry == null ? 0 : entry.fCount;
+    }
+
+    /**
+     * Returns the number of commands for the given operation that were merged into
+     * other commands.
+     */
+    public synchronized int getMergedCount(String operation) {
+        Entry entry = fEntries.get(operation);
+        return entry == null ? 0 : entry.fMerged;
+    }
+
+    /**
+     * Returns the average latency for the given operation in nanoseconds.
+     */
+    public synchronized long getAverageLatency(String operation) {
+        Entry entry = fEntries.get(operation);
+        return entry == null || entry.fCount == 0 ? 0 : entry.fTotalNanos / entry.fCount;
+    }
+
+    /**
+     * Returns the maximum latency for the given operation in nanoseconds.
+     */
+    public synchronized long getMaxLatency(String operation) {
+        Entry entry = fEntries.get(operation);
+        return entry == null ? 0 : entry.fMaxNanos;
+    }
+
+    public synchronized void reset() {
+        fEntries.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder buf = new StringBuilder();
+        for (Map.Entry<String, Entry> e : fEntries.entrySet()) {
+            Entry entry = e.getValue();
+            buf.append(e.getKey())
+               .append(": count=").append(entry.fCount) //$NON-NLS-1$
+               .append(", merged=").append(entry.fMerged) //$NON-NLS-1$
+               .append(", avg=").append(entry.fCount == 0 ? 0 : entry.fTotalNanos / entry.fCount / 1000).append("us") //$NON-NLS-1$ //$NON-NLS-2$
+               .append(", max=").append(entry.fMaxNanos / 1000).append("us\n"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return buf.toString();
+    }
+}
@@ -18,6 +18,7 @@ import org.eclipse.cdt.dsf.mi.service.command.output.ExprMetaGetChildrenInfo;
 public class ExprMetaGetChildren extends ExprMetaCommand<ExprMetaGetChildrenInfo> {
 
 	private int numChildLimit = IMIExpressions.CHILD_COUNT_LIMIT_UNSPECIFIED;
+	private int from = -1;
 	
 	public ExprMetaGetChildren(IExpressionDMContext ctx) {
 		super(ctx);
@@ -34,6 +35,17 @@ public class ExprMetaGetChildren extends ExprMetaCommand<ExprMetaGetChildrenInfo
 		this.numChildLimit = numChildLimit;
 	}
 	
+	/**
+	 * Requests the children in the range [from, to) only.
+	 * 
+	 * @since 4.6
+	 */
+	public ExprMetaGetChildren(IExpressionDMContext ctx, int from, int to) {
+		super(ctx);
+		this.from = from;
+		this.numChildLimit = to;
+	}
+	
 	/**
 	 * @since 4.0
 	 */
@@ -41,11 +53,22 @@ public class ExprMetaGetChildren extends ExprMetaCommand<ExprMetaGetChildrenInfo
 		return numChildLimit;
 	}
 
+	/**
+	 * @return The index of the first child requested, or -1 if all children up to
+	 *         {@link #getNumChildLimit()} are requested.
+	 * 
+	 * @since 4.6
+	 */
+	public int getFrom() {
+		return from;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = super.hashCode();
 		result = prime * result + numChildLimit;
+		result = prime * result + from;
 		return result;
 	}
 
@@ -58,6 +81,8 @@ public class ExprMetaGetChildren extends ExprMetaCommand<ExprMetaGetChildrenInfo
 		ExprMetaGetChildren other = (ExprMetaGetChildren) obj;
 		if (numChildLimit != other.numChildLimit)
 			return false;
+		if (from != other.from)
+			return false;
 		return true;
 	}
 }
\ No newline at end of file
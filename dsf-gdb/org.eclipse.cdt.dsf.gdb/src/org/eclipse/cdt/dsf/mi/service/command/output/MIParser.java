@@ -97,6 +97,9 @@ public class MIParser {
     public String cliPrompt = primaryPrompt;
     public String secondaryPrompt = ">"; //$NON-NLS-1$
 
+    private static final MIValue[] NO_VALUES = new MIValue[0];
+    private static final MIResult[] NO_RESULTS = new MIResult[0];
+
     public RecordType getRecordType(String line) {
         int i = 0;
         if (Character.isDigit(line.charAt(0))) {
@@ -120,37 +123,37 @@ public class MIParser {
      * 
      */
     public MIResultRecord parseMIResultRecord(String line) {
-        StringBuffer buffer = new StringBuffer(line);
+        MIInput input = new MIInput(line);
         // Fetch the Token/Id
-        int id = parseToken(buffer);
+        int id = parseToken(input);
         // Consume the '^'
-        buffer.deleteCharAt(0);
+        input.skip();
         
         MIResultRecord rr = new MIResultRecord();
         rr.setToken(id);
-        if (buffer.toString().startsWith(MIResultRecord.DONE)) {
-            rr.setResultClass(MIResultRecord.DONE);
-            buffer.delete(0, MIResultRecord.DONE.length());
-        } else if (buffer.toString().startsWith(MIResultRecord.ERROR)) {
-            rr.setResultClass(MIResultRecord.ERROR);
-            buffer.delete(0, MIResultRecord.ERROR.length());
-        } else if (buffer.toString().startsWith(MIResultRecord.EXIT)) {
-            rr.setResultClass(MIResultRecord.EXIT);
-            buffer.delete(0, MIResultRecord.EXIT.length());
-        } else if (buffer.toString().startsWith(MIResultRecord.RUNNING)) {
-            rr.setResultClass(MIResultRecord.RUNNING);
-            buffer.delete(0, MIResultRecord.RUNNING.length());
-        } else if (buffer.toString().startsWith(MIResultRecord.CONNECTED)) {
-            rr.setResultClass(MIResultRecord.CONNECTED);
-            buffer.delete(0, MIResultRecord.CONNECTED.length());
+        String resultClass = null;
+        if (input.startsWith(MIResultRecord.DONE)) {
+            resultClass = MIResultRecord.DONE;
+        } else if (input.startsWith(MIResultRecord.ERROR)) {
+            resultClass = MIResultRecord.ERROR;
+        } else if (input.startsWith(MIResultRecord.EXIT)) {
+            resultClass = MIResultRecord.EXIT;
+        } else if (input.startsWith(MIResultRecord.RUNNING)) {
+            resultClass = MIResultRecord.RUNNING;
+        } else if (input.startsWith(MIResultRecord.CONNECTED)) {
+            resultClass = MIResultRecord.CONNECTED;
         } else {
             // Error throw an exception?
         }
+        if (resultClass != null) {
+            rr.setResultClass(resultClass);
+            input.skip(resultClass.length());
+        }
 
         // Results are separated by commas.
-        if (buffer.length() > 0 && buffer.charAt(0) == ',') {
-            buffer.deleteCharAt(0);
-            MIResult[] res = processMIResults(new FSB(buffer));
+        if (input.current() == ',') {
+            input.skip();
+            MIResult[] res = processMIResults(input);
             rr.setMIResults(res);
         }
         return rr;
@@ -160,13 +163,13 @@ public class MIParser {
      * Find OutOfBand Records depending on the starting token.
      */
     public MIOOBRecord parseMIOOBRecord(String line) {
-        StringBuffer buffer = new StringBuffer(line);
-        int id = parseToken(buffer);
+        MIInput input = new MIInput(line);
+        int id = parseToken(input);
         MIOOBRecord oob = null;
-        char c = buffer.length() != 0 ? buffer.charAt(0) : 0;
+        char c = input.current();
         if (c == '*' || c == '+' || c == '=') {
             // Consume the first char
-            buffer.deleteCharAt(0);
+            input.skip();
             MIAsyncRecord async = null;
             switch (c) {
                 case '*' :
@@ -186,22 +189,21 @@ public class MIParser {
             }
             async.setToken(id);
             // Extract the Async-Class
-            int i = buffer.toString().indexOf(',');
+            int i = input.indexOf(',');
             if (i != -1) {
-                String asyncClass = buffer.substring(0, i);
-                async.setAsyncClass(asyncClass);
+                async.setAsyncClass(input.substring(i));
                 // Consume the async-class and the comma
-                buffer.delete(0, i + 1);
+                input.skip(i + 1);
             } else {
-                async.setAsyncClass(buffer.toString().trim());
-                buffer.setLength(0);
+                async.setAsyncClass(input.rest().trim());
+                input.skipAll();
             }
-            MIResult[] res = processMIResults(new FSB(buffer));
+            MIResult[] res = processMIResults(input);
             async.setMIResults(res);
             oob = async;
         } else if (c == '~' || c == '@' || c == '&') {
             // Consume the first char
-            buffer.deleteCharAt(0);
+            input.skip();
             MIStreamRecord stream = null;
             switch (c) {
                 case '~' :
@@ -220,12 +222,12 @@ public class MIParser {
                 	stream = new MIConsoleStreamOutput();
             }
             // translateCString() assumes that the leading " is deleted
-            if (buffer.length() > 0 && buffer.charAt(0) == '"') {
-                buffer.deleteCharAt(0);
+            if (input.current() == '"') {
+                input.skip();
             }
             // Don't parse any backslashes - backslashes within stream records
             // aren't escaped.
-            stream.setCString(translateCString(new FSB(buffer), false));
+            stream.setCString(translateCString(input, false));
             oob = stream;
         } else {
             // Badly format MI line, just pass it to the user as target stream
@@ -236,21 +238,21 @@ public class MIParser {
         return oob;
     }
     
-    private int parseToken(StringBuffer buffer) {
+    private int parseToken(MIInput input) {
         int id = -1;
         // Fetch the Token/Id
-        if (Character.isDigit(buffer.charAt(0))) {
+        if (Character.isDigit(input.charAt(0))) {
             int i = 1;
-            while (i < buffer.length() && Character.isDigit(buffer.charAt(i))) {
+            while (i < input.length() && Character.isDigit(input.charAt(i))) {
                 i++;
             }
-            String numbers = buffer.substring(0, i);
+            String numbers = input.substring(i);
             try {
                 id = Integer.parseInt(numbers);
             } catch (NumberFormatException e) {
             }
             // Consume the token.
-            buffer.delete(0, i);
+            input.skip(i);
         }
         return id;
     }
@@ -259,15 +261,15 @@ public class MIParser {
      * Assuming that the usual leading comma was consumed.
      * Extract the MI Result comma seperated responses.
      */
-    private MIResult[] processMIResults(FSB buffer) {
+    private MIResult[] processMIResults(MIInput input) {
         List<MIResult> aList = new ArrayList<MIResult>();
-        MIResult result = processMIResult(buffer);
+        MIResult result = processMIResult(input);
         if (result != null) {
             aList.add(result);
         }
-        while (buffer.length() > 0 && buffer.charAt(0) == ',') {
-            buffer.deleteCharAt(0);
-            result = processMIResult(buffer);
+        while (input.current() == ',') {
+            input.skip();
+            result = processMIResult(input);
             if (result != null) {
                 aList.add(result);
             }
@@ -276,26 +278,26 @@ public class MIParser {
     }
 
     /**
-     * Construct the DsfMIResult.  Characters will be consume/delete
+     * Construct the DsfMIResult.  Characters will be consumed
      * moving forward constructing the AST.
      */
-    private MIResult processMIResult(FSB buffer) {
+    private MIResult processMIResult(MIInput input) {
         MIResult result = new MIResult();
         int equal;
-        if (buffer.length() > 0 && Character.isLetter(buffer.charAt(0)) && (equal = buffer.indexOf('=')) != -1) {
-            String variable = buffer.substring(0, equal);
+        if (input.length() > 0 && Character.isLetter(input.current()) && (equal = input.indexOf('=')) != -1) {
+            String variable = input.substring(equal);
             result.setVariable(variable);
-            buffer.delete(0, equal + 1);
-            MIValue value = processMIValue(buffer);
+            input.skip(equal + 1);
+            MIValue value = processMIValue(input);
             result.setMIValue(value);
-        } else if(buffer.length()>0 && buffer.charAt(0)=='"') {
+        } else if (input.current() == '"') {
             // This an error but we just swallow it and move on.
-            MIValue value = processMIValue(buffer);
+            MIValue value = processMIValue(input);
             result.setMIValue(value);
         } else {
-            result.setVariable(buffer.toString());
+            result.setVariable(input.rest());
             result.setMIValue(new MIConst()); // Empty string:???
-            buffer.setLength(0);
+            input.skipAll();
         }
         return result;
     }
@@ -303,118 +305,126 @@ public class MIParser {
     /**
      * Find a DsfMIValue implementation or return null.
      */
-    private MIValue processMIValue(FSB buffer) {
+    private MIValue processMIValue(MIInput input) {
         MIValue value = null;
-        if (buffer.length() > 0) {
-            if (buffer.charAt(0) == '{') {
-                buffer.deleteCharAt(0);
-                value = processMITuple(buffer);
-            } else if (buffer.charAt(0) == '[') {
-                buffer.deleteCharAt(0);
-                value = processMIList(buffer);
-            } else if (buffer.charAt(0) == '"') {
-                buffer.deleteCharAt(0);
-                MIConst cnst = new MIConst();
-                // Parse backslashes - backslashes within result
-                // and out of band records are escaped.
-                cnst.setCString(translateCString(buffer, true));
-                value = cnst;
-            }
+        switch (input.current()) {
+        case '{':
+            input.skip();
+            value = processMITuple(input);
+            break;
+        case '[':
+            input.skip();
+            value = processMIList(input);
+            break;
+        case '"':
+            input.skip();
+            MIConst cnst = new MIConst();
+            // Parse backslashes - backslashes within result
+            // and out of band records are escaped.
+            cnst.setCString(translateCString(input, true));
+            value = cnst;
+            break;
         }
         return value;
     }
 
     /**
-     * Assuming the starting '{' was deleted form the StringBuffer,
-     * go to the closing '}' consuming/deleting all the characters.
+     * Assuming the starting '{' was consumed, go to the closing '}'
+     * consuming all the characters.
      * This is usually call by processMIvalue();
      */
-    private MIValue processMITuple(FSB buffer) {
+    private MIValue processMITuple(MIInput input) {
         MITuple tuple = new MITuple();
-        List<MIValue> valueList = new ArrayList<MIValue>();
-        List<MIResult> resultList = new ArrayList<MIResult>();
-        // Catch closing '}'
-        while (buffer.length() > 0 && buffer.charAt(0) != '}') {
-            // Try for the DsfMIValue first
-            MIValue value = processMIValue(buffer);
-            if (value != null) {
-                valueList.add(value);
-            } else {
-                MIResult result = processMIResult(buffer);
-                if (result != null) {
-                    resultList.add(result);
-                }
-            }
-            if (buffer.length() > 0 && buffer.charAt(0) == ',') {
-                buffer.deleteCharAt(0);
-            }
-        }
-        if (buffer.length() > 0 && buffer.charAt(0) == '}') {
-            buffer.deleteCharAt(0);
-        }
-        MIValue[] values = valueList.toArray(new MIValue[valueList.size()]);
-        MIResult[] res = resultList.toArray(new MIResult[resultList.size()]);
-        tuple.setMIValues(values);
-        tuple.setMIResults(res);
+        processMIValuesAndResults(input, '}', tuple);
         return tuple;
     }
 
     /**
-     * Assuming the leading '[' was deleted, find the closing
-     * ']' consuming/delete chars from the StringBuffer.
+     * Assuming the leading '[' was consumed, find the closing
+     * ']' consuming all the characters.
      */
-    private MIValue processMIList(FSB buffer) {
+    private MIValue processMIList(MIInput input) {
         MIList list = new MIList();
-        List<MIValue> valueList = new ArrayList<MIValue>();
-        List<MIResult> resultList = new ArrayList<MIResult>();
-        // catch closing ']'
-        while (buffer.length() > 0 && buffer.charAt(0) != ']') {
+        processMIValuesAndResults(input, ']', list);
+        return list;
+    }
+
+    private void processMIValuesAndResults(MIInput input, char closing, MIValue target) {
+        List<MIValue> valueList = null;
+        List<MIResult> resultList = null;
+        // Catch closing character
+        while (input.length() > 0 && input.current() != closing) {
             // Try for the DsfMIValue first
-            MIValue value = processMIValue(buffer);
+            MIValue value = processMIValue(input);
             if (value != null) {
+                if (valueList == null) {
+                    valueList = new ArrayList<MIValue>();
+                }
                 valueList.add(value);
             } else {
-                MIResult result = processMIResult(buffer);
+                MIResult result = processMIResult(input);
                 if (result != null) {
+                    if (resultList == null) {
+                        resultList = new ArrayList<MIResult>();
+                    }
                     resultList.add(result);
                 }
             }
-            if (buffer.length() > 0 && buffer.charAt(0) == ',') {
-                buffer.deleteCharAt(0);
+            if (input.current() == ',') {
+                input.skip();
             }
         }
-        if (buffer.length() > 0 && buffer.charAt(0) == ']') {
-            buffer.deleteCharAt(0);
+        if (input.current() == closing) {
+            input.skip();
+        }
+        MIValue[] values = valueList == null ? NO_VALUES : valueList.toArray(new MIValue[valueList.size()]);
+        MIResult[] res = resultList == null ? NO_RESULTS : resultList.toArray(new MIResult[resultList.size()]);
+        if (target instanceof MITuple) {
+            ((MITuple) target).setMIValues(values);
+            ((MITuple) target).setMIResults(res);
+        } else {
+            ((MIList) target).setMIValues(values);
+            ((MIList) target).setMIResults(res);
         }
-        MIValue[] values = valueList.toArray(new MIValue[valueList.size()]);
-        MIResult[] res = resultList.toArray(new MIResult[resultList.size()]);
-        list.setMIValues(values);
-        list.setMIResults(res);
-        return list;
     }
 
     /**
      * MI C-String rather MIConst values are enclosed in double quotes
      * and any double quotes or backslashes in the string are escaped.
-     * Assuming the starting double quote was removed. This method will
+     * Assuming the starting double quote was consumed. This method will
      * stop at the closing double quote, remove the extra backslash escaping
      * and return the string __without__ the enclosing double quotes. The
-     * original string buffer will move forward.
-     * @param buffer The string buffer to read from.
+     * input will move forward.
+     * @param input The input to read from.
      * @param parseBackslashes Defines whether backslashes should be parsed.
      * This parameter is necessary to differentiate between records which
      * contain escaped backslashes and records which do not.
      * @return The translated C string.
      */
-    private String translateCString(FSB buffer, boolean parseBackslashes) {
-        boolean escape = false;
-        boolean closingQuotes = false;
-
-        StringBuffer sb = new StringBuffer();
+    private String translateCString(MIInput input, boolean parseBackslashes) {
+        final String str = input.fString;
+        final int start = input.fPos;
+        final int end = str.length();
+
+        // Strings without escapes are copied in one go.
+        int index = start;
+        while (index < end) {
+            char c = str.charAt(index);
+            if (c == '"') {
+                input.fPos = index + 1;
+                return str.substring(start, index);
+            }
+            if (c == '\\') {
+                break;
+            }
+            index++;
+        }
 
-        int index = 0;
-        for (; index < buffer.length() && !closingQuotes; index++) {
-            char c = buffer.charAt(index);
+        boolean escape = false;
+        StringBuilder sb = new StringBuilder(index - start + 16);
+        sb.append(str, start, index);
+        for (; index < end; index++) {
+            char c = str.charAt(index);
             if (c == '\\') {
                 if (escape) {
                     sb.append(c);
@@ -431,7 +441,8 @@ public class MIParser {
                     escape = false;
                 } else {
                     // Bail out.
-                    closingQuotes = true;
+                    index++;
+                    break;
                 }
             } else {
                 if (escape) {
@@ -441,7 +452,7 @@ public class MIParser {
                 escape = false;
             }
         }
-        buffer.delete(0, index);
+        input.fPos = index;
         return sb.toString();
     }
 
@@ -468,6 +479,64 @@ public class MIParser {
         return true;
     }
 
+    /**
+     * Read-only view of a line of output that is consumed from the front,
+     * allowing the parser to process a record in a single pass without
+     * copying or modifying the line.
+     */
+    private static final class MIInput {
+        final String fString;
+        int fPos;
+
+        MIInput(String str) {
+            fString = str;
+        }
+
+        int length() {
+            return fString.length() - fPos;
+        }
+
+        char charAt(int index) {
+            return fString.charAt(fPos + index);
+        }
+
+        /**
+         * Returns the current character, or 0 at the end of the input.
+         */
+        char current() {
+            return fPos < fString.length() ? fString.charAt(fPos) : 0;
+        }
+
+        void skip() {
+            fPos++;
+        }
+
+        void skip(int count) {
+            fPos += count;
+        }
+
+        void skipAll() {
+            fPos = fString.length();
+        }
+
+        boolean startsWith(String prefix) {
+            return fString.startsWith(prefix, fPos);
+        }
+
+        int indexOf(char c) {
+            int i = fString.indexOf(c, fPos);
+            return i < 0 ? -1 : i - fPos;
+        }
+
+        String substring(int end) {
+            return fString.substring(fPos, fPos + end);
+        }
+
+        String rest() {
+            return fString.substring(fPos);
+        }
+    }
+
     /** 
      * Fast String Buffer class. MIParser does a lot
      * of deleting off the front of a string, that's clearly
@@ -10,6 +10,10 @@
  *******************************************************************************/
 package org.eclipse.cdt.dsf.mi.service;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import org.eclipse.cdt.dsf.debug.service.IExpressions;
 import org.eclipse.cdt.dsf.debug.service.IExpressions.IExpressionDMContext;
 import org.eclipse.cdt.dsf.mi.service.MIExpressions.MIExpressionDMC;
 
@@ -45,4 +49,41 @@ public class ClassAccessor {
 			return miExprDmc.getRelativeExpression();
 		}
 	}
+
+	/**
+	 * Gives access to the variable object manager of the expressions service.
+	 * The test plug-in is not in the same class loader as the service, so the
+	 * non-public members are reached through reflection.
+	 */
+	public static class MIVariableManagerAccessor {
+		private MIVariableManager fVarManager;
+
+		public MIVariableManagerAccessor(IExpressions service) throws Exception {
+			Field field = MIExpressions.class.getDeclaredField("varManager");
+			field.setAccessible(true);
+			fVarManager = (MIVariableManager) field.get(service);
+		}
+
+		public void setVariableObjectBudget(int budget) throws Exception {
+			Method method = MIVariableManager.class.getDeclaredMethod("setVariableObjectBudget", int.class);
+			method.setAccessible(true);
+			method.invoke(fVarManager, budget);
+		}
+
+		public int getVariableObjectBudget() {
+			return fVarManager.getVariableObjectBudget();
+		}
+
+		public int getVariableObjectCount() {
+			return fVarManager.getVariableObjectCount();
+		}
+
+		public int getCreatedVariableObjectCount() {
+			return fVarManager.getCreatedVariableObjectCount();
+		}
+
+		public int getDeletedVariableObjectCount() {
+			return fVarManager.getDeletedVariableObjectCount();
+		}
+	}
 }
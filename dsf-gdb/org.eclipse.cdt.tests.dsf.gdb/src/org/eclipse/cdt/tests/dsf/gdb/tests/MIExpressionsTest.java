@@ -42,6 +42,7 @@ import org.eclipse.cdt.dsf.debug.service.IRunControl.StepType;
 import org.eclipse.cdt.dsf.debug.service.IStack.IFrameDMContext;
 import org.eclipse.cdt.dsf.debug.service.IStack.IVariableDMData;
 import org.eclipse.cdt.dsf.mi.service.ClassAccessor.MIExpressionDMCAccessor;
+import org.eclipse.cdt.dsf.mi.service.ClassAccessor.MIVariableManagerAccessor;
 import org.eclipse.cdt.dsf.mi.service.MIExpressions;
 import org.eclipse.cdt.dsf.mi.service.MIExpressions.MIExpressionDMC;
 import org.eclipse.cdt.dsf.mi.service.command.events.MIStoppedEvent;
@@ -3429,6 +3430,83 @@ public class MIExpressionsTest extends BaseTestCase {
 	    }
     }
 
+    /**
+     * This test verifies that requesting a range of the children of an array
+     * only creates the children of that range, and that an empty range has
+     * no children.
+     */
+    @Test
+    public void testArrayChildrenRange() throws Throwable {
+    	MIStoppedEvent stoppedEvent = SyncUtil.runToLocation("testArrays");
+
+        IFrameDMContext frameDmc = SyncUtil.getStackFrame(stoppedEvent.getDMContext(), 0);
+        MIVariableManagerAccessor varManager = new MIVariableManagerAccessor(fExpService);
+
+        // int array_simple[10];
+	    IExpressionDMContext arraySimpleExprDMC = SyncUtil.createExpression(frameDmc, "array_simple");
+	    getChildrenCount(arraySimpleExprDMC, 10);
+
+	    // The children of arrays are not variable objects until they are used
+	    int created = varManager.getCreatedVariableObjectCount();
+	    getChildren(arraySimpleExprDMC, 2, 3, new String[] { "array_simple[2]", "array_simple[3]", "array_simple[4]" });
+	    getChildren(arraySimpleExprDMC, 8, 5, new String[] { "array_simple[8]", "array_simple[9]" });
+	    getChildren(arraySimpleExprDMC, 5, 0, new String[0]);
+	    getChildren(arraySimpleExprDMC, 20, 0, new String[0]);
+	    assertEquals(created, varManager.getCreatedVariableObjectCount());
+
+	    // The children of a range of the last partition of int array_int[24321]
+	    IExpressionDMContext arrayIntExprDMC = SyncUtil.createExpression(frameDmc, "array_int");
+	    IExpressionDMContext[] arrayIntPartitions =
+		    	getChildren(arrayIntExprDMC, new String[] {"*((array_int)+0)@10000", "*((array_int)+10000)@10000", "*((array_int)+20000)@4321"});
+	    IExpressionDMContext[] lastPartitions = getChildren(arrayIntPartitions[2], 43, 1, new String[] { "*((array_int)+24300)@21" });
+	    getChildren(lastPartitions[0], 19, 5, new String[] { "array_int[24319]", "array_int[24320]" });
+	    getChildren(lastPartitions[0], 3, 0, new String[0]);
+
+	    // The range of a struct is taken from its variable object children
+	    IExpressionDMContext arrayFooElementExprDMC = SyncUtil.createExpression(frameDmc, "array_foo[5]");
+	    getChildren(arrayFooElementExprDMC, 2, 2, new String[] { "a", "b" });
+	    getChildren(arrayFooElementExprDMC, 0, 5, new String[] { "bar", "bar2", "a", "b", "c" });
+    }
+
+    /**
+     * This test verifies that the number of variable objects is bounded by
+     * the variable object budget, and that the least recently used ones are
+     * deleted and created again when they are needed.
+     */
+    @Test
+    public void testVariableObjectBudget() throws Throwable {
+    	MIStoppedEvent stoppedEvent = SyncUtil.runToLocation("testArrays");
+
+        IFrameDMContext frameDmc = SyncUtil.getStackFrame(stoppedEvent.getDMContext(), 0);
+        MIVariableManagerAccessor varManager = new MIVariableManagerAccessor(fExpService);
+        final int budget = 5;
+        varManager.setVariableObjectBudget(budget);
+        assertEquals(budget, varManager.getVariableObjectBudget());
+
+        int created = varManager.getCreatedVariableObjectCount();
+        int deleted = varManager.getDeletedVariableObjectCount();
+        int count = varManager.getVariableObjectCount();
+
+        // int array_simple[10];
+        IExpressionDMContext[] elements = new IExpressionDMContext[10];
+        for (int i = 0; i < elements.length; i++) {
+        	elements[i] = SyncUtil.createExpression(frameDmc, String.format("array_simple[%d]", i));
+        	SyncUtil.getExpressionValue(elements[i], IFormattedValues.NATURAL_FORMAT);
+        }
+        assertEquals(created + elements.length, varManager.getCreatedVariableObjectCount());
+
+        // Variable objects are only removed when one is looked up, so the one created 
+        // last is added after the eldest ones have been removed
+        int newCount = varManager.getVariableObjectCount();
+        assertTrue("Expected at most " + (budget + 1) + " variable objects but got " + newCount, newCount <= budget + 1);
+        assertEquals(count + elements.length - newCount, varManager.getDeletedVariableObjectCount() - deleted);
+
+        // Reading a value that is not cached yet creates the deleted variable object again
+        created = varManager.getCreatedVariableObjectCount();
+        SyncUtil.getExpressionValue(elements[0], IFormattedValues.HEX_FORMAT);
+        assertEquals(created + 1, varManager.getCreatedVariableObjectCount());
+    }
+
     /**
      * This test verifies that large double arrays are properly partitioned
      */
@@ -27,6 +27,8 @@ import org.eclipse.cdt.dsf.debug.service.IMemory.IMemoryChangedEvent;
 import org.eclipse.cdt.dsf.debug.service.IMemory.IMemoryDMContext;
 import org.eclipse.cdt.dsf.debug.service.IRunControl.StepType;
 import org.eclipse.cdt.dsf.debug.service.IStack.IFrameDMContext;
+import org.eclipse.cdt.dsf.gdb.IGdbDebugPreferenceConstants;
+import org.eclipse.cdt.dsf.gdb.internal.GdbPlugin;
 import org.eclipse.cdt.dsf.mi.service.MIRunControl;
 import org.eclipse.cdt.dsf.mi.service.command.events.MIStoppedEvent;
 import org.eclipse.cdt.dsf.service.DsfServiceEventHandler;
@@ -38,6 +40,9 @@ import org.eclipse.cdt.tests.dsf.gdb.framework.BaseTestCase;
 import org.eclipse.cdt.tests.dsf.gdb.framework.SyncUtil;
 import org.eclipse.cdt.tests.dsf.gdb.launching.TestsPlugin;
 import org.eclipse.cdt.utils.Addr64;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.debug.core.model.MemoryByte;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -1629,4 +1634,81 @@ public class MIMemoryTest extends BaseTestCase {
 		assertTrue("MemoryChangedEvent problem: expected " + 0 + ", received " + getEventCount(), getEventCount() == 0);
 	}
 
+	// ------------------------------------------------------------------------
+	// memoryCacheScroll
+	// Read small windows moving backwards and forwards, like a scrolled memory
+	// view, and make sure a write is reflected in the cached memory
+	// ------------------------------------------------------------------------
+	@Test
+	public void memoryCacheScroll() throws Throwable {
+		scrollAndWrite();
+	}
+
+	// ------------------------------------------------------------------------
+	// memoryCacheScrollWithPages
+	// Same as memoryCacheScroll, with the memory cached in pages that are read
+	// ahead of the requests
+	// ------------------------------------------------------------------------
+	@Test
+	public void memoryCacheScrollWithPages() throws Throwable {
+		IEclipsePreferences node = InstanceScope.INSTANCE.getNode(GdbPlugin.PLUGIN_ID);
+		boolean paged = Platform.getPreferencesService().getBoolean(GdbPlugin.PLUGIN_ID,
+				IGdbDebugPreferenceConstants.PREF_MEMORY_CACHE_PAGED, false, null);
+		// The preference is read when the memory is accessed for the first time
+		node.putBoolean(IGdbDebugPreferenceConstants.PREF_MEMORY_CACHE_PAGED, true);
+		try {
+			scrollAndWrite();
+		} finally {
+			node.putBoolean(IGdbDebugPreferenceConstants.PREF_MEMORY_CACHE_PAGED, paged);
+		}
+	}
+
+	private void scrollAndWrite() throws Throwable {
+
+		// Run to the point where the variable is initialized
+		SyncUtil.addBreakpoint("MemoryTestApp.cc:setBlocks", true);
+		SyncUtil.resumeUntilStopped();
+		MIStoppedEvent stoppedEvent = SyncUtil.step(StepType.STEP_RETURN);
+        IFrameDMContext frameDmc = SyncUtil.getStackFrame(stoppedEvent.getDMContext(), 0);
+
+		// Setup call parameters
+		int word_size = 1;
+		int count = 16;
+		fBaseAddress = evaluateExpression(frameDmc, "&charBlock");
+
+		// Scroll backwards, then forwards
+		for (int pass = 0; pass < 2; pass++) {
+			for (int i = 0; i <= BLOCK_SIZE - count; i += count) {
+				long offset = pass == 0 ? BLOCK_SIZE - count - i : i;
+				fWait.waitReset();
+				readMemory(fMemoryDmc, fBaseAddress, offset, word_size, count);
+				fWait.waitUntilDone(AsyncCompletionWaitor.WAIT_FOREVER);
+				assertTrue(fWait.getMessage(), fWait.isOK());
+				MemoryByte[] buffer = (MemoryByte[]) fWait.getReturnInfo();
+				for (int j = 0; j < count; j++) {
+					assertTrue("Wrong value read at offset " + (offset + j) + ": expected '" + (offset + j) + "', received '" + buffer[j].getValue() + "'",
+						(buffer[j].getValue() == (byte) (offset + j)));
+				}
+			}
+		}
+
+		// Write a byte in the cached memory
+		long offset = 100;
+		byte value = (byte) 0xAA;
+		fWait.waitReset();
+		writeMemory(fMemoryDmc, fBaseAddress, offset, word_size, 1, new byte[] { value });
+		fWait.waitUntilDone(AsyncCompletionWaitor.WAIT_FOREVER);
+		assertTrue(fWait.getMessage(), fWait.isOK());
+
+		// Read it back together with its neighbors
+		fWait.waitReset();
+		readMemory(fMemoryDmc, fBaseAddress, offset - 1, word_size, 3);
+		fWait.waitUntilDone(AsyncCompletionWaitor.WAIT_FOREVER);
+		assertTrue(fWait.getMessage(), fWait.isOK());
+		MemoryByte[] buffer = (MemoryByte[]) fWait.getReturnInfo();
+		assertTrue("Wrong value read before the written byte", buffer[0].getValue() == (byte) (offset - 1));
+		assertTrue("Wrong value read for the written byte", buffer[1].getValue() == value);
+		assertTrue("Wrong value read after the written byte", buffer[2].getValue() == (byte) (offset + 1));
+	}
+
 }
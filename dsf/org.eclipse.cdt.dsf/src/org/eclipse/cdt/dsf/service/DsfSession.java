@@ -10,8 +10,12 @@
  *******************************************************************************/
 package org.eclipse.cdt.dsf.service;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -19,11 +23,10 @@ import java.util.Dictionary;
 import java.util.Formatter;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
 import org.eclipse.cdt.dsf.concurrent.ConfinedToDsfExecutor;
 import org.eclipse.cdt.dsf.concurrent.DsfExecutor;
@@ -262,6 +265,67 @@ public class DsfSession
         public int hashCode() { return fListener.hashCode(); }
     }
 
+    /** Type of the method handles that call the event handlers. */
+    private static final MethodType EVENT_HANDLER_TYPE = MethodType.methodType(void.class, Object.class);
+
+    /** 
+     * An event handler method, together with a method handle that calls it on the listener.  
+     * The method handle is created once, when the listener is added.
+     */
+    private static class EventHandler {
+        final Method fMethod;
+        /** 
+         * Calls the method on the listener, or <code>null</code> if the method is not 
+         * accessible.  Then calling it through reflection reports the error. 
+         */
+        final MethodHandle fHandle;
+
+        EventHandler(Object listener, Method method) {
+            fMethod = method;
+            MethodHandle handle = null;
+            try {
+                handle = MethodHandles.lookup().unreflect(method);
+                if (!Modifier.isStatic(method.getModifiers())) {
+                    handle = handle.bindTo(listener);
+                }
+                handle = handle.asType(EVENT_HANDLER_TYPE);
+            } catch (IllegalAccessException e) {
+                handle = null;
+            }
+            fHandle = handle;
+        }
+    }
+
+    /** A listener together with its handlers for a particular event class. */
+    private static class DispatchEntry {
+        final ListenerEntry fListenerEntry;
+        final EventHandler[] fHandlers;
+
+        DispatchEntry(ListenerEntry listenerEntry, List<EventHandler> handlers) {
+            fListenerEntry = listenerEntry;
+            fHandlers = handlers.toArray(new EventHandler[handlers.size()]);
+        }
+    }
+
+    /** 
+     * Order in which listeners are called: services in the order they were started, 
+     * followed by other listeners.
+     */
+    private static final Comparator<DispatchEntry> DISPATCH_ORDER = new Comparator<DispatchEntry>() {
+        @Override
+        public int compare(DispatchEntry e1, DispatchEntry e2) {
+            Object o1 = e1.fListenerEntry.fListener;
+            Object o2 = e2.fListenerEntry.fListener;
+            if (o1 instanceof IDsfService) {
+                if (o2 instanceof IDsfService) {
+                    return ((IDsfService)o1).getStartupNumber() - ((IDsfService)o2).getStartupNumber();
+                }
+                return -1;
+            } 
+            return o2 instanceof IDsfService ? 1 : 0;
+        }
+    };
+
     /** ID (plugin ID preferably) of the owner of this session */
     private final String fOwnerId;
     
@@ -275,7 +339,14 @@ public class DsfSession
     private int fServiceInstanceCounter;
     
     /** Map of registered event listeners. */
-    private Map<ListenerEntry,Method[]> fListeners = new HashMap<ListenerEntry,Method[]>();
+    private Map<ListenerEntry,EventHandler[]> fListeners = new LinkedHashMap<ListenerEntry,EventHandler[]>();
+
+    /** 
+     * Listeners and their handler methods for the classes of the events dispatched so far, 
+     * sorted in the order the listeners are called.  Cleared when a listener is added or 
+     * removed.
+     */
+    private final Map<Class<?>,DispatchEntry[]> fDispatchTable = new HashMap<Class<?>,DispatchEntry[]>();
     
     /** 
      * Map of registered adapters, for implementing the <code>IDMContext.getAdapter()</code> 
@@ -329,7 +400,13 @@ public class DsfSession
         			).toString();
         	DsfPlugin.debug(msg);
         }
-        fListeners.put(entry, getEventHandlerMethods(listener));
+        Method[] methods = getEventHandlerMethods(listener);
+        EventHandler[] handlers = new EventHandler[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            handlers[i] = new EventHandler(listener, methods[i]);
+        }
+        fListeners.put(entry, handlers);
+        fDispatchTable.clear();
     }
     
     /**
@@ -353,6 +430,7 @@ public class DsfSession
         	DsfPlugin.debug(msg);
         }
         fListeners.remove(entry);
+        fDispatchTable.clear();
     }
 
     /**
@@ -466,57 +544,32 @@ public class DsfSession
         @SuppressWarnings("unchecked") 
         Dictionary<String,?> serviceProperties = (Dictionary<String,?>)_serviceProperties;
         
-        // Build a list of listeners;
-        SortedMap<ListenerEntry,List<Method>> listeners = new TreeMap<ListenerEntry,List<Method>>(new Comparator<ListenerEntry>() {
-            @Override
-                public int compare(ListenerEntry o1, ListenerEntry o2) {
-                    if (o1.fListener == o2.fListener) {
-                        return 0;
-                    } if (o1.fListener instanceof IDsfService && !(o2.fListener instanceof IDsfService)) {
-                        return -1;
-                    } else if (o2.fListener instanceof IDsfService && !(o1.fListener instanceof IDsfService)) {
-                        return 1;
-                    } else if ( (o1.fListener instanceof IDsfService) && (o2.fListener instanceof IDsfService) ) {
-                        return ((IDsfService)o1.fListener).getStartupNumber() - ((IDsfService)o2.fListener).getStartupNumber();
-                    }
-                    return 1;
-                }
-                
-                @Override
-                public boolean equals(Object obj) {
-                    return obj == this;
-                }
-            });
-
-        // Build a list of listeners and methods that are registered for this event class.
-        Class<?> eventClass = event.getClass();
-        for (Map.Entry<ListenerEntry,Method[]> entry : fListeners.entrySet()) {
-            if (entry.getKey().fFilter != null && !entry.getKey().fFilter.match(serviceProperties)) {
+        // Listeners and methods that are registered for this event class.
+        DispatchEntry[] dispatchEntries = getDispatchEntries(event.getClass());
+        
+        // Call the listeners
+        for (DispatchEntry entry : dispatchEntries) {
+            Filter filter = entry.fListenerEntry.fFilter;
+            if (filter != null && !filter.match(serviceProperties)) {
                 // Dispatching service doesn't match the listener's filter, skip it.
                 continue;
             }
-            Method[] allMethods = entry.getValue();
-            List<Method> matchingMethods = new ArrayList<Method>();
-            for (Method method : allMethods) {
-            	assert method.getParameterTypes().length > 0 : eventClass.getName() + "." + method.getName() //$NON-NLS-1$
-            		+ " signature contains zero parameters"; //$NON-NLS-1$
-    	    	if ( method.getParameterTypes()[0].isAssignableFrom(eventClass) ) {
-                    matchingMethods.add(method);
-                }
-            }
-            if (!matchingMethods.isEmpty()) {
-                listeners.put(entry.getKey(), matchingMethods);
-            }
-        }
-        
-        // Call the listeners
-        for (Map.Entry<ListenerEntry,List<Method>> entry : listeners.entrySet()) {
-            for (Method method : entry.getValue()) {
+            Object listener = entry.fListenerEntry.fListener;
+            for (EventHandler handler : entry.fHandlers) {
                 try {
                     if (DEBUG_SESSION_DISPATCHES) {
-                    	DsfPlugin.debug(DsfPlugin.getDebugTime() + " Listener " + LoggingUtils.toString(entry.getKey().fListener) + " invoked with event " + LoggingUtils.toString(event));  //$NON-NLS-1$ //$NON-NLS-2$
+                    	DsfPlugin.debug(DsfPlugin.getDebugTime() + " Listener " + LoggingUtils.toString(listener) + " invoked with event " + LoggingUtils.toString(event));  //$NON-NLS-1$ //$NON-NLS-2$
+                    }
+                    if (handler.fHandle != null) {
+                        try {
+                            handler.fHandle.invokeExact(event);
+                        } catch (Throwable t) {
+                            // Report it like an exception thrown through reflection.
+                            throw new InvocationTargetException(t);
+                        }
+                    } else {
+                        handler.fMethod.invoke(listener, new Object[] { event });
                     }
-                    method.invoke(entry.getKey().fListener, new Object[] { event } );
                 }
                 catch (IllegalAccessException e) {
                     DsfPlugin.getDefault().getLog().log(new Status(
@@ -532,6 +585,38 @@ public class DsfSession
         }
     }
 
+    /**
+     * Returns the listeners and their handler methods for events of the given class, 
+     * in the order in which they are to be called.  The result is computed once per
+     * event class and reused until the listeners change.
+     */
+    private DispatchEntry[] getDispatchEntries(Class<?> eventClass) {
+        DispatchEntry[] result = fDispatchTable.get(eventClass);
+        if (result == null) {
+            List<DispatchEntry> entries = new ArrayList<DispatchEntry>();
+            for (Map.Entry<ListenerEntry,EventHandler[]> entry : fListeners.entrySet()) {
+                List<EventHandler> matchingHandlers = new ArrayList<EventHandler>();
+                for (EventHandler handler : entry.getValue()) {
+                    Method method = handler.fMethod;
+                    assert method.getParameterTypes().length > 0 : eventClass.getName() + "." + method.getName() //$NON-NLS-1$
+                        + " signature contains zero parameters"; //$NON-NLS-1$
+                    if ( method.getParameterTypes()[0].isAssignableFrom(eventClass) ) {
+                        matchingHandlers.add(handler);
+                    }
+                }
+                if (!matchingHandlers.isEmpty()) {
+                    entries.add(new DispatchEntry(entry.getKey(), matchingHandlers));
+                }
+            }
+            // The sort is stable, listeners other than services are called in the order 
+            // they were added.
+            Collections.sort(entries, DISPATCH_ORDER);
+            result = entries.toArray(new DispatchEntry[entries.size()]);
+            fDispatchTable.put(eventClass, result);
+        }
+        return result;
+    }
+
 	/**
 	 * DSF event handlers don't implement any particular interfaces. They
 	 * declare one or more methods that are annotated with
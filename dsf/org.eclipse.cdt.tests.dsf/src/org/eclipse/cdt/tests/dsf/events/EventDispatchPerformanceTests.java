@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Eclipse CDT contributors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse CDT contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.cdt.tests.dsf.events;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.cdt.dsf.concurrent.DsfRunnable;
+import org.eclipse.cdt.dsf.service.DsfServiceEventHandler;
+import org.eclipse.cdt.dsf.service.DsfSession;
+import org.eclipse.cdt.tests.dsf.TestDsfExecutor;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+
+/**
+ * Tests to measure the performance of dispatching service events to the listeners of a session.
+ */
+public class EventDispatchPerformanceTests extends TestCase {
+    private static final int LISTENER_COUNT = 20;
+    private static final int EVENT_COUNT = 10000;
+
+    public static class DispatchedEvent {}
+    public static class OtherDispatchedEvent extends DispatchedEvent {}
+    public static class IgnoredEvent {}
+
+    /** Listener with handlers for some of the events. */
+    public static class Listener {
+        int fCount;
+
+        @DsfServiceEventHandler public void eventDispatched(DispatchedEvent e) {
+            fCount++;
+        }
+
+        @DsfServiceEventHandler public void eventDispatched(IgnoredEvent e) {
+            fail("Unexpected event"); //$NON-NLS-1$
+        }
+    }
+
+    private TestDsfExecutor fExecutor;
+    private DsfSession fSession;
+    private final List<Listener> fListeners = new ArrayList<Listener>();
+
+    public EventDispatchPerformanceTests(String name) {
+        super(name);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        fExecutor = new TestDsfExecutor();
+        fExecutor.submit(new DsfRunnable() { public void run() {
+            fSession = DsfSession.startSession(fExecutor, "org.eclipse.cdt.tests.dsf"); //$NON-NLS-1$
+            for (int i = 0; i < LISTENER_COUNT; i++) {
+                Listener listener = new Listener();
+                fSession.addServiceEventListener(listener, null);
+                fListeners.add(listener);
+            }
+        }}).get();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        fExecutor.submit(new DsfRunnable() { public void run() {
+            for (Listener listener : fListeners) {
+                fSession.removeServiceEventListener(listener);
+            }
+            DsfSession.endSession(fSession);
+            fExecutor.shutdown();
+        }}).get();
+        if (fExecutor.exceptionsCaught()) {
+            fail(fExecutor.getExceptions()[0].toString());
+        }
+    }
+
+    private void measureDispatch(Object[] events) throws Exception {
+        Performance perf = Performance.getDefault();
+        PerformanceMeter meter = perf.createPerformanceMeter(perf.getDefaultScenarioId(this));
+        try {
+            for (int x = 0; x < 100; x++) {
+                System.gc();
+                meter.start();
+                for (int i = 0; i < EVENT_COUNT; i++) {
+                    fSession.dispatchEvent(events[i % events.length], null);
+                }
+                // Wait for the executor to dispatch all events.
+                fExecutor.submit(new DsfRunnable() { public void run() {} }).get();
+                meter.stop();
+            }
+            meter.commit();
+            perf.assertPerformance(meter);
+        } finally {
+            meter.dispose();
+        }
+        for (Listener listener : fListeners) {
+            assertEquals(100 * EVENT_COUNT, listener.fCount);
+        }
+    }
+
+    public void testDispatchEvent() throws Exception {
+        measureDispatch(new Object[] { new DispatchedEvent() });
+    }
+
+    public void testDispatchEventsOfDifferentClasses() throws Exception {
+        measureDispatch(new Object[] { new DispatchedEvent(), new OtherDispatchedEvent() });
+    }
+}
@@ -13,6 +13,7 @@ package org.eclipse.cdt.tests.dsf.events;
 import java.util.concurrent.ExecutionException;
 
 import org.eclipse.cdt.dsf.concurrent.DsfRunnable;
+import org.eclipse.cdt.dsf.service.DsfServiceEventHandler;
 import org.eclipse.cdt.dsf.service.DsfServicesTracker;
 import org.eclipse.cdt.dsf.service.DsfSession;
 import org.eclipse.cdt.tests.dsf.DsfTestPlugin;
@@ -24,6 +25,15 @@ import org.junit.Test;
 
 public class EventTest {
     
+    /** Listener that is not a service, it is called after all services. */
+    public static class Listener {
+        int fEvent1RecipientNumber;
+        
+        @DsfServiceEventHandler public void eventDispatched(AbstractService.Event1 e) {
+            fEvent1RecipientNumber = e.fRecipientNumberCounter++;
+        }
+    }
+    
     DsfSession fSession;
     TestDsfExecutor fExecutor;
     DsfServicesTracker fTracker;
@@ -224,4 +234,38 @@ public class EventTest {
             Assert.assertTrue(0 == fService4.fEvent3RecipientNumber);	// service 4 specified filter to receive events only from service 2
         }}).get();
     }
+
+    /**
+     * Tests that listeners added or removed after an event was dispatched are 
+     * taken into account when the event is dispatched again.
+     */
+    @Test public void listenerChangeTest() throws ExecutionException, InterruptedException {
+        final Listener listener = new Listener();
+        
+        fService1.dispatchEvent1();
+        fExecutor.submit(new DsfRunnable() { public void run() {
+            Assert.assertTrue(3 == fService3.fEvent1RecipientNumber);
+            fSession.addServiceEventListener(listener, null);
+            fService1.fEvent1RecipientNumber = 
+            fService2.fEvent1RecipientNumber =
+            fService3.fEvent1RecipientNumber = 0;
+        }}).get();
+        
+        fService1.dispatchEvent1();
+        fExecutor.submit(new DsfRunnable() { public void run() {
+            Assert.assertTrue(1 == fService1.fEvent1RecipientNumber);
+            Assert.assertTrue(2 == fService2.fEvent1RecipientNumber);
+            Assert.assertTrue(3 == fService3.fEvent1RecipientNumber);
+            Assert.assertTrue(0 == fService4.fEvent1RecipientNumber);
+            Assert.assertTrue(4 == listener.fEvent1RecipientNumber);
+            fSession.removeServiceEventListener(listener);
+            listener.fEvent1RecipientNumber = 0;
+        }}).get();
+        
+        fService1.dispatchEvent1();
+        fExecutor.submit(new DsfRunnable() { public void run() {
+            Assert.assertTrue(1 == fService1.fEvent1RecipientNumber);
+            Assert.assertTrue(0 == listener.fEvent1RecipientNumber);
+        }}).get();
+    }
 }